@@ -460,10 +460,17 @@ public abstract class Doc<DocLineType extends DocLine<?>>
 		services.fireBeforePostEvent(getPO());
 
 		//
-		// Save facts
-		for (final Fact fact : facts)
+		// Save facts (in JDBC batches, if enabled)
+		if (services.isBatchInsertFactAcct() && FactAcctBatchWriter.isApplicable(getClientId()))
+		{
+			FactAcctBatchWriter.saveAll(getClientId(), facts);
+		}
+		else
 		{
-			fact.save();
+			for (final Fact fact : facts)
+			{
+				fact.save();
+			}
 		}
 
 		//
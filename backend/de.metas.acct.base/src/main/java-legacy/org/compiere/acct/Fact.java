@@ -771,24 +771,32 @@ public final class Fact
 	}    // getLines
 
 	public void save()
+	{
+		save(line -> InterfaceWrapperHelper.save(line, ITrx.TRXNAME_ThreadInherited));
+	}
+
+	/**
+	 * Passes the lines to given saver, debit/credit line before its counterpart lines.
+	 */
+	void save(@NonNull final Consumer<FactLine> lineSaver)
 	{
 		factTrxLinesStrategy
 				.createFactTrxLines(m_lines)
-				.forEach(this::save);
+				.forEach(factTrxLines -> save(factTrxLines, lineSaver));
 	}
 
-	private void save(final FactTrxLines factTrxLines)
+	private void save(final FactTrxLines factTrxLines, final Consumer<FactLine> lineSaver)
 	{
 		//
 		// Case: 1 debit line, one or more credit lines
 		if (factTrxLines.getType() == FactTrxLinesType.Debit)
 		{
 			final FactLine drLine = factTrxLines.getDebitLine();
-			InterfaceWrapperHelper.save(drLine, ITrx.TRXNAME_ThreadInherited);
+			lineSaver.accept(drLine);
 
 			factTrxLines.forEachCreditLine(crLine -> {
 				crLine.setCounterpart_Fact_Acct_ID(drLine.getFact_Acct_ID());
-				InterfaceWrapperHelper.save(crLine, ITrx.TRXNAME_ThreadInherited);
+				lineSaver.accept(crLine);
 			});
 
 		}
@@ -797,11 +805,11 @@ public final class Fact
 		else if (factTrxLines.getType() == FactTrxLinesType.Credit)
 		{
 			final FactLine crLine = factTrxLines.getCreditLine();
-			InterfaceWrapperHelper.save(crLine, ITrx.TRXNAME_ThreadInherited);
+			lineSaver.accept(crLine);
 
 			factTrxLines.forEachDebitLine(drLine -> {
 				drLine.setCounterpart_Fact_Acct_ID(crLine.getFact_Acct_ID());
-				InterfaceWrapperHelper.save(drLine, ITrx.TRXNAME_ThreadInherited);
+				lineSaver.accept(drLine);
 			});
 		}
 		//
@@ -817,7 +825,7 @@ public final class Fact
 
 		//
 		// also save the zero lines, if they are here
-		factTrxLines.forEachZeroLine(zeroLine -> InterfaceWrapperHelper.save(zeroLine, ITrx.TRXNAME_ThreadInherited));
+		factTrxLines.forEachZeroLine(lineSaver);
 	}
 
 	public void forEach(final Consumer<FactLine> consumer)
@@ -0,0 +1,236 @@
+package org.compiere.acct;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.IModelCacheInvalidationService;
+import de.metas.cache.model.ModelCacheInvalidationTiming;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.service.ClientId;
+import org.compiere.model.I_Fact_Acct;
+import org.compiere.model.MSequence;
+import org.compiere.model.ModelValidationEngine;
+import org.compiere.model.Null;
+import org.compiere.model.POInfo;
+import org.compiere.util.DB;
+
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2026 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Inserts the {@link FactLine}s of a document's {@link Fact}s with JDBC batches, instead of saving them one by one via {@link org.compiere.model.PO#saveEx()}.
+ * <p>
+ * The IDs of all lines are reserved with one sequence call, so the counterpart IDs can be set before anything is inserted.
+ * {@link FactLine#beforeSave(boolean)} is still called for each line; lines with the same set of non-null columns are inserted with one {@link PreparedStatement}.
+ * <p>
+ * Model interceptors are not fired. That's why {@link #isApplicable(ClientId)} returns false if there are any registered for Fact_Acct.
+ * An insert error fails the whole document's posting and names the failing line.
+ * The lines are still flagged as new after {@link #flush()}, so they must not be saved again.
+ */
+final class FactAcctBatchWriter
+{
+	private static final String TABLENAME = I_Fact_Acct.Table_Name;
+
+	private final IModelCacheInvalidationService modelCacheInvalidationService = Services.get(IModelCacheInvalidationService.class);
+
+	private final POInfo poInfo = POInfo.getPOInfo(TABLENAME);
+	private final Iterator<Integer> reservedIds;
+	private final List<FactLine> lines = new ArrayList<>();
+
+	private FactAcctBatchWriter(@NonNull final List<Integer> reservedIds)
+	{
+		this.reservedIds = reservedIds.iterator();
+	}
+
+	/**
+	 * @return false if Fact_Acct has model interceptors; those need the records to be saved via {@link org.compiere.model.PO#saveEx()}.
+	 */
+	static boolean isApplicable(@NonNull final ClientId clientId)
+	{
+		return !ModelValidationEngine.get().hasModelChangeListeners(TABLENAME, clientId.getRepoId());
+	}
+
+	static void saveAll(@NonNull final ClientId clientId, @NonNull final List<Fact> facts)
+	{
+		final int linesCount = facts.stream().mapToInt(fact -> fact.getLines().length).sum();
+		if (linesCount <= 0)
+		{
+			return;
+		}
+
+		final FactAcctBatchWriter writer = new FactAcctBatchWriter(retrieveNextIds(clientId, linesCount));
+		for (final Fact fact : facts)
+		{
+			fact.save(writer::add);
+		}
+		writer.flush();
+	}
+
+	private static List<Integer> retrieveNextIds(@NonNull final ClientId clientId, final int count)
+	{
+		if (DB.isUseNativeSequences(clientId.getRepoId(), TABLENAME))
+		{
+			return DB.retrieveNextIDsOutOfTrx(DB.getTableSequenceName(TABLENAME), count);
+		}
+		else if (MSequence.isIdBlockAllocationAllowed(clientId.getRepoId(), TABLENAME))
+		{
+			return MSequence.reserveNextIDs(TABLENAME, count);
+		}
+		else
+		{
+			final ArrayList<Integer> ids = new ArrayList<>(count);
+			for (int i = 0; i < count; i++)
+			{
+				ids.add(DB.getNextID(clientId.getRepoId(), TABLENAME, ITrx.TRXNAME_ThreadInherited));
+			}
+			return ids;
+		}
+	}
+
+	private void add(@NonNull final FactLine line)
+	{
+		if (!line.is_new())
+		{
+			throw new AdempiereException("Only new lines can be inserted: " + line);
+		}
+		if (!line.beforeSave(true))
+		{
+			throw new AdempiereException("beforeSave failed - " + line);
+		}
+		if (!reservedIds.hasNext())
+		{
+			throw new AdempiereException("No more reserved IDs for " + line);
+		}
+
+		line.setFact_Acct_ID(reservedIds.next());
+		lines.add(line);
+	}
+
+	private void flush()
+	{
+		final Map<ImmutableList<String>, List<FactLine>> linesByColumnNames = new LinkedHashMap<>();
+		for (final FactLine line : lines)
+		{
+			linesByColumnNames.computeIfAbsent(extractColumnNames(line), columnNames -> new ArrayList<>())
+					.add(line);
+		}
+
+		linesByColumnNames.forEach(this::insert);
+
+		modelCacheInvalidationService.invalidate(
+				CacheInvalidateMultiRequest.fromTableNameAndRecordIds(TABLENAME, lines.stream().map(FactLine::getFact_Acct_ID).collect(Collectors.toList())),
+				ModelCacheInvalidationTiming.NEW);
+	}
+
+	/**
+	 * @return the columns to insert; like {@link org.compiere.model.PO}, null values are skipped, so the database defaults apply
+	 */
+	private ImmutableList<String> extractColumnNames(@NonNull final FactLine line)
+	{
+		final ImmutableList.Builder<String> columnNames = ImmutableList.builder();
+		for (int i = 0, size = poInfo.getColumnCount(); i < size; i++)
+		{
+			if (!poInfo.isVirtualColumn(i) && line.get_Value(i) != null)
+			{
+				columnNames.add(poInfo.getColumnName(i));
+			}
+		}
+		return columnNames.build();
+	}
+
+	private void insert(@NonNull final ImmutableList<String> columnNames, @NonNull final List<FactLine> lines)
+	{
+		final String sql = "INSERT INTO " + TABLENAME + " (" + String.join(",", columnNames) + ")"
+				+ " VALUES (" + columnNames.stream().map(columnName -> "?").collect(Collectors.joining(",")) + ")";
+
+		PreparedStatement pstmt = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+			for (final FactLine line : lines)
+			{
+				DB.setParameters(pstmt, extractParams(columnNames, line));
+				pstmt.addBatch();
+			}
+
+			pstmt.executeBatch();
+		}
+		catch (final BatchUpdateException ex)
+		{
+			final FactLine failedLine = lines.get(getFailedIndex(ex, lines.size()));
+			throw new DBException(ex, sql, extractParams(columnNames, failedLine))
+					.setParameter("factLine", failedLine)
+					.appendParametersToMessage();
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql);
+		}
+		finally
+		{
+			DB.close(pstmt);
+		}
+	}
+
+	private List<Object> extractParams(@NonNull final List<String> columnNames, @NonNull final FactLine line)
+	{
+		final List<Object> params = new ArrayList<>(columnNames.size());
+		for (final String columnName : columnNames)
+		{
+			final Object value = line.get_Value(columnName);
+			params.add(Null.NULL.equals(value) ? null : value);
+		}
+		return params;
+	}
+
+	private static int getFailedIndex(@NonNull final BatchUpdateException ex, final int batchSize)
+	{
+		final int[] updateCounts = ex.getUpdateCounts();
+		if (updateCounts == null)
+		{
+			return 0;
+		}
+		for (int i = 0; i < updateCounts.length; i++)
+		{
+			if (updateCounts[i] == Statement.EXECUTE_FAILED)
+			{
+				return i;
+			}
+		}
+		// the driver stopped at the failed statement
+		return Math.min(updateCounts.length, batchSize - 1);
+	}
+}
@@ -25,10 +25,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.TreeSet;
 
 import javax.annotation.Nullable;
 
+import com.google.common.collect.ImmutableSet;
+
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
 import org.adempiere.ad.dao.impl.LpadQueryFilterModifier;
@@ -52,6 +55,9 @@ import org.compiere.util.TimeUtil;
 import org.compiere.util.TrxRunnable2;
 
 import de.metas.acct.api.AcctSchemaElementType;
+import de.metas.acct.api.AcctSchemaId;
+import de.metas.acct.cube.FactAcctColumnarCube;
+import de.metas.acct.cube.IFactAcctColumnarCubeBL;
 import de.metas.acct.cube.IFactAcctCubeBL;
 import de.metas.logging.LogManager;
 import de.metas.process.JavaProcess;
@@ -123,6 +129,8 @@ public class FinReport extends JavaProcess
 	private MReportColumn[] m_columns;
 	/** The Report Lines */
 	private MReportLine[] m_lines;
+	/** Computes the line values from the in-memory cube, if enabled; see {@link #createColumnarCubeCalculatorOrNull()} */
+	private FinReportColumnarCubeCalculator m_columnarCubeCalculator;
 
 	/**
 	 * Prepare - e.g., get Parameters.
@@ -258,17 +266,7 @@ public class FinReport extends JavaProcess
 	{
 		if (p_C_ElementValue_ID > 0 && p_C_ElementValue_ID_To > 0)
 		{
-			final I_C_ElementValue elementValueFrom = InterfaceWrapperHelper.create(getCtx(), p_C_ElementValue_ID, I_C_ElementValue.class, ITrx.TRXNAME_None);
-			final I_C_ElementValue elementValueTo = InterfaceWrapperHelper.create(getCtx(), p_C_ElementValue_ID_To, I_C_ElementValue.class, ITrx.TRXNAME_None);
-
-			final LpadQueryFilterModifier lpadModifier = new LpadQueryFilterModifier(20, "0");
-			final List<Integer> elementValueIds = Services.get(IQueryBL.class)
-					.createQueryBuilder(I_C_ElementValue.class, this)
-					.addCompareFilter(I_C_ElementValue.COLUMNNAME_Value, Operator.GREATER_OR_EQUAL, elementValueFrom.getValue(), lpadModifier)
-					.addCompareFilter(I_C_ElementValue.COLUMNNAME_Value, Operator.LESS_OR_EQUAL, elementValueTo.getValue(), lpadModifier)
-					.create()
-					.listIds();
-
+			final List<Integer> elementValueIds = retrieveElementValueIdsInParameterRange();
 			final String sql = DB.buildSqlList(elementValueIds, whereClauseSqlParams);
 			whereClause.append(" AND ").append(AcctSchemaElementType.Account.getColumnName()).append(" IN ").append(sql);
 		}
@@ -289,6 +287,20 @@ public class FinReport extends JavaProcess
 		}
 	}
 
+	private List<Integer> retrieveElementValueIdsInParameterRange()
+	{
+		final I_C_ElementValue elementValueFrom = InterfaceWrapperHelper.create(getCtx(), p_C_ElementValue_ID, I_C_ElementValue.class, ITrx.TRXNAME_None);
+		final I_C_ElementValue elementValueTo = InterfaceWrapperHelper.create(getCtx(), p_C_ElementValue_ID_To, I_C_ElementValue.class, ITrx.TRXNAME_None);
+
+		final LpadQueryFilterModifier lpadModifier = new LpadQueryFilterModifier(20, "0");
+		return Services.get(IQueryBL.class)
+				.createQueryBuilder(I_C_ElementValue.class, this)
+				.addCompareFilter(I_C_ElementValue.COLUMNNAME_Value, Operator.GREATER_OR_EQUAL, elementValueFrom.getValue(), lpadModifier)
+				.addCompareFilter(I_C_ElementValue.COLUMNNAME_Value, Operator.LESS_OR_EQUAL, elementValueTo.getValue(), lpadModifier)
+				.create()
+				.listIds();
+	}
+
 	private void appendParametersWhereClause(final StringBuilder sql, final List<Object> sqlParamsOut)
 	{
 		sql.append(m_parameterWhere);
@@ -399,6 +411,7 @@ public class FinReport extends JavaProcess
 			throw new AdempiereUserError("@No@ @PA_ReportLine_ID@");
 
 		includeSublines(); // metas-2009_0021_AP1_CR080
+		m_columnarCubeCalculator = createColumnarCubeCalculatorOrNull();
 		// for all lines
 		for (int line = 0; line < m_lines.length; line++)
 		{
@@ -437,6 +450,12 @@ public class FinReport extends JavaProcess
 			return;
 		}
 
+		if (m_columnarCubeCalculator != null && FinReportColumnarCubeCalculator.isSupported(paReportLine, m_columns))
+		{
+			insertLineFromColumnarCube(paReportLine);
+			return;
+		}
+
 		final boolean isSuppressZeroLine = paReportLine.isSuppressZeroLine();	// metas-2009_0021_AP1_CR080
 		boolean isZeroLine = isSuppressZeroLine ? true : false;					// metas-2009_0021_AP1_CR080
 		final StringBuilder update = new StringBuilder();
@@ -647,6 +666,118 @@ public class FinReport extends JavaProcess
 		}
 	}	// insertLine
 
+	/**
+	 * @return the calculator if the columnar cube is enabled and the report's parameters only restrict by account and organization; else <code>null</code>, i.e. use SQL
+	 */
+	@Nullable
+	private FinReportColumnarCubeCalculator createColumnarCubeCalculatorOrNull()
+	{
+		if (p_PA_ReportCube_ID > 0
+				|| p_C_BPartner_ID != 0 || p_M_Product_ID != 0 || p_C_Project_ID != 0 || p_C_Activity_ID != 0 || p_C_SalesRegion_ID != 0
+				|| p_C_Campaign_ID != 0 || p_User1_ID != 0 || p_User2_ID != 0 || p_UserElement1_ID != 0 || p_UserElement2_ID != 0)
+		{
+			return null;
+		}
+
+		final FactAcctColumnarCube cube;
+		try
+		{
+			cube = Services.get(IFactAcctColumnarCubeBL.class).getCubeIfEnabled(getClientId()).orElse(null);
+		}
+		catch (final RuntimeException ex)
+		{
+			log.warn("Failed getting the columnar cube. Using SQL.", ex);
+			return null;
+		}
+		if (cube == null)
+		{
+			return null;
+		}
+
+		final Set<Integer> parameterAccountIds;
+		if (p_C_ElementValue_ID > 0 && p_C_ElementValue_ID_To > 0)
+		{
+			parameterAccountIds = ImmutableSet.copyOf(retrieveElementValueIdsInParameterRange());
+		}
+		else if (p_C_ElementValue_ID > 0 || p_C_ElementValue_ID_To > 0)
+		{
+			final int elementValueId = p_C_ElementValue_ID > 0 ? p_C_ElementValue_ID : p_C_ElementValue_ID_To;
+			parameterAccountIds = ImmutableSet.copyOf(MReportTree.getChildIDs(getCtx(), p_PA_Hierarchy_ID, AcctSchemaElementType.Account, elementValueId));
+		}
+		else
+		{
+			parameterAccountIds = null;
+		}
+
+		final Set<Integer> parameterOrgIds = p_Org_ID != 0
+				? ImmutableSet.copyOf(MReportTree.getChildIDs(getCtx(), p_PA_Hierarchy_ID, AcctSchemaElementType.Organization, p_Org_ID))
+				: null;
+
+		return FinReportColumnarCubeCalculator.builder()
+				.cube(cube)
+				.acctSchemaId(AcctSchemaId.ofRepoId(m_report.getC_AcctSchema_ID()))
+				.ctx(getCtx())
+				.PA_Hierarchy_ID(p_PA_Hierarchy_ID)
+				.parameterAccountIds(parameterAccountIds)
+				.parameterOrgIds(parameterOrgIds)
+				.build();
+	}
+
+	/**
+	 * Same as {@link #insertLine(int)}, but computes the values from the columnar cube.
+	 */
+	private void insertLineFromColumnarCube(final MReportLine paReportLine)
+	{
+		boolean isZeroLine = paReportLine.isSuppressZeroLine();
+		final StringBuilder update = new StringBuilder();
+		final List<Object> updateSqlParams = new ArrayList<>();
+
+		for (int paReportColumnIndex = 0; paReportColumnIndex < m_columns.length; paReportColumnIndex++)
+		{
+			final MReportColumn paReportColumn = m_columns[paReportColumnIndex];
+			if (paReportColumn.isColumnTypeCalculation())
+			{
+				continue;
+			}
+
+			final BigDecimal relativeOffset = paReportColumn.isColumnTypeRelativePeriod() ? paReportColumn.getRelativePeriod() : null;
+			final BigDecimal value = m_columnarCubeCalculator.computeValue(paReportLine, paReportColumn, getPeriod(relativeOffset));
+			if (value != null)
+			{
+				isZeroLine = false;
+			}
+
+			if (update.length() > 0)
+			{
+				update.append(", ");
+			}
+			update.append("Col_").append(paReportColumnIndex).append("=?");
+			updateSqlParams.add(value);
+		}
+
+		if (isZeroLine)
+		{
+			final String sql = "DELETE FROM T_Report WHERE AD_PInstance_ID=? AND PA_ReportLine_ID=?";
+			final int no = DB.executeUpdateAndThrowExceptionOnFail(sql,
+																   new Object[] { getAD_PInstance_ID(), paReportLine.getPA_ReportLine_ID() },
+																   get_TrxName());
+			if (no != 1)
+				log.error("#=" + no + " for " + sql);
+		}
+		else if (update.length() > 0)
+		{
+			update.insert(0, "UPDATE T_Report SET ");
+			update.append(" WHERE AD_PInstance_ID=? AND PA_ReportLine_ID=? AND ABS(LevelNo)<2");	// 0=Line 1=Acct
+			updateSqlParams.add(getAD_PInstance_ID());
+			updateSqlParams.add(paReportLine.getPA_ReportLine_ID());
+			final int no = DB.executeUpdateAndThrowExceptionOnFail(update.toString(),
+																   updateSqlParams.toArray(),
+																   get_TrxName());
+			if (no != 1)
+				log.error("#=" + no + " for " + update);
+		}
+	}
+
 	/**
 	 * Checks if given select SQL returns NULL {@link BigDecimal} and if so, replaces the select with "NULL"
 	 * 
@@ -0,0 +1,399 @@
+package org.compiere.report;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import de.metas.acct.api.AcctSchemaElementType;
+import de.metas.acct.api.AcctSchemaId;
+import de.metas.acct.cube.FactAcctColumnarCube;
+import de.metas.acct.cube.FactAcctColumnarCubeAmounts;
+import de.metas.acct.cube.FactAcctColumnarCubeQuery;
+import de.metas.organization.OrgId;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import org.adempiere.ad.dao.IQueryBL;
+import org.compiere.model.I_C_ElementValue;
+import org.compiere.model.X_C_ElementValue;
+import org.compiere.model.X_PA_ReportColumn;
+import org.compiere.model.X_PA_ReportLine;
+import org.compiere.model.X_PA_ReportSource;
+import org.compiere.util.TimeUtil;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Computes the {@link FinReport} values of segment value lines from a {@link FactAcctColumnarCube} instead of running one SQL per line and column.
+ * <p>
+ * The results are the same as the ones of {@link FinReport}'s SQL, but only reports which restrict by account and organization are supported, see {@link #isSupported(MReportLine, MReportColumn[])}.
+ */
+/* package */ final class FinReportColumnarCubeCalculator
+{
+	private static final ImmutableSet<String> INCOME_STATEMENT_ACCOUNT_TYPES = ImmutableSet.of(X_C_ElementValue.ACCOUNTTYPE_Revenue, X_C_ElementValue.ACCOUNTTYPE_Expense);
+
+	private final FactAcctColumnarCube cube;
+	private final AcctSchemaId acctSchemaId;
+	private final Properties ctx;
+	private final int PA_Hierarchy_ID;
+	@Nullable
+	private final ImmutableSet<Integer> parameterAccountIds;
+	@Nullable
+	private final ImmutableSet<Integer> parameterOrgIds;
+
+	private final Map<FactAcctColumnarCubeQuery, ImmutableMap<Integer, FactAcctColumnarCubeAmounts>> sumsByQuery = new HashMap<>();
+	private ImmutableMap<Integer, AccountInfo> _accountsById;
+
+	@Builder
+	private FinReportColumnarCubeCalculator(
+			@NonNull final FactAcctColumnarCube cube,
+			@NonNull final AcctSchemaId acctSchemaId,
+			@NonNull final Properties ctx,
+			final int PA_Hierarchy_ID,
+			@Nullable final Set<Integer> parameterAccountIds,
+			@Nullable final Set<Integer> parameterOrgIds)
+	{
+		this.cube = cube;
+		this.acctSchemaId = acctSchemaId;
+		this.ctx = ctx;
+		this.PA_Hierarchy_ID = PA_Hierarchy_ID;
+		this.parameterAccountIds = parameterAccountIds != null ? ImmutableSet.copyOf(parameterAccountIds) : null;
+		this.parameterOrgIds = parameterOrgIds != null ? ImmutableSet.copyOf(parameterOrgIds) : null;
+	}
+
+	/**
+	 * @return true if all values of the given line can be computed from the cube
+	 */
+	public static boolean isSupported(@NonNull final MReportLine line, @NonNull final MReportColumn[] columns)
+	{
+		for (final MReportSource source : line.getSources())
+		{
+			final String elementType = source.getElementType();
+			if (!X_PA_ReportSource.ELEMENTTYPE_Account.equals(elementType)
+					&& !X_PA_ReportSource.ELEMENTTYPE_Organization.equals(elementType))
+			{
+				return false;
+			}
+		}
+		if (line.isPostingType() && X_PA_ReportLine.POSTINGTYPE_Budget.equals(line.getPostingType()) && line.getGL_Budget_ID() > 0)
+		{
+			return false;
+		}
+
+		for (final MReportColumn column : columns)
+		{
+			if (column.isColumnTypeCalculation())
+			{
+				continue;
+			}
+			if (line.getPAAmountType() == null && column.getPAAmountType() == null)
+			{
+				return false;
+			}
+			if (line.getPAPeriodType() == null && column.getPAPeriodType() == null)
+			{
+				return false;
+			}
+			if (column.isColumnTypeSegmentValue()
+					&& !X_PA_ReportColumn.ELEMENTTYPE_Account.equals(column.getElementType())
+					&& !X_PA_ReportColumn.ELEMENTTYPE_Organization.equals(column.getElementType()))
+			{
+				return false;
+			}
+			if (!line.isPostingType() && X_PA_ReportColumn.POSTINGTYPE_Budget.equals(column.getPostingType()) && column.getGL_Budget_ID() > 0)
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return the value of the given line and column or <code>null</code> if there are no matching <code>Fact_Acct</code> records, like SQL's <code>SUM</code>
+	 */
+	@Nullable
+	public BigDecimal computeValue(
+			@NonNull final MReportLine line,
+			@NonNull final MReportColumn column,
+			@NonNull final FinReportPeriod period)
+	{
+		return computeValue(
+				getAccountIds(line, column),
+				getOrgIds(line, column),
+				line.isPostingType() ? line.getPostingType() : column.getPostingType(),
+				line.getPAAmountType() != null ? line.getPAAmountType() : column.getPAAmountType(),
+				line.getPAPeriodType() != null ? line.getPAPeriodType() : column.getPAPeriodType(),
+				period);
+	}
+
+	/**
+	 * @param accountIds the accounts to sum up or <code>null</code> for all accounts
+	 * @param orgIds the organizations to sum up or <code>null</code> for all organizations
+	 * @param periodType one of the <code>X_PA_ReportLine.PAPERIODTYPE_*</code> values
+	 */
+	@VisibleForTesting
+	@Nullable
+	BigDecimal computeValue(
+			@Nullable final Set<Integer> accountIds,
+			@Nullable final Set<Integer> orgIds,
+			@Nullable final String postingType,
+			@NonNull final String amountType,
+			@NonNull final String periodType,
+			@NonNull final FinReportPeriod period)
+	{
+		final boolean natural = X_PA_ReportLine.PAPERIODTYPE_Natural.equals(periodType);
+
+		final LocalDate dateAcctTo = TimeUtil.asLocalDate(period.getEndDate());
+		final LocalDate dateAcctFrom;
+		if (X_PA_ReportLine.PAPERIODTYPE_Period.equals(periodType))
+		{
+			dateAcctFrom = TimeUtil.asLocalDate(period.getStartDate());
+		}
+		else if (X_PA_ReportLine.PAPERIODTYPE_Year.equals(periodType))
+		{
+			dateAcctFrom = TimeUtil.asLocalDate(period.getYearStartDate());
+		}
+		else
+		{
+			dateAcctFrom = null; // total; natural starts with the total, too
+		}
+
+		final FactAcctColumnarCubeQuery.FactAcctColumnarCubeQueryBuilder query = FactAcctColumnarCubeQuery.builder()
+				.acctSchemaId(acctSchemaId)
+				.dateAcctTo(dateAcctTo)
+				.postingType(Check.isEmpty(postingType) ? null : postingType)
+				.orgIds(toOrgIds(orgIds));
+		final ImmutableMap<Integer, FactAcctColumnarCubeAmounts> sums = getSums(query.dateAcctFrom(dateAcctFrom).build());
+
+		// natural: balance sheet accounts from the beginning, income statement accounts only from the beginning of the year
+		final ImmutableMap<Integer, FactAcctColumnarCubeAmounts> sumsYearToDate = natural
+				? getSums(query.dateAcctFrom(TimeUtil.asLocalDate(period.getYearStartDate())).build())
+				: null;
+
+		BigDecimal value = null;
+		for (final FactAcctColumnarCubeAmounts accountSums : sums.values())
+		{
+			final int accountId = accountSums.getAccountId();
+			if (accountIds != null && !accountIds.contains(accountId))
+			{
+				continue;
+			}
+
+			final AccountInfo account = getAccountInfo(accountId);
+			final FactAcctColumnarCubeAmounts amounts = sumsYearToDate == null || account.isBalanceSheet() ? accountSums : sumsYearToDate.get(accountId);
+			if (amounts == null)
+			{
+				continue;
+			}
+
+			final BigDecimal accountValue = computeValue(amounts, amountType, account);
+			value = value == null ? accountValue : value.add(accountValue);
+		}
+
+		return value;
+	}
+
+	private ImmutableMap<Integer, FactAcctColumnarCubeAmounts> getSums(final FactAcctColumnarCubeQuery query)
+	{
+		return sumsByQuery.computeIfAbsent(query, cube::sumByAccount);
+	}
+
+	/**
+	 * Same as the expressions of {@link MReportLine#getSelectClause(boolean)}.
+	 */
+	private static BigDecimal computeValue(final FactAcctColumnarCubeAmounts amounts, final String amountType, final AccountInfo account)
+	{
+		if (X_PA_ReportLine.PAAMOUNTTYPE_BalanceExpectedSign.equals(amountType))
+		{
+			return account.isCreditSign()
+					? amounts.getAmtAcctCr().subtract(amounts.getAmtAcctDr())
+					: amounts.getAmtAcctDr().subtract(amounts.getAmtAcctCr());
+		}
+		else if (X_PA_ReportLine.PAAMOUNTTYPE_BalanceAccountedSign.equals(amountType))
+		{
+			return amounts.getAmtAcctDr().subtract(amounts.getAmtAcctCr());
+		}
+		else if (X_PA_ReportLine.PAAMOUNTTYPE_CreditOnly.equals(amountType))
+		{
+			return amounts.getAmtAcctCr();
+		}
+		else if (X_PA_ReportLine.PAAMOUNTTYPE_DebitOnly.equals(amountType))
+		{
+			return amounts.getAmtAcctDr();
+		}
+		else if (X_PA_ReportLine.PAAMOUNTTYPE_QuantityAccountedSign.equals(amountType))
+		{
+			return amounts.getQty();
+		}
+		else if (X_PA_ReportLine.PAAMOUNTTYPE_QuantityExpectedSign.equals(amountType))
+		{
+			return account.isCreditSign() ? amounts.getQty().negate() : amounts.getQty();
+		}
+		else
+		{
+			throw new IllegalArgumentException("Unknown amount type: " + amountType);
+		}
+	}
+
+	/**
+	 * @return the accounts to sum up or <code>null</code> for all accounts
+	 */
+	@Nullable
+	private Set<Integer> getAccountIds(final MReportLine line, final MReportColumn column)
+	{
+		Set<Integer> accountIds = parameterAccountIds;
+		for (final MReportSource source : line.getSources())
+		{
+			if (X_PA_ReportSource.ELEMENTTYPE_Account.equals(source.getElementType()) && source.getC_ElementValue_ID() > 0)
+			{
+				accountIds = intersect(accountIds, getChildIds(AcctSchemaElementType.Account, source.getC_ElementValue_ID()));
+			}
+		}
+		if (column.isColumnTypeSegmentValue() && X_PA_ReportColumn.ELEMENTTYPE_Account.equals(column.getElementType()) && column.getC_ElementValue_ID() > 0)
+		{
+			accountIds = intersect(accountIds, getChildIds(AcctSchemaElementType.Account, column.getC_ElementValue_ID()));
+		}
+		return accountIds;
+	}
+
+	/**
+	 * @return the organizations to sum up or <code>null</code> for all organizations
+	 */
+	@Nullable
+	private Set<Integer> getOrgIds(final MReportLine line, final MReportColumn column)
+	{
+		Set<Integer> orgIds = parameterOrgIds;
+		for (final MReportSource source : line.getSources())
+		{
+			if (X_PA_ReportSource.ELEMENTTYPE_Organization.equals(source.getElementType()) && source.getOrg_ID() > 0)
+			{
+				orgIds = intersect(orgIds, getChildIds(AcctSchemaElementType.Organization, source.getOrg_ID()));
+			}
+		}
+		if (column.isColumnTypeSegmentValue() && X_PA_ReportColumn.ELEMENTTYPE_Organization.equals(column.getElementType()) && column.getOrg_ID() > 0)
+		{
+			orgIds = intersect(orgIds, getChildIds(AcctSchemaElementType.Organization, column.getOrg_ID()));
+		}
+		return orgIds;
+	}
+
+	private ImmutableSet<Integer> getChildIds(final AcctSchemaElementType elementType, final int id)
+	{
+		return ImmutableSet.copyOf(Arrays.asList(MReportTree.getChildIDs(ctx, PA_Hierarchy_ID, elementType, id)));
+	}
+
+	private static Set<Integer> intersect(@Nullable final Set<Integer> set1, @NonNull final Set<Integer> set2)
+	{
+		return set1 == null ? set2 : Sets.intersection(set1, set2);
+	}
+
+	@Nullable
+	private static Set<OrgId> toOrgIds(@Nullable final Set<Integer> orgRepoIds)
+	{
+		if (orgRepoIds == null)
+		{
+			return null;
+		}
+
+		final ImmutableSet.Builder<OrgId> orgIds = ImmutableSet.builder();
+		for (final int orgRepoId : orgRepoIds)
+		{
+			final OrgId orgId = OrgId.ofRepoIdOrNull(orgRepoId);
+			if (orgId != null)
+			{
+				orgIds.add(orgId);
+			}
+		}
+		return orgIds.build();
+	}
+
+	private AccountInfo getAccountInfo(final int accountId)
+	{
+		if (_accountsById == null)
+		{
+			_accountsById = retrieveAccountsById();
+		}
+		return _accountsById.getOrDefault(accountId, AccountInfo.UNKNOWN);
+	}
+
+	private ImmutableMap<Integer, AccountInfo> retrieveAccountsById()
+	{
+		final ImmutableMap.Builder<Integer, AccountInfo> accountsById = ImmutableMap.builder();
+		Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(I_C_ElementValue.class)
+				.addEqualsFilter(I_C_ElementValue.COLUMNNAME_AD_Client_ID, cube.getClientId())
+				.create()
+				.stream()
+				.map(elementValue -> AccountInfo.of(elementValue.getC_ElementValue_ID(), elementValue.getAccountType(), elementValue.getAccountSign()))
+				.forEach(account -> accountsById.put(account.getAccountId(), account));
+		return accountsById.build();
+	}
+
+	/**
+	 * The account properties which are needed to compute the amounts, like the SQL functions <code>acctBalance</code> and {@link FinReportPeriod#getNaturalWhere(String)} do.
+	 */
+	@Value
+	private static class AccountInfo
+	{
+		/**
+		 * Unknown accounts are treated like the SQL does: debit minus credit, income statement.
+		 */
+		static final AccountInfo UNKNOWN = new AccountInfo(-1, false, false);
+
+		int accountId;
+		boolean creditSign;
+		boolean balanceSheet;
+
+		static AccountInfo of(final int accountId, @Nullable final String accountType, @Nullable final String accountSign)
+		{
+			final String effectiveAccountSign;
+			if (X_C_ElementValue.ACCOUNTSIGN_Natural.equals(accountSign))
+			{
+				effectiveAccountSign = X_C_ElementValue.ACCOUNTTYPE_Asset.equals(accountType) || X_C_ElementValue.ACCOUNTTYPE_Expense.equals(accountType)
+						? X_C_ElementValue.ACCOUNTSIGN_Debit
+						: X_C_ElementValue.ACCOUNTSIGN_Credit;
+			}
+			else
+			{
+				effectiveAccountSign = accountSign;
+			}
+
+			return new AccountInfo(
+					accountId,
+					X_C_ElementValue.ACCOUNTSIGN_Credit.equals(effectiveAccountSign),
+					accountType != null && !INCOME_STATEMENT_ACCOUNT_TYPES.contains(accountType));
+		}
+	}
+}
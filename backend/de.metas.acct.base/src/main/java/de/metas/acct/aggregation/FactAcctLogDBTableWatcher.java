@@ -29,8 +29,11 @@ import lombok.NonNull;
 import org.adempiere.ad.dao.QueryLimit;
 import org.adempiere.service.ISysConfigBL;
 import org.compiere.util.Env;
+import org.compiere.util.PostgresListenConnection;
 import org.slf4j.Logger;
 
+import javax.annotation.Nullable;
+import java.sql.SQLException;
 import java.time.Duration;
 
 public class FactAcctLogDBTableWatcher implements Runnable
@@ -39,9 +42,19 @@ public class FactAcctLogDBTableWatcher implements Runnable
 	private final ISysConfigBL sysConfigBL;
 	private final IFactAcctLogBL factAcctLogBL;
 
+	@Nullable
+	private PostgresListenConnection listeningConnection = null;
+
 	private static final String SYSCONFIG_PollIntervalInSeconds = "de.metas.acct.aggregation.FactAcctLogDBTableWatcher.pollIntervalInSeconds";
 	private static final Duration DEFAULT_PollInterval = Duration.ofSeconds(10);
 
+	/**
+	 * If <code>Y</code> (default), the watcher does not just sleep for the poll interval but also wakes up as soon as new logs were committed.
+	 * The notifications are sent by the <code>fact_acct_log_notify_tg</code> trigger.
+	 */
+	private static final String SYSCONFIG_ListenToNotifications = "de.metas.acct.aggregation.FactAcctLogDBTableWatcher.listenToNotifications";
+	private static final String PG_NOTIFY_CHANNEL_FactAcctLogChanged = "fact_acct_log_changed";
+
 	@VisibleForTesting
 	static final String SYSCONFIG_RetrieveBatchSize = "de.metas.acct.aggregation.FactAcctLogDBTableWatcher.retrieveBatchSize";
 	private static final QueryLimit DEFAULT_RetrieveBatchSize = QueryLimit.ofInt(2000);
@@ -58,35 +71,96 @@ public class FactAcctLogDBTableWatcher implements Runnable
 	@Override
 	public void run()
 	{
-		while (true)
+		try
 		{
-			try
+			while (true)
 			{
-				sleep();
-			}
-			catch (InterruptedException e)
-			{
-				logger.info("Got interrupt request. Exiting.");
-				return;
+				try
+				{
+					waitForNewLogs();
+				}
+				catch (InterruptedException e)
+				{
+					logger.info("Got interrupt request. Exiting.");
+					return;
+				}
+
+				try
+				{
+					processNow();
+				}
+				catch (final Exception ex)
+				{
+					logger.warn("Failed to process. Ignored.", ex);
+				}
 			}
+		}
+		finally
+		{
+			closeListeningConnection();
+		}
+	}
 
-			try
-			{
-				processNow();
-			}
-			catch (final Exception ex)
-			{
-				logger.warn("Failed to process. Ignored.", ex);
-			}
+	/**
+	 * Waits until new logs were committed, but at most the poll interval.
+	 */
+	private void waitForNewLogs() throws InterruptedException
+	{
+		final Duration pollInterval = getPollInterval();
+		if (!sysConfigBL.getBooleanValue(SYSCONFIG_ListenToNotifications, true))
+		{
+			closeListeningConnection();
+			sleep(pollInterval);
+			return;
+		}
+
+		try
+		{
+			logger.debug("Waiting at most {} for notifications on channel {}", pollInterval, PG_NOTIFY_CHANNEL_FactAcctLogChanged);
+
+			// blocks until either a notification arrived or the timeout elapsed.
+			// We don't care about the notifications themselves, we just process all logs which are there.
+			getListeningConnection().waitForNotifications(pollInterval);
+		}
+		catch (final SQLException ex)
+		{
+			logger.warn("Listening on channel {} failed; falling back to sleep", PG_NOTIFY_CHANNEL_FactAcctLogChanged, ex);
+			closeListeningConnection();
+			sleep(pollInterval);
 		}
 
+		if (Thread.interrupted())
+		{
+			throw new InterruptedException();
+		}
 	}
 
-	private void sleep() throws InterruptedException
+	private PostgresListenConnection getListeningConnection() throws SQLException
 	{
-		final Duration pollInterval = getPollInterval();
-		logger.debug("Sleeping {}", pollInterval);
-		Thread.sleep(pollInterval.toMillis());
+		if (listeningConnection == null)
+		{
+			listeningConnection = PostgresListenConnection.listen(PG_NOTIFY_CHANNEL_FactAcctLogChanged);
+		}
+
+		return listeningConnection;
+	}
+
+	private void closeListeningConnection()
+	{
+		final PostgresListenConnection connection = listeningConnection;
+		if (connection == null)
+		{
+			return;
+		}
+		listeningConnection = null;
+
+		connection.close();
+	}
+
+	private static void sleep(final Duration duration) throws InterruptedException
+	{
+		logger.debug("Sleeping {}", duration);
+		Thread.sleep(duration.toMillis());
 	}
 
 	private Duration getPollInterval()
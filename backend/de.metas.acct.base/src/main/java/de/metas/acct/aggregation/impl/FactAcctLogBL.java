@@ -6,6 +6,8 @@ import de.metas.acct.aggregation.IFactAcctLogBL;
 import de.metas.acct.aggregation.IFactAcctLogDAO;
 import de.metas.acct.aggregation.IFactAcctLogIterable;
 import de.metas.acct.aggregation.IFactAcctSummaryKey;
+import de.metas.acct.cube.FactAcctColumnarCubeDelta;
+import de.metas.acct.cube.IFactAcctColumnarCubeBL;
 import de.metas.acct.model.I_Fact_Acct_Log;
 import de.metas.acct.model.I_Fact_Acct_Summary;
 import de.metas.acct.model.X_Fact_Acct_Log;
@@ -13,7 +15,6 @@ import de.metas.util.Check;
 import de.metas.util.ILoggable;
 import de.metas.util.Loggables;
 import de.metas.util.Services;
-import de.metas.util.collections.MapReduceAggregator;
 import lombok.Builder;
 import lombok.NonNull;
 import org.adempiere.ad.dao.IQueryFilter;
@@ -21,13 +22,14 @@ import org.adempiere.ad.dao.QueryLimit;
 import org.adempiere.ad.dao.impl.EqualsQueryFilter;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.model.InterfaceWrapperHelper;
-import org.adempiere.util.agg.key.IAggregationKeyBuilder;
 import org.compiere.util.TimeUtil;
 
 import java.math.BigDecimal;
 import java.util.Date;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 /*
  * #%L
@@ -55,35 +57,60 @@ public class FactAcctLogBL implements IFactAcctLogBL
 {
 	private final IFactAcctLogDAO factAcctLogDAO = Services.get(IFactAcctLogDAO.class);
 	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+	private final IFactAcctColumnarCubeBL factAcctColumnarCubeBL = Services.get(IFactAcctColumnarCubeBL.class);
 
 	@Override
 	public FactAcctLogProcessResult processAll(final Properties ctx, final QueryLimit limit)
 	{
-		return trxManager.callInNewTrx(() -> processAllInTrx(ctx, limit));
+		// the columnar cubes get the deltas after the transaction was committed
+		return factAcctColumnarCubeBL.processLogs(deltasCollector -> trxManager.callInNewTrx(() -> processAllInTrx(ctx, limit, deltasCollector)));
 	}
 
-	private FactAcctLogProcessResult processAllInTrx(final Properties ctx, final QueryLimit limit)
+	private FactAcctLogProcessResult processAllInTrx(
+			final Properties ctx,
+			final QueryLimit limit,
+			final Consumer<FactAcctColumnarCubeDelta> deltasCollector)
 	{
 		final Stopwatch stopwatch = Stopwatch.createStarted();
 		try (final IFactAcctLogIterable logs = factAcctLogDAO.tagAndRetrieve(ctx, limit))
 		{
-			return process(logs)
+			return process(logs, deltasCollector)
 					.withDuration(stopwatch.elapsed());
 		}
 	}
 
 	public FactAcctLogProcessResult process(final IFactAcctLogIterable logs)
+	{
+		return process(logs, delta -> {});
+	}
+
+	private FactAcctLogProcessResult process(
+			final IFactAcctLogIterable logs,
+			final Consumer<FactAcctColumnarCubeDelta> deltasCollector)
 	{
 		final ILoggable loggable = Loggables.get();
 
 		//
-		// Update Fact_Acct_Summary
-		final FactAcctSummaryUpdater factAcctSummaryUpdater = new FactAcctSummaryUpdater(factAcctLogDAO);
+		// Sum up the logs per summary key, in memory.
+		// NOTE: the logs are retrieved ordered by key, so the summaries are updated in a deterministic order.
+		final Map<IFactAcctSummaryKey, FactAcctGroup> groupsByKey = new LinkedHashMap<>();
+		int logsCount = 0;
 		for (final I_Fact_Acct_Log log : logs)
 		{
-			factAcctSummaryUpdater.add(log);
+			groupsByKey.computeIfAbsent(FactAcctSummaryKey.of(log), key -> FactAcctGroup.builder()
+							.factAcctLogDAO(factAcctLogDAO)
+							.log(log)
+							.build())
+					.add(log);
+			logsCount++;
+		}
+
+		//
+		// Update Fact_Acct_Summary, once per key
+		for (final FactAcctGroup group : groupsByKey.values())
+		{
+			group.close(deltasCollector);
 		}
-		factAcctSummaryUpdater.closeAllGroups();
 
 		//
 		// Update Fact_Acct_EndingBalance
@@ -93,49 +120,15 @@ public class FactAcctLogBL implements IFactAcctLogBL
 		// Delete all processed logs
 		logs.deleteAll();
 
-		loggable.addLog("Processed {0} {1} records", factAcctSummaryUpdater.getItemsCount(), I_Fact_Acct_Log.Table_Name);
-		loggable.addLog("Created/Updated {0} {1} records", factAcctSummaryUpdater.getGroupsCount(), I_Fact_Acct_Summary.Table_Name);
+		loggable.addLog("Processed {0} {1} records", logsCount, I_Fact_Acct_Log.Table_Name);
+		loggable.addLog("Created/Updated {0} {1} records", groupsByKey.size(), I_Fact_Acct_Summary.Table_Name);
 
 		return FactAcctLogProcessResult.builder()
 				.iterations(1)
-				.processedLogRecordsCount(factAcctSummaryUpdater.getItemsCount())
+				.processedLogRecordsCount(logsCount)
 				.build();
 	}
 
-	private static class FactAcctSummaryUpdater extends MapReduceAggregator<FactAcctGroup, I_Fact_Acct_Log>
-	{
-		private final IFactAcctLogDAO factAcctLogDAO;
-
-		private FactAcctSummaryUpdater(
-				@NonNull final IFactAcctLogDAO factAcctLogDAO)
-		{
-			this.factAcctLogDAO = factAcctLogDAO;
-			setGroupsBufferSize(1); // IMPORTANT: keep only one group in memory because we are also updating next groups when a current group is updated
-			setItemAggregationKeyBuilder(FactAcctSummaryKeyBuilder.instance);
-		}
-
-		@Override
-		protected FactAcctGroup createGroup(final Object itemHashKey, final I_Fact_Acct_Log log)
-		{
-			return FactAcctGroup.builder()
-					.factAcctLogDAO(factAcctLogDAO)
-					.log(log)
-					.build();
-		}
-
-		@Override
-		protected void closeGroup(final FactAcctGroup group)
-		{
-			group.close();
-		}
-
-		@Override
-		protected void addItemToGroup(final FactAcctGroup group, final I_Fact_Acct_Log log)
-		{
-			group.add(log);
-		}
-	}
-
 	private static final class FactAcctGroup
 	{
 		private final IFactAcctLogDAO factAcctLogDAO;
@@ -146,6 +139,7 @@ public class FactAcctLogBL implements IFactAcctLogBL
 		private BigDecimal amtAcctDr_ToAdd;
 		private BigDecimal amtAcctCr_ToAdd;
 		private BigDecimal qty_ToAdd;
+		private int factAcctCount_ToAdd;
 
 		@Builder
 		private FactAcctGroup(
@@ -223,6 +217,7 @@ public class FactAcctLogBL implements IFactAcctLogBL
 			amtAcctDr_ToAdd = BigDecimal.ZERO;
 			amtAcctCr_ToAdd = BigDecimal.ZERO;
 			qty_ToAdd = BigDecimal.ZERO;
+			factAcctCount_ToAdd = 0;
 		}
 
 		public void add(final I_Fact_Acct_Log log)
@@ -231,17 +226,20 @@ public class FactAcctLogBL implements IFactAcctLogBL
 			final BigDecimal amtAcctDr_Diff;
 			final BigDecimal amtAcctCr_Diff;
 			final BigDecimal qty_Diff;
+			final int factAcctCount_Diff;
 			if (X_Fact_Acct_Log.ACTION_Insert.equals(logAction))
 			{
 				amtAcctDr_Diff = log.getAmtAcctDr();
 				amtAcctCr_Diff = log.getAmtAcctCr();
 				qty_Diff = log.getQty();
+				factAcctCount_Diff = 1;
 			}
 			else if (X_Fact_Acct_Log.ACTION_Delete.equals(logAction))
 			{
 				amtAcctDr_Diff = log.getAmtAcctDr().negate();
 				amtAcctCr_Diff = log.getAmtAcctCr().negate();
 				qty_Diff = log.getQty().negate();
+				factAcctCount_Diff = -1;
 			}
 			else
 			{
@@ -253,6 +251,7 @@ public class FactAcctLogBL implements IFactAcctLogBL
 			amtAcctDr_ToAdd = amtAcctDr_ToAdd.add(amtAcctDr_Diff);
 			amtAcctCr_ToAdd = amtAcctCr_ToAdd.add(amtAcctCr_Diff);
 			qty_ToAdd = qty_ToAdd.add(qty_Diff);
+			factAcctCount_ToAdd += factAcctCount_Diff;
 		}
 
 		private boolean hasChanges()
@@ -260,10 +259,23 @@ public class FactAcctLogBL implements IFactAcctLogBL
 			return amtAcctDr_ToAdd.signum() != 0 || amtAcctCr_ToAdd.signum() != 0 || qty_ToAdd.signum() != 0;
 		}
 
-		public void close()
+		public void close(final Consumer<FactAcctColumnarCubeDelta> deltasCollector)
 		{
+			if (hasChanges() || factAcctCount_ToAdd != 0)
+			{
+				// NOTE: also report a delta if only the number of records changed, because the columnar cube needs to know if there are Fact_Acct records at all
+				deltasCollector.accept(FactAcctColumnarCubeDelta.builder()
+						.key(key)
+						.amtAcctDr(amtAcctDr_ToAdd)
+						.amtAcctCr(amtAcctCr_ToAdd)
+						.qty(qty_ToAdd)
+						.factAcctCount(factAcctCount_ToAdd)
+						.build());
+			}
+
 			if (!hasChanges())
 			{
+				resetAmounts();
 				return;
 			}
 
@@ -295,32 +307,4 @@ public class FactAcctLogBL implements IFactAcctLogBL
 		}
 
 	}
-
-	private static final class FactAcctSummaryKeyBuilder implements IAggregationKeyBuilder<I_Fact_Acct_Log>
-	{
-		public static final transient FactAcctSummaryKeyBuilder instance = new FactAcctSummaryKeyBuilder();
-
-		private FactAcctSummaryKeyBuilder()
-		{
-			super();
-		}
-
-		@Override
-		public String buildKey(final I_Fact_Acct_Log item)
-		{
-			return FactAcctSummaryKey.of(item).asString();
-		}
-
-		@Override
-		public List<String> getDependsOnColumnNames()
-		{
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public boolean isSame(final I_Fact_Acct_Log item1, final I_Fact_Acct_Log item2)
-		{
-			throw new UnsupportedOperationException();
-		}
-	}
 }
@@ -0,0 +1,374 @@
+package de.metas.acct.cube;
+
+import com.google.common.collect.ImmutableMap;
+import de.metas.acct.aggregation.IFactAcctSummaryKey;
+import de.metas.organization.OrgId;
+import lombok.Getter;
+import lombok.NonNull;
+import org.adempiere.service.ClientId;
+import org.compiere.util.TimeUtil;
+
+import javax.annotation.Nullable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In-memory copy of one client's <code>Fact_Acct</code>, summed up per acct schema, account, org, day and posting type.
+ * <p>
+ * The data is kept in primitive arrays, one per column, so that an aggregation is a tight loop over all rows.
+ * Amounts are kept as <code>long</code>s with a fixed scale of {@value #SCALE}.
+ * <p>
+ * Changes are appended as additional rows (see {@link #add(FactAcctColumnarCubeDelta)}), so the same key might have more than one row.
+ * Use {@link #isRebuildRecommended()} to find out when it's time to load the cube again.
+ * <p>
+ * Thread-safe.
+ *
+ * @see IFactAcctColumnarCubeBL
+ */
+public final class FactAcctColumnarCube
+{
+	public static final int SCALE = 6;
+
+	private static final int MIN_CAPACITY = 1024;
+	private static final int MIN_APPENDED_ROWS_BEFORE_REBUILD = 100_000;
+
+	@Getter
+	private final ClientId clientId;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private int rowsCount = 0;
+	private int appendedRowsCount = 0;
+
+	private int[] acctSchemaIds;
+	private int[] accountIndexes;
+	private int[] orgIds;
+	private int[] epochDays;
+	private char[] postingTypes;
+	private long[] amtAcctDrs;
+	private long[] amtAcctCrs;
+	private long[] qtys;
+	private int[] factAcctCounts;
+
+	/**
+	 * The account is stored as a dense index, so the aggregation can sum up into plain arrays
+	 */
+	private final Map<Integer, Integer> accountIndexesById = new HashMap<>();
+	private int[] accountIdsByIndex = new int[MIN_CAPACITY];
+
+	public FactAcctColumnarCube(@NonNull final ClientId clientId, final int initialCapacity)
+	{
+		this.clientId = clientId;
+
+		final int capacity = Math.max(initialCapacity, MIN_CAPACITY);
+		acctSchemaIds = new int[capacity];
+		accountIndexes = new int[capacity];
+		orgIds = new int[capacity];
+		epochDays = new int[capacity];
+		postingTypes = new char[capacity];
+		amtAcctDrs = new long[capacity];
+		amtAcctCrs = new long[capacity];
+		qtys = new long[capacity];
+		factAcctCounts = new int[capacity];
+	}
+
+	@Override
+	public String toString()
+	{
+		return "FactAcctColumnarCube[" + clientId + ", rowsCount=" + rowsCount + ", appendedRowsCount=" + appendedRowsCount + "]";
+	}
+
+	public int getRowsCount()
+	{
+		final Lock readLock = lock.readLock();
+		readLock.lock();
+		try
+		{
+			return rowsCount;
+		}
+		finally
+		{
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * @return true if so many rows were appended since loading that scanning them costs more than loading the cube again.
+	 */
+	public boolean isRebuildRecommended()
+	{
+		final Lock readLock = lock.readLock();
+		readLock.lock();
+		try
+		{
+			final int loadedRowsCount = rowsCount - appendedRowsCount;
+			return appendedRowsCount > Math.max(loadedRowsCount, MIN_APPENDED_ROWS_BEFORE_REBUILD);
+		}
+		finally
+		{
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * Adds one row as loaded from database.
+	 *
+	 * @throws ArithmeticException if an amount does not fit into the cube's fixed scale
+	 */
+	public void addRow(
+			final int acctSchemaId,
+			final int accountId,
+			final int orgId,
+			@NonNull final LocalDate dateAcct,
+			@NonNull final String postingType,
+			@NonNull final BigDecimal amtAcctDr,
+			@NonNull final BigDecimal amtAcctCr,
+			@NonNull final BigDecimal qty,
+			final int factAcctCount)
+	{
+		final Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try
+		{
+			addRow0(acctSchemaId, accountId, orgId, dateAcct, postingType, amtAcctDr, amtAcctCr, qty, factAcctCount);
+		}
+		finally
+		{
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Appends the given change.
+	 *
+	 * @throws ArithmeticException if an amount does not fit into the cube's fixed scale
+	 */
+	public void add(@NonNull final FactAcctColumnarCubeDelta delta)
+	{
+		final IFactAcctSummaryKey key = delta.getKey();
+		if (key.getAD_Client_ID() != clientId.getRepoId())
+		{
+			throw new IllegalArgumentException("Delta " + delta + " does not belong to " + this);
+		}
+
+		final Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try
+		{
+			addRow0(key.getC_AcctSchema_ID(),
+					key.getC_ElementValue_ID(),
+					key.getAD_Org_ID(),
+					TimeUtil.asLocalDate(key.getDateAcct()),
+					key.getPostingType(),
+					delta.getAmtAcctDr(),
+					delta.getAmtAcctCr(),
+					delta.getQty(),
+					delta.getFactAcctCount());
+			appendedRowsCount++;
+		}
+		finally
+		{
+			writeLock.unlock();
+		}
+	}
+
+	private void addRow0(
+			final int acctSchemaId,
+			final int accountId,
+			final int orgId,
+			final LocalDate dateAcct,
+			final String postingType,
+			final BigDecimal amtAcctDr,
+			final BigDecimal amtAcctCr,
+			final BigDecimal qty,
+			final int factAcctCount)
+	{
+		// convert first, so that nothing is changed if an amount does not fit
+		final long amtAcctDrScaled = toScaledLong(amtAcctDr);
+		final long amtAcctCrScaled = toScaledLong(amtAcctCr);
+		final long qtyScaled = toScaledLong(qty);
+
+		ensureCapacity(rowsCount + 1);
+
+		final int row = rowsCount;
+		acctSchemaIds[row] = acctSchemaId;
+		accountIndexes[row] = getOrCreateAccountIndex(accountId);
+		orgIds[row] = orgId;
+		epochDays[row] = Math.toIntExact(dateAcct.toEpochDay());
+		postingTypes[row] = postingType.charAt(0);
+		amtAcctDrs[row] = amtAcctDrScaled;
+		amtAcctCrs[row] = amtAcctCrScaled;
+		qtys[row] = qtyScaled;
+		factAcctCounts[row] = factAcctCount;
+
+		rowsCount++;
+	}
+
+	private void ensureCapacity(final int minCapacity)
+	{
+		if (minCapacity <= acctSchemaIds.length)
+		{
+			return;
+		}
+
+		final int capacity = Math.max(minCapacity, acctSchemaIds.length + (acctSchemaIds.length >> 1));
+		acctSchemaIds = Arrays.copyOf(acctSchemaIds, capacity);
+		accountIndexes = Arrays.copyOf(accountIndexes, capacity);
+		orgIds = Arrays.copyOf(orgIds, capacity);
+		epochDays = Arrays.copyOf(epochDays, capacity);
+		postingTypes = Arrays.copyOf(postingTypes, capacity);
+		amtAcctDrs = Arrays.copyOf(amtAcctDrs, capacity);
+		amtAcctCrs = Arrays.copyOf(amtAcctCrs, capacity);
+		qtys = Arrays.copyOf(qtys, capacity);
+		factAcctCounts = Arrays.copyOf(factAcctCounts, capacity);
+	}
+
+	private int getOrCreateAccountIndex(final int accountId)
+	{
+		final Integer existingIndex = accountIndexesById.get(accountId);
+		if (existingIndex != null)
+		{
+			return existingIndex;
+		}
+
+		final int index = accountIndexesById.size();
+		if (index >= accountIdsByIndex.length)
+		{
+			accountIdsByIndex = Arrays.copyOf(accountIdsByIndex, accountIdsByIndex.length * 2);
+		}
+		accountIdsByIndex[index] = accountId;
+		accountIndexesById.put(accountId, index);
+		return index;
+	}
+
+	private static long toScaledLong(final BigDecimal value)
+	{
+		return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+	}
+
+	private static BigDecimal toBigDecimal(final long scaledValue)
+	{
+		return BigDecimal.valueOf(scaledValue, SCALE).stripTrailingZeros();
+	}
+
+	/**
+	 * Sums up all rows which match the given query, per account.
+	 *
+	 * @return sums by account ID; accounts without any matching <code>Fact_Acct</code> record are not included
+	 * @throws ArithmeticException if a sum overflows
+	 */
+	public ImmutableMap<Integer, FactAcctColumnarCubeAmounts> sumByAccount(@NonNull final FactAcctColumnarCubeQuery query)
+	{
+		final int acctSchemaId = query.getAcctSchemaId() != null ? query.getAcctSchemaId().getRepoId() : -1;
+		final long epochDayFrom = query.getDateAcctFrom() != null ? query.getDateAcctFrom().toEpochDay() : Long.MIN_VALUE;
+		final long epochDayTo = query.getDateAcctTo().toEpochDay();
+		final char postingType = query.getPostingType() != null ? query.getPostingType().charAt(0) : 0;
+		final BitSet orgIdsFilter = toBitSetOrNull(query.getOrgIds());
+
+		final Lock readLock = lock.readLock();
+		readLock.lock();
+		try
+		{
+			final int accountsCount = accountIndexesById.size();
+			final long[] amtAcctDrSums = new long[accountsCount];
+			final long[] amtAcctCrSums = new long[accountsCount];
+			final long[] qtySums = new long[accountsCount];
+			final int[] factAcctCountSums = new int[accountsCount];
+
+			for (int row = 0; row < rowsCount; row++)
+			{
+				final int epochDay = epochDays[row];
+				if (epochDay < epochDayFrom || epochDay > epochDayTo)
+				{
+					continue;
+				}
+				if (postingType != 0 && postingTypes[row] != postingType)
+				{
+					continue;
+				}
+				if (acctSchemaId > 0 && acctSchemaIds[row] != acctSchemaId)
+				{
+					continue;
+				}
+				if (orgIdsFilter != null && !orgIdsFilter.get(orgIds[row]))
+				{
+					continue;
+				}
+
+				final int accountIndex = accountIndexes[row];
+				amtAcctDrSums[accountIndex] = Math.addExact(amtAcctDrSums[accountIndex], amtAcctDrs[row]);
+				amtAcctCrSums[accountIndex] = Math.addExact(amtAcctCrSums[accountIndex], amtAcctCrs[row]);
+				qtySums[accountIndex] = Math.addExact(qtySums[accountIndex], qtys[row]);
+				factAcctCountSums[accountIndex] += factAcctCounts[row];
+			}
+
+			final ImmutableMap.Builder<Integer, FactAcctColumnarCubeAmounts> result = ImmutableMap.builder();
+			for (int accountIndex = 0; accountIndex < accountsCount; accountIndex++)
+			{
+				if (factAcctCountSums[accountIndex] <= 0)
+				{
+					continue;
+				}
+
+				final int accountId = accountIdsByIndex[accountIndex];
+				result.put(accountId, FactAcctColumnarCubeAmounts.builder()
+						.accountId(accountId)
+						.amtAcctDr(toBigDecimal(amtAcctDrSums[accountIndex]))
+						.amtAcctCr(toBigDecimal(amtAcctCrSums[accountIndex]))
+						.qty(toBigDecimal(qtySums[accountIndex]))
+						.factAcctCount(factAcctCountSums[accountIndex])
+						.build());
+			}
+			return result.build();
+		}
+		finally
+		{
+			readLock.unlock();
+		}
+	}
+
+	@Nullable
+	private static BitSet toBitSetOrNull(@Nullable final Set<OrgId> orgIds)
+	{
+		if (orgIds == null)
+		{
+			return null;
+		}
+
+		final BitSet bitSet = new BitSet();
+		orgIds.forEach(orgId -> bitSet.set(orgId.getRepoId()));
+		return bitSet;
+	}
+}
@@ -0,0 +1,55 @@
+package de.metas.acct.cube;
+
+import de.metas.acct.aggregation.IFactAcctSummaryKey;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The change of one summary key, as it results from processing <code>Fact_Acct_Log</code> records.
+ */
+@Value
+@Builder
+public class FactAcctColumnarCubeDelta
+{
+	@NonNull
+	IFactAcctSummaryKey key;
+
+	@NonNull
+	BigDecimal amtAcctDr;
+
+	@NonNull
+	BigDecimal amtAcctCr;
+
+	@NonNull
+	BigDecimal qty;
+
+	/**
+	 * Inserted minus deleted <code>Fact_Acct</code> records.
+	 */
+	int factAcctCount;
+}
@@ -0,0 +1,81 @@
+package de.metas.acct.cube;
+
+import com.google.common.collect.ImmutableSet;
+import de.metas.acct.api.AcctSchemaId;
+import de.metas.organization.OrgId;
+import de.metas.util.Check;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+import javax.annotation.Nullable;
+import java.time.LocalDate;
+import java.util.Set;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Filter for {@link FactAcctColumnarCube#sumByAccount(FactAcctColumnarCubeQuery)}. A <code>null</code> value means "no restriction".
+ */
+@Value
+public class FactAcctColumnarCubeQuery
+{
+	@Nullable
+	AcctSchemaId acctSchemaId;
+
+	/**
+	 * inclusive
+	 */
+	@Nullable
+	LocalDate dateAcctFrom;
+
+	/**
+	 * inclusive
+	 */
+	@NonNull
+	LocalDate dateAcctTo;
+
+	@Nullable
+	String postingType;
+
+	@Nullable
+	ImmutableSet<OrgId> orgIds;
+
+	@Builder
+	private FactAcctColumnarCubeQuery(
+			@Nullable final AcctSchemaId acctSchemaId,
+			@Nullable final LocalDate dateAcctFrom,
+			@NonNull final LocalDate dateAcctTo,
+			@Nullable final String postingType,
+			@Nullable final Set<OrgId> orgIds)
+	{
+		Check.assume(dateAcctFrom == null || !dateAcctFrom.isAfter(dateAcctTo), "dateAcctFrom={} shall not be after dateAcctTo={}", dateAcctFrom, dateAcctTo);
+		Check.assume(postingType == null || postingType.length() == 1, "postingType={} shall be one character", postingType);
+
+		this.acctSchemaId = acctSchemaId;
+		this.dateAcctFrom = dateAcctFrom;
+		this.dateAcctTo = dateAcctTo;
+		this.postingType = postingType;
+		this.orgIds = orgIds != null ? ImmutableSet.copyOf(orgIds) : null;
+	}
+}
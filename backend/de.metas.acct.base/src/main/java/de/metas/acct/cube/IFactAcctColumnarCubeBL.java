@@ -0,0 +1,58 @@
+package de.metas.acct.cube;
+
+import de.metas.util.ISingletonService;
+import org.adempiere.service.ClientId;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Manages the {@link FactAcctColumnarCube}s, one per client.
+ * <p>
+ * A cube is loaded from <code>Fact_Acct</code> when it's first needed and is then kept current with the <code>Fact_Acct_Log</code> records which are processed in <b>this</b> JVM.
+ * Those are processed where {@link de.metas.acct.aggregation.FactAcctLogDBTableWatcher} runs, so the cubes are only used where the {@link de.metas.Profiles#PROFILE_AccountingService} profile is active.
+ * Everywhere else, {@link #getCubeIfEnabled(ClientId)} returns empty and the reports are computed via SQL.
+ * <p>
+ * Like the SQL which the cube replaces, the cube matches <code>Fact_Acct</code>, not only <code>Fact_Acct_Summary</code>:
+ * before a cube is returned, the pending <code>Fact_Acct_Log</code>s are processed, so it also contains the latest postings.
+ */
+public interface IFactAcctColumnarCubeBL extends ISingletonService
+{
+	/**
+	 * Processes the pending <code>Fact_Acct_Log</code>s first, so that the returned cube contains all <code>Fact_Acct</code> records which were committed until now.
+	 *
+	 * @return the client's cube, loading it if needed, or empty if the cube is not enabled for the given client or if this is not the accounting service
+	 */
+	Optional<FactAcctColumnarCube> getCubeIfEnabled(ClientId clientId);
+
+	/**
+	 * Runs the given <code>Fact_Acct_Log</code> processor and applies the deltas it reports to the loaded cubes, after the processor returned successfully.
+	 * <p>
+	 * The processor is expected to commit its changes before returning. Loading a cube and processing logs never run at the same time,
+	 * so that a cube does not miss or count twice any of the processed logs.
+	 */
+	<T> T processLogs(Function<Consumer<FactAcctColumnarCubeDelta>, T> processor);
+}
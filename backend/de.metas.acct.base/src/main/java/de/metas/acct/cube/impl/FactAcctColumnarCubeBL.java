@@ -0,0 +1,229 @@
+package de.metas.acct.cube.impl;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Suppliers;
+import de.metas.Profiles;
+import de.metas.acct.aggregation.IFactAcctLogBL;
+import de.metas.acct.cube.FactAcctColumnarCube;
+import de.metas.acct.cube.FactAcctColumnarCubeDelta;
+import de.metas.acct.cube.IFactAcctColumnarCubeBL;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.ad.dao.QueryLimit;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.compiere.util.TimeUtil;
+import org.slf4j.Logger;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class FactAcctColumnarCubeBL implements IFactAcctColumnarCubeBL
+{
+	private static final Logger logger = LogManager.getLogger(FactAcctColumnarCubeBL.class);
+
+	/**
+	 * If enabled, financial reports are computed from the cube instead of SQL on <code>Fact_Acct</code>. Their results are the same, see {@link #getCubeIfEnabled(ClientId)}.
+	 */
+	private static final String SYSCONFIG_Enabled = "de.metas.acct.cube.FactAcctColumnarCube.Enabled";
+
+	private static final int LOAD_FetchSize = 10_000;
+
+	/**
+	 * Sums up <code>Fact_Acct</code> and subtracts the not yet processed <code>Fact_Acct_Log</code>s, so that the result matches the state the processed logs are applied to.
+	 * Both are read by the same statement, i.e. from the same snapshot.
+	 */
+	private static final String SQL_Load = "SELECT C_AcctSchema_ID, Account_ID, AD_Org_ID, DateAcct, PostingType,"
+			+ " SUM(AmtAcctDr) AS AmtAcctDr, SUM(AmtAcctCr) AS AmtAcctCr, SUM(Qty) AS Qty, SUM(FactAcctCount) AS FactAcctCount"
+			+ " FROM ("
+			+ "   SELECT C_AcctSchema_ID, Account_ID, AD_Org_ID, TRUNC(DateAcct) AS DateAcct, PostingType,"
+			+ "     AmtAcctDr, AmtAcctCr, COALESCE(Qty, 0) AS Qty, 1 AS FactAcctCount"
+			+ "   FROM Fact_Acct WHERE AD_Client_ID=?"
+			+ "   UNION ALL"
+			+ "   SELECT C_AcctSchema_ID, C_ElementValue_ID, AD_Org_ID, TRUNC(DateAcct), PostingType,"
+			+ "     CASE WHEN Action='I' THEN -AmtAcctDr ELSE AmtAcctDr END,"
+			+ "     CASE WHEN Action='I' THEN -AmtAcctCr ELSE AmtAcctCr END,"
+			+ "     CASE WHEN Action='I' THEN -COALESCE(Qty, 0) ELSE COALESCE(Qty, 0) END,"
+			+ "     CASE WHEN Action='I' THEN -1 ELSE 1 END"
+			+ "   FROM Fact_Acct_Log WHERE AD_Client_ID=?"
+			+ " ) fa"
+			+ " GROUP BY C_AcctSchema_ID, Account_ID, AD_Org_ID, DateAcct, PostingType";
+
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+
+	private final Supplier<Boolean> accountingServiceProfileActive = Suppliers.memoize(() -> Profiles.isProfileActive(Profiles.PROFILE_AccountingService));
+
+	/**
+	 * Makes sure that loading a cube and processing logs don't run at the same time.
+	 */
+	private final ReentrantLock loadOrProcessLogsLock = new ReentrantLock();
+
+	private final ConcurrentHashMap<ClientId, FactAcctColumnarCube> cubesByClientId = new ConcurrentHashMap<>();
+
+	@Override
+	public Optional<FactAcctColumnarCube> getCubeIfEnabled(@NonNull final ClientId clientId)
+	{
+		if (!sysConfigBL.getBooleanValue(SYSCONFIG_Enabled, false, clientId.getRepoId())
+				|| !accountingServiceProfileActive.get())
+		{
+			// don't keep a cube which is not used; it would only get stale if the flag is enabled again
+			cubesByClientId.remove(clientId);
+			return Optional.empty();
+		}
+
+		// The cube only contains the processed logs. Process the pending ones, so that the cube also contains the latest postings, like Fact_Acct does.
+		// NOTE: we get the service here, because FactAcctLogBL depends on this service
+		Services.get(IFactAcctLogBL.class).processAll(Env.getCtx(), QueryLimit.NO_LIMIT);
+
+		final FactAcctColumnarCube cube = cubesByClientId.get(clientId);
+		if (cube != null && !cube.isRebuildRecommended())
+		{
+			return Optional.of(cube);
+		}
+
+		loadOrProcessLogsLock.lock();
+		try
+		{
+			final FactAcctColumnarCube cubeAfterLock = cubesByClientId.get(clientId);
+			if (cubeAfterLock != null && !cubeAfterLock.isRebuildRecommended())
+			{
+				return Optional.of(cubeAfterLock);
+			}
+
+			final FactAcctColumnarCube loadedCube = load(clientId);
+			cubesByClientId.put(clientId, loadedCube);
+			return Optional.of(loadedCube);
+		}
+		finally
+		{
+			loadOrProcessLogsLock.unlock();
+		}
+	}
+
+	private FactAcctColumnarCube load(@NonNull final ClientId clientId)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+
+		// we need a transaction, because the postgres driver ignores the fetch size in autocommit mode
+		final FactAcctColumnarCube cube = trxManager.callInNewTrx(() -> {
+			final FactAcctColumnarCube newCube = new FactAcctColumnarCube(clientId, LOAD_FetchSize);
+
+			PreparedStatement pstmt = null;
+			ResultSet rs = null;
+			try
+			{
+				pstmt = DB.prepareStatement(SQL_Load, ITrx.TRXNAME_ThreadInherited);
+				pstmt.setFetchSize(LOAD_FetchSize);
+				DB.setParameters(pstmt, new Object[] { clientId.getRepoId(), clientId.getRepoId() });
+				rs = pstmt.executeQuery();
+				while (rs.next())
+				{
+					newCube.addRow(
+							rs.getInt("C_AcctSchema_ID"),
+							rs.getInt("Account_ID"),
+							rs.getInt("AD_Org_ID"),
+							TimeUtil.asLocalDate(rs.getTimestamp("DateAcct")),
+							rs.getString("PostingType"),
+							rs.getBigDecimal("AmtAcctDr"),
+							rs.getBigDecimal("AmtAcctCr"),
+							rs.getBigDecimal("Qty"),
+							rs.getInt("FactAcctCount"));
+				}
+			}
+			catch (final SQLException ex)
+			{
+				throw new DBException(ex, SQL_Load);
+			}
+			finally
+			{
+				DB.close(rs, pstmt);
+			}
+
+			return newCube;
+		});
+
+		logger.info("Loaded {} in {}", cube, stopwatch.stop());
+		return cube;
+	}
+
+	@Override
+	public <T> T processLogs(@NonNull final Function<Consumer<FactAcctColumnarCubeDelta>, T> processor)
+	{
+		loadOrProcessLogsLock.lock();
+		try
+		{
+			final List<FactAcctColumnarCubeDelta> deltas = new ArrayList<>();
+			final T result = processor.apply(deltas::add);
+
+			if (!cubesByClientId.isEmpty())
+			{
+				deltas.forEach(this::applyDelta);
+			}
+
+			return result;
+		}
+		finally
+		{
+			loadOrProcessLogsLock.unlock();
+		}
+	}
+
+	private void applyDelta(@NonNull final FactAcctColumnarCubeDelta delta)
+	{
+		final ClientId clientId = ClientId.ofRepoId(delta.getKey().getAD_Client_ID());
+		final FactAcctColumnarCube cube = cubesByClientId.get(clientId);
+		if (cube == null)
+		{
+			return;
+		}
+
+		try
+		{
+			cube.add(delta);
+		}
+		catch (final ArithmeticException ex)
+		{
+			// the cube would be wrong from now on; it will be loaded again when it's needed the next time
+			logger.warn("Failed adding {} to {}. Discarding the cube.", delta, cube, ex);
+			cubesByClientId.remove(clientId);
+		}
+	}
+}
@@ -96,6 +96,12 @@ public class AcctDocRequiredServicesFacade
 	private final IMsgBL msgBL = Services.get(IMsgBL.class);
 	private final IErrorManager errorManager = Services.get(IErrorManager.class);
 
+	/**
+	 * If <code>Y</code>, the Fact_Acct records of a document are inserted in one JDBC batch, see {@code org.compiere.acct.FactAcctBatchWriter}.
+	 * Default is <code>N</code>, because then the records are not saved via {@link PO#saveEx()}, and an insert error is reported for the whole batch.
+	 */
+	private static final String SYSCONFIG_BulkSaveFactAcct = "de.metas.acct.doc.BulkSaveFactAcct";
+
 	private final IFactAcctListenersService factAcctListenersService = Services.get(IFactAcctListenersService.class);
 	private final IPostingService postingService = Services.get(IPostingService.class);
 	private final IModelCacheInvalidationService modelCacheInvalidationService = Services.get(IModelCacheInvalidationService.class);
@@ -148,6 +154,14 @@ public class AcctDocRequiredServicesFacade
 		trxManager.runInThreadInheritedTrx(runnable);
 	}
 
+	/**
+	 * @return true if the Fact_Acct records of a document shall be inserted in one JDBC batch (sysconfig {@value #SYSCONFIG_BulkSaveFactAcct})
+	 */
+	public boolean isBatchInsertFactAcct()
+	{
+		return sysConfigBL.getBooleanValue(SYSCONFIG_BulkSaveFactAcct, false);
+	}
+
 	public int deleteFactAcctByDocumentModel(@NonNull final Object documentPO)
 	{
 		return factAcctDAO.deleteForDocumentModel(documentPO);
@@ -0,0 +1,193 @@
+package de.metas.acct.posting;
+
+import com.google.common.collect.Iterables;
+import de.metas.acct.api.AcctSchema;
+import de.metas.acct.api.IAcctSchemaDAO;
+import de.metas.acct.doc.AcctDocRegistry;
+import de.metas.logging.LogManager;
+import de.metas.logging.TableRecordMDC;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.util.Env;
+import org.compiere.util.Util.ArrayKey;
+import org.slf4j.Logger;
+import org.slf4j.MDC.MDCCloseable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Posts many documents directly (i.e. not via the accounting server) on a pool of worker threads.
+ * <p>
+ * The requests are grouped by AD_Client_ID (which determines the accounting schemas) and document table, and each group is split into chunks.
+ * A worker posts one chunk at a time, so the accounting schemas are loaded once per chunk and documents of the same type, which usually need the same product and charge accounts, are posted by the same thread.
+ * <p>
+ * Each document is posted in its own transaction, so a failing document does not affect the others. Its error is collected into the result.
+ * The number of workers is configured via the sysconfig {@value #SYSCONFIG_Parallelism}.
+ */
+@Service
+public class DocumentPostingEngine
+{
+	private static final Logger logger = LogManager.getLogger(DocumentPostingEngine.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+	private final IAcctSchemaDAO acctSchemaDAO = Services.get(IAcctSchemaDAO.class);
+	private final AcctDocRegistry docFactory;
+
+	private static final String SYSCONFIG_Parallelism = "de.metas.acct.posting.DocumentPostingEngine.Parallelism";
+	private static final int DEFAULT_Parallelism = 4;
+
+	private static final String SYSCONFIG_ChunkSize = "de.metas.acct.posting.DocumentPostingEngine.ChunkSize";
+	private static final int DEFAULT_ChunkSize = 100;
+
+	public DocumentPostingEngine(@NonNull final AcctDocRegistry docFactory)
+	{
+		this.docFactory = docFactory;
+	}
+
+	/**
+	 * Posts the given documents and waits until all of them are done.
+	 * Note that the documents are always reposted, i.e. existing accounting records are deleted.
+	 */
+	public DocumentPostingEngineResult postAll(@NonNull final Collection<DocumentPostRequest> requests)
+	{
+		if (requests.isEmpty())
+		{
+			return DocumentPostingEngineResult.EMPTY;
+		}
+
+		final List<List<DocumentPostRequest>> chunks = createChunks(requests);
+		final int parallelism = Math.min(getParallelism(), chunks.size());
+		logger.debug("Posting {} documents in {} chunks using {} threads", requests.size(), chunks.size(), parallelism);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(
+				parallelism,
+				CustomizableThreadFactory.builder()
+						.setThreadNamePrefix(DocumentPostingEngine.class.getSimpleName())
+						.setDaemon(true)
+						.build());
+		try
+		{
+			final List<Future<DocumentPostingEngineResult>> futures = new ArrayList<>(chunks.size());
+			for (final List<DocumentPostRequest> chunk : chunks)
+			{
+				futures.add(executor.submit(() -> postChunk(chunk)));
+			}
+
+			DocumentPostingEngineResult result = DocumentPostingEngineResult.EMPTY;
+			for (final Future<DocumentPostingEngineResult> future : futures)
+			{
+				result = result.combine(future.get());
+			}
+			return result;
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+		catch (final ExecutionException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex.getCause());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	private int getParallelism()
+	{
+		return Math.max(sysConfigBL.getIntValue(SYSCONFIG_Parallelism, DEFAULT_Parallelism), 1);
+	}
+
+	/**
+	 * @return chunks of requests which have the same AD_Client_ID and document table, in the order of their first request
+	 */
+	private List<List<DocumentPostRequest>> createChunks(final Collection<DocumentPostRequest> requests)
+	{
+		final Map<ArrayKey, List<DocumentPostRequest>> requestsByClientAndTable = new LinkedHashMap<>();
+		for (final DocumentPostRequest request : requests)
+		{
+			final ArrayKey key = ArrayKey.of(request.getClientId(), request.getRecord().getTableName());
+			requestsByClientAndTable.computeIfAbsent(key, k -> new ArrayList<>()).add(request);
+		}
+
+		final int chunkSize = Math.max(sysConfigBL.getIntValue(SYSCONFIG_ChunkSize, DEFAULT_ChunkSize), 1);
+		final List<List<DocumentPostRequest>> chunks = new ArrayList<>();
+		for (final List<DocumentPostRequest> group : requestsByClientAndTable.values())
+		{
+			Iterables.partition(group, chunkSize).forEach(chunks::add);
+		}
+		return chunks;
+	}
+
+	private DocumentPostingEngineResult postChunk(final List<DocumentPostRequest> chunk)
+	{
+		final ClientId clientId = chunk.get(0).getClientId();
+
+		final Properties ctx = Env.newTemporaryCtx();
+		Env.setClientId(ctx, clientId);
+
+		try (final IAutoCloseable ignored = Env.switchContext(ctx))
+		{
+			final List<AcctSchema> acctSchemas = acctSchemaDAO.getAllByClient(clientId);
+
+			int countPosted = 0;
+			final Map<TableRecordReference, AdempiereException> errorsByRecord = new LinkedHashMap<>();
+			for (final DocumentPostRequest request : chunk)
+			{
+				final TableRecordReference documentRef = request.getRecord();
+				try (final MDCCloseable ignored1 = TableRecordMDC.putTableRecordReference(documentRef))
+				{
+					// NOTE: there is no thread inherited transaction in this thread, so each document is posted in its own transaction
+					docFactory.get(acctSchemas, documentRef).post(request.isForce(), true);
+					countPosted++;
+				}
+				catch (final Exception ex)
+				{
+					logger.warn("Failed posting {}", documentRef, ex);
+					errorsByRecord.put(documentRef, AdempiereException.wrapIfNeeded(ex));
+				}
+			}
+
+			return DocumentPostingEngineResult.of(countPosted, errorsByRecord);
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package de.metas.acct.posting;
+
+import com.google.common.collect.ImmutableMap;
+import lombok.NonNull;
+import lombok.Value;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.lang.impl.TableRecordReference;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Outcome of {@link DocumentPostingEngine#postAll(java.util.Collection)}.
+ */
+@Value
+public class DocumentPostingEngineResult
+{
+	public static final DocumentPostingEngineResult EMPTY = new DocumentPostingEngineResult(0, ImmutableMap.of());
+
+	int countPosted;
+	ImmutableMap<TableRecordReference, AdempiereException> errorsByRecord;
+
+	private DocumentPostingEngineResult(final int countPosted, @NonNull final Map<TableRecordReference, AdempiereException> errorsByRecord)
+	{
+		this.countPosted = countPosted;
+		this.errorsByRecord = ImmutableMap.copyOf(errorsByRecord);
+	}
+
+	public static DocumentPostingEngineResult of(final int countPosted, @NonNull final Map<TableRecordReference, AdempiereException> errorsByRecord)
+	{
+		return countPosted == 0 && errorsByRecord.isEmpty() ? EMPTY : new DocumentPostingEngineResult(countPosted, errorsByRecord);
+	}
+
+	public int getCountErrors()
+	{
+		return errorsByRecord.size();
+	}
+
+	public DocumentPostingEngineResult combine(@NonNull final DocumentPostingEngineResult other)
+	{
+		if (other == EMPTY)
+		{
+			return this;
+		}
+		if (this == EMPTY)
+		{
+			return other;
+		}
+
+		final Map<TableRecordReference, AdempiereException> errorsByRecord = new LinkedHashMap<>(this.errorsByRecord);
+		errorsByRecord.putAll(other.errorsByRecord);
+		return new DocumentPostingEngineResult(this.countPosted + other.countPosted, errorsByRecord);
+	}
+}
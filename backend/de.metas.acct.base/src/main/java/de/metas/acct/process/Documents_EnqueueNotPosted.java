@@ -3,10 +3,13 @@ package de.metas.acct.process;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.Adempiere;
 import org.compiere.util.DB;
@@ -14,6 +17,9 @@ import org.compiere.util.DB;
 import de.metas.acct.api.IPostingRequestBuilder.PostImmediate;
 import de.metas.acct.doc.AcctDocRegistry;
 import de.metas.acct.api.IPostingService;
+import de.metas.acct.posting.DocumentPostRequest;
+import de.metas.acct.posting.DocumentPostingEngine;
+import de.metas.acct.posting.DocumentPostingEngineResult;
 import de.metas.process.JavaProcess;
 import de.metas.process.RunOutOfTrx;
 import de.metas.util.Services;
@@ -44,20 +50,86 @@ public class Documents_EnqueueNotPosted extends JavaProcess
 {
 	private final transient AcctDocRegistry docFactory = Adempiere.getBean(AcctDocRegistry.class);
 	private final transient IPostingService postingService = Services.get(IPostingService.class);
+	private final transient ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	/**
+	 * If <code>Y</code>, the documents are not enqueued but posted right away, by this process, using the {@link DocumentPostingEngine}.
+	 * Useful to repost a lot of documents, e.g. after a year end.
+	 */
+	private static final String SYSCONFIG_PostDirectly = "de.metas.acct.process.Documents_EnqueueNotPosted.PostDirectly";
 
 	@Override
 	@RunOutOfTrx
 	protected String doIt()
 	{
+		final boolean postDirectly = sysConfigBL.getBooleanValue(SYSCONFIG_PostDirectly, false, getAD_Client_ID());
 		for (final String docTableName : docFactory.getDocTableNames())
 		{
-			enqueueDocuments(docTableName);
+			if (postDirectly)
+			{
+				postDocuments(docTableName);
+			}
+			else
+			{
+				enqueueDocuments(docTableName);
+			}
 		}
 
 		return MSG_OK;
 	}
 
 	private void enqueueDocuments(final String docTableName)
+	{
+		int countEnqueued = 0;
+		try
+		{
+			for (final int recordId : retrieveNotPostedRecordIds(docTableName))
+			{
+				enqueueDocument(docTableName, recordId);
+				countEnqueued++;
+			}
+		}
+		catch (final Exception ex)
+		{
+			addLog("{}: error: {}. Check log.", docTableName, ex.getLocalizedMessage());
+			log.warn("Error while processing {}", docTableName, ex);
+		}
+
+		if (countEnqueued > 0)
+		{
+			addLog("{}: enqueued {} documents", docTableName, countEnqueued);
+		}
+	}
+
+	private void postDocuments(final String docTableName)
+	{
+		try
+		{
+			final List<DocumentPostRequest> requests = new ArrayList<>();
+			for (final int recordId : retrieveNotPostedRecordIds(docTableName))
+			{
+				requests.add(DocumentPostRequest.builder()
+						.record(TableRecordReference.of(docTableName, recordId))
+						.clientId(ClientId.ofRepoId(getAD_Client_ID()))
+						.force(false) // don't force it
+						.build());
+			}
+			if (requests.isEmpty())
+			{
+				return;
+			}
+
+			final DocumentPostingEngineResult result = Adempiere.getBean(DocumentPostingEngine.class).postAll(requests);
+			addLog("{}: posted {} documents, {} errors", docTableName, result.getCountPosted(), result.getCountErrors());
+		}
+		catch (final Exception ex)
+		{
+			addLog("{}: error: {}. Check log.", docTableName, ex.getLocalizedMessage());
+			log.warn("Error while processing {}", docTableName, ex);
+		}
+	}
+
+	private List<Integer> retrieveNotPostedRecordIds(final String docTableName)
 	{
 		final String keyColumnName = InterfaceWrapperHelper.getKeyColumnName(docTableName);
 
@@ -69,25 +141,16 @@ public class Documents_EnqueueNotPosted extends JavaProcess
 				.append(" ORDER BY Created")
 				.toString();
 
+		final List<Integer> recordIds = new ArrayList<>();
 		PreparedStatement pstmt = null;
 		ResultSet rs = null;
 		try
 		{
 			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
 			rs = pstmt.executeQuery();
-
-			int countEnqueued = 0;
 			while (rs.next())
 			{
-				final int recordId = rs.getInt(keyColumnName);
-
-				enqueueDocument(docTableName, recordId);
-				countEnqueued++;
-			}
-
-			if (countEnqueued > 0)
-			{
-				addLog("{}: enqueued {} documents", docTableName, countEnqueued);
+				recordIds.add(rs.getInt(keyColumnName));
 			}
 		}
 		catch (final SQLException ex)
@@ -95,15 +158,12 @@ public class Documents_EnqueueNotPosted extends JavaProcess
 			addLog("{}: failed fetching IDs. Check log.", docTableName);
 			log.warn("Failed fetching IDs: \n SQL={} \n Params={}", sql, ex);
 		}
-		catch (final Exception ex)
-		{
-			addLog("{}: error: {}. Check log.", docTableName, ex.getLocalizedMessage());
-			log.warn("Error while processing {}", docTableName, ex);
-		}
 		finally
 		{
 			DB.close(rs, pstmt);
 		}
+
+		return recordIds;
 	}
 
 	private void enqueueDocument(final String tableName, final int recordId)
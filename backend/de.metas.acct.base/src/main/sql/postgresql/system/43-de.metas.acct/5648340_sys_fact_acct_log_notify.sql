@@ -0,0 +1,24 @@
+-- Notify the FactAcctLogDBTableWatcher about new Fact_Acct_Log records, so it does not have to wait for its next poll.
+-- NOTE: postgres delivers the notifications when the transaction is committed and sends the same notification only once per transaction.
+
+CREATE OR REPLACE FUNCTION de_metas_acct.fact_acct_log_notify_tg_fn()
+    RETURNS trigger
+    LANGUAGE plpgsql
+AS
+$BODY$
+BEGIN
+    PERFORM pg_notify('fact_acct_log_changed', '');
+    RETURN NULL;
+END;
+$BODY$
+;
+
+DROP TRIGGER IF EXISTS fact_acct_log_notify_tg ON Fact_Acct_Log
+;
+
+CREATE TRIGGER fact_acct_log_notify_tg
+    AFTER INSERT
+    ON Fact_Acct_Log
+    FOR EACH STATEMENT
+EXECUTE PROCEDURE de_metas_acct.fact_acct_log_notify_tg_fn()
+;
@@ -0,0 +1,4 @@
+-- 2026-10-18T10:00:00Z
+INSERT INTO AD_SysConfig (AD_Client_ID,AD_Org_ID,AD_SysConfig_ID,ConfigurationLevel,Created,CreatedBy,Description,EntityType,IsActive,Name,Updated,UpdatedBy,Value) VALUES (0,0,541467,'C',TO_TIMESTAMP('2026-10-18 10:00:00','YYYY-MM-DD HH24:MI:SS'),100,'When ''Y'', the financial reports (without report cube and without restrictions other than account and organization) are computed from an in-memory cube of Fact_Acct instead of SQL. The cube is only used where the accounting service runs; everywhere else the reports are computed via SQL.
+The results are the same as via SQL: before a report is computed from the cube, the pending Fact_Acct_Log records are processed, so the cube contains all Fact_Acct records which were committed until then, including the latest postings.','de.metas.acct','Y','de.metas.acct.cube.FactAcctColumnarCube.Enabled',TO_TIMESTAMP('2026-10-18 10:00:00','YYYY-MM-DD HH24:MI:SS'),100,'N')
+;
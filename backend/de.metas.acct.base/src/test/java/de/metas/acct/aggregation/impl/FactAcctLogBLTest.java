@@ -1,5 +1,6 @@
 package de.metas.acct.aggregation.impl;
 
+import de.metas.acct.aggregation.FactAcctLogProcessResult;
 import de.metas.acct.aggregation.IFactAcctLogBL;
 import de.metas.acct.aggregation.IFactAcctLogDAO;
 import de.metas.acct.aggregation.IFactAcctSummaryKey;
@@ -56,6 +57,7 @@ public class FactAcctLogBLTest
 
 	private static final AcctSchemaId C_AcctSchema_ID1 = AcctSchemaId.ofRepoId(1);
 	private final ElementValueId C_ElementValue_ID1 = ElementValueId.ofRepoId(1);
+	private final ElementValueId C_ElementValue_ID2 = ElementValueId.ofRepoId(2);
 
 	private I_C_Period year2014_p1;
 
@@ -190,6 +192,47 @@ public class FactAcctLogBLTest
 
 	}
 
+	@Test
+	public void test_SummedUpPerKey()
+	{
+		final I_Fact_Acct_Log log1 = newFactAcctLogBuilder()
+				.setDateAcct("2014-01-07")
+				.setC_ElementValue_ID(C_ElementValue_ID1)
+				.setAction(X_Fact_Acct_Log.ACTION_Insert)
+				.setAmtAcctDr(100)
+				.build();
+		final I_Fact_Acct_Log log2 = newFactAcctLogBuilder()
+				.setDateAcct("2014-01-07")
+				.setC_ElementValue_ID(C_ElementValue_ID2)
+				.setAction(X_Fact_Acct_Log.ACTION_Insert)
+				.setAmtAcctCr(7)
+				.build();
+		newFactAcctLogBuilder()
+				.setDateAcct("2014-01-07")
+				.setC_ElementValue_ID(C_ElementValue_ID1)
+				.setAction(X_Fact_Acct_Log.ACTION_Insert)
+				.setAmtAcctDr(20)
+				.build();
+		newFactAcctLogBuilder()
+				.setDateAcct("2014-01-07")
+				.setC_ElementValue_ID(C_ElementValue_ID2)
+				.setAction(X_Fact_Acct_Log.ACTION_Delete)
+				.setAmtAcctCr(2)
+				.build();
+
+		final FactAcctLogProcessResult result = factAcctLogBL.processAll(Env.getCtx(), QueryLimit.NO_LIMIT);
+		assertThat(result.getProcessedLogRecordsCount()).isEqualTo(4);
+		assertNoLogs();
+
+		final List<I_Fact_Acct_Summary> summaries1 = retrieveAllFactAcctSummariesFor(FactAcctSummaryKey.of(log1));
+		assertThat(summaries1).hasSize(1);
+		assertEquals("Summary AmtAcctDr", 100 + 20, summaries1.get(0).getAmtAcctDr().intValueExact());
+
+		final List<I_Fact_Acct_Summary> summaries2 = retrieveAllFactAcctSummariesFor(FactAcctSummaryKey.of(log2));
+		assertThat(summaries2).hasSize(1);
+		assertEquals("Summary AmtAcctCr", 7 - 2, summaries2.get(0).getAmtAcctCr().intValueExact());
+	}
+
 	private Fact_Acct_Log_Builder newFactAcctLogBuilder()
 	{
 		return Fact_Acct_Log_Builder.newBuilder()
@@ -0,0 +1,119 @@
+package de.metas.acct.cube;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import de.metas.acct.api.AcctSchemaId;
+import de.metas.organization.OrgId;
+import org.adempiere.service.ClientId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class FactAcctColumnarCubeTest
+{
+	private static final int ACCT_SCHEMA_ID = 1;
+	private static final int ACCOUNT_ID1 = 101;
+	private static final int ACCOUNT_ID2 = 102;
+	private static final int ORG_ID1 = 1000001;
+	private static final int ORG_ID2 = 1000002;
+
+	private FactAcctColumnarCube cube;
+
+	@BeforeEach
+	public void init()
+	{
+		cube = new FactAcctColumnarCube(ClientId.ofRepoId(1000000), 0);
+
+		addRow(ACCOUNT_ID1, ORG_ID1, "2022-01-10", "A", "100", "0", 1);
+		addRow(ACCOUNT_ID1, ORG_ID2, "2022-02-10", "A", "50.5", "0", 2);
+		addRow(ACCOUNT_ID1, ORG_ID1, "2022-02-10", "B", "1000", "0", 1);
+		addRow(ACCOUNT_ID2, ORG_ID1, "2022-02-15", "A", "0", "150.5", 3);
+		addRow(ACCOUNT_ID2, ORG_ID1, "2021-12-31", "A", "0", "7", 1);
+	}
+
+	private void addRow(final int accountId, final int orgId, final String dateAcct, final String postingType, final String amtAcctDr, final String amtAcctCr, final int factAcctCount)
+	{
+		cube.addRow(ACCT_SCHEMA_ID, accountId, orgId, LocalDate.parse(dateAcct), postingType, new BigDecimal(amtAcctDr), new BigDecimal(amtAcctCr), BigDecimal.ZERO, factAcctCount);
+	}
+
+	@Test
+	public void sumByAccount_allRows()
+	{
+		final ImmutableMap<Integer, FactAcctColumnarCubeAmounts> sums = cube.sumByAccount(FactAcctColumnarCubeQuery.builder()
+				.dateAcctTo(LocalDate.parse("2022-12-31"))
+				.build());
+
+		assertThat(sums).containsOnlyKeys(ACCOUNT_ID1, ACCOUNT_ID2);
+		assertThat(sums.get(ACCOUNT_ID1).getAmtAcctDr()).isEqualByComparingTo("1150.5");
+		assertThat(sums.get(ACCOUNT_ID1).getFactAcctCount()).isEqualTo(4);
+		assertThat(sums.get(ACCOUNT_ID2).getAmtAcctCr()).isEqualByComparingTo("157.5");
+		assertThat(sums.get(ACCOUNT_ID2).getFactAcctCount()).isEqualTo(4);
+	}
+
+	@Test
+	public void sumByAccount_filtered()
+	{
+		final ImmutableMap<Integer, FactAcctColumnarCubeAmounts> sums = cube.sumByAccount(FactAcctColumnarCubeQuery.builder()
+				.acctSchemaId(AcctSchemaId.ofRepoId(ACCT_SCHEMA_ID))
+				.dateAcctFrom(LocalDate.parse("2022-01-01"))
+				.dateAcctTo(LocalDate.parse("2022-02-10"))
+				.postingType("A")
+				.orgIds(ImmutableSet.of(OrgId.ofRepoId(ORG_ID1)))
+				.build());
+
+		assertThat(sums).containsOnlyKeys(ACCOUNT_ID1);
+		assertThat(sums.get(ACCOUNT_ID1).getAmtAcctDr()).isEqualByComparingTo("100");
+		assertThat(sums.get(ACCOUNT_ID1).getAmtAcctCr()).isEqualByComparingTo("0");
+		assertThat(sums.get(ACCOUNT_ID1).getFactAcctCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void sumByAccount_accountWithoutRecordsIsNotReturned()
+	{
+		// e.g. a Fact_Acct record was deleted after the cube was loaded
+		addRow(ACCOUNT_ID2, ORG_ID1, "2021-12-31", "A", "0", "-7", -1);
+
+		final ImmutableMap<Integer, FactAcctColumnarCubeAmounts> sums = cube.sumByAccount(FactAcctColumnarCubeQuery.builder()
+				.dateAcctTo(LocalDate.parse("2021-12-31"))
+				.build());
+
+		assertThat(sums).isEmpty();
+	}
+
+	@Test
+	public void addRow_amountTooBig()
+	{
+		final int rowsCount = cube.getRowsCount();
+
+		assertThatThrownBy(() -> addRow(ACCOUNT_ID1, ORG_ID1, "2022-01-10", "A", "1E+20", "0", 1))
+				.isInstanceOf(ArithmeticException.class);
+		assertThat(cube.getRowsCount()).isEqualTo(rowsCount);
+	}
+}
@@ -0,0 +1,163 @@
+package de.metas.acct.posting;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.Adempiere;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.I_C_Invoice;
+import org.compiere.model.I_C_Payment;
+import org.compiere.model.I_M_InOut;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.junit.Ignore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import java.util.List;
+
+/**
+ * Measures how {@link DocumentPostingEngine} scales with the number of threads (see its <code>Parallelism</code> sysconfig)
+ * and checks that the resulting accounting is the same as when posting with one thread.
+ * <p>
+ * Needs a running database (connection settings like for any other metasfresh server) with completed and posted invoices, shipments/receipts and payments.
+ * The most recent {@value #DEFAULT_DocumentsPerTable} documents of each kind (system property <code>DocumentsPerTable</code>) of the client given by the system property <code>AD_Client_ID</code> are reposted.
+ * To get such a data set, generate documents e.g. via the cucumber tests or copy a production database.
+ * The sysconfig is reset at the end.
+ */
+@SpringBootApplication(scanBasePackages = { "de.metas", "org.adempiere" })
+@Ignore
+public class DocumentPostingEngineBenchmarkManualTest
+{
+	private static final String SYSCONFIG_Parallelism = "de.metas.acct.posting.DocumentPostingEngine.Parallelism";
+	private static final int[] THREAD_COUNTS = { 1, 2, 4, 8, 16 };
+	private static final int DEFAULT_DocumentsPerTable = 1000;
+	private static final List<String> DOCUMENT_TABLE_NAMES = ImmutableList.of(I_C_Invoice.Table_Name, I_M_InOut.Table_Name, I_C_Payment.Table_Name);
+
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	public static void main(final String[] args)
+	{
+		Adempiere.instance.startup(RunMode.BACKEND);
+
+		new SpringApplicationBuilder(DocumentPostingEngineBenchmarkManualTest.class)
+				.headless(true)
+				.web(WebApplicationType.NONE)
+				.run(args);
+	}
+
+	@Bean(Adempiere.BEAN_NAME)
+	public Adempiere adempiere()
+	{
+		return Env.getSingleAdempiereInstance(applicationContext);
+	}
+
+	@Bean
+	CommandLineRunner benchmark(final DocumentPostingEngine postingEngine)
+	{
+		return args -> run(postingEngine);
+	}
+
+	private void run(final DocumentPostingEngine postingEngine)
+	{
+		final ClientId clientId = ClientId.ofRepoId(Integer.getInteger("AD_Client_ID", 1000000));
+		final int documentsPerTable = Integer.getInteger("DocumentsPerTable", DEFAULT_DocumentsPerTable);
+		final List<DocumentPostRequest> requests = retrieveRequests(clientId, documentsPerTable);
+		System.out.printf("Reposting %d documents of %s%n", requests.size(), clientId);
+
+		String singleThreadedChecksum = null;
+		try
+		{
+			for (final int threadCount : THREAD_COUNTS)
+			{
+				sysConfigBL.setValue(SYSCONFIG_Parallelism, threadCount, ClientId.SYSTEM, OrgId.ANY);
+
+				final long start = System.currentTimeMillis();
+				final DocumentPostingEngineResult result = postingEngine.postAll(requests);
+				final long durationMillis = System.currentTimeMillis() - start;
+
+				final String checksum = retrieveFactAcctChecksum(clientId);
+				if (singleThreadedChecksum == null)
+				{
+					singleThreadedChecksum = checksum;
+				}
+
+				System.out.printf("threads=%2d posted=%6d errors=%5d duration=%7dms throughput=%7.1f docs/s sameAsSingleThreaded=%s%n",
+						threadCount, result.getCountPosted(), result.getCountErrors(), durationMillis, result.getCountPosted() * 1000.0 / Math.max(durationMillis, 1), checksum.equals(singleThreadedChecksum));
+			}
+		}
+		finally
+		{
+			sysConfigBL.setValue(SYSCONFIG_Parallelism, 1, ClientId.SYSTEM, OrgId.ANY);
+		}
+	}
+
+	private List<DocumentPostRequest> retrieveRequests(final ClientId clientId, final int documentsPerTable)
+	{
+		final ImmutableList.Builder<DocumentPostRequest> requests = ImmutableList.builder();
+		for (final String tableName : DOCUMENT_TABLE_NAMES)
+		{
+			final List<Integer> recordIds = queryBL.createQueryBuilderOutOfTrx(tableName)
+					.addEqualsFilter("AD_Client_ID", clientId.getRepoId())
+					.addEqualsFilter("Posted", "Y")
+					.orderByDescending(InterfaceWrapperHelper.getKeyColumnName(tableName))
+					.setLimit(documentsPerTable)
+					.create()
+					.listIds();
+
+			for (final int recordId : recordIds)
+			{
+				requests.add(DocumentPostRequest.builder()
+						.record(TableRecordReference.of(tableName, recordId))
+						.clientId(clientId)
+						.force(true)
+						.build());
+			}
+		}
+		return requests.build();
+	}
+
+	private static String retrieveFactAcctChecksum(final ClientId clientId)
+	{
+		return DB.getSQLValueStringEx(ITrx.TRXNAME_None,
+				"SELECT COUNT(1) || '/' || SUM(AmtAcctDr) || '/' || SUM(AmtAcctCr) FROM Fact_Acct WHERE AD_Client_ID=?",
+				clientId.getRepoId());
+	}
+}
@@ -0,0 +1,180 @@
+package org.compiere.report;
+
+import com.google.common.collect.ImmutableSet;
+import de.metas.acct.api.AcctSchemaId;
+import de.metas.acct.cube.FactAcctColumnarCube;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_ElementValue;
+import org.compiere.model.X_C_ElementValue;
+import org.compiere.model.X_PA_ReportLine;
+import org.compiere.util.Env;
+import org.compiere.util.TimeUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+
+/*
+ * #%L
+ * de.metas.acct.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * The expected values are the ones which {@link FinReport}'s SQL returns, i.e. <code>SUM(acctBalance(Account_ID,AmtAcctDr,AmtAcctCr))</code> etc
+ * restricted by <code>C_AcctSchema_ID</code> and the period's <code>DateAcct</code> range.
+ */
+public class FinReportColumnarCubeCalculatorTest
+{
+	private static final AcctSchemaId ACCT_SCHEMA_ID = AcctSchemaId.ofRepoId(1);
+	private static final AcctSchemaId OTHER_ACCT_SCHEMA_ID = AcctSchemaId.ofRepoId(2);
+	private static final int ORG_ID = 1000001;
+
+	/** February 2022 */
+	private static final FinReportPeriod PERIOD = new FinReportPeriod(
+			1,
+			"2022-02",
+			TimeUtil.getDay(2022, 2, 1),
+			TimeUtil.getDay(2022, 2, 28),
+			TimeUtil.getDay(2022, 1, 1));
+
+	private FactAcctColumnarCube cube;
+	private int assetAccountId;
+	private int liabilityAccountId;
+	private int revenueAccountId;
+	private int expenseCreditSignAccountId;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		assetAccountId = createAccount(X_C_ElementValue.ACCOUNTTYPE_Asset, X_C_ElementValue.ACCOUNTSIGN_Natural);
+		liabilityAccountId = createAccount(X_C_ElementValue.ACCOUNTTYPE_Liability, X_C_ElementValue.ACCOUNTSIGN_Natural);
+		revenueAccountId = createAccount(X_C_ElementValue.ACCOUNTTYPE_Revenue, X_C_ElementValue.ACCOUNTSIGN_Natural);
+		expenseCreditSignAccountId = createAccount(X_C_ElementValue.ACCOUNTTYPE_Expense, X_C_ElementValue.ACCOUNTSIGN_Credit);
+
+		cube = new FactAcctColumnarCube(ClientId.ofRepoId(Env.getAD_Client_ID(Env.getCtx())), 0);
+	}
+
+	private static int createAccount(final String accountType, final String accountSign)
+	{
+		final I_C_ElementValue account = InterfaceWrapperHelper.newInstance(I_C_ElementValue.class);
+		account.setAccountType(accountType);
+		account.setAccountSign(accountSign);
+		InterfaceWrapperHelper.saveRecord(account);
+		return account.getC_ElementValue_ID();
+	}
+
+	private void addRow(final AcctSchemaId acctSchemaId, final int accountId, final String dateAcct, final String amtAcctDr, final String amtAcctCr)
+	{
+		cube.addRow(acctSchemaId.getRepoId(), accountId, ORG_ID, LocalDate.parse(dateAcct), X_PA_ReportLine.POSTINGTYPE_Actual, new BigDecimal(amtAcctDr), new BigDecimal(amtAcctCr), BigDecimal.ONE, 1);
+	}
+
+	@Nullable
+	private BigDecimal computeValue(final int accountId, final String amountType, final String periodType)
+	{
+		return FinReportColumnarCubeCalculator.builder()
+				.cube(cube)
+				.acctSchemaId(ACCT_SCHEMA_ID)
+				.ctx(Env.getCtx())
+				.build()
+				.computeValue(ImmutableSet.of(accountId), null, X_PA_ReportLine.POSTINGTYPE_Actual, amountType, periodType, PERIOD);
+	}
+
+	@Test
+	public void balanceExpectedSign_likeAcctBalance()
+	{
+		addRow(ACCT_SCHEMA_ID, assetAccountId, "2022-02-10", "100", "30");
+		addRow(ACCT_SCHEMA_ID, liabilityAccountId, "2022-02-10", "30", "100");
+		addRow(ACCT_SCHEMA_ID, expenseCreditSignAccountId, "2022-02-10", "100", "30");
+		final int unknownAccountId = 999999;
+		addRow(ACCT_SCHEMA_ID, unknownAccountId, "2022-02-10", "100", "30");
+
+		final String amountType = X_PA_ReportLine.PAAMOUNTTYPE_BalanceExpectedSign;
+		final String periodType = X_PA_ReportLine.PAPERIODTYPE_Period;
+		assertThat(computeValue(assetAccountId, amountType, periodType)).isEqualByComparingTo("70"); // natural asset: debit
+		assertThat(computeValue(liabilityAccountId, amountType, periodType)).isEqualByComparingTo("70"); // natural liability: credit
+		assertThat(computeValue(expenseCreditSignAccountId, amountType, periodType)).isEqualByComparingTo("-70"); // explicit credit sign
+		assertThat(computeValue(unknownAccountId, amountType, periodType)).isEqualByComparingTo("70"); // acctBalance falls back to debit - credit
+
+		assertThat(computeValue(liabilityAccountId, X_PA_ReportLine.PAAMOUNTTYPE_BalanceAccountedSign, periodType)).isEqualByComparingTo("-70");
+		assertThat(computeValue(liabilityAccountId, X_PA_ReportLine.PAAMOUNTTYPE_QuantityExpectedSign, periodType)).isEqualByComparingTo("-1");
+	}
+
+	@Test
+	public void periodTypes()
+	{
+		addRow(ACCT_SCHEMA_ID, assetAccountId, "2021-12-15", "1000", "0");
+		addRow(ACCT_SCHEMA_ID, assetAccountId, "2022-01-10", "100", "0");
+		addRow(ACCT_SCHEMA_ID, assetAccountId, "2022-02-01", "10", "0");
+		addRow(ACCT_SCHEMA_ID, assetAccountId, "2022-02-28", "1", "0");
+		addRow(ACCT_SCHEMA_ID, assetAccountId, "2022-03-01", "10000", "0"); // after the period
+
+		addRow(ACCT_SCHEMA_ID, revenueAccountId, "2021-12-15", "0", "500");
+		addRow(ACCT_SCHEMA_ID, revenueAccountId, "2022-02-10", "0", "50");
+
+		final String amountType = X_PA_ReportLine.PAAMOUNTTYPE_BalanceExpectedSign;
+		assertThat(computeValue(assetAccountId, amountType, X_PA_ReportLine.PAPERIODTYPE_Period)).isEqualByComparingTo("11");
+		assertThat(computeValue(assetAccountId, amountType, X_PA_ReportLine.PAPERIODTYPE_Year)).isEqualByComparingTo("111");
+		assertThat(computeValue(assetAccountId, amountType, X_PA_ReportLine.PAPERIODTYPE_Total)).isEqualByComparingTo("1111");
+
+		// natural: balance sheet accounts from the beginning, income statement accounts from the beginning of the year
+		assertThat(computeValue(assetAccountId, amountType, X_PA_ReportLine.PAPERIODTYPE_Natural)).isEqualByComparingTo("1111");
+		assertThat(computeValue(revenueAccountId, amountType, X_PA_ReportLine.PAPERIODTYPE_Natural)).isEqualByComparingTo("50");
+		assertThat(computeValue(revenueAccountId, amountType, X_PA_ReportLine.PAPERIODTYPE_Total)).isEqualByComparingTo("550");
+	}
+
+	@Test
+	public void zeroLine_onlyIfThereAreNoFactAcctRecords()
+	{
+		addRow(ACCT_SCHEMA_ID, assetAccountId, "2022-01-10", "100", "0");
+		addRow(ACCT_SCHEMA_ID, liabilityAccountId, "2022-02-10", "100", "0");
+		addRow(ACCT_SCHEMA_ID, liabilityAccountId, "2022-02-11", "0", "100");
+
+		final String amountType = X_PA_ReportLine.PAAMOUNTTYPE_BalanceExpectedSign;
+		final String periodType = X_PA_ReportLine.PAPERIODTYPE_Period;
+
+		// SUM over no rows is NULL, so the line is a zero line and gets suppressed
+		assertThat(computeValue(assetAccountId, amountType, periodType)).isNull();
+		assertThat(computeValue(revenueAccountId, amountType, periodType)).isNull();
+
+		// SUM over rows which are balancing out is 0, so the line is kept
+		assertThat(computeValue(liabilityAccountId, amountType, periodType)).isEqualByComparingTo("0");
+	}
+
+	@Test
+	public void onlyTheReportsAcctSchemaIsSummedUp()
+	{
+		addRow(ACCT_SCHEMA_ID, assetAccountId, "2022-02-10", "100", "0");
+		addRow(OTHER_ACCT_SCHEMA_ID, assetAccountId, "2022-02-10", "80", "0");
+		addRow(OTHER_ACCT_SCHEMA_ID, liabilityAccountId, "2022-02-10", "0", "80");
+
+		final String amountType = X_PA_ReportLine.PAAMOUNTTYPE_BalanceExpectedSign;
+		final String periodType = X_PA_ReportLine.PAPERIODTYPE_Period;
+		assertThat(computeValue(assetAccountId, amountType, periodType)).isEqualByComparingTo("100");
+		assertThat(computeValue(liabilityAccountId, amountType, periodType)).isNull();
+	}
+}
@@ -70,11 +70,13 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.stream.Stream;
 
 /**
  * @author Low Heng Sin
@@ -243,6 +245,12 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 		return this;
 	}
 
+	@Nullable
+	/* package */ IQueryOrderBy getQueryOrderBy()
+	{
+		return queryOrderBy;
+	}
+
 	@Override
 	public TypedSqlQuery<T> setRequiredAccess(@Nullable final Access access)
 	{
@@ -338,9 +346,27 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 			rs = null;
 			pstmt = null;
 		}
+
+		prefetchReferencedRecords(list);
+
 		return list;
 	}
 
+	/**
+	 * @see #OPTION_PrefetchColumnNames
+	 */
+	private void prefetchReferencedRecords(final List<?> models)
+	{
+		final Collection<String> prefetchColumnNames = getOption(OPTION_PrefetchColumnNames);
+		if (prefetchColumnNames == null || prefetchColumnNames.isEmpty())
+		{
+			return;
+		}
+
+		new ReferencedRecordsPrefetcher(getCtx(), getTableName(), prefetchColumnNames, trxName)
+				.prefetch(models);
+	}
+
 	/**
 	 * Move <code>rs</code>'s cursor forward and get next model.
 	 * <p>
@@ -390,6 +416,51 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 		return model;
 	}
 
+	@Override
+	public Stream<T> stream() throws DBException
+	{
+		return stream(modelClass);
+	}
+
+	/**
+	 * If {@link #OPTION_StreamUsingServerSideCursor} is set, then the records are lazily loaded through a server side cursor, see {@link ServerSideCursorSpliterator}.
+	 * The query's limit is part of the SQL, and the cursor is released right after the last row.
+	 * Else, this is the same as <code>list(clazz).stream()</code>.
+	 */
+	@Override
+	public <ET extends T> Stream<ET> stream(final Class<ET> clazz) throws DBException
+	{
+		if (!Boolean.TRUE.equals(getOption(OPTION_StreamUsingServerSideCursor)))
+		{
+			return list(clazz).stream();
+		}
+
+		final String sql = buildSQL(null, null, null, true); // includes the LIMIT, if any
+		final boolean readOnly = isReadOnlyRecords();
+		return ServerSideCursorSpliterator.stream(
+				sql,
+				getParametersEffective(),
+				trxName,
+				getStreamFetchSize(),
+				limit.toIntOrZero(),
+				rs -> {
+					final ET model = retrieveModel(rs, clazz);
+					if (postQueryFilter != null && !postQueryFilter.accept(model))
+					{
+						return null; // skip it
+					}
+
+					InterfaceWrapperHelper.setSaveDeleteDisabled(model, readOnly);
+					return model;
+				});
+	}
+
+	private int getStreamFetchSize()
+	{
+		final Integer fetchSize = getOption(OPTION_IteratorBufferSize);
+		return fetchSize != null && fetchSize > 0 ? fetchSize : ServerSideCursorSpliterator.DEFAULT_FetchSize;
+	}
+
 	/**
 	 * Return first PO that match query criteria
 	 *
@@ -751,6 +822,58 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 
 	@Override
 	protected final List<Map<String, Object>> listColumns(final boolean distinct, final String... columnNames)
+	{
+		final Map<String, Class<?>> columnName2class = new HashMap<>(columnNames.length);
+		final String sql = buildListColumnsSql(distinct, columnNames, columnName2class);
+
+		final List<Map<String, Object>> result = new ArrayList<>();
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, this.trxName);
+			rs = createResultSet(pstmt);
+			while (rs.next())
+			{
+				result.add(retrieveColumnsRow(rs, columnNames, columnName2class));
+			}
+		}
+		catch (final SQLException e)
+		{
+			throw new DBException(e, sql, getParametersEffective());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+			rs = null;
+			pstmt = null;
+		}
+		//
+		return result;
+	}
+
+	/**
+	 * Streams the given columns through a server side cursor, see {@link ServerSideCursorSpliterator}.
+	 */
+	@Override
+	protected final Stream<Map<String, Object>> streamColumns(final boolean distinct, final String... columnNames)
+	{
+		final Map<String, Class<?>> columnName2class = new HashMap<>(columnNames.length);
+		final String sql = buildListColumnsSql(distinct, columnNames, columnName2class);
+
+		return ServerSideCursorSpliterator.stream(
+				sql,
+				getParametersEffective(),
+				trxName,
+				getStreamFetchSize(),
+				limit.toIntOrZero(),
+				rs -> retrieveColumnsRow(rs, columnNames, columnName2class));
+	}
+
+	/**
+	 * @param columnName2class will be populated with the java classes of the given columns
+	 */
+	private String buildListColumnsSql(final boolean distinct, final String[] columnNames, final Map<String, Class<?>> columnName2class)
 	{
 		Check.assumeNotEmpty(columnNames, "columnNames not empty");
 
@@ -759,7 +882,6 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 		//
 		// Build columns SQL
 		final POInfo poInfo = getPOInfo();
-		final Map<String, Class<?>> columnName2class = new HashMap<>(columnNames.length);
 		final StringBuilder sqlColumnNames = new StringBuilder();
 		for (final String columnName : columnNames)
 		{
@@ -789,39 +911,19 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 		final StringBuilder fromClause = new StringBuilder(" FROM ").append(getSqlFrom());
 		final String groupByClause = null;
 		final boolean useOrderByClause = !distinct;
-		final String sql = buildSQL(sqlSelect, fromClause, groupByClause, useOrderByClause);
+		return buildSQL(sqlSelect, fromClause, groupByClause, useOrderByClause);
+	}
 
-		final List<Map<String, Object>> result = new ArrayList<>();
-		PreparedStatement pstmt = null;
-		ResultSet rs = null;
-		try
-		{
-			pstmt = DB.prepareStatement(sql, this.trxName);
-			rs = createResultSet(pstmt);
-			while (rs.next())
-			{
-				final Map<String, Object> row = new HashMap<>();
-				for (final String columnName : columnNames)
-				{
-					final Class<?> columnClass = columnName2class.get(columnName);
-					final Object value = DB.retrieveValue(rs, columnName, columnClass);
-					row.put(columnName, value);
-				}
-				result.add(row);
-			}
-		}
-		catch (final SQLException e)
-		{
-			throw new DBException(e, sql, getParametersEffective());
-		}
-		finally
+	private static Map<String, Object> retrieveColumnsRow(final ResultSet rs, final String[] columnNames, final Map<String, Class<?>> columnName2class) throws SQLException
+	{
+		final Map<String, Object> row = new HashMap<>();
+		for (final String columnName : columnNames)
 		{
-			DB.close(rs, pstmt);
-			rs = null;
-			pstmt = null;
+			final Class<?> columnClass = columnName2class.get(columnName);
+			final Object value = DB.retrieveValue(rs, columnName, columnClass);
+			row.put(columnName, value);
 		}
-		//
-		return result;
+		return row;
 	}
 
 	@Override
@@ -941,6 +1043,22 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 
 		final Integer iteratorBufferSize = getOption(OPTION_IteratorBufferSize);
 
+		if (Boolean.TRUE.equals(getOption(OPTION_KeysetIterator)))
+		{
+			Check.assume(unions == null || unions.isEmpty(), "No UNIONs shall be defined when iterating by keyset: {}", this);
+
+			final KeysetPOBufferedIterator<T, ET> it = new KeysetPOBufferedIterator<>(this, clazz);
+			if (iteratorBufferSize != null)
+			{
+				it.setBufferSize(iteratorBufferSize);
+			}
+			else if (limit.isLimited())
+			{
+				it.setBufferSize(limit.toInt());
+			}
+			return it;
+		}
+
 		if (guaranteed)
 		{
 			final GuaranteedPOBufferedIterator<T, ET> it = new GuaranteedPOBufferedIterator<>(this, clazz);
@@ -1027,6 +1145,24 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 		return this;
 	}
 
+	/**
+	 * @return a copy of this instance, with the given <code>whereClause</code> <code>AND</code>ed to its where clause and the given parameters appended to its parameters.
+	 */
+	/* package */ TypedSqlQuery<T> copyAndAddWhereClause(@NonNull final String whereClause, @NonNull final List<Object> whereClauseParams)
+	{
+		final TypedSqlQuery<T> queryTo = addWhereClause(true, whereClause);
+
+		final List<Object> parametersTo = new ArrayList<>();
+		if (parameters != null)
+		{
+			parametersTo.addAll(parameters);
+		}
+		parametersTo.addAll(whereClauseParams);
+		queryTo.parameters = parametersTo;
+
+		return queryTo;
+	}
+
 	/**
 	 * This method returns a copy of this instance.
 	 * <p>
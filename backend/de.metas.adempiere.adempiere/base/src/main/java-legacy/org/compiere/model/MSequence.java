@@ -16,10 +16,12 @@
  *****************************************************************************/
 package org.compiere.model;
 
+import com.google.common.collect.ImmutableList;
 import de.metas.document.sequence.IDocumentNoBuilder;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import lombok.NonNull;
 import org.adempiere.ad.migration.logger.IMigrationLogger;
 import org.adempiere.ad.service.ISequenceDAO;
 import org.adempiere.ad.trx.api.ITrx;
@@ -41,6 +43,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.List;
 import java.util.Properties;
 
 /**
@@ -242,6 +245,86 @@ public class MSequence extends X_AD_Sequence
 		}
 	}	// getNextID
 
+	/**
+	 * Reserves a block of IDs for given table, by advancing the table's AD_Sequence with just one UPDATE statement (no <code>SELECT ... FOR UPDATE</code>).
+	 * <p>
+	 * NOTE: the centralized ID servers and the dictionary maintenance mode are not supported, see {@link #isIdBlockAllocationAllowed(int, String)}.
+	 *
+	 * @return reserved IDs, in ascending order
+	 */
+	public static List<Integer> reserveNextIDs(@NonNull final String TableName, final int count)
+	{
+		Check.assume(count > 0, "count > 0 but it was {}", count);
+
+		final String sql = "UPDATE AD_Sequence SET CurrentNext = CurrentNext + IncrementNo * ?"
+				+ " WHERE Name=?"
+				+ " AND IsActive='Y' AND IsTableID='Y' AND IsAutoSequence='Y'"
+				+ " RETURNING CurrentNext - IncrementNo * ?, IncrementNo";
+
+		Connection conn = null;
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			conn = DB.getConnectionID();
+			pstmt = conn.prepareStatement(sql);
+			DB.setParameters(pstmt, count, TableName, count);
+			rs = pstmt.executeQuery();
+			if (!rs.next())
+			{
+				throw new AdempiereException("No AD_Sequence found for " + TableName);
+			}
+
+			final int firstId = rs.getInt(1);
+			final int incrementNo = rs.getInt(2);
+			conn.commit();
+
+			final ImmutableList.Builder<Integer> ids = ImmutableList.builder();
+			for (int i = 0; i < count; i++)
+			{
+				ids.add(firstId + i * incrementNo);
+			}
+			return ids.build();
+		}
+		catch (final SQLException ex)
+		{
+			try
+			{
+				if (conn != null)
+				{
+					conn.rollback();
+				}
+			}
+			catch (final SQLException ignored)
+			{
+			}
+
+			throw new DBException(ex, sql);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+			DB.close(conn);
+		}
+	}
+
+	/**
+	 * @return true if the IDs of given table may be reserved in blocks (see {@link #reserveNextIDs(String, int)})
+	 */
+	public static boolean isIdBlockAllocationAllowed(final int AD_Client_ID, final String TableName)
+	{
+		if (isAdempiereSys(AD_Client_ID))
+		{
+			return false;
+		}
+		if (Ini.isPropertyBool(Ini.P_LOGMIGRATIONSCRIPT)
+				&& Services.get(IMigrationLogger.class).isLogTableName(TableName))
+		{
+			return false;
+		}
+		return !isUseExternalIDSystem(TableName, AD_Client_ID);
+	}
+
 	/**
 	 * Get Next ID
 	 *
@@ -689,6 +689,22 @@ public class ModelValidationEngine implements IModelValidationEngine
 		this.removeModelChange(tableName, modelValidator);
 	}
 
+	/**
+	 * @return true if there are model change listeners registered for given table, either globally or for given client.
+	 * NOTE: AD_Table_ScriptValidator records are not considered.
+	 */
+	public boolean hasModelChangeListeners(@NonNull final String tableName, final int adClientId)
+	{
+		final List<ModelValidator> interceptorsSystem = m_modelChangeListeners.get(getPropertyName(tableName));
+		if (interceptorsSystem != null && !interceptorsSystem.isEmpty())
+		{
+			return true;
+		}
+
+		final List<ModelValidator> interceptorsClient = m_modelChangeListeners.get(getPropertyName(tableName, adClientId));
+		return interceptorsClient != null && !interceptorsClient.isEmpty();
+	}
+
 	public void fireModelChange(@NonNull final PO po, final ModelChangeType changeType)
 	{
 		final PerformanceMonitoringService performanceMonitoringService = SpringContextHolder.instance.getBeanOr(PerformanceMonitoringService.class, NoopPerformanceMonitoringService.INSTANCE);
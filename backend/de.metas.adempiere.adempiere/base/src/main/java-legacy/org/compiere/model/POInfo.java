@@ -6,6 +6,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Maps;
+import de.metas.cache.ApproximateSizeWeigher;
 import de.metas.cache.CCache;
 import de.metas.i18n.po.POTrlInfo;
 import de.metas.i18n.po.POTrlRepository;
@@ -124,9 +125,18 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 	private static final Logger logger = LogManager.getLogger(POInfo.class);
 
 	public static final String CACHE_PREFIX = "POInfo";
+	/**
+	 * There is only one entry, the {@link POInfoMap} of all tables, so the limit is way above its weight.
+	 * Weighing it still makes the table metadata count towards {@link de.metas.cache.CacheMgt}'s global memory budget,
+	 * but the cache is not trimmable, because reloading the metadata of all tables is expensive.
+	 */
+	private static final long POINFO_CACHE_MAX_WEIGHT_BYTES = 1024L * 1024 * 1024;
 	private static final CCache<Integer, POInfoMap> poInfoMapCache = CCache.<Integer, POInfoMap>builder()
 			.cacheName(CACHE_PREFIX)
 			.expireMinutes(CCache.EXPIREMINUTES_Never)
+			.maximumWeight(POINFO_CACHE_MAX_WEIGHT_BYTES)
+			.weigher((key, poInfoMap) -> poInfoMap.getApproximateWeight())
+			.trimmable(false)
 			.additionalTableNameToResetFor(I_AD_Table.Table_Name)
 			.additionalTableNameToResetFor(I_AD_Column.Table_Name)
 			.additionalTableNameToResetFor(I_AD_Element.Table_Name)
@@ -1335,11 +1345,13 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 	{
 		private final ImmutableMap<AdTableId, POInfo> byTableId;
 		private final ImmutableMap<String, POInfo> byTableNameUC;
+		private final int approximateWeight;
 
 		public POInfoMap(@NonNull final List<POInfo> poInfos)
 		{
 			byTableId = Maps.uniqueIndex(poInfos, POInfo::getAdTableId);
 			byTableNameUC = Maps.uniqueIndex(poInfos, POInfo::getTableNameUC);
+			approximateWeight = ApproximateSizeWeigher.instance.weigh(null, poInfos);
 		}
 
 		@Override
@@ -1350,6 +1362,14 @@ public final class POInfo implements Serializable, ColumnDisplayTypeProvider
 					.toString();
 		}
 
+		/**
+		 * @return approximate bytes retained by this map, computed once, because the map is immutable
+		 */
+		public int getApproximateWeight()
+		{
+			return approximateWeight;
+		}
+
 		@Nullable
 		public POInfo getByTableIdOrNull(@NonNull final AdTableId tableId)
 		{
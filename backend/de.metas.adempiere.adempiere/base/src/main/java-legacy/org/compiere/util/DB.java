@@ -85,6 +85,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
@@ -1784,16 +1785,38 @@ public class DB
 	public int getNextID(final int AD_Client_ID, final String TableName, final String trxName)
 	{
 		final boolean useNativeSequences = DB.isUseNativeSequences(AD_Client_ID, TableName);
+		final int idBlockSize = TableIdBlockAllocator.instance.getBlockSize(TableName);
 		if (useNativeSequences)
 		{
 			final String sequenceName = getTableSequenceName(TableName);
+			if (idBlockSize > 1)
+			{
+				return TableIdBlockAllocator.instance.nextId(sequenceName, idBlockSize, count -> retrieveNextIDsOutOfTrx(sequenceName, count));
+			}
+
 			final int nextId = CConnection.get().getDatabase().getNextID(sequenceName);
 			return nextId;
 		}
 
+		if (idBlockSize > 1 && MSequence.isIdBlockAllocationAllowed(AD_Client_ID, TableName))
+		{
+			return TableIdBlockAllocator.instance.nextId("AD_Sequence#" + TableName, idBlockSize, count -> MSequence.reserveNextIDs(TableName, count));
+		}
+
 		return MSequence.getNextID(AD_Client_ID, TableName, trxName);
 	}    // getNextID
 
+	/**
+	 * @return the next <code>count</code> values of given native sequence, fetched with one query and out of transaction
+	 */
+	public List<Integer> retrieveNextIDsOutOfTrx(@NonNull final String sequenceName, final int count)
+	{
+		return retrieveRowsOutOfTrx(
+				"SELECT nextval(?) FROM generate_series(1, ?)",
+				Arrays.asList(sequenceName.toLowerCase(), count),
+				rs -> rs.getInt(1));
+	}
+
 	public String TO_TABLESEQUENCE_NEXTVAL(final String tableName)
 	{
 		final String sequenceName = getTableSequenceName(tableName);
@@ -0,0 +1,159 @@
+package de.metas.cache;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import de.metas.util.lang.RepoIdAware;
+import org.compiere.model.PO;
+import org.compiere.model.POInfo;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.time.temporal.Temporal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Estimates the bytes retained by a cache entry, without reflection.
+ * <p>
+ * Well known types (strings, numbers, dates, IDs, collections, maps, arrays, {@link PO}s and {@link POInfo}s) are estimated from their content.
+ * Big collections are sampled and nesting is followed only a few levels deep, so the result is a rough estimate which is cheap to compute.
+ * Any other object counts as {@link #DEFAULT_OBJECT_BYTES}; caches of such objects should provide their own {@link CacheWeigher}.
+ */
+public final class ApproximateSizeWeigher implements CacheWeigher<Object, Object>
+{
+	public static final ApproximateSizeWeigher instance = new ApproximateSizeWeigher();
+
+	/** Guava's cache entry plus the references to key and value */
+	private static final int ENTRY_OVERHEAD_BYTES = 64;
+	private static final int OBJECT_HEADER_BYTES = 16;
+	private static final int REFERENCE_BYTES = 8;
+	static final int DEFAULT_OBJECT_BYTES = 256;
+
+	private static final int MAX_DEPTH = 3;
+	private static final int SAMPLE_SIZE = 16;
+
+	private ApproximateSizeWeigher()
+	{
+	}
+
+	@Override
+	public int weigh(final Object key, final Object value)
+	{
+		final long bytes = ENTRY_OVERHEAD_BYTES + estimate(key, 0) + estimate(value, 0);
+		return (int)Math.min(bytes, Integer.MAX_VALUE);
+	}
+
+	private static long estimate(@Nullable final Object obj, final int depth)
+	{
+		if (obj == null || obj instanceof Enum)
+		{
+			return 0;
+		}
+		else if (obj instanceof String)
+		{
+			return 40 + 2L * ((String)obj).length();
+		}
+		else if (obj instanceof BigDecimal)
+		{
+			return 40;
+		}
+		else if (obj instanceof Number || obj instanceof Boolean || obj instanceof Character || obj instanceof RepoIdAware)
+		{
+			return OBJECT_HEADER_BYTES;
+		}
+		else if (obj instanceof Date || obj instanceof Temporal)
+		{
+			return 24;
+		}
+		else if (obj instanceof Optional)
+		{
+			return OBJECT_HEADER_BYTES + estimate(((Optional<?>)obj).orElse(null), depth);
+		}
+		else if (obj instanceof PO)
+		{
+			// old and new values arrays plus the values themselves
+			return 128 + 96L * ((PO)obj).get_ColumnCount();
+		}
+		else if (obj instanceof POInfo)
+		{
+			return 512 + 512L * ((POInfo)obj).getColumnCount();
+		}
+		else if (depth >= MAX_DEPTH)
+		{
+			return DEFAULT_OBJECT_BYTES;
+		}
+		else if (obj instanceof Collection)
+		{
+			final Collection<?> collection = (Collection<?>)obj;
+			return 32 + (long)REFERENCE_BYTES * collection.size() + estimateElements(collection.iterator(), collection.size(), depth + 1);
+		}
+		else if (obj instanceof Map)
+		{
+			final Map<?, ?> map = (Map<?, ?>)obj;
+			return 48 + 32L * map.size()
+					+ estimateElements(map.keySet().iterator(), map.size(), depth + 1)
+					+ estimateElements(map.values().iterator(), map.size(), depth + 1);
+		}
+		else if (obj instanceof byte[])
+		{
+			return OBJECT_HEADER_BYTES + ((byte[])obj).length;
+		}
+		else if (obj instanceof int[])
+		{
+			return OBJECT_HEADER_BYTES + 4L * ((int[])obj).length;
+		}
+		else if (obj instanceof Object[])
+		{
+			final Object[] array = (Object[])obj;
+			return OBJECT_HEADER_BYTES + (long)REFERENCE_BYTES * array.length + estimateElements(Arrays.asList(array).iterator(), array.length, depth + 1);
+		}
+		else
+		{
+			return DEFAULT_OBJECT_BYTES;
+		}
+	}
+
+	/**
+	 * Estimates the first {@link #SAMPLE_SIZE} elements and extrapolates to the given size.
+	 */
+	private static long estimateElements(final Iterator<?> elements, final int size, final int depth)
+	{
+		long sampledBytes = 0;
+		int sampledCount = 0;
+		while (sampledCount < SAMPLE_SIZE && elements.hasNext())
+		{
+			sampledBytes += estimate(elements.next(), depth);
+			sampledCount++;
+		}
+
+		if (sampledCount == 0)
+		{
+			return 0;
+		}
+		return sampledBytes * size / sampledCount;
+	}
+}
@@ -39,6 +39,7 @@ import javax.annotation.Nullable;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -47,6 +48,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -84,6 +86,26 @@ public class CCache<K, V> implements CacheInterface
 				.build();
 	}
 
+	/**
+	 * Creates a new cache which is bounded by the approximate number of bytes its entries retain (see {@link ApproximateSizeWeigher}).
+	 * <p>
+	 * Other than entry count bounded caches, the cache's entries also count towards the global memory budget of {@link CacheMgt}.
+	 *
+	 * @param cacheName cache name; shall respect the current naming conventions, see {@link #extractTableNameForCacheName(String)}
+	 * @param maximumWeightBytes approximate maximum bytes retained by this cache's entries
+	 * @param expireAfterMinutes if positive, the entries will expire after given number of minutes
+	 * @return new cache instance
+	 */
+	public static <K, V> CCache<K, V> newWeightedCache(final String cacheName, final long maximumWeightBytes, final int expireAfterMinutes)
+	{
+		return CCache.<K, V> builder()
+				.cacheName(cacheName)
+				// .tableName(null) // auto-detect tableName
+				.maximumWeight(maximumWeightBytes)
+				.expireMinutes(expireAfterMinutes)
+				.build();
+	}
+
 	/**
 	 * Similar to {@link #newLRUCache(String, int, int)}.
 	 *
@@ -157,6 +179,22 @@ public class CCache<K, V> implements CacheInterface
 
 	private final CacheAdditionListener<K, V> additionListener;
 
+	/** The weigher of a cache that is bounded by weight (see {@link #isWeighted()}); null otherwise */
+	@Nullable
+	private final CacheWeigher<? super K, ? super V> weigher;
+	/** Approximate weight (bytes) of all entries, if this cache is bounded by weight */
+	private final AtomicLong weightedSize = new AtomicLong();
+	/** Weight and last access of each entry, if this cache is bounded by weight; used to trim the least recently used entries first */
+	@Nullable
+	private final ConcurrentHashMap<K, EntryInfo> entryInfosByKey;
+	/**
+	 * If false, {@link CacheMgt} won't trim this cache to enforce the global memory budget, but its weight still counts towards the budget.
+	 * Use it for caches with one big entry which is expensive to load, like the metadata of all tables.
+	 */
+	private final boolean trimmable;
+	/** Guava's hit count when {@link CacheMgt} last checked the cache while enforcing the global memory budget */
+	private long hitCountAtLastBudgetCheck = 0;
+
 	/**
 	 * Metasfresh Cache - expires after 2 hours
 	 *
@@ -185,7 +223,10 @@ public class CCache<K, V> implements CacheInterface
 				CacheMapType.HashMap,
 				(CachingKeysMapper<K>)null,
 				(CacheRemovalListener<K, V>)null,
-				(CacheAdditionListener<K, V>)null);
+				(CacheAdditionListener<K, V>)null,
+				(Long)null, // maximumWeight
+				(CacheWeigher<K, V>)null,
+				(Boolean)null); // trimmable
 	}
 
 	@Builder
@@ -198,7 +239,10 @@ public class CCache<K, V> implements CacheInterface
 			final CacheMapType cacheMapType,
 			@Nullable final CachingKeysMapper<K> invalidationKeysMapper,
 			@Nullable final CacheRemovalListener<K, V> removalListener,
-			@Nullable final CacheAdditionListener<K, V> additionListener)
+			@Nullable final CacheAdditionListener<K, V> additionListener,
+			@Nullable final Long maximumWeight,
+			@Nullable final CacheWeigher<? super K, ? super V> weigher,
+			@Nullable final Boolean trimmable)
 	{
 		this.cacheId = NEXT_CACHE_ID.getAndIncrement();
 
@@ -244,11 +288,38 @@ public class CCache<K, V> implements CacheInterface
 		this.labels = buildCacheLabels(tableNameEffective, additionalTableNamesToResetFor);
 
 		this.expireMinutes = expireMinutes != null ? expireMinutes : EXPIREMINUTES_Never;
-		this.cache = buildGuavaCache(
-				cacheMapType != null ? cacheMapType : CacheMapType.HashMap,
-				initialCapacity != null ? initialCapacity : 0,
-				this.expireMinutes,
-				removalListener);
+		this.trimmable = trimmable != null ? trimmable : true;
+		final long maximumWeightEffective = maximumWeight != null ? maximumWeight : 0;
+		if (maximumWeightEffective > 0)
+		{
+			this.weigher = weigher != null ? weigher : ApproximateSizeWeigher.instance;
+			this.entryInfosByKey = new ConcurrentHashMap<>();
+			this.cache = buildGuavaCache(
+					cacheMapType != null ? cacheMapType : CacheMapType.HashMap,
+					initialCapacity != null ? initialCapacity : 0,
+					this.expireMinutes,
+					maximumWeightEffective,
+					this::weighAndTrack,
+					(key, value) -> {
+						untrackWeight(key, value);
+						if (removalListener != null)
+						{
+							removalListener.itemRemoved(key, value);
+						}
+					});
+		}
+		else
+		{
+			this.weigher = null;
+			this.entryInfosByKey = null;
+			this.cache = buildGuavaCache(
+					cacheMapType != null ? cacheMapType : CacheMapType.HashMap,
+					initialCapacity != null ? initialCapacity : 0,
+					this.expireMinutes,
+					0, // maximumWeight
+					null, // weigher
+					removalListener);
+		}
 
 		if (DEBUG)
 		{
@@ -316,10 +387,27 @@ public class CCache<K, V> implements CacheInterface
 			@NonNull final CacheMapType cacheMapType,
 			final int initialCapacity,
 			final int expireMinutes,
+			final long maximumWeight,
+			@Nullable final CacheWeigher<K, V> weigher,
 			@Nullable final CacheRemovalListener<K, V> removalListener)
 	{
-		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
-		if (cacheMapType == CacheMapType.HashMap)
+		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder()
+				.recordStats(); // needed for the hit/miss metrics and for finding the coldest caches, see CacheMgt
+		if (weigher != null)
+		{
+			// NOTE: guava does not allow maximumSize together with maximumWeight, so the weight takes precedence over the LRU size
+			if (cacheMapType == CacheMapType.HashMap)
+			{
+				cacheBuilder = cacheBuilder.initialCapacity(initialCapacity);
+			}
+			cacheBuilder = cacheBuilder.maximumWeight(maximumWeight);
+			cacheBuilder.weigher((key, value) -> {
+				@SuppressWarnings("unchecked")
+				final int weight = weigher.weigh((K)key, (V)value);
+				return weight;
+			});
+		}
+		else if (cacheMapType == CacheMapType.HashMap)
 		{
 			cacheBuilder = cacheBuilder
 					.initialCapacity(initialCapacity);
@@ -374,6 +462,210 @@ public class CCache<K, V> implements CacheInterface
 		return labels;
 	}
 
+	/**
+	 * @return true if this cache is bounded by the approximate bytes its entries retain; only such caches count towards {@link CacheMgt}'s global memory budget
+	 */
+	public final boolean isWeighted()
+	{
+		return weigher != null;
+	}
+
+	/**
+	 * @return approximate bytes retained by this cache's entries, if {@link #isWeighted()}; 0 otherwise
+	 */
+	public final long getWeightedSize()
+	{
+		return weightedSize.get();
+	}
+
+	/**
+	 * @return the counter behind {@link #getWeightedSize()}; {@link CacheMgt} keeps it, so it can release the weight after this cache was garbage collected
+	 */
+	/* package */ AtomicLong getWeightedSizeCounter()
+	{
+		return weightedSize;
+	}
+
+	/**
+	 * @return true if {@link CacheMgt} may trim this cache to enforce the global memory budget
+	 */
+	public final boolean isTrimmable()
+	{
+		return trimmable;
+	}
+
+	private int weighAndTrack(final K key, final V value)
+	{
+		final int weight = weigher != null ? Math.max(weigher.weigh(key, value), 0) : 0;
+		if (entryInfosByKey != null)
+		{
+			// if the value replaces another one, that other one's removal notification comes later and won't find its info anymore,
+			// so we account for its removal right here
+			final EntryInfo previousInfo = entryInfosByKey.put(key, new EntryInfo(value, weight));
+			addWeight(weight - (previousInfo != null ? previousInfo.getWeight() : 0));
+		}
+		return weight;
+	}
+
+	private void untrackWeight(final K key, final V value)
+	{
+		final ConcurrentHashMap<K, EntryInfo> entryInfosByKey = this.entryInfosByKey;
+		if (entryInfosByKey == null)
+		{
+			return;
+		}
+
+		// subtract the weight which was added together with this very value, even if the value was changed in the meantime
+		final EntryInfo info = entryInfosByKey.get(key);
+		if (info != null && info.isInfoOf(value) && entryInfosByKey.remove(key, info))
+		{
+			addWeight(-info.getWeight());
+		}
+	}
+
+	@Nullable
+	private V markAccessedIfNotNull(final K key, @Nullable final V value)
+	{
+		if (value != null)
+		{
+			markAccessed(key);
+		}
+		return value;
+	}
+
+	private void markAccessed(final K key)
+	{
+		final ConcurrentHashMap<K, EntryInfo> entryInfosByKey = this.entryInfosByKey;
+		if (entryInfosByKey != null)
+		{
+			final EntryInfo info = entryInfosByKey.get(key);
+			if (info != null)
+			{
+				info.markAccessed();
+			}
+		}
+	}
+
+	private void addWeight(final long delta)
+	{
+		weightedSize.addAndGet(delta);
+		CacheMgt.get().addTotalWeight(this, delta);
+	}
+
+	/**
+	 * @return how many cache hits there were since the last call of this method
+	 */
+	/* package */ long getAndResetHitCountSinceLastBudgetCheck()
+	{
+		final long hitCount = cache.stats().hitCount();
+		final long hitCountSinceLastCheck = hitCount - hitCountAtLastBudgetCheck;
+		hitCountAtLastBudgetCheck = hitCount;
+		return hitCountSinceLastCheck;
+	}
+
+	/**
+	 * Removes the least recently used entries until their weight sums up to the given weight, or the cache is empty.
+	 * Guava does not tell us which entries are the least recently used ones, so we keep track of that ourselves.
+	 *
+	 * @return weight of the removed entries
+	 */
+	/* package */ long trimWeight(final long weightToFree)
+	{
+		if (weigher == null || !trimmable || weightToFree <= 0)
+		{
+			return 0;
+		}
+
+		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
+		{
+			final long weightBefore = weightedSize.get();
+			for (final K key : getKeysByLeastRecentlyUsed())
+			{
+				cache.invalidate(key);
+				if (weightBefore - weightedSize.get() >= weightToFree)
+				{
+					break;
+				}
+			}
+
+			final long weightFreed = weightBefore - weightedSize.get();
+			logger.debug("trimWeight - Freed {} of {} requested bytes", weightFreed, weightToFree);
+			return weightFreed;
+		}
+	}
+
+	private List<K> getKeysByLeastRecentlyUsed()
+	{
+		final ConcurrentHashMap<K, EntryInfo> entryInfosByKey = this.entryInfosByKey;
+		if (entryInfosByKey == null)
+		{
+			return ImmutableList.copyOf(cache.asMap().keySet());
+		}
+
+		// take a snapshot of the access times, so they don't change while sorting
+		final Map<K, Long> lastAccessNanosByKey = new HashMap<>();
+		entryInfosByKey.forEach((key, info) -> lastAccessNanosByKey.put(key, info.getLastAccessNanos()));
+
+		return lastAccessNanosByKey.entrySet()
+				.stream()
+				.sorted(Map.Entry.comparingByValue())
+				.map(Map.Entry::getKey)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * Weight and last access time of a cached value, both taken when the value was put into the cache.
+	 * The access time is updated on cache hits, but at most once per {@link #ACCESS_RESOLUTION_NANOS},
+	 * so that frequent hits on the same entry don't keep writing to it.
+	 */
+	private static final class EntryInfo
+	{
+		private static final long ACCESS_RESOLUTION_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+		private final Object value;
+		private final int weight;
+		private volatile long lastAccessNanos;
+
+		private EntryInfo(final Object value, final int weight)
+		{
+			this.value = value;
+			this.weight = weight;
+			this.lastAccessNanos = System.nanoTime();
+		}
+
+		private boolean isInfoOf(final Object value)
+		{
+			return this.value == value;
+		}
+
+		private int getWeight()
+		{
+			return weight;
+		}
+
+		private long getLastAccessNanos()
+		{
+			return lastAccessNanos;
+		}
+
+		private void markAccessed()
+		{
+			final long now = System.nanoTime();
+			if (now - lastAccessNanos >= ACCESS_RESOLUTION_NANOS)
+			{
+				lastAccessNanos = now;
+			}
+		}
+	}
+
+	private void enforceMemoryBudgetIfNeeded()
+	{
+		if (isWeighted())
+		{
+			CacheMgt.get().trimToMemoryBudgetIfNeeded();
+		}
+	}
+
 	/**
 	 * Cache was just reset.
 	 *
@@ -426,6 +718,7 @@ public class CCache<K, V> implements CacheInterface
 	private void clear()
 	{
 		// Clear
+		// NOTE: the removal notifications subtract the removed entries' weights
 		cache.invalidateAll();
 		cache.cleanUp();
 
@@ -474,6 +767,37 @@ public class CCache<K, V> implements CacheInterface
 		return counter;
 	}
 
+	@Override
+	public long resetForRecordIds(@NonNull final Collection<TableRecordReference> recordRefs)
+	{
+		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
+		{
+			if (!invalidationKeysMapper.isPresent())
+			{
+				// NOTE: reseting only by "key" is not supported, so we are reseting everything
+				return reset();
+			}
+
+			final CachingKeysMapper<K> keysMapper = invalidationKeysMapper.get();
+			if (recordRefs.stream().anyMatch(keysMapper::isResetAll))
+			{
+				logger.debug("resetForRecordIds - given keysMapper indicated to reset all for one of the {} recordRefs; -> resetting the whole cache", recordRefs.size());
+				return reset();
+			}
+
+			final Collection<K> keysToReset = keysMapper.computeCachingKeys(recordRefs);
+			logger.debug("resetForRecordIds - given keysMapper indicated {} keys for {} recordRefs", keysToReset.size(), recordRefs.size());
+			if (keysToReset.isEmpty())
+			{
+				return 0;
+			}
+
+			final long sizeBefore = cache.size();
+			cache.invalidateAll(keysToReset);
+			return Math.max(sizeBefore - cache.size(), 0); // approximate, like in reset()
+		}
+	}
+
 	@Override
 	public String toString()
 	{
@@ -482,6 +806,10 @@ public class CCache<K, V> implements CacheInterface
 				.append(cacheName)
 				.append(", size=").append(size)
 				.append(", id=").append(cacheId);
+		if (isWeighted())
+		{
+			sb.append(", weightedSize=").append(weightedSize.get());
+		}
 
 		if (DEBUG)
 		{
@@ -545,7 +873,7 @@ public class CCache<K, V> implements CacheInterface
 	{
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
-			final V result = cache.getIfPresent(key);
+			final V result = markAccessedIfNotNull(key, cache.getIfPresent(key));
 			logger.debug("get - key={}; result={}", key, result);
 			return result;
 		}
@@ -560,7 +888,7 @@ public class CCache<K, V> implements CacheInterface
 	{
 		if (valueInitializer == null)
 		{
-			return cache.getIfPresent(key);
+			return get(key);
 		}
 
 		return get(key, new Callable<V>()
@@ -596,12 +924,14 @@ public class CCache<K, V> implements CacheInterface
 		{
 			if (valueInitializer == null)
 			{
-				return cache.getIfPresent(key);
+				return get(key);
 			}
 
 			try
 			{
-				return cache.get(key, valueInitializer);
+				final V value = markAccessedIfNotNull(key, cache.get(key, valueInitializer));
+				enforceMemoryBudgetIfNeeded();
+				return value;
 			}
 			catch (final InvalidCacheLoadException e)
 			{
@@ -685,6 +1015,7 @@ public class CCache<K, V> implements CacheInterface
 				else
 				{
 					logger.debug("getAllOrLoad - Cache hit for key={}; -> adding it to result values", key);
+					markAccessed(key);
 					values.add(value);
 				}
 			}
@@ -710,6 +1041,8 @@ public class CCache<K, V> implements CacheInterface
 					fireAdditionListener(key, value);
 				}
 				values.addAll(valuesLoaded.values()); // add loaded values to the list we will return
+
+				enforceMemoryBudgetIfNeeded();
 			}
 
 			return values;
@@ -750,6 +1083,7 @@ public class CCache<K, V> implements CacheInterface
 			{
 				cache.put(key, value);
 				fireAdditionListener(key, value);
+				enforceMemoryBudgetIfNeeded();
 			}
 		}
 	}
@@ -778,6 +1112,8 @@ public class CCache<K, V> implements CacheInterface
 			{
 				fireAdditionListener(entry.getKey(), entry.getValue());
 			}
+
+			enforceMemoryBudgetIfNeeded();
 		}
 	}
 
@@ -108,6 +108,18 @@ public final class CacheIndex<DataItemId, CacheKey, DataItem> implements Caching
 		return cacheKeys;
 	}
 
+	@Override
+	public synchronized Collection<CacheKey> computeCachingKeys(@NonNull final Collection<TableRecordReference> recordRefs)
+	{
+		final ImmutableSet<CacheKey> cacheKeys = recordRefs.stream()
+				.flatMap(recordRef -> _recordRef_to_dateItemId.get(recordRef).stream())
+				.distinct()
+				.flatMap(dataItemId -> _dataItemId_to_cacheKey.get(dataItemId).stream())
+				.collect(ImmutableSet.toImmutableSet());
+		logger.debug("computeCachingKeys: Returning {} cacheKeys for {} records", cacheKeys.size(), recordRefs.size());
+		return cacheKeys;
+	}
+
 	public Collection<CacheKey> extractCacheKeys(final DataItem dataItem)
 	{
 		return adapter.extractCacheKeys(dataItem);
@@ -16,6 +16,7 @@
  *****************************************************************************/
 package de.metas.cache;
 
+import java.util.Collection;
 import java.util.Set;
 
 import org.adempiere.util.lang.impl.TableRecordReference;
@@ -42,6 +43,22 @@ public interface CacheInterface
 	 */
 	long resetForRecordId(TableRecordReference recordRef);
 
+	/**
+	 * Invalidate the cache for given records, which are all of the same table.
+	 * Implementations shall override this method if they can do better than invalidating record by record.
+	 *
+	 * @return how many cache entries were invalidated
+	 */
+	default long resetForRecordIds(final Collection<TableRecordReference> recordRefs)
+	{
+		long resetCount = 0;
+		for (final TableRecordReference recordRef : recordRefs)
+		{
+			resetCount += resetForRecordId(recordRef);
+		}
+		return resetCount;
+	}
+
 	/**
 	 * Reset Cache
 	 * 
@@ -1,6 +1,9 @@
 package de.metas.cache;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.CacheInvalidateRequest;
@@ -14,12 +17,15 @@ import de.metas.event.remote.RabbitMQEventBusConfiguration;
 import de.metas.logging.LogManager;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import de.metas.util.async.Debouncer;
 import lombok.NonNull;
 import org.adempiere.ad.dao.cache.CacheInvalidateMultiRequestSerializer;
+import org.adempiere.service.ISysConfigBL;
 import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 
 import javax.annotation.Nullable;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
@@ -61,6 +67,28 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 
 	private final CacheInvalidateMultiRequestSerializer jsonSerializer = new CacheInvalidateMultiRequestSerializer();
 
+	/**
+	 * How long to collect the requests to broadcast, before merging and sending them as one event. Zero or less means that each request is sent right away.
+	 */
+	private static final String SYSCONFIG_DebouncerDelayInMillis = "de.metas.cache.CacheInvalidationRemoteHandler.debouncer.delayInMillis";
+	private static final int DEFAULT_DebouncerDelayInMillis = 50;
+	/**
+	 * If this many requests were collected, they are sent right away.
+	 */
+	private static final String SYSCONFIG_DebouncerBufferMaxSize = "de.metas.cache.CacheInvalidationRemoteHandler.debouncer.bufferMaxSize";
+	private static final int DEFAULT_DebouncerBufferMaxSize = 5000;
+	/**
+	 * If more records of a table were collected, then the whole table is reset instead. Zero or less means no limit.
+	 */
+	private static final String SYSCONFIG_MaxRecordsPerTable = "de.metas.cache.CacheInvalidationRemoteHandler.maxRecordsPerTable";
+	private static final int DEFAULT_MaxRecordsPerTable = 100;
+
+	/**
+	 * Lazily created on first broadcast, because this instance is created before the sysconfigs are available.
+	 * Empty if the requests shall not be debounced.
+	 */
+	private final Supplier<Optional<Debouncer<CacheInvalidateRequest>>> debouncerSupplier = Suppliers.memoize(this::createDebouncer);
+
 	private CacheInvalidationRemoteHandler()
 	{
 	}
@@ -138,7 +166,42 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 			return;
 		}
 
-		// Broadcast the event.
+		final Debouncer<CacheInvalidateRequest> debouncer = debouncerSupplier.get().orElse(null);
+		if (debouncer != null)
+		{
+			logger.trace("Collecting {} to be broadcasted", request);
+			debouncer.addAll(ImmutableList.copyOf(request.getRequests()));
+		}
+		else
+		{
+			broadcastNow(request);
+		}
+	}
+
+	private Optional<Debouncer<CacheInvalidateRequest>> createDebouncer()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int delayInMillis = sysConfigBL.getIntValue(SYSCONFIG_DebouncerDelayInMillis, DEFAULT_DebouncerDelayInMillis);
+		if (delayInMillis <= 0)
+		{
+			logger.info("Broadcasting each cache invalidation request right away");
+			return Optional.empty();
+		}
+
+		final int maxRecordsPerTable = sysConfigBL.getIntValue(SYSCONFIG_MaxRecordsPerTable, DEFAULT_MaxRecordsPerTable);
+		final Debouncer<CacheInvalidateRequest> debouncer = Debouncer.<CacheInvalidateRequest>builder()
+				.name(CacheInvalidationRemoteHandler.class.getSimpleName() + "-debouncer")
+				.bufferMaxSize(sysConfigBL.getIntValue(SYSCONFIG_DebouncerBufferMaxSize, DEFAULT_DebouncerBufferMaxSize))
+				.delayInMillis(delayInMillis)
+				.distinct(true)
+				.consumer(requests -> broadcastNow(CacheInvalidateMultiRequest.coalesce(requests, maxRecordsPerTable)))
+				.build();
+		logger.info("Collecting cache invalidation requests before broadcasting them: {}, maxRecordsPerTable={}", debouncer, maxRecordsPerTable);
+		return Optional.of(debouncer);
+	}
+
+	private void broadcastNow(@NonNull final CacheInvalidateMultiRequest request)
+	{
 		final Event event = createEventFromRequest(request);
 		try (final MDCCloseable ignored = EventMDC.putEvent(event))
 		{
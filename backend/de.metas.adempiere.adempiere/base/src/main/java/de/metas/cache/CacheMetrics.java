@@ -0,0 +1,259 @@
+package de.metas.cache;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.NonNull;
+
+import javax.annotation.Nullable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes the statistics of all {@link CCache}s to micrometer, aggregated by cache name.
+ * <p>
+ * Caches whose names are unique per instance (e.g. the ones per transaction) are aggregated by the name's common part, to keep the number of meters small.
+ * The caches are only weakly referenced. When one is garbage collected, the statistics it had when they were last published are retained,
+ * so that the counters never decrease.
+ */
+final class CacheMetrics
+{
+	private static final String METER_PREFIX = "mf.cache.";
+	private static final String TAG_Cache = "cache";
+
+	private final ConcurrentHashMap<String, CachesGroup> cachesByMetricsName = new ConcurrentHashMap<>();
+
+	@Nullable
+	private volatile MeterRegistry meterRegistry;
+
+	public void bindTo(@NonNull final MeterRegistry meterRegistry)
+	{
+		this.meterRegistry = meterRegistry;
+
+		final CacheMgt cacheMgt = CacheMgt.get();
+		Gauge.builder(METER_PREFIX + "totalWeight", cacheMgt, CacheMgt::getTotalWeight)
+				.description("Approximate bytes retained by all weighted caches")
+				.baseUnit("bytes")
+				.register(meterRegistry);
+		Gauge.builder(METER_PREFIX + "maxTotalWeight", cacheMgt, CacheMgt::getMaxTotalWeight)
+				.description("Global memory budget of all weighted caches; zero means no budget")
+				.baseUnit("bytes")
+				.register(meterRegistry);
+
+		cachesByMetricsName.forEach((metricsName, caches) -> registerMeters(meterRegistry, metricsName, caches));
+	}
+
+	public void addCache(@NonNull final CCache<?, ?> cache)
+	{
+		final String metricsName = extractMetricsName(cache.getCacheName());
+		cachesByMetricsName
+				.computeIfAbsent(metricsName, this::newCachesGroup)
+				.add(cache);
+	}
+
+	private CachesGroup newCachesGroup(@NonNull final String metricsName)
+	{
+		final CachesGroup caches = new CachesGroup();
+
+		final MeterRegistry meterRegistry = this.meterRegistry;
+		if (meterRegistry != null)
+		{
+			registerMeters(meterRegistry, metricsName, caches);
+		}
+
+		return caches;
+	}
+
+	private static String extractMetricsName(@NonNull final String cacheName)
+	{
+		if (cacheName.startsWith("$NoCacheName$"))
+		{
+			return "$NoCacheName$";
+		}
+
+		final int trxNameIdx = cacheName.indexOf("#TrxName=");
+		if (trxNameIdx > 0)
+		{
+			return cacheName.substring(0, trxNameIdx);
+		}
+
+		return cacheName;
+	}
+
+	private static void registerMeters(
+			@NonNull final MeterRegistry meterRegistry,
+			@NonNull final String metricsName,
+			@NonNull final CachesGroup caches)
+	{
+		final Tags tags = Tags.of(TAG_Cache, metricsName);
+
+		FunctionCounter.builder(METER_PREFIX + "hits", caches, group -> group.sumStats(CacheStats::hitCount))
+				.tags(tags)
+				.register(meterRegistry);
+		FunctionCounter.builder(METER_PREFIX + "misses", caches, group -> group.sumStats(CacheStats::missCount))
+				.tags(tags)
+				.register(meterRegistry);
+		FunctionCounter.builder(METER_PREFIX + "evictions", caches, group -> group.sumStats(CacheStats::evictionCount))
+				.tags(tags)
+				.register(meterRegistry);
+		FunctionTimer.builder(METER_PREFIX + "loads",
+						caches,
+						group -> (long)group.sumStats(CacheStats::loadCount),
+						group -> group.sumStats(CacheStats::totalLoadTime),
+						TimeUnit.NANOSECONDS)
+				.tags(tags)
+				.register(meterRegistry);
+
+		Gauge.builder(METER_PREFIX + "size", caches, group -> group.sum(CCache::size))
+				.tags(tags)
+				.register(meterRegistry);
+		Gauge.builder(METER_PREFIX + "weight", caches, group -> group.sum(CCache::getWeightedSize))
+				.tags(tags)
+				.baseUnit("bytes")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * The caches with the same metrics name, plus the statistics of the ones which were already garbage collected.
+	 */
+	@VisibleForTesting
+	static final class CachesGroup
+	{
+		private static final CacheStats ZERO_STATS = new CacheStats(0, 0, 0, 0, 0, 0);
+
+		private final ConcurrentHashMap<Long, CacheRef> cacheRefsById = new ConcurrentHashMap<>();
+		private final ReferenceQueue<CCache<?, ?>> collectedCaches = new ReferenceQueue<>();
+		private CacheStats retiredStats = ZERO_STATS;
+
+		@VisibleForTesting
+		void add(@NonNull final CCache<?, ?> cache)
+		{
+			retireCollectedCaches();
+			cacheRefsById.put(cache.getCacheId(), new CacheRef(cache, collectedCaches));
+		}
+
+		@VisibleForTesting
+		synchronized CacheStats getStats()
+		{
+			retireCollectedCaches();
+
+			CacheStats stats = retiredStats;
+			for (final CacheRef cacheRef : cacheRefsById.values())
+			{
+				stats = stats.plus(cacheRef.updateAndGetLastStats());
+			}
+			return stats;
+		}
+
+		private double sumStats(@NonNull final ToLongFunction<CacheStats> statsFunction)
+		{
+			return statsFunction.applyAsLong(getStats());
+		}
+
+		private double sum(@NonNull final ToDoubleFunction<CCache<?, ?>> function)
+		{
+			double sum = 0;
+			for (final CacheRef cacheRef : cacheRefsById.values())
+			{
+				final CCache<?, ?> cache = cacheRef.get();
+				if (cache != null)
+				{
+					sum += function.applyAsDouble(cache);
+				}
+			}
+			return sum;
+		}
+
+		/**
+		 * Does to the given cache's reference what the garbage collector does when the cache is collected.
+		 */
+		@VisibleForTesting
+		void simulateGarbageCollected(@NonNull final CCache<?, ?> cache)
+		{
+			final CacheRef cacheRef = cacheRefsById.get(cache.getCacheId());
+			if (cacheRef != null)
+			{
+				cacheRef.clear();
+				cacheRef.enqueue();
+			}
+		}
+
+		private synchronized void retireCollectedCaches()
+		{
+			for (Reference<? extends CCache<?, ?>> ref = collectedCaches.poll(); ref != null; ref = collectedCaches.poll())
+			{
+				final CacheRef cacheRef = (CacheRef)ref;
+				if (cacheRefsById.remove(cacheRef.getCacheId(), cacheRef))
+				{
+					retiredStats = retiredStats.plus(cacheRef.getLastStats());
+				}
+			}
+		}
+	}
+
+	private static final class CacheRef extends WeakReference<CCache<?, ?>>
+	{
+		private final long cacheId;
+		private volatile CacheStats lastStats = CachesGroup.ZERO_STATS;
+
+		private CacheRef(@NonNull final CCache<?, ?> cache, @NonNull final ReferenceQueue<CCache<?, ?>> queue)
+		{
+			super(cache, queue);
+			this.cacheId = cache.getCacheId();
+		}
+
+		private long getCacheId()
+		{
+			return cacheId;
+		}
+
+		private CacheStats getLastStats()
+		{
+			return lastStats;
+		}
+
+		/**
+		 * @return the cache's current statistics, or the last ones if it was already garbage collected
+		 */
+		private CacheStats updateAndGetLastStats()
+		{
+			final CCache<?, ?> cache = get();
+			if (cache != null)
+			{
+				lastStats = cache.stats().getGuavaStats();
+			}
+			return lastStats;
+		}
+	}
+}
@@ -16,7 +16,15 @@
  *****************************************************************************/
 package de.metas.cache;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -25,6 +33,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -42,6 +51,7 @@ import org.compiere.SpringContextHolder;
 import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -58,7 +68,9 @@ import de.metas.monitoring.adapter.PerformanceMonitoringService.SubType;
 import de.metas.monitoring.adapter.PerformanceMonitoringService.Type;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.NonNull;
+import lombok.Value;
 
 /**
  * Adempiere Cache Management
@@ -77,6 +89,16 @@ public final class CacheMgt
 
 	public static final String JMX_BASE_NAME = "de.metas.cache";
 
+	/**
+	 * System property with the initial global memory budget (bytes) for all {@link CCache#isWeighted() weighted} caches. Zero means "no budget".
+	 * If missing, {@link #DEFAULT_MaxTotalWeightHeapPercent} of the max heap is used.
+	 * The budget can be changed at runtime via {@link JMXCacheMgt}.
+	 */
+	private static final String SYSTEM_PROPERTY_MaxTotalWeightBytes = "de.metas.cache.MaxTotalWeightBytes";
+	private static final int DEFAULT_MaxTotalWeightHeapPercent = 25;
+	/** When trimming, we trim down to this percentage of the budget, so that we don't need to trim again right away */
+	private static final int TRIM_TARGET_PERCENT = 90;
+
 	private final ConcurrentHashMap<CacheLabel, CachesGroup> cachesByLabel = new ConcurrentHashMap<>();
 
 	private final CopyOnWriteArrayList<ICacheResetListener> globalCacheResetListeners = new CopyOnWriteArrayList<>();
@@ -87,11 +109,31 @@ public final class CacheMgt
 	private final AtomicBoolean cacheResetRunning = new AtomicBoolean();
 	private final AtomicLong lastCacheReset = new AtomicLong();
 
+	private final AtomicLong totalWeight = new AtomicLong();
+	/**
+	 * The registered {@link CCache#isWeighted() weighted} caches, referenced weakly.
+	 * Caches are not reset when they are garbage collected, so we release their weight when their reference is enqueued.
+	 */
+	private final ConcurrentHashMap<Long, WeightedCacheRef> weightedCacheRefsById = new ConcurrentHashMap<>();
+	private final ReferenceQueue<CCache<?, ?>> collectedWeightedCaches = new ReferenceQueue<>();
+	private volatile long maxTotalWeight = Long.getLong(SYSTEM_PROPERTY_MaxTotalWeightBytes, Runtime.getRuntime().maxMemory() / 100 * DEFAULT_MaxTotalWeightHeapPercent);
+	private final ReentrantLock trimLock = new ReentrantLock();
+
+	private final CacheMetrics metrics = new CacheMetrics();
+
 	private CacheMgt()
 	{
 		JMXRegistry.get().registerJMX(new JMXCacheMgt(), OnJMXAlreadyExistsPolicy.Replace);
 	}
 
+	/**
+	 * Publishes the per-cache hit, miss, eviction and load time statistics to the given registry.
+	 */
+	public void bindMetrics(@NonNull final MeterRegistry meterRegistry)
+	{
+		metrics.bindTo(meterRegistry);
+	}
+
 	/**
 	 * Enable caches for the given table to be invalidated by remote events.<br>
 	 * Example: if a user somewhere else opens/closes a period, we can allow the system to invalidate all the local caches to avoid it becoming stale.
@@ -139,6 +181,17 @@ public final class CacheMgt
 			labels.stream()
 					.map(this::getCachesGroup)
 					.forEach(cacheGroup -> cacheGroup.addCache(cache));
+
+			if (cache instanceof CCache)
+			{
+				final CCache<?, ?> ccache = (CCache<?, ?>)cache;
+				metrics.addCache(ccache);
+				if (ccache.isWeighted())
+				{
+					releaseWeightOfCollectedCaches();
+					weightedCacheRefsById.put(ccache.getCacheId(), new WeightedCacheRef(ccache, collectedWeightedCaches));
+				}
+			}
 		}
 	}
 
@@ -150,6 +203,12 @@ public final class CacheMgt
 					.stream()
 					.map(this::getCachesGroup)
 					.forEach(cacheGroup -> cacheGroup.removeCache(cache));
+
+			final WeightedCacheRef cacheRef = cache instanceof CCache ? weightedCacheRefsById.remove(cache.getCacheId()) : null;
+			if (cacheRef != null)
+			{
+				totalWeight.addAndGet(-cacheRef.getWeightedSize());
+			}
 		}
 	}
 
@@ -391,54 +450,68 @@ public final class CacheMgt
 			return reset();
 		}
 
-		int total = 0;
+		//
+		// Collect what to invalidate, so that each cache is invoked just once per table,
+		// no matter how many requests there are. This matters for big (e.g. coalesced remote) requests.
+		final LinkedHashSet<String> tableNamesToResetAll = new LinkedHashSet<>();
+		final LinkedHashMap<String, LinkedHashSet<TableRecordReference>> recordRefsByTableName = new LinkedHashMap<>();
 		for (final CacheInvalidateRequest request : multiRequest.getRequests())
 		{
-			final long totalPerRequest = invalidateForRequest(request);
-			total += totalPerRequest;
-		}
-
-		return total;
-	}
-
-	private long invalidateForRequest(@NonNull final CacheInvalidateRequest request)
-	{
-		if (request.isAllRecords())
-		{
-			final CacheLabel label = CacheLabel.ofTableName(request.getTableNameEffective());
-			try (final MDCCloseable ignored = CacheMDC.putCacheLabel(label))
+			if (request.isAllRecords())
 			{
-				final CachesGroup cachesGroup = getCachesGroupIfPresent(label);
-				if (cachesGroup == null)
-				{
-					return 0;
-				}
-
-				return cachesGroup.invalidateAllNoFail();
+				tableNamesToResetAll.add(request.getTableNameEffective());
+				continue;
 			}
-		}
-		else
-		{
-			long resetCount = 0;
 
 			final TableRecordReference childRecordRef = request.getChildRecordOrNull();
 			if (childRecordRef != null)
 			{
-				resetCount += invalidateForRecord(childRecordRef);
+				recordRefsByTableName.computeIfAbsent(childRecordRef.getTableName(), tableName -> new LinkedHashSet<>()).add(childRecordRef);
 			}
 			final TableRecordReference rootRecordRef = request.getRootRecordOrNull();
 			if (rootRecordRef != null)
 			{
-				resetCount += invalidateForRecord(rootRecordRef);
+				recordRefsByTableName.computeIfAbsent(rootRecordRef.getTableName(), tableName -> new LinkedHashSet<>()).add(rootRecordRef);
 			}
+		}
 
-			return resetCount;
+		long total = 0;
+		for (final String tableName : tableNamesToResetAll)
+		{
+			total += invalidateForTable(tableName);
+		}
+		for (final Map.Entry<String, LinkedHashSet<TableRecordReference>> entry : recordRefsByTableName.entrySet())
+		{
+			final String tableName = entry.getKey();
+			if (tableNamesToResetAll.contains(tableName))
+			{
+				continue; // already invalidated
+			}
+
+			total += invalidateForRecords(tableName, entry.getValue());
+		}
+
+		return total;
+	}
+
+	private long invalidateForTable(@NonNull final String tableName)
+	{
+		final CacheLabel label = CacheLabel.ofTableName(tableName);
+		try (final MDCCloseable ignored = CacheMDC.putCacheLabel(label))
+		{
+			final CachesGroup cachesGroup = getCachesGroupIfPresent(label);
+			if (cachesGroup == null)
+			{
+				return 0;
+			}
+
+			return cachesGroup.invalidateAllNoFail();
 		}
 	}
 
-	private long invalidateForRecord(@NonNull final TableRecordReference recordRef)
+	private long invalidateForRecords(@NonNull final String tableName, @NonNull final Collection<TableRecordReference> recordRefs)
 	{
-		final CacheLabel label = CacheLabel.ofTableName(recordRef.getTableName());
+		final CacheLabel label = CacheLabel.ofTableName(tableName);
 		try (final MDCCloseable ignored = CacheMDC.putCacheLabel(label))
 		{
 			final CachesGroup cachesGroup = getCachesGroupIfPresent(label);
@@ -447,7 +520,7 @@ public final class CacheMgt
 				return 0;
 			}
 
-			return cachesGroup.invalidateForRecordNoFail(recordRef);
+			return cachesGroup.invalidateForRecordsNoFail(recordRefs);
 		}
 	}
 
@@ -462,6 +535,189 @@ public final class CacheMgt
 				.sum();
 	}
 
+	/**
+	 * @return approximate bytes retained by all {@link CCache#isWeighted() weighted} caches
+	 */
+	public long getTotalWeight()
+	{
+		releaseWeightOfCollectedCaches();
+		return totalWeight.get();
+	}
+
+	/**
+	 * @return global memory budget (bytes) of all {@link CCache#isWeighted() weighted} caches; zero means "no budget"
+	 */
+	public long getMaxTotalWeight()
+	{
+		return maxTotalWeight;
+	}
+
+	public void setMaxTotalWeight(final long maxTotalWeight)
+	{
+		this.maxTotalWeight = Math.max(maxTotalWeight, 0);
+		logger.info("Set global cache memory budget to {} bytes", this.maxTotalWeight);
+
+		trimToMemoryBudgetIfNeeded();
+	}
+
+	/* package */ void addTotalWeight(@NonNull final CCache<?, ?> cache, final long delta)
+	{
+		releaseWeightOfCollectedCaches();
+
+		// the weight of caches which are not tracked (anymore) was already released
+		if (weightedCacheRefsById.containsKey(cache.getCacheId()))
+		{
+			totalWeight.addAndGet(delta);
+		}
+	}
+
+	private void releaseWeightOfCollectedCaches()
+	{
+		for (Reference<? extends CCache<?, ?>> ref = collectedWeightedCaches.poll(); ref != null; ref = collectedWeightedCaches.poll())
+		{
+			final WeightedCacheRef cacheRef = (WeightedCacheRef)ref;
+			if (weightedCacheRefsById.remove(cacheRef.getCacheId(), cacheRef))
+			{
+				totalWeight.addAndGet(-cacheRef.getWeightedSize());
+			}
+		}
+	}
+
+	/**
+	 * Does to the given cache's reference what the garbage collector does when the cache is collected.
+	 */
+	@VisibleForTesting
+	void simulateGarbageCollected(@NonNull final CCache<?, ?> cache)
+	{
+		final WeightedCacheRef cacheRef = weightedCacheRefsById.get(cache.getCacheId());
+		if (cacheRef != null)
+		{
+			cacheRef.clear();
+			cacheRef.enqueue();
+		}
+	}
+
+	/**
+	 * If the {@link CCache#isWeighted() weighted} caches exceed the global memory budget, then the coldest caches (the ones with the fewest hits per byte since the last check) are trimmed first.
+	 * Caches which are not {@link CCache#isTrimmable() trimmable} are never trimmed.
+	 * <p>
+	 * If another thread is already trimming, this method returns right away.
+	 */
+	/* package */ void trimToMemoryBudgetIfNeeded()
+	{
+		final long maxTotalWeight = this.maxTotalWeight;
+		if (maxTotalWeight <= 0 || getTotalWeight() <= maxTotalWeight)
+		{
+			return;
+		}
+
+		if (!trimLock.tryLock())
+		{
+			return;
+		}
+		try
+		{
+			trimToMemoryBudget0(maxTotalWeight);
+		}
+		finally
+		{
+			trimLock.unlock();
+		}
+	}
+
+	private void trimToMemoryBudget0(final long maxTotalWeight)
+	{
+		final long targetWeight = maxTotalWeight * TRIM_TARGET_PERCENT / 100;
+		final long totalWeightBefore = totalWeight.get();
+		if (totalWeightBefore <= targetWeight)
+		{
+			return;
+		}
+
+		final ArrayList<WeightedCacheTemperature> caches = new ArrayList<>();
+		streamDistinctCCaches()
+				.filter(CCache::isWeighted)
+				.filter(CCache::isTrimmable)
+				.forEach(cache -> caches.add(WeightedCacheTemperature.of(cache)));
+		caches.sort(Comparator.comparing(WeightedCacheTemperature::getHitsPerByte));
+
+		long weightToFree = totalWeightBefore - targetWeight;
+		int trimmedCachesCount = 0;
+		for (final WeightedCacheTemperature cache : caches)
+		{
+			if (weightToFree <= 0)
+			{
+				break;
+			}
+
+			try (final IAutoCloseable ignored = CacheMDC.putCache(cache.getCache()))
+			{
+				weightToFree -= cache.getCache().trimWeight(weightToFree);
+				trimmedCachesCount++;
+			}
+			catch (final Exception ex)
+			{
+				// log but don't fail
+				logger.warn("Error while trimming {}. Ignored.", cache.getCache(), ex);
+			}
+		}
+
+		logger.info("Trimmed {} caches from {} to {} bytes (budget: {} bytes)", trimmedCachesCount, totalWeightBefore, totalWeight.get(), maxTotalWeight);
+	}
+
+	private Stream<CCache<?, ?>> streamDistinctCCaches()
+	{
+		// NOTE: a cache is registered to each of its labels, so we need to make them distinct
+		final Map<Long, CCache<?, ?>> cachesById = new HashMap<>();
+		cachesByLabel.values()
+				.stream()
+				.flatMap(CachesGroup::streamCaches)
+				.filter(cache -> cache instanceof CCache)
+				.forEach(cache -> cachesById.put(cache.getCacheId(), (CCache<?, ?>)cache));
+		return cachesById.values().stream();
+	}
+
+	/**
+	 * Keeps the weight counter of a cache, because after the cache was garbage collected, that's how much weight we need to release.
+	 */
+	private static final class WeightedCacheRef extends WeakReference<CCache<?, ?>>
+	{
+		private final long cacheId;
+		private final AtomicLong weightedSize;
+
+		private WeightedCacheRef(@NonNull final CCache<?, ?> cache, @NonNull final ReferenceQueue<CCache<?, ?>> queue)
+		{
+			super(cache, queue);
+			this.cacheId = cache.getCacheId();
+			this.weightedSize = cache.getWeightedSizeCounter();
+		}
+
+		private long getCacheId()
+		{
+			return cacheId;
+		}
+
+		private long getWeightedSize()
+		{
+			return weightedSize.get();
+		}
+	}
+
+	@Value
+	private static class WeightedCacheTemperature
+	{
+		@NonNull
+		CCache<?, ?> cache;
+		double hitsPerByte;
+
+		static WeightedCacheTemperature of(@NonNull final CCache<?, ?> cache)
+		{
+			final long hits = cache.getAndResetHitCountSinceLastBudgetCheck();
+			final long weight = Math.max(cache.getWeightedSize(), 1);
+			return new WeightedCacheTemperature(cache, (double)hits / weight);
+		}
+	}
+
 	/**
 	 * String Representation
 	 */
@@ -476,7 +732,7 @@ public final class CacheMgt
 	 */
 	public String toStringX()
 	{
-		return "CacheMgt[Instances=" + cachesByLabel.size() + ", Elements=" + computeTotalSize() + "]";
+		return "CacheMgt[Instances=" + cachesByLabel.size() + ", Elements=" + computeTotalSize() + ", TotalWeight=" + totalWeight.get() + ", MaxTotalWeight=" + maxTotalWeight + "]";
 	}
 
 	public void addCacheResetListener(@NonNull final ICacheResetListener cacheResetListener)
@@ -629,7 +885,7 @@ public final class CacheMgt
 			}
 		}
 
-		private Stream<CacheInterface> streamCaches()
+		Stream<CacheInterface> streamCaches()
 		{
 			return caches.values()
 					.stream()
@@ -650,23 +906,25 @@ public final class CacheMgt
 					.sum();
 		}
 
-		public long invalidateForRecordNoFail(final TableRecordReference recordRef)
+		public long invalidateForRecordsNoFail(final Collection<TableRecordReference> recordRefs)
 		{
 			return streamCaches()
-					.mapToLong(cache -> invalidateNoFail(cache, recordRef))
+					.mapToLong(cache -> invalidateNoFail(cache, recordRefs))
 					.sum();
 		}
 
-		private static long invalidateNoFail(final CacheInterface cacheInstance, final TableRecordReference recordRef)
+		private static long invalidateNoFail(final CacheInterface cacheInstance, final Collection<TableRecordReference> recordRefs)
 		{
 			try (final IAutoCloseable ignored = CacheMDC.putCache(cacheInstance))
 			{
-				return cacheInstance.resetForRecordId(recordRef);
+				return recordRefs.size() == 1
+						? cacheInstance.resetForRecordId(recordRefs.iterator().next())
+						: cacheInstance.resetForRecordIds(recordRefs);
 			}
 			catch (final Exception ex)
 			{
 				// log but don't fail
-				logger.warn("Error while reseting {} for {}. Ignored.", cacheInstance, recordRef, ex);
+				logger.warn("Error while reseting {} for {}. Ignored.", cacheInstance, recordRefs, ex);
 				return 0;
 			}
 		}
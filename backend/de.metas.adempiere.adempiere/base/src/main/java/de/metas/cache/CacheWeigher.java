@@ -0,0 +1,39 @@
+package de.metas.cache;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Computes the weight of a cache entry, which for {@link CCache} is the approximate number of bytes the entry retains.
+ * <p>
+ * The weight is computed once, when the entry is added to the cache. Shall be fast and must not access other caches.
+ *
+ * @see ApproximateSizeWeigher
+ */
+@FunctionalInterface
+public interface CacheWeigher<K, V>
+{
+	/**
+	 * @return entry weight; must not be negative
+	 */
+	int weigh(K key, V value);
+}
@@ -4,6 +4,7 @@ import de.metas.cache.model.CacheInvalidateRequest;
 import org.adempiere.util.lang.impl.TableRecordReference;
 
 import java.util.Collection;
+import java.util.LinkedHashSet;
 
 /*
  * #%L
@@ -46,6 +47,20 @@ public interface CachingKeysMapper<CK>
 	 */
 	Collection<CK> computeCachingKeys(TableRecordReference recordRef);
 
+	/**
+	 * Same as {@link #computeCachingKeys(TableRecordReference)}, but for many records at once.
+	 * Implementors shall override it if they can do better than computing the keys record by record.
+	 */
+	default Collection<CK> computeCachingKeys(final Collection<TableRecordReference> recordRefs)
+	{
+		final LinkedHashSet<CK> cachingKeys = new LinkedHashSet<>();
+		for (final TableRecordReference recordRef : recordRefs)
+		{
+			cachingKeys.addAll(computeCachingKeys(recordRef));
+		}
+		return cachingKeys;
+	}
+
 	/** 
 	 * If this method returns <code>true</code>, then the whole cache needs resetting.
 	 * 
@@ -49,7 +49,45 @@ public class IDCache<V> extends CCache<Object, V>
 				cacheMapType,
 				KEYS_MAPPER,
 				(CacheRemovalListener<Object, V>)null,
-				(CacheAdditionListener<Object, V>)null);
+				(CacheAdditionListener<Object, V>)null,
+				(Long)null, // maximumWeight
+				(CacheWeigher<Object, V>)null,
+				(Boolean)null); // trimmable
+
+		Check.assumeNotEmpty(tableName, "tableName not empty");
+	}
+
+	/**
+	 * Creates a cache which is bounded by the approximate bytes its models retain (see {@link CCache#newWeightedCache(String, long, int)}).
+	 */
+	public static <V> IDCache<V> newWeightedCache(final String tableName,
+			final String trxName,
+			final long maximumWeightBytes,
+			final int expireMinutes)
+	{
+		return new IDCache<>(tableName, trxName, 0, expireMinutes, CacheMapType.HashMap, maximumWeightBytes);
+	}
+
+	private IDCache(final String tableName,
+			final String trxName,
+			final int initialCapacity,
+			final int expireMinutes,
+			final CacheMapType cacheMapType,
+			final long maximumWeightBytes)
+	{
+		super(
+				buildCacheName(tableName, trxName),
+				tableName,
+				null, // additionalTableNamesToResetFor
+				initialCapacity,
+				expireMinutes,
+				cacheMapType,
+				KEYS_MAPPER,
+				(CacheRemovalListener<Object, V>)null,
+				(CacheAdditionListener<Object, V>)null,
+				maximumWeightBytes,
+				(CacheWeigher<Object, V>)null, // ApproximateSizeWeigher
+				(Boolean)null); // trimmable
 
 		Check.assumeNotEmpty(tableName, "tableName not empty");
 	}
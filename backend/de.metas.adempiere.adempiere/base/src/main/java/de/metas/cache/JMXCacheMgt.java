@@ -101,4 +101,22 @@ public class JMXCacheMgt implements JMXCacheMgtMBean, IJMXNameAware
 		return getCacheMgt().reset(tableName, recordId);
 	}
 
+	@Override
+	public long getTotalWeightBytes()
+	{
+		return getCacheMgt().getTotalWeight();
+	}
+
+	@Override
+	public long getMaxTotalWeightBytes()
+	{
+		return getCacheMgt().getMaxTotalWeight();
+	}
+
+	@Override
+	public void setMaxTotalWeightBytes(final long maxTotalWeightBytes)
+	{
+		getCacheMgt().setMaxTotalWeight(maxTotalWeightBytes);
+	}
+
 }
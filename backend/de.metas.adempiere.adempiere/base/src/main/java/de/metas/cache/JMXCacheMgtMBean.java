@@ -25,4 +25,10 @@ public interface JMXCacheMgtMBean
 	long resetForTable(String tableName);
 
 	long resetForRecordId(String tableName, int recordId);
+
+	long getTotalWeightBytes();
+
+	long getMaxTotalWeightBytes();
+
+	void setMaxTotalWeightBytes(long maxTotalWeightBytes);
 }
@@ -245,6 +245,11 @@ import de.metas.util.Check;
 		return cachedAnnotation.expireMinutes();
 	}
 
+	public long getCacheMaxWeightBytes()
+	{
+		return cachedAnnotation.maxWeightBytes();
+	}
+
 	public Method getMethod()
 	{
 		return method;
@@ -302,6 +307,12 @@ import de.metas.util.Check;
 			expireMinutes = DEFAULT_CacheExpireMinutes;
 		}
 
+		final long maxWeightBytes = getCacheMaxWeightBytes();
+		if (maxWeightBytes > 0)
+		{
+			return CCache.newWeightedCache(cacheName, maxWeightBytes, expireMinutes);
+		}
+
 		final CCache<ArrayKey, Object> cache = new CCache<>(cacheName, initialCapacity, expireMinutes);
 		return cache;
 	}
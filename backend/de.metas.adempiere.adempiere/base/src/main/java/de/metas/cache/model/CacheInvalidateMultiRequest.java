@@ -1,6 +1,9 @@
 package de.metas.cache.model;
 
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
@@ -75,6 +78,67 @@ public class CacheInvalidateMultiRequest
 		return new CacheInvalidateMultiRequest(requests);
 	}
 
+	/**
+	 * Merges the given requests into one multi-request:
+	 * <ul>
+	 * <li>duplicate requests are removed
+	 * <li>root record requests of a table which is reset anyway are removed
+	 * <li>if there are more than <code>maxRecordsPerTable</code> root record requests of one table, they are replaced by one request to reset that table
+	 * </ul>
+	 * Requests which also have a child table are kept as they are, because they carry more information than a table reset.
+	 */
+	public static CacheInvalidateMultiRequest coalesce(
+			@NonNull final Collection<CacheInvalidateRequest> requests,
+			final int maxRecordsPerTable)
+	{
+		Check.assumeNotEmpty(requests, "requests is not empty");
+
+		if (requests.stream().anyMatch(CacheInvalidateRequest::isAll))
+		{
+			return ALL;
+		}
+
+		final LinkedHashSet<CacheInvalidateRequest> result = new LinkedHashSet<>();
+		final LinkedHashMap<String, Set<CacheInvalidateRequest>> rootRecordRequestsByTableName = new LinkedHashMap<>();
+		final HashSet<String> tableNamesToResetAll = new HashSet<>();
+		for (final CacheInvalidateRequest request : requests)
+		{
+			if (request.getChildTableName() != null)
+			{
+				result.add(request);
+			}
+			else if (request.isAllRecords())
+			{
+				tableNamesToResetAll.add(request.getRootTableName());
+				result.add(request);
+			}
+			else
+			{
+				rootRecordRequestsByTableName
+						.computeIfAbsent(request.getRootTableName(), tableName -> new LinkedHashSet<>())
+						.add(request);
+			}
+		}
+
+		rootRecordRequestsByTableName.forEach((tableName, rootRecordRequests) -> {
+			if (tableNamesToResetAll.contains(tableName))
+			{
+				return; // covered by the table reset
+			}
+
+			if (maxRecordsPerTable > 0 && rootRecordRequests.size() > maxRecordsPerTable)
+			{
+				result.add(CacheInvalidateRequest.allRecordsForTable(tableName));
+			}
+			else
+			{
+				result.addAll(rootRecordRequests);
+			}
+		});
+
+		return new CacheInvalidateMultiRequest(result);
+	}
+
 	public static CacheInvalidateMultiRequest all()
 	{
 		return ALL;
@@ -22,6 +22,7 @@ package de.metas.cache.model;
  * #L%
  */
 
+import java.util.Collection;
 import java.util.Properties;
 
 import org.adempiere.model.InterfaceWrapperHelper;
@@ -95,5 +96,15 @@ public interface IModelCacheService extends ISingletonService
 	 */
 	void addToCache(PO po);
 
+	/**
+	 * Adds the given {@link PO}s to the cache of their transaction, even if there is no caching configuration for their table.
+	 * <p>
+	 * Used to prefetch referenced records in bulk, so that loading them one by one afterwards (e.g. via <code>getC_OrderLine()</code>) hits the cache.
+	 * The records are kept only for the lifetime of their transaction; POs which are not in a transaction are ignored.
+	 * <p>
+	 * NOTE: same as for {@link #addToCache(PO)}, call this method ONLY with <b>"freshly"</b> retrieved objects.
+	 */
+	void addPrefetchedToCache(Collection<PO> pos);
+
 	void invalidate(CacheInvalidateMultiRequest request);
 }
@@ -24,5 +24,7 @@ public interface IMutableTableCacheConfig extends ITableCacheConfig
 
 	void setMaxCapacity(int maxCapacity);
 
+	void setMaxWeightBytes(long maxWeightBytes);
+
 	void setExpireMinutes(int expireMinutes);
 }
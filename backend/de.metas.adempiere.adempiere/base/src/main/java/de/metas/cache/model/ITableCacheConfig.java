@@ -46,6 +46,11 @@ public interface ITableCacheConfig
 	public int getInitialCapacity();
 	
 	public int getMaxCapacity();
+
+	/**
+	 * @return approximate maximum bytes retained by the cached models; if greater than zero, the cache is bounded by this instead of {@link #getMaxCapacity()}
+	 */
+	public long getMaxWeightBytes();
 	
 	public int getExpireMinutes();
 }
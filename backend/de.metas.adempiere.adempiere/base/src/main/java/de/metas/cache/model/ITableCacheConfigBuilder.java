@@ -33,6 +33,13 @@ public interface ITableCacheConfigBuilder
 
 	ITableCacheConfigBuilder setMaxCapacity(int maxCapacity);
 
+	/**
+	 * Bounds the cache by the approximate bytes its models retain, instead of their count. Such caches count towards the global cache memory budget.
+	 *
+	 * @param maxWeightBytes approximate maximum bytes; zero or less means "bounded by count"
+	 */
+	ITableCacheConfigBuilder setMaxWeightBytes(long maxWeightBytes);
+
 	/**
 	 * 
 	 * @param expireMinutes ..or {@link ITableCacheConfig#EXPIREMINUTES_Never}
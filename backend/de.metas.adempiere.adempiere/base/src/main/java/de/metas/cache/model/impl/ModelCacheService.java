@@ -1,5 +1,6 @@
 package de.metas.cache.model.impl;
 
+import java.util.Collection;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -7,6 +8,7 @@ import java.util.concurrent.ConcurrentMap;
 import javax.annotation.Nullable;
 
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.ad.trx.api.NullTrxPlaceholder;
 import org.adempiere.exceptions.AdempiereException;
@@ -50,6 +52,13 @@ public class ModelCacheService implements IModelCacheService
 
 	private final ConcurrentHashMap<String, ITableCacheConfig> tableName2cacheConfig = new ConcurrentHashMap<>();
 
+	/**
+	 * Max number of prefetched records per table and transaction. If more are prefetched, the least recently used ones are loaded again when needed.
+	 */
+	private static final int PREFETCH_MaxCapacity = 10000;
+	private static final long PREFETCH_MaxWeightBytes = 64L * 1024 * 1024;
+	private final ConcurrentHashMap<String, ITableCacheConfig> tableName2prefetchCacheConfig = new ConcurrentHashMap<>();
+
 	private final ITableCacheStatisticsCollector statisticsCollector;
 
 	public ModelCacheService()
@@ -175,7 +184,8 @@ public class ModelCacheService implements IModelCacheService
 		// No cache config => we don't do caching
 		// NOTE: we are not checking for cacheConfig.isEnabled because we want to record the statistics
 		final ITableCacheConfig cacheConfig = getTableCacheConfig(tableName);
-		if (cacheConfig == null)
+		final ITableCacheConfig prefetchCacheConfig = tableName2prefetchCacheConfig.get(tableName);
+		if (cacheConfig == null && prefetchCacheConfig == null)
 		{
 			return null;
 		}
@@ -204,20 +214,34 @@ public class ModelCacheService implements IModelCacheService
 		//
 		// Search cache on transaction level
 		// (at this point "trx" can be an actual transaction or out-of-transaction=None)
-		PO poCached = retrieveObjectFromTrx(cacheConfig, ctx, tableName, recordId, trx);
+		PO poCached = null;
+		if (cacheConfig != null)
+		{
+			poCached = retrieveObjectFromTrx(cacheConfig, ctx, tableName, recordId, trx);
+
+			//
+			// If nothing found and we are not out-of-transaction
+			// then try searching on out-of-transaction level and if something found clone it and return it
+			if (poCached == null && inTransaction)
+			{
+				poCached = retrieveObjectFromTrx(cacheConfig, ctx, tableName, recordId, ITrx.TRX_None);
+			}
+		}
 
 		//
-		// If nothing found and we are not out-of-transaction
-		// then try searching on out-of-transaction level and if something found clone it and return it
-		if (poCached == null && inTransaction)
+		// If nothing found, check the records which were prefetched in our transaction
+		if (poCached == null && prefetchCacheConfig != null && inTransaction)
 		{
-			poCached = retrieveObjectFromTrx(cacheConfig, ctx, tableName, recordId, ITrx.TRX_None);
+			poCached = retrieveObjectFromTrx(prefetchCacheConfig, ctx, tableName, recordId, trx);
 		}
 
 		//
 		// Update statistics & logging
 		final boolean hit = poCached != null;
-		statisticsCollector.record(cacheConfig, hit, inTransaction);
+		if (cacheConfig != null)
+		{
+			statisticsCollector.record(cacheConfig, hit, inTransaction);
+		}
 		//
 		if (logger.isTraceEnabled())
 		{
@@ -273,7 +297,27 @@ public class ModelCacheService implements IModelCacheService
 
 	private TrxCacheMap getTrxCacheMap(final ITrx trx)
 	{
-		return cacheMapsByTrx.computeIfAbsent(NullTrxPlaceholder.boxNotNull(trx), TrxCacheMap::new);
+		return cacheMapsByTrx.computeIfAbsent(NullTrxPlaceholder.boxNotNull(trx), this::createTrxCacheMap);
+	}
+
+	private TrxCacheMap createTrxCacheMap(final ITrx trx)
+	{
+		final TrxCacheMap trxCacheMap = new TrxCacheMap(trx);
+
+		// Reset the trx's caches as soon as the trx is closed, instead of leaving them (and their weight) to the garbage collector
+		if (NullTrxPlaceholder.unboxToNull(trx) != null)
+		{
+			trx.getTrxListenerManager()
+					.newEventListener(TrxEventTiming.AFTER_CLOSE)
+					.registerHandlingMethod(closedTrx -> {
+						if (cacheMapsByTrx.remove(trx, trxCacheMap))
+						{
+							trxCacheMap.invalidateAll();
+						}
+					});
+		}
+
+		return trxCacheMap;
 	}
 
 	private final PO retrieveObjectFromTrx(final ITableCacheConfig cacheConfig, final Properties ctx, final String tableName, final int recordId, final ITrx trx)
@@ -422,6 +466,44 @@ public class ModelCacheService implements IModelCacheService
 		getTrxCacheMap(trx).put(po, cacheConfig);
 	}
 
+	@Override
+	public void addPrefetchedToCache(@NonNull final Collection<PO> pos)
+	{
+		for (final PO po : pos)
+		{
+			if (po == null || po.is_new())
+			{
+				continue;
+			}
+
+			// Prefetched records are cached only on transaction level
+			final ITrx trx = trxManager.getTrxOrNull(po.get_TrxName());
+			if (trx == null)
+			{
+				continue;
+			}
+
+			final ITableCacheConfig prefetchCacheConfig = tableName2prefetchCacheConfig.computeIfAbsent(po.get_TableName(), ModelCacheService::createPrefetchCacheConfig);
+			if (!isTrxLevelEnabled(prefetchCacheConfig, trx))
+			{
+				continue;
+			}
+
+			getTrxCacheMap(trx).put(po, prefetchCacheConfig);
+		}
+	}
+
+	private static ITableCacheConfig createPrefetchCacheConfig(final String tableName)
+	{
+		final IMutableTableCacheConfig cacheConfig = new MutableTableCacheConfig(tableName);
+		cacheConfig.setEnabled(true);
+		cacheConfig.setTrxLevel(TrxLevel.InTransactionOnly);
+		cacheConfig.setCacheMapType(CacheMapType.LRU);
+		cacheConfig.setMaxCapacity(PREFETCH_MaxCapacity);
+		cacheConfig.setMaxWeightBytes(PREFETCH_MaxWeightBytes);
+		return cacheConfig;
+	}
+
 	@Override
 	public void invalidate(@NonNull final CacheInvalidateMultiRequest request)
 	{
@@ -535,6 +617,11 @@ public class ModelCacheService implements IModelCacheService
 			{
 				maxCapacity = initialCapacity;
 			}
+			final long maxWeightBytes = cacheConfig.getMaxWeightBytes();
+			if (maxWeightBytes > 0)
+			{
+				return IDCache.newWeightedCache(tableName, trxName, maxWeightBytes, expireMinutes);
+			}
 			return new IDCache<>(tableName, trxName, maxCapacity, expireMinutes, cacheMapType);
 		}
 
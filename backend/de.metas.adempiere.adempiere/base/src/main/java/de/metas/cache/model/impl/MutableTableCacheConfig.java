@@ -12,6 +12,7 @@ import de.metas.util.Check;
 	private CacheMapType cacheMapType;
 	private int initialCapacity = 50;
 	private int maxCapacity = -1;
+	private long maxWeightBytes = -1;
 	private int expireMinutes = EXPIREMINUTES_Never; // never expire
 
 	public MutableTableCacheConfig(final String tableName)
@@ -34,6 +35,7 @@ import de.metas.util.Check;
 				+ ", cacheMapType=" + cacheMapType
 				+ ", initialCapacity=" + initialCapacity
 				+ ", maxCapacity=" + maxCapacity
+				+ ", maxWeightBytes=" + maxWeightBytes
 				+ ", expireMinutes=" + expireMinutes
 				+ "]";
 	}
@@ -107,6 +109,18 @@ import de.metas.util.Check;
 		this.maxCapacity = maxCapacity;
 	}
 
+	@Override
+	public long getMaxWeightBytes()
+	{
+		return maxWeightBytes;
+	}
+
+	@Override
+	public void setMaxWeightBytes(final long maxWeightBytes)
+	{
+		this.maxWeightBytes = maxWeightBytes;
+	}
+
 	@Override
 	public int getExpireMinutes()
 	{
@@ -17,6 +17,7 @@ import de.metas.util.Check;
 	private CacheMapType cacheMapType = CacheMapType.HashMap;
 	private int initialCapacity = 50;
 	private int maxCapacity = -1;
+	private long maxWeightBytes = -1;
 	private int expireMinutes = ITableCacheConfig.EXPIREMINUTES_Never;
 
 	public TableCacheConfigBuilder(final ModelCacheService cacheService, final String tableName)
@@ -57,6 +58,7 @@ import de.metas.util.Check;
 		cacheConfig.setExpireMinutes(getExpireMinutes());
 		cacheConfig.setInitialCapacity(getInitialCapacity());
 		cacheConfig.setMaxCapacity(getMaxCapacity());
+		cacheConfig.setMaxWeightBytes(getMaxWeightBytes());
 
 		return cacheConfig;
 	}
@@ -173,6 +175,27 @@ import de.metas.util.Check;
 		return this;
 	}
 
+	public long getMaxWeightBytes()
+	{
+		if (maxWeightBytes > 0)
+		{
+			return maxWeightBytes;
+		}
+		else if (template != null)
+		{
+			return template.getMaxWeightBytes();
+		}
+
+		return -1;
+	}
+
+	@Override
+	public ITableCacheConfigBuilder setMaxWeightBytes(final long maxWeightBytes)
+	{
+		this.maxWeightBytes = maxWeightBytes;
+		return this;
+	}
+
 	public int getExpireMinutes()
 	{
 		if (expireMinutes > 0 || expireMinutes == ITableCacheConfig.EXPIREMINUTES_Never)
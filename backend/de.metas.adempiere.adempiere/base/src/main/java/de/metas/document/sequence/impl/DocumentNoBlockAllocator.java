@@ -0,0 +1,78 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.document.sequence.impl;
+
+import de.metas.document.DocumentSequenceInfo;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.util.TableIdBlockAllocator;
+import org.compiere.util.TableIdBlockAllocator.IdBlockRetriever;
+
+import javax.annotation.Nullable;
+
+/**
+ * Hands out document sequence numbers from blocks which were reserved in advance, so that completing many documents of the same type
+ * does not have to update the same {@code AD_Sequence} (or {@code AD_Sequence_No}) row for each document.
+ * <p>
+ * The blocks are kept per node (i.e. JVM), so the numbers are no longer ascending across nodes and the numbers which were not handed out before a restart are lost.
+ * Therefore, this is only for sequences which allow gaps.
+ * It's enabled per sequence, by setting the sysconfig {@value #SYSCONFIG_BlockSize_Prefix}AD_Sequence_ID to a block size greater than one;
+ * all other sequences are incremented for each document, like before.
+ * <p>
+ * The blocks are managed by {@link TableIdBlockAllocator}, so the sequence numbers shall be greater than zero.
+ */
+final class DocumentNoBlockAllocator
+{
+	public static final DocumentNoBlockAllocator instance = new DocumentNoBlockAllocator();
+
+	public static final String SYSCONFIG_BlockSize_Prefix = "de.metas.document.sequence.DocumentNoBlockSize.";
+
+	private DocumentNoBlockAllocator()
+	{
+	}
+
+	/**
+	 * @return block size to be used for given sequence; if it's less than or equal to one, the sequence numbers shall not be allocated in blocks
+	 */
+	public int getBlockSize(@NonNull final DocumentSequenceInfo docSeqInfo)
+	{
+		return Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_BlockSize_Prefix + docSeqInfo.getAdSequenceId(), 0);
+	}
+
+	/**
+	 * @param calendarYear the calendar year, if the sequence starts new each year
+	 */
+	public int nextSequenceNo(
+			@NonNull final DocumentSequenceInfo docSeqInfo,
+			@Nullable final String calendarYear,
+			final int blockSize,
+			@NonNull final IdBlockRetriever retriever)
+	{
+		final String sequenceKey = calendarYear != null
+				? "DocumentNo#" + docSeqInfo.getAdSequenceId() + "#" + calendarYear
+				: "DocumentNo#" + docSeqInfo.getAdSequenceId();
+
+		return TableIdBlockAllocator.instance.nextId(sequenceKey, blockSize, retriever);
+	}
+}
@@ -22,6 +22,7 @@
 
 package de.metas.document.sequence.impl;
 
+import com.google.common.base.Stopwatch;
 import com.google.common.base.Suppliers;
 import de.metas.common.util.time.SystemTime;
 import de.metas.document.DocTypeSequenceMap;
@@ -55,6 +56,7 @@ import org.compiere.util.DB;
 import org.compiere.util.Env;
 import org.compiere.util.Evaluatee;
 import org.compiere.util.Evaluatees;
+import org.compiere.util.TimeUtil;
 import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
@@ -73,6 +75,7 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 	// services
 	private static final transient Logger logger = LogManager.getLogger(DocumentNoBuilder.class);
 	private final transient IDocumentSequenceDAO documentSequenceDAO = Services.get(IDocumentSequenceDAO.class);
+	private final transient DocumentNoBlockAllocator documentNoBlockAllocator = DocumentNoBlockAllocator.instance;
 	final IMsgBL msgBL = Services.get(IMsgBL.class);
 
 	private static final AdMessageKey MSG_PROVIDER_NOT_APPLICABLE = AdMessageKey.of("de.metas.document.CustomSequenceNotProviderNoApplicable");
@@ -330,43 +333,80 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 
 	private int retrieveAndIncrementSequenceCurrentNext(@NonNull final DocumentSequenceInfo docSeqInfo)
 	{
+		final String calendarYear = !isAdempiereSys() && docSeqInfo.isStartNewYear()
+				? getCalendarYear(docSeqInfo.getDateColumn())
+				: null;
+
+		// Sequences which allow gaps can be configured to hand out their numbers from blocks reserved in advance
+		final int blockSize = isAdempiereSys() ? 0 : documentNoBlockAllocator.getBlockSize(docSeqInfo);
+		if (blockSize > 1)
+		{
+			return documentNoBlockAllocator.nextSequenceNo(
+					docSeqInfo,
+					calendarYear,
+					blockSize,
+					count -> reserveSequenceNos(docSeqInfo, calendarYear, count));
+		}
+
+		return reserveSequenceNos(docSeqInfo, calendarYear, 1).get(0);
+	}
+
+	/**
+	 * Increments the sequence by <code>count</code> numbers.
+	 *
+	 * @return the reserved sequence numbers
+	 */
+	private List<Integer> reserveSequenceNos(
+			@NonNull final DocumentSequenceInfo docSeqInfo,
+			@Nullable final String calendarYear,
+			final int count)
+	{
+		final int incrementNo = docSeqInfo.getIncrementNo();
+		final int incrementTotal = incrementNo * count;
+
 		final String trxName = getTrxName();
 		final List<Object> sqlParams = new ArrayList<>();
 		final String sql;
 		if (isAdempiereSys())
 		{
 			sql = "UPDATE AD_Sequence SET CurrentNextSys = CurrentNextSys + ? WHERE AD_Sequence_ID=? RETURNING CurrentNextSys - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(incrementTotal);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(incrementTotal);
 		}
-		else if (docSeqInfo.isStartNewYear())
+		else if (calendarYear != null)
 		{
-			final String calendarYear = getCalendarYear(docSeqInfo.getDateColumn());
-
 			sql = "UPDATE AD_Sequence_No SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ? AND CalendarYear = ? RETURNING CurrentNext - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(incrementTotal);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
 			sqlParams.add(calendarYear);
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(incrementTotal);
 
 		}
 		else
 		{
 			sql = "UPDATE AD_Sequence SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ? RETURNING CurrentNext - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(incrementTotal);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(incrementTotal);
 		}
 
+		final Stopwatch stopwatch = Stopwatch.createStarted();
 		final IMutable<Integer> currentSeq = new Mutable<>(-1);
 		DB.executeUpdateAndThrowExceptionOnFail(sql,
 												sqlParams.toArray(),
 												trxName,
 												QUERY_TIME_OUT,
 												rs -> currentSeq.setValue(rs.getInt(1)));
+		DocumentSequenceMetrics.recordSequenceUpdate(docSeqInfo, TimeUtil.toDuration(stopwatch), count);
 
-		return currentSeq.getValue();
+		final int firstSequenceNo = currentSeq.getValue();
+		final List<Integer> sequenceNos = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+		{
+			sequenceNos.add(firstSequenceNo + i * incrementNo);
+		}
+		return sequenceNos;
 	}
 
 	private int retrieveSequenceCurrentNext(@NonNull final DocumentSequenceInfo docSeqInfo)
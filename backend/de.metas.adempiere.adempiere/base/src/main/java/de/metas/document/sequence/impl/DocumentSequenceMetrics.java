@@ -0,0 +1,91 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.document.sequence.impl;
+
+import de.metas.document.DocumentSequenceInfo;
+import de.metas.logging.LogManager;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.NonNull;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+
+/**
+ * Publishes how long the document sequence rows were updated (i.e. including the time spent waiting for the row locks held by other transactions)
+ * and how many sequence numbers were reserved per update, tagged by sequence name.
+ */
+@Component
+public class DocumentSequenceMetrics implements MeterBinder
+{
+	private static final Logger logger = LogManager.getLogger(DocumentSequenceMetrics.class);
+
+	private static final String METER_PREFIX = "mf.documentNo.";
+	private static final String TAG_Sequence = "sequence";
+
+	private static final Duration SLOW_UPDATE_THRESHOLD = Duration.ofSeconds(1);
+
+	@Nullable
+	private static volatile MeterRegistry meterRegistry;
+
+	@Override
+	public void bindTo(@NonNull final MeterRegistry registry)
+	{
+		meterRegistry = registry;
+	}
+
+	static void recordSequenceUpdate(
+			@NonNull final DocumentSequenceInfo docSeqInfo,
+			@NonNull final Duration duration,
+			final int countReserved)
+	{
+		final String sequenceName = docSeqInfo.getName() != null ? docSeqInfo.getName() : String.valueOf(docSeqInfo.getAdSequenceId());
+		if (duration.compareTo(SLOW_UPDATE_THRESHOLD) >= 0)
+		{
+			logger.info("Updating sequence {} took {} (reserved {} numbers)", sequenceName, duration, countReserved);
+		}
+
+		final MeterRegistry meterRegistry = DocumentSequenceMetrics.meterRegistry;
+		if (meterRegistry == null)
+		{
+			return;
+		}
+
+		final Tags tags = Tags.of(TAG_Sequence, sequenceName);
+		Timer.builder(METER_PREFIX + "sequenceUpdate")
+				.description("Time spent updating the sequence row, including waiting for its lock")
+				.tags(tags)
+				.register(meterRegistry)
+				.record(duration);
+		DistributionSummary.builder(METER_PREFIX + "reservedPerUpdate")
+				.description("Sequence numbers reserved per sequence row update")
+				.tags(tags)
+				.register(meterRegistry)
+				.record(countReserved);
+	}
+}
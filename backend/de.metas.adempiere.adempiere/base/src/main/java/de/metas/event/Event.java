@@ -537,6 +537,15 @@ public class Event
 			return this;
 		}
 
+		/**
+		 * Note: in the event's JSON (e.g. in the event log), binary values are base64 encoded.
+		 */
+		public Builder putProperty(final String name, final byte[] value)
+		{
+			properties.put(name, value);
+			return this;
+		}
+
 		/**
 		 * @see #putProperty(String, ITableRecordReference)
 		 * @see Event#PROPERTY_Record
@@ -599,6 +608,10 @@ public class Event
 			{
 				return putProperty(name, (List<?>)value);
 			}
+			else if (value instanceof byte[])
+			{
+				return putProperty(name, (byte[])value);
+			}
 			else
 			{
 				throw new AdempiereException("Unknown value type " + name + " = " + value + " (type " + value.getClass() + ")");
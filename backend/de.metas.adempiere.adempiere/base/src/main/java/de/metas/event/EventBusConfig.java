@@ -129,6 +129,21 @@ public final class EventBusConfig
 		return StringUtils.toBoolean(standardValue, false);
 	}
 
+	/**
+	 * @return how many events of one async event bus may be dispatched concurrently. <code>1</code> (the default) means the events are dispatched one after another, in the order they were posted.
+	 * Greater values are meant for topics whose listeners mostly wait on the database or remote systems and don't rely on the events' order.
+	 */
+	public static int getEventBusAsyncMaxConcurrency(@NonNull final Topic topic)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+		final String nameForAllTopics = "de.metas.event.asyncEventBus.MaxConcurrency";
+		final int standardValue = sysConfigBL.getIntValue(nameForAllTopics, 1);
+		final int valueForTopic = sysConfigBL.getIntValue(nameForAllTopics + ".topic_" + topic.getName(), standardValue);
+
+		return Math.max(valueForTopic, 1);
+	}
+
 	public static boolean isMonitorIncomingEvents()
 	{
 		return Services.get(ISysConfigBL.class).getBooleanValue("de.metas.event.MonitorIncomingEvents", false);
@@ -38,6 +38,9 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 @Service
@@ -45,6 +48,8 @@ public class EventBusFactory implements IEventBusFactory
 {
 	private static final Logger logger = LogManager.getLogger(EventBusFactory.class);
 
+	private static final long ELASTIC_EXECUTOR_KeepAliveTimeMillis = 60 * 1000;
+
 	/**
 	 * Map of "topic name" to list of {@link IEventListener}s.
 	 */
@@ -185,19 +190,47 @@ public class EventBusFactory implements IEventBusFactory
 	private ExecutorService createExecutorOrNull(@NonNull final Topic topic)
 	{
 		// Setup EventBus executor
-		if (EventBusConfig.isEventBusPostAsync(topic))
+		if (!EventBusConfig.isEventBusPostAsync(topic))
+		{
+			return null;
+		}
+
+		final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(getClass().getName() + "-" + topic.getName() + "-AsyncExecutor")
+				.setDaemon(true)
+				.build();
+
+		final int maxConcurrency = EventBusConfig.getEventBusAsyncMaxConcurrency(topic);
+		if (maxConcurrency <= 1)
 		{
-			return Executors.newSingleThreadExecutor(CustomizableThreadFactory.builder()
-															 .setThreadNamePrefix(getClass().getName() + "-" + topic.getName() + "-AsyncExecutor")
-															 .setDaemon(true)
-															 .build());
+			return Executors.newSingleThreadExecutor(threadFactory);
 		}
 		else
 		{
-			return null;
+			logger.info("Dispatching events of topic={} with maxConcurrency={}", topic, maxConcurrency);
+			return createElasticExecutor(maxConcurrency, threadFactory);
 		}
 	}
 
+	/**
+	 * Creates an executor with up to the given number of threads which are started only when there are events to dispatch and are discarded when idle.
+	 * Other than {@link org.adempiere.util.concurrent.BlockingExecutorWrapper} it never blocks the posting thread; events that can't be dispatched right away are queued.
+	 */
+	private static ExecutorService createElasticExecutor(
+			final int maxConcurrency,
+			@NonNull final CustomizableThreadFactory threadFactory)
+	{
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+				maxConcurrency,
+				maxConcurrency,
+				ELASTIC_EXECUTOR_KeepAliveTimeMillis,
+				TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(),
+				threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
 	private void destroyEventBus(@NonNull final EventBus eventBus)
 	{
 		eventBus.destroy();
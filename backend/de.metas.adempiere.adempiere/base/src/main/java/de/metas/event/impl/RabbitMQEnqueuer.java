@@ -26,14 +26,19 @@ import de.metas.event.Event;
 import de.metas.event.EventBusConfig;
 import de.metas.event.EventEnqueuer;
 import de.metas.event.Topic;
+import de.metas.event.remote.EventSerializerRegistry;
+import de.metas.event.remote.IEventSerializer;
 import de.metas.event.remote.RabbitMQDestinationResolver;
 import lombok.NonNull;
 import org.slf4j.Logger;
 import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
+import java.util.Optional;
 
 import static de.metas.event.EventBusConfig.getSenderId;
 import static de.metas.event.remote.RabbitMQEventBusRemoteEndpoint.HEADER_SenderId;
@@ -47,13 +52,16 @@ public class RabbitMQEnqueuer implements EventEnqueuer
 
 	private final AmqpTemplate amqpTemplate;
 	private final RabbitMQDestinationResolver rabbitMQDestinationResolver;
+	private final EventSerializerRegistry eventSerializerRegistry;
 
 	public RabbitMQEnqueuer(
 			@NonNull final AmqpTemplate amqpTemplate,
-			@NonNull final RabbitMQDestinationResolver rabbitMQDestinationResolver)
+			@NonNull final RabbitMQDestinationResolver rabbitMQDestinationResolver,
+			@NonNull final EventSerializerRegistry eventSerializerRegistry)
 	{
 		this.amqpTemplate = amqpTemplate;
 		this.rabbitMQDestinationResolver = rabbitMQDestinationResolver;
+		this.eventSerializerRegistry = eventSerializerRegistry;
 	}
 
 	@Override
@@ -61,11 +69,22 @@ public class RabbitMQEnqueuer implements EventEnqueuer
 	{
 		final String amqpExchangeName = rabbitMQDestinationResolver.getAMQPExchangeNameByTopicName(topic.getName());
 		final String routingKey = ""; // ignored for fan-out exchanges
-		amqpTemplate.convertAndSend(
-				amqpExchangeName,
-				routingKey,
-				event,
-				getMessagePostProcessor(topic));
+		final Optional<IEventSerializer> serializer = eventSerializerRegistry.getSerializerForTopic(topic);
+		if (serializer.isPresent())
+		{
+			amqpTemplate.send(
+					amqpExchangeName,
+					routingKey,
+					toMessage(event, topic, serializer.get()));
+		}
+		else
+		{
+			amqpTemplate.convertAndSend(
+					amqpExchangeName,
+					routingKey,
+					event,
+					getMessagePostProcessor(topic));
+		}
 
 		logger.debug("Send event; topicName={}; event={}; type={}", topic.getName(), event, topic.getType());
 	}
@@ -75,13 +94,35 @@ public class RabbitMQEnqueuer implements EventEnqueuer
 	{
 		final String queueName = rabbitMQDestinationResolver.getAMQPQueueNameByTopicName(topic.getName());
 
-		amqpTemplate.convertAndSend(queueName,
-									event,
-									getMessagePostProcessor(topic));
+		final Optional<IEventSerializer> serializer = eventSerializerRegistry.getSerializerForTopic(topic);
+		if (serializer.isPresent())
+		{
+			amqpTemplate.send(queueName,
+							  toMessage(event, topic, serializer.get()));
+		}
+		else
+		{
+			amqpTemplate.convertAndSend(queueName,
+										event,
+										getMessagePostProcessor(topic));
+		}
 
 		logger.debug("Send event; topicName={}; event={}; type={}", topic.getName(), event, topic.getType());
 	}
 
+	@NonNull
+	private Message toMessage(
+			@NonNull final Event event,
+			@NonNull final Topic topic,
+			@NonNull final IEventSerializer serializer)
+	{
+		final MessageProperties messageProperties = new MessageProperties();
+		messageProperties.setContentType(serializer.getContentType());
+
+		final Message message = new Message(serializer.toBytes(event), messageProperties);
+		return getMessagePostProcessor(topic).postProcessMessage(message);
+	}
+
 	@NonNull
 	private MessagePostProcessor getMessagePostProcessor(@NonNull final Topic topic)
 	{
@@ -12,6 +12,7 @@ import com.google.common.annotations.VisibleForTesting;
 
 import de.metas.error.AdIssueId;
 import de.metas.error.IErrorManager;
+import de.metas.event.Event;
 import de.metas.util.ILoggable;
 import de.metas.util.Loggables;
 import de.metas.util.Services;
@@ -163,10 +164,7 @@ public class EventLogUserService
 		{
 			request.getInvokaction().run();
 
-			newLogEntry(request.getHandlerClass())
-					.formattedMessage("this handler is done")
-					.processed(true)
-					.createAndStore();
+			logHandlerDone(request.getHandlerClass());
 		}
 		catch (final RuntimeException e)
 		{
@@ -177,6 +175,25 @@ public class EventLogUserService
 		}
 	}
 
+	/**
+	 * Logs that the given handler is done with the current event. Needed by callers that invoke their handlers without {@link #invokeHandlerAndLog(InvokeHandlerAndLogRequest)}.
+	 */
+	public void logHandlerDone(@NonNull final Class<?> handlerClass)
+	{
+		newLogEntry(handlerClass)
+				.formattedMessage("this handler is done")
+				.processed(true)
+				.createAndStore();
+	}
+
+	/**
+	 * @return {@code true} if the given event was already (partially) processed before and is now posted again.
+	 */
+	public static boolean hasProcessedByHandlerInfo(@NonNull final Event event)
+	{
+		return event.getProperty(PROPERTY_PROCESSED_BY_HANDLER_CLASS_NAMES) != null;
+	}
+
 	private boolean wasEventProcessedByHandler(@NonNull final Class<?> handlerClass)
 	{
 		final EventLogEntryCollector eventLogCollector = EventLogEntryCollector.getThreadLocal();
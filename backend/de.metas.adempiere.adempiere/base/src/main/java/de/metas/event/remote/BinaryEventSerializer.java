@@ -0,0 +1,481 @@
+package de.metas.event.remote;
+
+import com.google.common.annotations.VisibleForTesting;
+import de.metas.event.Event;
+import de.metas.util.Check;
+import lombok.NonNull;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.lang.impl.TableRecordReference;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.InflaterInputStream;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Serializes {@link Event}s into a compact binary form.
+ * Unlike with {@link JacksonJsonEventSerializer}, there are no property names or type infos in the output, string properties are not escaped
+ * and binary properties (e.g. a material event in a binary data format) are not base64 encoded.
+ * Bigger payloads are additionally deflated.
+ * <p>
+ * Layout: two magic bytes, one byte for the format version, one byte for flags, then the payload.
+ * If an event has a property value that can't be encoded by this class, then the payload is the event's JSON, so that the receiver can still read it.
+ * Also, {@link #fromBytes(byte[])} can read plain JSON without a header.
+ */
+public final class BinaryEventSerializer implements IEventSerializer
+{
+	public static final transient BinaryEventSerializer instance = new BinaryEventSerializer();
+
+	public static final String CONTENT_TYPE = "application/x-metasfresh-event";
+
+	private static final byte MAGIC_0 = 'M';
+	private static final byte MAGIC_1 = 'E';
+	@VisibleForTesting
+	static final byte FORMAT_VERSION = 1;
+	private static final int HEADER_LENGTH = 4;
+
+	@VisibleForTesting
+	static final byte FLAG_JSON = 1;
+	@VisibleForTesting
+	static final byte FLAG_DEFLATED = 2;
+
+	private static final int DEFLATE_MIN_PAYLOAD_LENGTH = 1024;
+
+	private static final byte LOGGING_STATUS_SHALL_NOT_BE_LOGGED = 0;
+	private static final byte LOGGING_STATUS_SHALL_BE_LOGGED = 1;
+	private static final byte LOGGING_STATUS_WAS_LOGGED = 2;
+
+	private static final byte TYPE_NULL = 0; // only within lists
+	private static final byte TYPE_STRING = 1;
+	private static final byte TYPE_INTEGER = 2;
+	private static final byte TYPE_LONG = 3;
+	private static final byte TYPE_BOOLEAN = 4;
+	private static final byte TYPE_BIGDECIMAL = 5;
+	private static final byte TYPE_DATE = 6;
+	private static final byte TYPE_TIMESTAMP = 7;
+	private static final byte TYPE_TABLE_RECORD_REFERENCE = 8;
+	private static final byte TYPE_LIST = 9;
+	private static final byte TYPE_BYTES = 10;
+
+	private final JacksonJsonEventSerializer jsonSerializer = JacksonJsonEventSerializer.instance;
+
+	private BinaryEventSerializer()
+	{
+	}
+
+	@Override
+	public String getContentType()
+	{
+		return CONTENT_TYPE;
+	}
+
+	@Override
+	public String toString(final Event event)
+	{
+		return Base64.getEncoder().encodeToString(toBytes(event));
+	}
+
+	@Override
+	public Event fromString(final String eventStr)
+	{
+		return fromBytes(Base64.getDecoder().decode(eventStr));
+	}
+
+	@Override
+	public byte[] toBytes(@NonNull final Event event)
+	{
+		final byte[] payload = writePayloadOrNull(event);
+		if (payload == null)
+		{
+			return withHeader(FLAG_JSON, jsonSerializer.toBytes(event));
+		}
+		else if (payload.length >= DEFLATE_MIN_PAYLOAD_LENGTH)
+		{
+			return withHeader(FLAG_DEFLATED, deflate(payload));
+		}
+		else
+		{
+			return withHeader((byte)0, payload);
+		}
+	}
+
+	@Override
+	public Event fromBytes(@NonNull final byte[] bytes)
+	{
+		if (bytes.length < HEADER_LENGTH || bytes[0] != MAGIC_0 || bytes[1] != MAGIC_1)
+		{
+			return jsonSerializer.fromBytes(bytes);
+		}
+
+		final byte formatVersion = bytes[2];
+		if (formatVersion != FORMAT_VERSION)
+		{
+			throw new AdempiereException("Event has the unsupported format version " + formatVersion + "; the sender might run a newer metasfresh version")
+					.appendParametersToMessage()
+					.setParameter("supportedFormatVersion", FORMAT_VERSION);
+		}
+
+		final byte flags = bytes[3];
+		if ((flags & FLAG_JSON) != 0)
+		{
+			return jsonSerializer.fromBytes(Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length));
+		}
+
+		final InputStream payload = new ByteArrayInputStream(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+		try (final DataInputStream in = new DataInputStream((flags & FLAG_DEFLATED) != 0 ? new InflaterInputStream(payload) : payload))
+		{
+			return readPayload(in);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed reading binary event", ex);
+		}
+	}
+
+	private static byte[] withHeader(final byte flags, final byte[] payload)
+	{
+		final byte[] result = new byte[HEADER_LENGTH + payload.length];
+		result[0] = MAGIC_0;
+		result[1] = MAGIC_1;
+		result[2] = FORMAT_VERSION;
+		result[3] = flags;
+		System.arraycopy(payload, 0, result, HEADER_LENGTH, payload.length);
+		return result;
+	}
+
+	/**
+	 * @return {@code null} if the given event can't be written by this class
+	 */
+	@Nullable
+	private static byte[] writePayloadOrNull(final Event event)
+	{
+		if (Check.isBlank(event.getSenderId()))
+		{
+			return null; // Event.Builder would set the local senderId
+		}
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+		try (final DataOutputStream out = new DataOutputStream(bytes))
+		{
+			out.writeLong(event.getUuid().getMostSignificantBits());
+			out.writeLong(event.getUuid().getLeastSignificantBits());
+			out.writeLong(event.getWhen().getEpochSecond());
+			out.writeInt(event.getWhen().getNano());
+
+			writeString(out, event.getSummary());
+			writeString(out, event.getDetailPlain());
+			writeString(out, event.getDetailADMessage());
+			writeString(out, event.getSenderId());
+			out.writeByte(getLoggingStatus(event));
+
+			out.writeInt(event.getRecipientUserIds().size());
+			for (final int recipientUserId : event.getRecipientUserIds())
+			{
+				out.writeInt(recipientUserId);
+			}
+
+			out.writeInt(event.getProperties().size());
+			for (final Map.Entry<String, Object> property : event.getProperties().entrySet())
+			{
+				writeString(out, property.getKey());
+				if (!writeValue(out, property.getValue()))
+				{
+					return null;
+				}
+			}
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed writing binary event", ex);
+		}
+
+		return bytes.toByteArray();
+	}
+
+	private static byte getLoggingStatus(final Event event)
+	{
+		if (event.isShallBeLogged())
+		{
+			return LOGGING_STATUS_SHALL_BE_LOGGED;
+		}
+		else if (event.isWasLogged())
+		{
+			return LOGGING_STATUS_WAS_LOGGED;
+		}
+		else
+		{
+			return LOGGING_STATUS_SHALL_NOT_BE_LOGGED;
+		}
+	}
+
+	/**
+	 * @return {@code false} if the given value's type is not supported
+	 */
+	private static boolean writeValue(final DataOutputStream out, @Nullable final Object value) throws IOException
+	{
+		if (value == null)
+		{
+			out.writeByte(TYPE_NULL);
+		}
+		else if (value instanceof String)
+		{
+			out.writeByte(TYPE_STRING);
+			writeString(out, (String)value);
+		}
+		else if (value instanceof Integer)
+		{
+			out.writeByte(TYPE_INTEGER);
+			out.writeInt((Integer)value);
+		}
+		else if (value instanceof Long)
+		{
+			out.writeByte(TYPE_LONG);
+			out.writeLong((Long)value);
+		}
+		else if (value instanceof Boolean)
+		{
+			out.writeByte(TYPE_BOOLEAN);
+			out.writeBoolean((Boolean)value);
+		}
+		else if (value instanceof BigDecimal)
+		{
+			final BigDecimal bigDecimal = (BigDecimal)value;
+			final byte[] unscaledValue = bigDecimal.unscaledValue().toByteArray();
+			out.writeByte(TYPE_BIGDECIMAL);
+			out.writeInt(bigDecimal.scale());
+			out.writeInt(unscaledValue.length);
+			out.write(unscaledValue);
+		}
+		else if (value instanceof Timestamp)
+		{
+			final Timestamp timestamp = (Timestamp)value;
+			out.writeByte(TYPE_TIMESTAMP);
+			out.writeLong(timestamp.getTime());
+			out.writeInt(timestamp.getNanos());
+		}
+		else if (value.getClass() == Date.class)
+		{
+			out.writeByte(TYPE_DATE);
+			out.writeLong(((Date)value).getTime());
+		}
+		else if (value instanceof TableRecordReference)
+		{
+			final TableRecordReference recordRef = (TableRecordReference)value;
+			out.writeByte(TYPE_TABLE_RECORD_REFERENCE);
+			writeString(out, recordRef.getTableName());
+			out.writeInt(recordRef.getRecord_ID());
+		}
+		else if (value instanceof byte[])
+		{
+			final byte[] bytes = (byte[])value;
+			out.writeByte(TYPE_BYTES);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+		else if (value instanceof List)
+		{
+			final List<?> list = (List<?>)value;
+			out.writeByte(TYPE_LIST);
+			out.writeInt(list.size());
+			for (final Object item : list)
+			{
+				if (!writeValue(out, item))
+				{
+					return false;
+				}
+			}
+		}
+		else
+		{
+			return false;
+		}
+		return true;
+	}
+
+	private static void writeString(final DataOutputStream out, @Nullable final String value) throws IOException
+	{
+		if (value == null)
+		{
+			out.writeInt(-1);
+			return;
+		}
+
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static Event readPayload(final DataInputStream in) throws IOException
+	{
+		final long uuidMostSignificantBits = in.readLong();
+		final long uuidLeastSignificantBits = in.readLong();
+		final long whenEpochSecond = in.readLong();
+		final int whenNano = in.readInt();
+
+		final Event.Builder builder = Event.builder()
+				.setUUID(new UUID(uuidMostSignificantBits, uuidLeastSignificantBits))
+				.setWhen(Instant.ofEpochSecond(whenEpochSecond, whenNano))
+				.setSummary(readString(in))
+				.setDetailPlain(readString(in))
+				.setDetailADMessage(readString(in))
+				.setSenderId(readString(in));
+
+		final byte loggingStatus = in.readByte();
+		if (loggingStatus == LOGGING_STATUS_SHALL_BE_LOGGED)
+		{
+			builder.shallBeLogged();
+		}
+		else if (loggingStatus == LOGGING_STATUS_WAS_LOGGED)
+		{
+			builder.wasLogged();
+		}
+
+		final int recipientUserIdsCount = in.readInt();
+		for (int i = 0; i < recipientUserIdsCount; i++)
+		{
+			builder.addRecipient_User_ID(in.readInt());
+		}
+
+		final int propertiesCount = in.readInt();
+		for (int i = 0; i < propertiesCount; i++)
+		{
+			final String name = readString(in);
+			builder.putPropertyFromObject(name, readValue(in));
+		}
+
+		return builder.build();
+	}
+
+	@Nullable
+	private static Object readValue(final DataInputStream in) throws IOException
+	{
+		final byte type = in.readByte();
+		switch (type)
+		{
+			case TYPE_NULL:
+				return null;
+			case TYPE_STRING:
+				return readString(in);
+			case TYPE_INTEGER:
+				return in.readInt();
+			case TYPE_LONG:
+				return in.readLong();
+			case TYPE_BOOLEAN:
+				return in.readBoolean();
+			case TYPE_BIGDECIMAL:
+			{
+				final int scale = in.readInt();
+				final byte[] unscaledValue = new byte[in.readInt()];
+				in.readFully(unscaledValue);
+				return new BigDecimal(new BigInteger(unscaledValue), scale);
+			}
+			case TYPE_TIMESTAMP:
+			{
+				final Timestamp timestamp = new Timestamp(in.readLong());
+				timestamp.setNanos(in.readInt());
+				return timestamp;
+			}
+			case TYPE_DATE:
+				return new Date(in.readLong());
+			case TYPE_TABLE_RECORD_REFERENCE:
+			{
+				final String tableName = readString(in);
+				return TableRecordReference.of(tableName, in.readInt());
+			}
+			case TYPE_LIST:
+			{
+				final int size = in.readInt();
+				final ArrayList<Object> list = new ArrayList<>(size);
+				for (int i = 0; i < size; i++)
+				{
+					list.add(readValue(in));
+				}
+				return list;
+			}
+			case TYPE_BYTES:
+			{
+				final byte[] bytes = new byte[in.readInt()];
+				in.readFully(bytes);
+				return bytes;
+			}
+			default:
+				throw new AdempiereException("Unknown property type " + type);
+		}
+	}
+
+	@Nullable
+	private static String readString(final DataInputStream in) throws IOException
+	{
+		final int length = in.readInt();
+		if (length < 0)
+		{
+			return null;
+		}
+
+		final byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static byte[] deflate(final byte[] bytes)
+	{
+		final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try
+		{
+			deflater.setInput(bytes);
+			deflater.finish();
+
+			final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+			final byte[] buffer = new byte[4096];
+			while (!deflater.finished())
+			{
+				final int count = deflater.deflate(buffer);
+				out.write(buffer, 0, count);
+			}
+			return out.toByteArray();
+		}
+		finally
+		{
+			deflater.end();
+		}
+	}
+}
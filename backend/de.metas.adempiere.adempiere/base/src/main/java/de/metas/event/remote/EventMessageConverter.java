@@ -0,0 +1,74 @@
+package de.metas.event.remote;
+
+import lombok.NonNull;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.util.Optional;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Reads messages with the {@link IEventSerializer} that matches their content type (see {@link EventSerializerRegistry}) and leaves everything else to the given JSON converter.
+ * Messages that are not JSON are created by {@link de.metas.event.impl.RabbitMQEnqueuer} itself, because here we don't know the topic.
+ */
+public class EventMessageConverter implements MessageConverter
+{
+	private final MessageConverter jsonConverter;
+	private final EventSerializerRegistry eventSerializerRegistry;
+
+	public EventMessageConverter(
+			@NonNull final MessageConverter jsonConverter,
+			@NonNull final EventSerializerRegistry eventSerializerRegistry)
+	{
+		this.jsonConverter = jsonConverter;
+		this.eventSerializerRegistry = eventSerializerRegistry;
+	}
+
+	@Override
+	public Message toMessage(final Object object, final MessageProperties messageProperties) throws MessageConversionException
+	{
+		return jsonConverter.toMessage(object, messageProperties);
+	}
+
+	@Override
+	public Object fromMessage(final Message message) throws MessageConversionException
+	{
+		final Optional<IEventSerializer> serializer = eventSerializerRegistry.getSerializerByContentType(message.getMessageProperties().getContentType());
+		if (!serializer.isPresent())
+		{
+			return jsonConverter.fromMessage(message);
+		}
+
+		try
+		{
+			return serializer.get().fromBytes(message.getBody());
+		}
+		catch (final RuntimeException ex)
+		{
+			throw new MessageConversionException("Failed reading " + message, ex);
+		}
+	}
+}
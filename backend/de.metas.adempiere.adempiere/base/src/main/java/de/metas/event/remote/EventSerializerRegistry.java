@@ -0,0 +1,98 @@
+package de.metas.event.remote;
+
+import de.metas.event.Topic;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.service.ISysConfigBL;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Knows which topics' events shall be sent with an other serializer than {@link JacksonJsonEventSerializer}, and which serializer can read a received message.
+ * <p>
+ * Received messages are always read with the serializer that matches their content type.
+ * Events are only sent with the topic-specific serializers if {@value #SYSCONFIG_UseTopicSpecificSerializers} is {@code Y}.
+ * Only set it when all metasfresh instances that share the message broker are able to read the respective messages.
+ */
+@Component
+public class EventSerializerRegistry
+{
+	private static final Logger logger = LogManager.getLogger(EventSerializerRegistry.class);
+
+	public static final String SYSCONFIG_UseTopicSpecificSerializers = "de.metas.event.remote.EventSerializerRegistry.UseTopicSpecificSerializers";
+
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	private final ConcurrentHashMap<String, IEventSerializer> serializersByTopicName = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, IEventSerializer> serializersByContentType = new ConcurrentHashMap<>();
+
+	public EventSerializerRegistry()
+	{
+		// so that a node can read binary events even if it did not register the serializer for any topic
+		serializersByContentType.put(BinaryEventSerializer.instance.getContentType(), BinaryEventSerializer.instance);
+	}
+
+	public void registerSerializer(@NonNull final String topicName, @NonNull final IEventSerializer serializer)
+	{
+		serializersByTopicName.put(topicName, serializer);
+		serializersByContentType.put(serializer.getContentType(), serializer);
+		logger.info("Registered {} for topicName={}", serializer, topicName);
+	}
+
+	/**
+	 * @return empty if the given topic's events shall be sent as JSON
+	 */
+	public Optional<IEventSerializer> getSerializerForTopic(@NonNull final Topic topic)
+	{
+		final IEventSerializer serializer = serializersByTopicName.get(topic.getName());
+		if (serializer == null || Objects.equals(serializer.getContentType(), IEventSerializer.CONTENT_TYPE_JSON))
+		{
+			return Optional.empty();
+		}
+		if (!sysConfigBL.getBooleanValue(SYSCONFIG_UseTopicSpecificSerializers, false))
+		{
+			return Optional.empty();
+		}
+		return Optional.of(serializer);
+	}
+
+	/**
+	 * @return empty if the message with the given content type shall be read as JSON
+	 */
+	public Optional<IEventSerializer> getSerializerByContentType(@Nullable final String contentType)
+	{
+		if (contentType == null || IEventSerializer.CONTENT_TYPE_JSON.equals(contentType))
+		{
+			return Optional.empty();
+		}
+		return Optional.ofNullable(serializersByContentType.get(contentType));
+	}
+}
@@ -27,6 +27,8 @@ import com.google.common.annotations.VisibleForTesting;
 
 import de.metas.event.Event;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Serialize/Deserialize {@link Event} objects.
  * 
@@ -36,7 +38,27 @@ import de.metas.event.Event;
 @VisibleForTesting
 public interface IEventSerializer
 {
+	String CONTENT_TYPE_JSON = "application/json";
+
 	String toString(Event event);
 
 	Event fromString(String eventStr);
+
+	/**
+	 * @return the content type of the messages created by {@link #toBytes(Event)}. When a message is received, it's used to find the serializer that can read it.
+	 */
+	default String getContentType()
+	{
+		return CONTENT_TYPE_JSON;
+	}
+
+	default byte[] toBytes(final Event event)
+	{
+		return toString(event).getBytes(StandardCharsets.UTF_8);
+	}
+
+	default Event fromBytes(final byte[] bytes)
+	{
+		return fromString(new String(bytes, StandardCharsets.UTF_8));
+	}
 }
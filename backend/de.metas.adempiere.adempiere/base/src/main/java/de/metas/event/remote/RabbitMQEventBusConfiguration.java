@@ -58,9 +58,11 @@ public class RabbitMQEventBusConfiguration
 	private String appName;
 
 	@Bean
-	public org.springframework.amqp.support.converter.MessageConverter amqpMessageConverter(final ObjectMapper jsonObjectMapper)
+	public org.springframework.amqp.support.converter.MessageConverter amqpMessageConverter(
+			final ObjectMapper jsonObjectMapper,
+			final EventSerializerRegistry eventSerializerRegistry)
 	{
-		return new Jackson2JsonMessageConverter(jsonObjectMapper);
+		return new EventMessageConverter(new Jackson2JsonMessageConverter(jsonObjectMapper), eventSerializerRegistry);
 	}
 
 	@Bean
@@ -0,0 +1,127 @@
+package de.metas.impexp;
+
+import de.metas.util.StringUtils;
+import de.metas.util.lang.ReferenceListAwareEnum;
+import de.metas.util.lang.RepoIdAware;
+import lombok.NonNull;
+import org.compiere.util.TimeUtil;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Builds the CSV data which is sent to PostgreSQL using <code>COPY ... FROM STDIN WITH (FORMAT csv)</code>.
+ * <p>
+ * The values are converted the same way {@link org.compiere.util.DB#setParameter(java.sql.PreparedStatement, int, Object)} converts them.
+ * <code>null</code> values are written as unquoted empty fields, which PostgreSQL reads as <code>NULL</code>,
+ * while strings are always quoted, so an empty string stays an empty string.
+ */
+final class CopyInCsvBuilder
+{
+	private final StringBuilder data = new StringBuilder();
+	private int rowsCount = 0;
+
+	public CopyInCsvBuilder appendRow(@NonNull final List<?> values)
+	{
+		boolean firstValue = true;
+		for (final Object value : values)
+		{
+			if (!firstValue)
+			{
+				data.append(',');
+			}
+			appendValue(value);
+			firstValue = false;
+		}
+		data.append('\n');
+
+		rowsCount++;
+		return this;
+	}
+
+	private void appendValue(@Nullable final Object value)
+	{
+		if (value == null)
+		{
+			return;
+		}
+
+		if (value instanceof Boolean)
+		{
+			data.append(StringUtils.ofBoolean((Boolean)value));
+		}
+		else if (value instanceof BigDecimal)
+		{
+			data.append(((BigDecimal)value).toPlainString());
+		}
+		else if (value instanceof Number)
+		{
+			data.append(value);
+		}
+		else if (value instanceof Date)
+		{
+			data.append(TimeUtil.asTimestamp((Date)value));
+		}
+		else if (value instanceof RepoIdAware)
+		{
+			data.append(((RepoIdAware)value).getRepoId());
+		}
+		else if (value instanceof ReferenceListAwareEnum)
+		{
+			appendQuoted(((ReferenceListAwareEnum)value).getCode());
+		}
+		else
+		{
+			appendQuoted(value.toString());
+		}
+	}
+
+	private void appendQuoted(@NonNull final String value)
+	{
+		data.append('"');
+		for (int i = 0, length = value.length(); i < length; i++)
+		{
+			final char ch = value.charAt(i);
+			if (ch == '"')
+			{
+				data.append('"');
+			}
+			data.append(ch);
+		}
+		data.append('"');
+	}
+
+	public int getRowsCount()
+	{
+		return rowsCount;
+	}
+
+	public String build()
+	{
+		return data.toString();
+	}
+}
@@ -1,8 +1,12 @@
 package de.metas.impexp;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -12,14 +16,23 @@ import javax.annotation.Nullable;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.util.DB;
 import org.compiere.util.TimeUtil;
+import org.compiere.util.Trx;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
 
+import com.google.common.base.Joiner;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
 
+import ch.qos.logback.classic.Level;
+
+import de.metas.common.util.time.SystemTime;
 import de.metas.impexp.config.DataImportConfigId;
 import de.metas.impexp.format.ImpFormat;
 import de.metas.impexp.format.ImpFormatColumn;
@@ -27,13 +40,17 @@ import de.metas.impexp.format.ImportTableDescriptor;
 import de.metas.impexp.parser.ImpDataLine;
 import de.metas.impexp.util.SqlAndParamsExtractor;
 import de.metas.impexp.util.SqlAndParamsExtractor.ParametersExtractor;
+import de.metas.logging.LogManager;
 import de.metas.organization.OrgId;
 import de.metas.user.UserId;
 import de.metas.util.Check;
 import de.metas.util.GuavaCollectors;
+import de.metas.util.ILoggable;
+import de.metas.util.Loggables;
 import de.metas.util.Services;
 import lombok.Builder;
 import lombok.NonNull;
+import lombok.Value;
 
 /*
  * #%L
@@ -59,6 +76,10 @@ import lombok.NonNull;
 
 /**
  * Inserts {@link ImpDataLine}s into import tables.
+ * <p>
+ * The lines are consumed from the given stream and inserted in batches, one transaction per batch.
+ * If the database connection supports it, each batch is sent using PostgreSQL's <code>COPY ... FROM STDIN</code>,
+ * else using JDBC batch inserts (see {@link #SYSCONFIG_InsertUsingCopy}).
  * 
  * @author metas-dev <dev@metasfresh.com>
  *
@@ -66,9 +87,12 @@ import lombok.NonNull;
 final class SqlInsertIntoImportTableCommand
 {
 	// services
+	private static final Logger logger = LogManager.getLogger(SqlInsertIntoImportTableCommand.class);
 	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 
 	private static final int DEFAULT_InsertBatchSize = 10000;
+	private static final String SYSCONFIG_InsertUsingCopy = "de.metas.impexp.insertUsingCopy";
 
 	//
 	// Parameters
@@ -81,11 +105,13 @@ final class SqlInsertIntoImportTableCommand
 	private final DataImportRunId dataImportRunId;
 	private final DataImportConfigId dataImportConfigId;
 	private final int insertBatchSize;
-	private Stream<ImpDataLine> linesStream;
+	private final boolean insertUsingCopy;
+	private final Stream<ImpDataLine> linesStream;
 
 	//
 	// State
-	private SqlAndParamsExtractor<ImpDataLine> _sqlInsertIntoImportTable; // lazy
+	private final ILoggable loggable = Loggables.getLoggableOrLogger(logger, Level.INFO);
+	private InsertIntoImportTableSql _sqlInsertIntoImportTable; // lazy
 	private int countTotalRows = 0;
 	private int countValidRows = 0;
 	private final ArrayList<InsertIntoImportTableResult.Error> errors = new ArrayList<>();
@@ -111,6 +137,7 @@ final class SqlInsertIntoImportTableCommand
 		this.dataImportRunId = dataImportRunId;
 		this.dataImportConfigId = dataImportConfigId;
 		this.insertBatchSize = insertBatchSize > 0 ? insertBatchSize : DEFAULT_InsertBatchSize;
+		this.insertUsingCopy = sysConfigBL.getBooleanValue(SYSCONFIG_InsertUsingCopy, true);
 
 		this.linesStream = linesStream;
 	}
@@ -118,8 +145,11 @@ final class SqlInsertIntoImportTableCommand
 	public InsertIntoImportTableResult execute()
 	{
 		final Stopwatch stopwatch = Stopwatch.createStarted();
-		final Stream<List<ImpDataLine>> batchedStream = GuavaCollectors.batchAndStream(linesStream, insertBatchSize);
-		batchedStream.forEach(this::insertIntoDatabase);
+		try (final Stream<ImpDataLine> linesStream = this.linesStream)
+		{
+			final Stream<List<ImpDataLine>> batchedStream = GuavaCollectors.batchAndStream(linesStream, insertBatchSize);
+			batchedStream.forEach(this::insertIntoDatabase);
+		}
 		stopwatch.stop();
 
 		return InsertIntoImportTableResult.builder()
@@ -145,11 +175,97 @@ final class SqlInsertIntoImportTableCommand
 		}
 
 		trxManager.run(ITrx.TRXNAME_ThreadInherited, () -> insertIntoDatabaseInTrx(lines));
+
+		updateStats(lines);
+		loggable.addLog("Inserted {} lines into {} ({} lines with errors)", countTotalRows, importTableDescriptor.getTableName(), errors.size());
 	}
 
 	private void insertIntoDatabaseInTrx(final List<ImpDataLine> lines)
 	{
-		final SqlAndParamsExtractor<ImpDataLine> sqlAndParamsExtractor = getInsertIntoImportTableSql();
+		final PGConnection copyInConnection = getCopyInConnectionOrNull();
+		if (copyInConnection != null)
+		{
+			insertUsingCopy(lines, copyInConnection);
+		}
+		else
+		{
+			insertUsingBatch(lines);
+		}
+	}
+
+	@Nullable
+	private PGConnection getCopyInConnectionOrNull()
+	{
+		if (!insertUsingCopy)
+		{
+			return null;
+		}
+
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.Fail);
+		if (!(trx instanceof Trx))
+		{
+			return null;
+		}
+
+		try
+		{
+			final Connection connection = ((Trx)trx).getConnection();
+			return connection.isWrapperFor(PGConnection.class) ? connection.unwrap(PGConnection.class) : null;
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex);
+		}
+	}
+
+	private void insertUsingCopy(final List<ImpDataLine> lines, final PGConnection connection)
+	{
+		final InsertIntoImportTableSql sqlInsertIntoImportTable = getInsertIntoImportTableSql();
+		final SqlAndParamsExtractor<ImpDataLine> sqlAndParamsExtractor = sqlInsertIntoImportTable.getInsert();
+		final String sql = sqlInsertIntoImportTable.getCopyIn();
+
+		final List<Integer> ids = DB.retrieveNextIDsOutOfTrx(DB.getTableSequenceName(importTableDescriptor.getTableName()), lines.size());
+		final Timestamp now = TimeUtil.asTimestamp(SystemTime.asInstant());
+
+		final CopyInCsvBuilder csv = new CopyInCsvBuilder();
+		for (int i = 0; i < lines.size(); i++)
+		{
+			final ImpDataLine line = lines.get(i);
+
+			final List<Object> values = new ArrayList<>();
+			values.add(ids.get(i));
+			values.add(clientId.getRepoId());
+			values.add(orgId.getRepoId());
+			values.add(now); // Created
+			values.add(userId.getRepoId()); // CreatedBy
+			values.add(now); // Updated
+			values.add(userId.getRepoId()); // UpdatedBy
+			values.add(true); // IsActive
+			values.add(false); // Processed
+			values.add(false); // I_IsImported
+			values.add(dataImportRunId.getRepoId());
+			if (sqlInsertIntoImportTable.isWithDataImportConfigId())
+			{
+				values.add(dataImportConfigId.getRepoId());
+			}
+			values.addAll(sqlAndParamsExtractor.extractParameters(line));
+
+			csv.appendRow(values);
+		}
+
+		try
+		{
+			connection.getCopyAPI().copyIn(sql, new StringReader(csv.build()));
+		}
+		catch (final SQLException | IOException ex)
+		{
+			throw new DBException(ex, sql);
+		}
+	}
+
+	private void insertUsingBatch(final List<ImpDataLine> lines)
+	{
+		final SqlAndParamsExtractor<ImpDataLine> sqlAndParamsExtractor = getInsertIntoImportTableSql().getInsert();
 		final String sql = sqlAndParamsExtractor.getSql();
 
 		PreparedStatement pstmt = null;
@@ -163,21 +279,6 @@ final class SqlInsertIntoImportTableCommand
 				final List<Object> params = sqlAndParamsExtractor.extractParameters(line);
 				DB.setParameters(pstmt, params);
 				pstmt.addBatch();
-
-				// Update stats:
-				countTotalRows++;
-				if (line.hasErrors())
-				{
-					errors.add(InsertIntoImportTableResult.Error.builder()
-							.message(line.getErrorMessageAsStringOrNull())
-							.lineNo(line.getFileLineNo())
-							.lineContent(line.getLineString())
-							.build());
-				}
-				else
-				{
-					countValidRows++;
-				}
 			}
 
 			pstmt.executeBatch();
@@ -192,9 +293,29 @@ final class SqlInsertIntoImportTableCommand
 		}
 	}
 
-	private SqlAndParamsExtractor<ImpDataLine> getInsertIntoImportTableSql()
+	private void updateStats(final List<ImpDataLine> lines)
+	{
+		for (final ImpDataLine line : lines)
+		{
+			countTotalRows++;
+			if (line.hasErrors())
+			{
+				errors.add(InsertIntoImportTableResult.Error.builder()
+						.message(line.getErrorMessageAsStringOrNull())
+						.lineNo(line.getFileLineNo())
+						.lineContent(line.getLineString())
+						.build());
+			}
+			else
+			{
+				countValidRows++;
+			}
+		}
+	}
+
+	private InsertIntoImportTableSql getInsertIntoImportTableSql()
 	{
-		SqlAndParamsExtractor<ImpDataLine> sqlInsertIntoImportTable = this._sqlInsertIntoImportTable;
+		InsertIntoImportTableSql sqlInsertIntoImportTable = this._sqlInsertIntoImportTable;
 		if (sqlInsertIntoImportTable == null)
 		{
 			sqlInsertIntoImportTable = this._sqlInsertIntoImportTable = createInsertIntoImportTableSql();
@@ -203,9 +324,9 @@ final class SqlInsertIntoImportTableCommand
 	}
 
 	/**
-	 * IMPORTANT: keep in sync with {@link #extractSqlInsertParams(ImpDataLine)}
+	 * IMPORTANT: keep the COPY columns in sync with {@link #insertUsingCopy(List, PGConnection)}
 	 */
-	private SqlAndParamsExtractor<ImpDataLine> createInsertIntoImportTableSql()
+	private InsertIntoImportTableSql createInsertIntoImportTableSql()
 	{
 		final String tableName = importTableDescriptor.getTableName();
 		final String keyColumnName = importTableDescriptor.getKeyColumnName();
@@ -213,6 +334,7 @@ final class SqlInsertIntoImportTableCommand
 		final StringBuilder sqlColumns = new StringBuilder();
 		final StringBuilder sqlValues = new StringBuilder();
 		final List<ParametersExtractor<ImpDataLine>> sqlParamsExtractors = new ArrayList<>();
+		final List<String> paramColumnNames = new ArrayList<>();
 
 		sqlColumns.append(keyColumnName);
 		sqlValues.append(DB.TO_TABLESEQUENCE_NEXTVAL(tableName));
@@ -238,6 +360,7 @@ final class SqlInsertIntoImportTableCommand
 			sqlColumns.append(", ").append(importTableDescriptor.getImportLineNoColumnName());
 			sqlValues.append(", ?");
 			sqlParamsExtractors.add(dataLine -> ImmutableList.of(dataLine.getFileLineNo()));
+			paramColumnNames.add(importTableDescriptor.getImportLineNoColumnName());
 		}
 
 		//
@@ -247,6 +370,7 @@ final class SqlInsertIntoImportTableCommand
 			sqlColumns.append(", ").append(importTableDescriptor.getImportLineContentColumnName());
 			sqlValues.append(", ?");
 			sqlParamsExtractors.add(dataLine -> Collections.singletonList(dataLine.getLineString()));
+			paramColumnNames.add(importTableDescriptor.getImportLineContentColumnName());
 		}
 
 		//
@@ -259,7 +383,8 @@ final class SqlInsertIntoImportTableCommand
 
 		//
 		// C_DataImport_ID
-		if (importTableDescriptor.getDataImportConfigIdColumnName() != null && dataImportConfigId != null)
+		final boolean withDataImportConfigId = importTableDescriptor.getDataImportConfigIdColumnName() != null && dataImportConfigId != null;
+		if (withDataImportConfigId)
 		{
 			sqlColumns.append(", ").append(importTableDescriptor.getDataImportConfigIdColumnName());
 			sqlValues.append(", ").append(dataImportConfigId.getRepoId());
@@ -272,6 +397,7 @@ final class SqlInsertIntoImportTableCommand
 			sqlColumns.append(", ").append(ImportTableDescriptor.COLUMNNAME_I_ErrorMsg);
 			sqlValues.append(", ?");
 			sqlParamsExtractors.add(dataLine -> Collections.singletonList(dataLine.getErrorMessageAsStringOrNull(errorMaxLength)));
+			paramColumnNames.add(ImportTableDescriptor.COLUMNNAME_I_ErrorMsg);
 		}
 
 		//
@@ -281,14 +407,48 @@ final class SqlInsertIntoImportTableCommand
 			{
 				sqlColumns.append(", ").append(column.getColumnName());
 				sqlValues.append(", ?");
+				paramColumnNames.add(column.getColumnName());
 			}
 			sqlParamsExtractors.add(dataLine -> dataLine.getJdbcValues(columns));
 		}
 
-		return SqlAndParamsExtractor.<ImpDataLine> builder()
-				.sql("INSERT INTO " + tableName + "(" + sqlColumns + ") VALUES (" + sqlValues + ")")
-				.parametersExtractors(sqlParamsExtractors)
+		//
+		// COPY: same columns, but all values are sent as data
+		final List<String> copyColumnNames = new ArrayList<>();
+		copyColumnNames.add(keyColumnName);
+		copyColumnNames.add("AD_Client_ID");
+		copyColumnNames.add("AD_Org_ID");
+		copyColumnNames.add("Created");
+		copyColumnNames.add("CreatedBy");
+		copyColumnNames.add("Updated");
+		copyColumnNames.add("UpdatedBy");
+		copyColumnNames.add("IsActive");
+		copyColumnNames.add("Processed");
+		copyColumnNames.add("I_IsImported");
+		copyColumnNames.add(ImportTableDescriptor.COLUMNNAME_C_DataImport_Run_ID);
+		if (withDataImportConfigId)
+		{
+			copyColumnNames.add(importTableDescriptor.getDataImportConfigIdColumnName());
+		}
+		copyColumnNames.addAll(paramColumnNames);
+
+		return InsertIntoImportTableSql.builder()
+				.insert(SqlAndParamsExtractor.<ImpDataLine> builder()
+						.sql("INSERT INTO " + tableName + "(" + sqlColumns + ") VALUES (" + sqlValues + ")")
+						.parametersExtractors(sqlParamsExtractors)
+						.build())
+				.copyIn("COPY " + tableName + " (" + Joiner.on(", ").join(copyColumnNames) + ") FROM STDIN WITH (FORMAT csv)")
+				.withDataImportConfigId(withDataImportConfigId)
 				.build();
 	}
 
+	@Value
+	@Builder
+	private static class InsertIntoImportTableSql
+	{
+		@NonNull SqlAndParamsExtractor<ImpDataLine> insert;
+		@NonNull String copyIn;
+		boolean withDataImportConfigId;
+	}
+
 }
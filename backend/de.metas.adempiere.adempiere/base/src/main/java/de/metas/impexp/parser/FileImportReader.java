@@ -26,6 +26,8 @@
 package de.metas.impexp.parser;
 
 import com.google.common.base.CharMatcher;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Streams;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 import com.google.common.io.LineProcessor;
@@ -33,12 +35,19 @@ import de.metas.util.Check;
 import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @author metas-dev <dev@metasfresh.com>
@@ -70,13 +79,51 @@ final class FileImportReader
 
 	final private static class MultiLineProcessor implements LineProcessor<List<String>>
 	{
-		private boolean openQuote = false;
-		private boolean closedQuote = false;
-		private boolean quoteOpenRightNow = false;
+		private final MultiLineJoiner joiner = new MultiLineJoiner();
 		private final List<String> loadedDataLines = new ArrayList<>();
 
 		@Override
 		public boolean processLine(final String line) throws IOException
+		{
+			final String completedLine = joiner.pushLine(line);
+			if (completedLine != null)
+			{
+				loadedDataLines.add(completedLine);
+			}
+			return true;
+		}
+
+		@Override
+		public List<String> getResult()
+		{
+			final String lastLine = joiner.flush();
+			if (lastLine != null)
+			{
+				loadedDataLines.add(lastLine);
+			}
+			return loadedDataLines;
+		}
+	}
+
+	/**
+	 * Joins the physical lines which belong to the same multi-line record.
+	 * <p>
+	 * The lines are pushed one by one and a joined line is given back as soon as it's complete (i.e. when the next record starts),
+	 * so we never have to keep more than one record in memory.
+	 */
+	private static final class MultiLineJoiner
+	{
+		private boolean openQuote = false;
+		private boolean closedQuote = false;
+		private boolean quoteOpenRightNow = false;
+		@Nullable
+		private String pendingLine = null;
+
+		/**
+		 * @return the previous line, if it's complete; null otherwise
+		 */
+		@Nullable
+		public String pushLine(@NonNull final String line)
 		{
 			// If previous line had a " which is not closed, then add all to the previous line, until we meet next ".
 			// Of course, account that there could be multiple quotes on the same line.
@@ -93,15 +140,20 @@ final class FileImportReader
 					quoteOpenRightNow = true;
 				}
 			}
+
 			//
 			// if open quote, add this line to the previous
-			if (openQuote && !quoteOpenRightNow && !loadedDataLines.isEmpty() && checkLastLoadedDataLineIsNotBlank())
+			final String completedLine;
+			if (openQuote && !quoteOpenRightNow && pendingLine != null && Check.isNotBlank(pendingLine))
 			{
-				appendToPreviousLine(line);
+				// append the new line, because the char exists
+				pendingLine = pendingLine + "\n" + line;
+				completedLine = null;
 			}
 			else
 			{
-				loadedDataLines.add(line);
+				completedLine = pendingLine;
+				pendingLine = line;
 				quoteOpenRightNow = false;
 			}
 
@@ -113,38 +165,19 @@ final class FileImportReader
 				closedQuote = false;
 				quoteOpenRightNow = false;
 			}
-			return true;
-		}
 
-		private boolean checkLastLoadedDataLineIsNotBlank()
-		{
-			return Check.isNotBlank(loadedDataLines.get(loadedDataLines.size() - 1));
+			return completedLine;
 		}
 
 		/**
-		 * add current line to the previous one
+		 * @return the last line or null if there is none
 		 */
-		private void appendToPreviousLine(@NonNull final String line)
+		@Nullable
+		public String flush()
 		{
-			final StringBuilder previousLine = new StringBuilder();
-			final int index = loadedDataLines.size() - 1;
-			previousLine.append(loadedDataLines.get(index));
-			// append the new line, because the char exists
-			if (Check.isNotBlank(previousLine.toString()))
-			{
-				previousLine.append("\n");
-			}
-			previousLine.append(line);
-			//
-			// now remove the line and add the new line
-			loadedDataLines.remove(index);
-			loadedDataLines.add(previousLine.toString());
-		}
-
-		@Override
-		public List<String> getResult()
-		{
-			return loadedDataLines;
+			final String lastLine = pendingLine;
+			pendingLine = null;
+			return lastLine;
 		}
 	}
 
@@ -186,6 +219,59 @@ final class FileImportReader
 		return ByteSource.wrap(data).asCharSource(charset).readLines(new SingleLineProcessor());
 	}
 
+	/**
+	 * Streams the lines of given input stream, without loading the whole data in memory.
+	 * <p>
+	 * The input stream is closed when the returned stream is closed.
+	 *
+	 * @param multiline if true, multi-line text fields are joined like {@link #readMultiLines(File, Charset)} does
+	 */
+	public Stream<String> streamLines(
+			@NonNull final InputStream in,
+			@NonNull final Charset charset,
+			final boolean multiline)
+	{
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(in, charset));
+		final Stream<String> lines = multiline
+				? Streams.stream(joinMultiLines(reader.lines().iterator()))
+				: reader.lines();
+
+		return lines.onClose(() -> {
+			try
+			{
+				reader.close();
+			}
+			catch (final IOException ex)
+			{
+				throw new UncheckedIOException(ex);
+			}
+		});
+	}
+
+	private Iterator<String> joinMultiLines(@NonNull final Iterator<String> lines)
+	{
+		final MultiLineJoiner joiner = new MultiLineJoiner();
+
+		return new AbstractIterator<String>()
+		{
+			@Override
+			protected String computeNext()
+			{
+				while (lines.hasNext())
+				{
+					final String completedLine = joiner.pushLine(lines.next());
+					if (completedLine != null)
+					{
+						return completedLine;
+					}
+				}
+
+				final String lastLine = joiner.flush();
+				return lastLine != null ? lastLine : endOfData();
+			}
+		};
+	}
+
 	/**
 	 * Build the preview from the loaded lines
 	 *
@@ -4,7 +4,6 @@ import lombok.Builder;
 import lombok.NonNull;
 import lombok.ToString;
 import org.adempiere.exceptions.AdempiereException;
-import org.compiere.util.Util;
 import org.springframework.core.io.Resource;
 
 import java.io.IOException;
@@ -56,6 +55,9 @@ public final class ImpDataParser
 		this.skipFirstNRows = Math.max(skipFirstNRows,0);
 	}
 
+	/**
+	 * @return stream of parsed lines; the stream shall be closed by the caller
+	 */
 	public Stream<ImpDataLine> streamDataLines(final Resource resource)
 	{
 		final AtomicInteger nextLineNo = new AtomicInteger(1);
@@ -65,31 +67,15 @@ public final class ImpDataParser
 				.map(lineStr -> createImpDataLine(lineStr, nextLineNo));
 	}
 
+	/**
+	 * Streams the lines of given resource without loading the whole resource in memory.
+	 * The returned stream shall be closed by the caller.
+	 */
 	private Stream<String> streamSourceLines(final Resource resource)
 	{
-		final byte[] data = toByteArray(resource);
 		try
 		{
-			if (multiline)
-			{
-				return FileImportReader.readMultiLines(data, charset).stream();
-			}
-			else
-			{
-				return FileImportReader.readRegularLines(data, charset).stream();
-			}
-		}
-		catch (final IOException ex)
-		{
-			throw new AdempiereException("Failed reading resource: " + resource, ex);
-		}
-	}
-
-	private static byte[] toByteArray(final Resource resource)
-	{
-		try
-		{
-			return Util.readBytes(resource.getInputStream());
+			return FileImportReader.streamLines(resource.getInputStream(), charset, multiline);
 		}
 		catch (final IOException ex)
 		{
@@ -74,6 +74,9 @@ public final class ImportProcessResult
 	//
 	//
 
+	/**
+	 * Collects the import results. The actual import counters and errors can be updated concurrently, when importing in parallel.
+	 */
 	@ToString
 	public static class ImportProcessResultCollector
 	{
@@ -106,7 +109,7 @@ public final class ImportProcessResult
 			this.importStartTime = Instant.now();
 		}
 
-		public ImportProcessResult toResult()
+		public synchronized ImportProcessResult toResult()
 		{
 			return new ImportProcessResult(this);
 		}
@@ -129,22 +132,22 @@ public final class ImportProcessResult
 			this.countImportRecordsWithValidationErrors.set(count);
 		}
 
-		public void addCountImportRecordsConsidered(final int count)
+		public synchronized void addCountImportRecordsConsidered(final int count)
 		{
 			countImportRecordsConsidered.add(count);
 		}
 
-		public void addInsertsIntoTargetTable(final int count)
+		public synchronized void addInsertsIntoTargetTable(final int count)
 		{
 			countInsertsIntoTargetTable.add(count);
 		}
 
-		public void addUpdatesIntoTargetTable(final int count)
+		public synchronized void addUpdatesIntoTargetTable(final int count)
 		{
 			countUpdatesIntoTargetTable.add(count);
 		}
 
-		public void actualImportError(@NonNull final ActualImportRecordsResult.Error error)
+		public synchronized void actualImportError(@NonNull final ActualImportRecordsResult.Error error)
 		{
 			actualImportErrors.add(error);
 		}
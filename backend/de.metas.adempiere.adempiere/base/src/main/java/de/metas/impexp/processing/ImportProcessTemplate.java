@@ -31,6 +31,8 @@ import org.adempiere.db.util.AbstractPreparedStatementBlindIterator;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.api.IParams;
 import org.adempiere.util.lang.IMutable;
 import org.adempiere.util.lang.Mutable;
@@ -41,6 +43,7 @@ import org.compiere.util.DB;
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 
+import javax.annotation.Nullable;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -70,6 +73,19 @@ public abstract class ImportProcessTemplate<ImportRecordType, ImportGroupKey>
 	private final IErrorManager errorManager = Services.get(IErrorManager.class);
 	private final DBFunctionsRepository dbFunctionsRepo = SpringContextHolder.instance.getBean(DBFunctionsRepository.class);
 	private final ImportTableDescriptorRepository importTableDescriptorRepo = SpringContextHolder.instance.getBean(ImportTableDescriptorRepository.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	/**
+	 * How many threads shall import the import groups, if the import process supports it (see {@link #isParallelImportSupported()});
+	 * 1 means that the import groups are imported one after another, in the caller's thread.
+	 */
+	private static final String SYSCONFIG_Parallelism = "de.metas.impexp.processing.ImportProcessTemplate.Parallelism";
+	private static final int DEFAULT_Parallelism = 1;
+	/**
+	 * How many import groups can be retrieved and not yet imported, when importing in parallel.
+	 */
+	private static final String SYSCONFIG_MaxGroupsInFlight = "de.metas.impexp.processing.ImportProcessTemplate.MaxGroupsInFlight";
+	private static final int DEFAULT_MaxGroupsInFlight = 1000;
 
 	//
 	// Parameters
@@ -461,10 +477,45 @@ public abstract class ImportProcessTemplate<ImportRecordType, ImportGroupKey>
 
 	protected abstract ImportGroupKey extractImportGroupKey(final ImportRecordType importRecord);
 
+	/**
+	 * @return true if the import groups with different {@link #extractParallelImportKey(Object)} don't depend on each other and therefore can be imported concurrently.
+	 */
+	protected boolean isParallelImportSupported()
+	{
+		return false;
+	}
+
+	/**
+	 * Used only if {@link #isParallelImportSupported()}.
+	 *
+	 * @return the key of the import groups which depend on each other. They are imported one after another, in the order in which they were retrieved.
+	 * Consecutive import groups with the same key also share the same state holder.
+	 */
+	@Nullable
+	protected Object extractParallelImportKey(final ImportRecordType importRecord)
+	{
+		return extractImportGroupKey(importRecord);
+	}
+
 	/**
 	 * Actual data import.
 	 */
 	private void importData()
+	{
+		final int parallelism = isParallelImportSupported()
+				? sysConfigBL.getIntValue(SYSCONFIG_Parallelism, DEFAULT_Parallelism)
+				: 1;
+		if (parallelism <= 1)
+		{
+			importDataSequentially();
+		}
+		else
+		{
+			importDataInParallel(parallelism);
+		}
+	}
+
+	private void importDataSequentially()
 	{
 		final ITrxItemProcessorExecutorService trxItemProcessorExecutorService = Services.get(ITrxItemProcessorExecutorService.class);
 
@@ -531,6 +582,97 @@ public abstract class ImportProcessTemplate<ImportRecordType, ImportGroupKey>
 				.process(retrieveRecordsToImport());
 	}
 
+	/**
+	 * Imports each import group in its own transaction, like {@link #importDataSequentially()} does, but using a pool of threads.
+	 * The import groups with the same {@link #extractParallelImportKey(Object)} are imported by the same thread, in the order they were retrieved.
+	 */
+	private void importDataInParallel(final int parallelism)
+	{
+		final Properties ctx = getCtx();
+		final int maxGroupsInFlight = sysConfigBL.getIntValue(SYSCONFIG_MaxGroupsInFlight, DEFAULT_MaxGroupsInFlight);
+		loggable.addLog("Importing {} using {} threads", getImportTableName(), parallelism);
+
+		try (final KeyOrderedParallelExecutor executor = KeyOrderedParallelExecutor.builder()
+				.threadNamePrefix(getClass().getSimpleName())
+				.parallelism(parallelism)
+				.maxTasksInFlight(maxGroupsInFlight)
+				.build())
+		{
+			ImportGroup<ImportGroupKey, ImportRecordType> currentGroup = null;
+			Object currentParallelImportKey = null;
+			IMutable<Object> currentStateHolder = null;
+
+			final Iterator<ImportRecordType> it = retrieveRecordsToImport();
+			try
+			{
+				while (it.hasNext())
+				{
+					final ImportRecordType importRecord = it.next();
+					final ImportGroupKey groupKey = extractImportGroupKey(importRecord);
+					if (currentGroup == null || !Objects.equals(currentGroup.getGroupKey(), groupKey))
+					{
+						if (currentGroup != null)
+						{
+							submitImportGroup(executor, ctx, currentParallelImportKey, currentGroup, currentStateHolder);
+						}
+
+						final Object parallelImportKey = extractParallelImportKey(importRecord);
+						if (currentStateHolder == null || !Objects.equals(currentParallelImportKey, parallelImportKey))
+						{
+							currentStateHolder = new Mutable<>();
+						}
+						currentParallelImportKey = parallelImportKey;
+						currentGroup = ImportGroup.newInstance(groupKey);
+					}
+
+					currentGroup.addImportRecord(importRecord);
+				}
+			}
+			finally
+			{
+				IteratorUtils.close(it);
+			}
+
+			if (currentGroup != null)
+			{
+				submitImportGroup(executor, ctx, currentParallelImportKey, currentGroup, currentStateHolder);
+			}
+
+			executor.awaitCompletion();
+		}
+	}
+
+	private void submitImportGroup(
+			@NonNull final KeyOrderedParallelExecutor executor,
+			@NonNull final Properties ctx,
+			@Nullable final Object parallelImportKey,
+			@NonNull final ImportGroup<ImportGroupKey, ImportRecordType> importGroup,
+			@NonNull final IMutable<Object> stateHolder)
+	{
+		executor.submit(parallelImportKey, () -> importGroupInNewTrx(ctx, importGroup, stateHolder));
+	}
+
+	private void importGroupInNewTrx(
+			@NonNull final Properties ctx,
+			@NonNull final ImportGroup<ImportGroupKey, ImportRecordType> importGroup,
+			@NonNull final IMutable<Object> stateHolder)
+	{
+		try (final IAutoCloseable ignored = Env.switchContext(Env.copyCtx(ctx)))
+		{
+			try
+			{
+				trxManager.runInNewTrx(() -> {
+					InterfaceWrapperHelper.setThreadInheritedTrxName(importGroup.getImportRecords());
+					importGroup(importGroup, stateHolder);
+				});
+			}
+			catch (final Exception ex)
+			{
+				trxManager.runInNewTrx(() -> markAsError(importGroup, ex));
+			}
+		}
+	}
+
 	@VisibleForTesting
 	protected Iterator<ImportRecordType> retrieveRecordsToImport()
 	{
@@ -0,0 +1,158 @@
+package de.metas.impexp.processing;
+
+import com.google.common.collect.ImmutableList;
+import lombok.Builder;
+import lombok.NonNull;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Runs tasks concurrently, but the tasks with the same key are run one after another, in the order they were submitted.
+ * <p>
+ * Each task is assigned to one of the single-threaded lanes by its key's hash code.
+ * At most <code>maxTasksInFlight</code> tasks are submitted and not yet finished; {@link #submit(Object, Runnable)} blocks until there is room for another one.
+ * <p>
+ * If a task fails, the remaining tasks are skipped and the error is thrown by {@link #awaitCompletion()} or by the next {@link #submit(Object, Runnable)}.
+ */
+final class KeyOrderedParallelExecutor implements AutoCloseable
+{
+	private final ImmutableList<ExecutorService> lanes;
+	private final Semaphore inFlightPermits;
+	private final AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+	@Builder
+	private KeyOrderedParallelExecutor(
+			@NonNull final String threadNamePrefix,
+			final int parallelism,
+			final int maxTasksInFlight)
+	{
+		if (parallelism <= 0)
+		{
+			throw new AdempiereException("parallelism shall be greater than zero but it was " + parallelism);
+		}
+
+		final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
+				.setThreadNamePrefix(threadNamePrefix)
+				.setDaemon(true)
+				.build();
+
+		final ImmutableList.Builder<ExecutorService> lanes = ImmutableList.builder();
+		for (int i = 0; i < parallelism; i++)
+		{
+			lanes.add(Executors.newSingleThreadExecutor(threadFactory));
+		}
+		this.lanes = lanes.build();
+
+		this.inFlightPermits = new Semaphore(Math.max(maxTasksInFlight, parallelism));
+	}
+
+	public void submit(@Nullable final Object key, @NonNull final Runnable task)
+	{
+		throwIfFailed();
+
+		try
+		{
+			inFlightPermits.acquire();
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+
+		final ExecutorService lane = lanes.get(Math.floorMod(Objects.hashCode(key), lanes.size()));
+		lane.execute(() -> runTask(task));
+	}
+
+	private void runTask(@NonNull final Runnable task)
+	{
+		try
+		{
+			if (firstError.get() == null)
+			{
+				task.run();
+			}
+		}
+		catch (final Throwable ex)
+		{
+			firstError.compareAndSet(null, ex);
+		}
+		finally
+		{
+			inFlightPermits.release();
+		}
+	}
+
+	/**
+	 * Waits until all submitted tasks are finished.
+	 */
+	public void awaitCompletion()
+	{
+		lanes.forEach(ExecutorService::shutdown);
+		try
+		{
+			for (final ExecutorService lane : lanes)
+			{
+				while (!lane.awaitTermination(1, TimeUnit.MINUTES))
+				{
+					// keep waiting; the tasks are not interrupted
+				}
+			}
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+
+		throwIfFailed();
+	}
+
+	private void throwIfFailed()
+	{
+		final Throwable error = firstError.get();
+		if (error != null)
+		{
+			throw AdempiereException.wrapIfNeeded(error);
+		}
+	}
+
+	/**
+	 * Stops all lanes. The tasks which were not started yet are discarded.
+	 */
+	@Override
+	public void close()
+	{
+		lanes.forEach(ExecutorService::shutdownNow);
+	}
+}
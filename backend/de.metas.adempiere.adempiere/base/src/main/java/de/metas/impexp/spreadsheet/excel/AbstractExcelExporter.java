@@ -50,6 +50,7 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.compiere.Adempiere;
 import org.compiere.util.DisplayType;
 import org.compiere.util.Env;
@@ -571,8 +572,18 @@ public abstract class AbstractExcelExporter
 	public final void export(@NonNull final OutputStream out) throws IOException
 	{
 		Workbook workbook = exportToWorkbook();
-		workbook.write(out);
-		out.close();
+		try
+		{
+			workbook.write(out);
+			out.close();
+		}
+		finally
+		{
+			if (workbook instanceof SXSSFWorkbook)
+			{
+				((SXSSFWorkbook)workbook).dispose(); // delete the temporary files which contain the already written rows
+			}
+		}
 	}
 
 	@VisibleForTesting
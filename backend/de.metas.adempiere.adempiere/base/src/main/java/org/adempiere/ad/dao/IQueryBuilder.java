@@ -94,6 +94,13 @@ public interface IQueryBuilder<T>
 	 */
 	IQueryBuilder<T> setOption(String name);
 
+	/**
+	 * Tells the query to load the records which are referenced via given columns in bulk, see {@link IQuery#OPTION_PrefetchColumnNames}.
+	 * <p>
+	 * Can be called more than once; the column names are accumulated.
+	 */
+	IQueryBuilder<T> prefetch(String... columnNames);
+
 	QueryLimit getLimit();
 
 	/**
@@ -42,6 +42,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.function.IntFunction;
+import java.util.stream.Stream;
 
 /**
  * Contains common methods to be used in {@link IQuery} implementations.
@@ -148,6 +149,28 @@ public abstract class AbstractTypedQuery<T> implements IQuery<T>
 	 */
 	protected abstract List<Map<String, Object>> listColumns(final boolean distinct, final String... columnNames);
 
+	@Override
+	public final Stream<Map<String, Object>> streamColumns(final String... columnNames)
+	{
+		final boolean distinct = false;
+		return streamColumns(distinct, columnNames);
+	}
+
+	@Override
+	public final Stream<Map<String, Object>> streamDistinct(final String... columnNames)
+	{
+		final boolean distinct = true;
+		return streamColumns(distinct, columnNames);
+	}
+
+	/**
+	 * Like {@link #listColumns(boolean, String...)}, but the rows may be loaded lazily.
+	 */
+	protected Stream<Map<String, Object>> streamColumns(final boolean distinct, final String... columnNames)
+	{
+		return listColumns(distinct, columnNames).stream();
+	}
+
 	@Override
 	public <K, ET extends T> ImmutableMap<K, ET> map(final Class<ET> modelClass, final Function<ET, K> keyFunction)
 	{
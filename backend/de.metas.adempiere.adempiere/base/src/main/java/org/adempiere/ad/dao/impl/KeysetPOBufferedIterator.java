@@ -0,0 +1,313 @@
+package org.adempiere.ad.dao.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import lombok.NonNull;
+import org.adempiere.ad.dao.IQueryOrderBy;
+import org.adempiere.ad.dao.IQueryOrderBy.Direction;
+import org.adempiere.ad.dao.QueryLimit;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.IQuery;
+import org.compiere.model.POInfo;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Buffered {@link Iterator} over a {@link TypedSqlQuery} result which uses keyset pagination (a.k.a. seek method).
+ * <p>
+ * Instead of skipping the already loaded rows with OFFSET (which makes the database read them again for each page) or materializing a selection first (see {@link GuaranteedPOBufferedIterator}),
+ * each page is loaded with <code>WHERE (orderBy columns) > (values of the last loaded row)</code>. Given a matching index, every page is one index range scan,
+ * so iterating the whole result is O(n) and this iterator holds only one page in memory.
+ * <p>
+ * Thanks to http://use-the-index-luke.com/no-offset.
+ *
+ * @param <ET> model interface
+ * @see IQuery#OPTION_KeysetIterator
+ */
+/* package */final class KeysetPOBufferedIterator<T, ET extends T> implements Iterator<ET>
+{
+	private static final transient Logger logger = LogManager.getLogger(KeysetPOBufferedIterator.class);
+
+	/** Columns to order and seek by; the last one is always the key column. */
+	private final ImmutableList<String> keysetColumnNames;
+	private final PageLoader<ET> pageLoader;
+
+	private int bufferSize = 50;
+
+	private Iterator<ET> bufferIterator;
+
+	/** Values of {@link #keysetColumnNames} of the last loaded row, or <code>null</code> if no page was loaded yet. */
+	private List<Object> lastKeysetValues;
+
+	/**
+	 * Buffer was fully loaded? If this flag is false then it's a good indicator that we are on last page.
+	 */
+	private boolean bufferFullyLoaded = false;
+
+	private int pagesLoaded = 0;
+	private int rowsLoaded = 0;
+
+	/* package */ KeysetPOBufferedIterator(
+			@NonNull final TypedSqlQuery<T> query,
+			@Nullable final Class<ET> clazz)
+	{
+		this.keysetColumnNames = extractKeysetColumnNames(query);
+
+		final TypedSqlQuery<T> orderedQuery = query.copy();
+		orderedQuery.setOrderBy(String.join(", ", keysetColumnNames));
+		this.pageLoader = new QueryPageLoader<>(orderedQuery, clazz, keysetColumnNames);
+	}
+
+	@VisibleForTesting
+	KeysetPOBufferedIterator(
+			@NonNull final List<String> keysetColumnNames,
+			@NonNull final PageLoader<ET> pageLoader)
+	{
+		Check.assumeNotEmpty(keysetColumnNames, "keysetColumnNames is not empty");
+
+		this.keysetColumnNames = ImmutableList.copyOf(keysetColumnNames);
+		this.pageLoader = pageLoader;
+	}
+
+	/**
+	 * Loads one page, ordered by the keyset columns.
+	 */
+	@FunctionalInterface
+	@VisibleForTesting
+	interface PageLoader<ET>
+	{
+		/**
+		 * @param lastKeysetValues keyset column values of the last row of the previous page, or <code>null</code> if the first page shall be loaded
+		 * @return at most <code>limit</code> rows which are coming after <code>lastKeysetValues</code>
+		 */
+		List<ET> loadPage(@Nullable List<Object> lastKeysetValues, int limit);
+	}
+
+	private static final class QueryPageLoader<T, ET extends T> implements PageLoader<ET>
+	{
+		private final TypedSqlQuery<T> query;
+		private final Class<ET> clazz;
+		private final String seekWhereClause;
+
+		private QueryPageLoader(
+				@NonNull final TypedSqlQuery<T> query,
+				@Nullable final Class<ET> clazz,
+				@NonNull final List<String> keysetColumnNames)
+		{
+			this.query = query;
+			this.clazz = clazz;
+			this.seekWhereClause = buildSeekWhereClause(keysetColumnNames);
+		}
+
+		@Override
+		public List<ET> loadPage(@Nullable final List<Object> lastKeysetValues, final int limit)
+		{
+			final TypedSqlQuery<T> pageQuery = lastKeysetValues == null
+					? query.copy()
+					: query.copyAndAddWhereClause(seekWhereClause, lastKeysetValues);
+			pageQuery.setLimit(QueryLimit.ofInt(limit));
+
+			return pageQuery.list(clazz);
+		}
+
+		@Override
+		public String toString()
+		{
+			return query.toString();
+		}
+	}
+
+	/**
+	 * @return the query's ORDER BY columns, followed by the key column (if not already included)
+	 * @throws DBException if the query's ORDER BY can't be used to seek
+	 */
+	private static ImmutableList<String> extractKeysetColumnNames(final TypedSqlQuery<?> query)
+	{
+		final String keyColumnName = query.getKeyColumnName(); // fails if there is no single key column
+		final POInfo poInfo = POInfo.getPOInfo(query.getTableName());
+
+		final ImmutableList.Builder<String> keysetColumnNames = ImmutableList.builder();
+
+		final IQueryOrderBy queryOrderBy = query.getQueryOrderBy();
+		if (queryOrderBy instanceof QueryOrderBy)
+		{
+			for (final QueryOrderByItem item : ((QueryOrderBy)queryOrderBy).getItems())
+			{
+				final String columnName = item.getColumnName();
+				if (keyColumnName.equalsIgnoreCase(columnName))
+				{
+					// the key column is unique, so any further ORDER BY item is irrelevant
+					return keysetColumnNames.add(keyColumnName).build();
+				}
+
+				if (item.getDirection() != Direction.Ascending)
+				{
+					throw new DBException("Keyset iteration supports only ascending ORDER BY items, but got " + item + " in " + query);
+				}
+				if (poInfo == null || !poInfo.hasColumnName(columnName) || poInfo.isVirtualColumn(columnName) || !poInfo.isColumnMandatory(columnName))
+				{
+					// NULLs would be lost by the "(...) > (...)" comparison
+					throw new DBException("Keyset iteration supports only ORDER BY items which are mandatory columns of the query's table, but got " + item + " in " + query);
+				}
+
+				keysetColumnNames.add(columnName);
+			}
+		}
+		else if (queryOrderBy != null && !Check.isBlank(queryOrderBy.getSql()))
+		{
+			throw new DBException("Keyset iteration needs an ORDER BY built from column names, but got " + queryOrderBy + " in " + query);
+		}
+
+		return keysetColumnNames.add(keyColumnName).build();
+	}
+
+	/**
+	 * @return e.g. <code>(DateOrdered, C_Order_ID) > (?, ?)</code>
+	 */
+	@VisibleForTesting
+	static String buildSeekWhereClause(@NonNull final List<String> keysetColumnNames)
+	{
+		Check.assumeNotEmpty(keysetColumnNames, "keysetColumnNames is not empty");
+
+		if (keysetColumnNames.size() == 1)
+		{
+			return keysetColumnNames.get(0) + " > ?";
+		}
+
+		return "(" + String.join(", ", keysetColumnNames) + ") > (" + String.join(", ", Collections.nCopies(keysetColumnNames.size(), "?")) + ")";
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		final Iterator<ET> it = getBufferIterator();
+		return it.hasNext();
+	}
+
+	@Override
+	public ET next()
+	{
+		final Iterator<ET> it = getBufferIterator();
+		if (!it.hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+		return it.next();
+	}
+
+	@Override
+	public void remove()
+	{
+		throw new UnsupportedOperationException("Remove operation not supported.");
+	}
+
+	private Iterator<ET> getBufferIterator()
+	{
+		// Buffer iterator was not initialized yet, loading first page
+		if (bufferIterator == null)
+		{
+			loadNextPage();
+			return bufferIterator;
+		}
+
+		// Load the next page only if the current page was fully loaded; else, we are sure that there are no more pages
+		if (!bufferIterator.hasNext() && bufferFullyLoaded)
+		{
+			loadNextPage();
+		}
+
+		return bufferIterator;
+	}
+
+	private void loadNextPage()
+	{
+		final List<ET> buffer = pageLoader.loadPage(lastKeysetValues, bufferSize);
+		bufferIterator = buffer.iterator();
+
+		final int bufferSizeActual = buffer.size();
+		bufferFullyLoaded = bufferSizeActual >= bufferSize;
+		if (bufferSizeActual > 0)
+		{
+			lastKeysetValues = extractKeysetValues(buffer.get(bufferSizeActual - 1));
+		}
+
+		pagesLoaded++;
+		rowsLoaded += bufferSizeActual;
+
+		logger.debug("Loaded next page: bufferSize={}, lastKeysetValues={} -> {} records (fullyLoaded={})", bufferSize, lastKeysetValues, bufferSizeActual, bufferFullyLoaded);
+	}
+
+	private List<Object> extractKeysetValues(@NonNull final ET model)
+	{
+		final List<Object> values = new ArrayList<>(keysetColumnNames.size());
+		for (final String columnName : keysetColumnNames)
+		{
+			final Object value = InterfaceWrapperHelper.getValueOrNull(model, columnName);
+			if (value == null)
+			{
+				throw new DBException("Keyset column " + columnName + " of " + model + " is null; cannot seek to the next page of " + pageLoader);
+			}
+			values.add(value);
+		}
+		return values;
+	}
+
+	/**
+	 * Sets buffer/page size, i.e. the number of rows to be loaded by this iterator at a time.
+	 *
+	 * @see IQuery#OPTION_IteratorBufferSize
+	 */
+	public void setBufferSize(final int bufferSize)
+	{
+		Check.assume(bufferSize > 0, "bufferSize > 0");
+		this.bufferSize = bufferSize;
+	}
+
+	public int getBufferSize()
+	{
+		return bufferSize;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "KeysetPOBufferedIterator [keysetColumnNames=" + keysetColumnNames
+				+ ", bufferSize=" + bufferSize
+				+ ", pagesLoaded=" + pagesLoaded
+				+ ", rowsLoaded=" + rowsLoaded
+				+ ", lastKeysetValues=" + lastKeysetValues
+				+ ", pageLoader=" + pageLoader
+				+ "]";
+	}
+}
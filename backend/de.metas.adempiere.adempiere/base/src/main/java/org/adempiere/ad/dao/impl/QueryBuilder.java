@@ -23,6 +23,7 @@ package org.adempiere.ad.dao.impl;
  */
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import de.metas.process.PInstanceId;
 import de.metas.util.Check;
 import de.metas.util.InSetPredicate;
@@ -323,6 +324,23 @@ import java.util.Properties;
 		return this;
 	}
 
+	@Override
+	@SuppressWarnings("unchecked")
+	public IQueryBuilder<T> prefetch(@NonNull final String... columnNames)
+	{
+		final Collection<String> previousColumnNames = options != null ? (Collection<String>)options.get(IQuery.OPTION_PrefetchColumnNames) : null;
+
+		final ImmutableSet.Builder<String> prefetchColumnNames = ImmutableSet.builder();
+		if (previousColumnNames != null)
+		{
+			prefetchColumnNames.addAll(previousColumnNames);
+		}
+		prefetchColumnNames.add(columnNames);
+
+		setOption(IQuery.OPTION_PrefetchColumnNames, prefetchColumnNames.build());
+		return this;
+	}
+
 	public final Map<String, Object> getOptions()
 	{
 		if (options == null)
@@ -65,6 +65,11 @@ class QueryOrderBy extends AbstractQueryOrderBy
 		return "QueryOrderBy[" + items + "]";
 	}
 
+	/* package */ List<QueryOrderByItem> getItems()
+	{
+		return items;
+	}
+
 	@Override
 	public String getSql()
 	{
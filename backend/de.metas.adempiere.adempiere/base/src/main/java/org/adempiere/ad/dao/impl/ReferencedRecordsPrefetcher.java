@@ -0,0 +1,183 @@
+package org.adempiere.ad.dao.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import de.metas.cache.model.IModelCacheService;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.ad.persistence.TableModelLoader;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.model.IQuery;
+import org.compiere.model.PO;
+import org.compiere.model.POInfo;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Loads the records which are referenced by a list of models with one query per referenced table and puts them into the transaction's model cache.
+ *
+ * @see IQuery#OPTION_PrefetchColumnNames
+ */
+/* package */ final class ReferencedRecordsPrefetcher
+{
+	private static final Logger logger = LogManager.getLogger(ReferencedRecordsPrefetcher.class);
+
+	/**
+	 * Max number of IDs per <code>IN (...)</code> list
+	 */
+	private static final int MAX_IDS_PER_QUERY = 1000;
+
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+	private final ReferencedTableNameResolver referencedTableNameResolver;
+	private final RecordsLoader recordsLoader;
+	private final Consumer<Collection<PO>> prefetchedRecordsConsumer;
+
+	private final Properties ctx;
+	private final String tableName;
+	private final ImmutableSet<String> columnNames;
+	private final String trxName;
+
+	/* package */ ReferencedRecordsPrefetcher(
+			@NonNull final Properties ctx,
+			@NonNull final String tableName,
+			@NonNull final Collection<String> columnNames,
+			@Nullable final String trxName)
+	{
+		this(ctx, tableName, columnNames, trxName,
+				ReferencedRecordsPrefetcher::getReferencedTableNameOrNull,
+				TableModelLoader.instance::getPOs,
+				Services.get(IModelCacheService.class)::addPrefetchedToCache);
+	}
+
+	@VisibleForTesting
+	ReferencedRecordsPrefetcher(
+			@NonNull final Properties ctx,
+			@NonNull final String tableName,
+			@NonNull final Collection<String> columnNames,
+			@Nullable final String trxName,
+			@NonNull final ReferencedTableNameResolver referencedTableNameResolver,
+			@NonNull final RecordsLoader recordsLoader,
+			@NonNull final Consumer<Collection<PO>> prefetchedRecordsConsumer)
+	{
+		this.ctx = ctx;
+		this.tableName = tableName;
+		this.columnNames = ImmutableSet.copyOf(columnNames);
+		this.trxName = trxName;
+		this.referencedTableNameResolver = referencedTableNameResolver;
+		this.recordsLoader = recordsLoader;
+		this.prefetchedRecordsConsumer = prefetchedRecordsConsumer;
+	}
+
+	@VisibleForTesting
+	@FunctionalInterface
+	interface ReferencedTableNameResolver
+	{
+		@Nullable
+		String getReferencedTableNameOrNull(String tableName, String columnName);
+	}
+
+	@VisibleForTesting
+	@FunctionalInterface
+	interface RecordsLoader
+	{
+		/**
+		 * @return the records which were found; records which are already in cache are not loaded again
+		 */
+		List<PO> getPOs(Properties ctx, String tableName, Set<Integer> recordIds, String trxName);
+	}
+
+	@Nullable
+	private static String getReferencedTableNameOrNull(final String tableName, final String columnName)
+	{
+		final POInfo poInfo = POInfo.getPOInfo(tableName);
+		return poInfo.getColumnIndex(columnName) >= 0 ? poInfo.getReferencedTableNameOrNull(columnName) : null;
+	}
+
+	public void prefetch(@NonNull final List<?> models)
+	{
+		if (models.isEmpty() || columnNames.isEmpty())
+		{
+			return;
+		}
+		if (!trxManager.isActive(trxName))
+		{
+			logger.debug("Skip prefetching {} because the transaction {} is not active", columnNames, trxName);
+			return;
+		}
+
+		final Map<String, Set<Integer>> recordIdsByTableName = extractReferencedRecordIds(models);
+		recordIdsByTableName.forEach(this::prefetchRecords);
+	}
+
+	private Map<String, Set<Integer>> extractReferencedRecordIds(final List<?> models)
+	{
+		final Map<String, Set<Integer>> recordIdsByTableName = new LinkedHashMap<>();
+		for (final String columnName : columnNames)
+		{
+			final String referencedTableName = referencedTableNameResolver.getReferencedTableNameOrNull(tableName, columnName);
+			if (referencedTableName == null)
+			{
+				throw new AdempiereException("Column " + tableName + "." + columnName + " does not reference another table and can't be prefetched");
+			}
+
+			final Set<Integer> recordIds = recordIdsByTableName.computeIfAbsent(referencedTableName, k -> new LinkedHashSet<>());
+			for (final Object model : models)
+			{
+				final Object value = InterfaceWrapperHelper.getValueOrNull(model, columnName);
+				if (value instanceof Integer && (Integer)value > 0)
+				{
+					recordIds.add((Integer)value);
+				}
+			}
+		}
+
+		return recordIdsByTableName;
+	}
+
+	private void prefetchRecords(final String referencedTableName, final Set<Integer> recordIds)
+	{
+		for (final List<Integer> recordIdsChunk : Iterables.partition(recordIds, MAX_IDS_PER_QUERY))
+		{
+			// NOTE: records which are already in cache are not loaded again
+			final List<PO> records = recordsLoader.getPOs(ctx, referencedTableName, ImmutableSet.copyOf(recordIdsChunk), trxName);
+			prefetchedRecordsConsumer.accept(records);
+
+			logger.debug("Prefetched {} records of {} for {}", records.size(), referencedTableName, tableName);
+		}
+	}
+}
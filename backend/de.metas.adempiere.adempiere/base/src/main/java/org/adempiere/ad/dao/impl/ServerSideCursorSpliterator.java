@@ -0,0 +1,241 @@
+package org.adempiere.ad.dao.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.annotations.VisibleForTesting;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.DBException;
+import org.compiere.util.DB;
+import org.compiere.util.DB.ResultSetRowLoader;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily loads the rows of an SQL query through a JDBC server side cursor, i.e. the driver fetches <code>fetchSize</code> rows at a time instead of the whole result set.
+ * <p>
+ * If the given transaction is active, its connection is used, so that the query sees the transaction's uncommitted changes.
+ * Else a dedicated read-only connection with autocommit off is used, because the postgres driver ignores the fetch size in autocommit mode.
+ * <p>
+ * The database resources are released as soon as the last row was loaded (i.e. the result is exhausted or <code>maxRows</code> rows were returned),
+ * when loading a row fails or when the stream is closed.
+ * So callers which might not consume the whole stream (e.g. <code>findFirst()</code>) must close it, e.g. with try-with-resources.
+ */
+/* package */ final class ServerSideCursorSpliterator<R> extends Spliterators.AbstractSpliterator<R>
+{
+	private static final Logger logger = LogManager.getLogger(ServerSideCursorSpliterator.class);
+
+	public static final int DEFAULT_FetchSize = 1000;
+
+	/**
+	 * @param maxRows the number of rows after which the cursor is closed, without trying to load a further row; <code>0</code> means no limit.
+	 *                Note that this does not limit the SQL, it shall already contain the respective <code>LIMIT</code>.
+	 */
+	/* package */ static <R> Stream<R> stream(
+			@NonNull final String sql,
+			@Nullable final List<Object> sqlParams,
+			@Nullable final String trxName,
+			final int fetchSize,
+			final int maxRows,
+			@NonNull final ResultSetRowLoader<R> rowLoader)
+	{
+		return stream(sql, sqlParams, trxName, fetchSize, maxRows, rowLoader, () -> DB.createConnection(false, Connection.TRANSACTION_READ_COMMITTED)); // autoCommit = false
+	}
+
+	@VisibleForTesting
+	static <R> Stream<R> stream(
+			@NonNull final String sql,
+			@Nullable final List<Object> sqlParams,
+			@Nullable final String trxName,
+			final int fetchSize,
+			final int maxRows,
+			@NonNull final ResultSetRowLoader<R> rowLoader,
+			@NonNull final Supplier<Connection> dedicatedConnectionSupplier)
+	{
+		final ServerSideCursorSpliterator<R> spliterator = new ServerSideCursorSpliterator<>(sql, sqlParams, trxName, fetchSize, maxRows, rowLoader, dedicatedConnectionSupplier);
+		final boolean parallel = false;
+		return StreamSupport.stream(spliterator, parallel)
+				.onClose(spliterator::close);
+	}
+
+	private final String sql;
+	private final List<Object> sqlParams;
+	private final String trxName;
+	private final int fetchSize;
+	private final int maxRows;
+	private final ResultSetRowLoader<R> rowLoader;
+	private final Supplier<Connection> dedicatedConnectionSupplier;
+
+	private int rowsCount = 0;
+	private boolean opened = false;
+	private boolean closed = false;
+	private Connection dedicatedConnection;
+	private PreparedStatement pstmt;
+	private ResultSet rs;
+
+	private ServerSideCursorSpliterator(
+			@NonNull final String sql,
+			@Nullable final List<Object> sqlParams,
+			@Nullable final String trxName,
+			final int fetchSize,
+			final int maxRows,
+			@NonNull final ResultSetRowLoader<R> rowLoader,
+			@NonNull final Supplier<Connection> dedicatedConnectionSupplier)
+	{
+		super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+
+		Check.assume(fetchSize > 0, "fetchSize > 0");
+
+		this.sql = sql;
+		this.sqlParams = sqlParams;
+		this.trxName = trxName;
+		this.fetchSize = fetchSize;
+		this.maxRows = maxRows;
+		this.rowLoader = rowLoader;
+		this.dedicatedConnectionSupplier = dedicatedConnectionSupplier;
+	}
+
+	@Override
+	public boolean tryAdvance(final Consumer<? super R> action)
+	{
+		if (closed)
+		{
+			return false;
+		}
+
+		try
+		{
+			if (!opened)
+			{
+				open();
+			}
+
+			while (rs.next())
+			{
+				final R row = rowLoader.retrieveRowOrNull(rs);
+				if (row != null)
+				{
+					rowsCount++;
+					if (maxRows > 0 && rowsCount >= maxRows)
+					{
+						// that's the last row; don't keep the cursor open until the stream is closed
+						close();
+					}
+
+					action.accept(row);
+					return true;
+				}
+			}
+
+			close();
+			return false;
+		}
+		catch (final SQLException ex)
+		{
+			close();
+			throw new DBException(ex, sql, sqlParams);
+		}
+		catch (final RuntimeException ex)
+		{
+			close();
+			throw ex;
+		}
+	}
+
+	private void open() throws SQLException
+	{
+		opened = true;
+
+		if (Services.get(ITrxManager.class).isActive(trxName))
+		{
+			pstmt = DB.prepareStatement(sql, trxName);
+		}
+		else
+		{
+			dedicatedConnection = dedicatedConnectionSupplier.get();
+			dedicatedConnection.setReadOnly(true);
+			pstmt = dedicatedConnection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		}
+
+		pstmt.setFetchSize(fetchSize);
+		DB.setParameters(pstmt, sqlParams);
+		rs = pstmt.executeQuery();
+	}
+
+	private void close()
+	{
+		if (closed)
+		{
+			return;
+		}
+		closed = true;
+
+		DB.close(rs, pstmt);
+		rs = null;
+		pstmt = null;
+
+		if (dedicatedConnection != null)
+		{
+			try
+			{
+				// we only read, so there is nothing to commit; also reset the read-only flag before the connection goes back to the pool
+				dedicatedConnection.rollback();
+				dedicatedConnection.setReadOnly(false);
+			}
+			catch (final SQLException ex)
+			{
+				logger.warn("Failed resetting the dedicated connection of {}. Ignored.", this, ex);
+			}
+			DB.close(dedicatedConnection);
+			dedicatedConnection = null;
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ServerSideCursorSpliterator [sql=" + sql
+				+ ", sqlParams=" + sqlParams
+				+ ", trxName=" + trxName
+				+ ", fetchSize=" + fetchSize
+				+ ", maxRows=" + maxRows
+				+ ", rowsCount=" + rowsCount
+				+ ", closed=" + closed
+				+ "]";
+	}
+}
@@ -23,6 +23,7 @@ package org.adempiere.ad.persistence;
  */
 
 
+import javax.annotation.Nullable;
 import java.lang.reflect.Method;
 import java.util.Set;
 
@@ -40,6 +41,17 @@ public interface IModelInternalAccessor
 
 	int getColumnIndex(String columnName);
 
+	/**
+	 * @return an object which stands for the column layout of the underlying model (e.g. the PO's POInfo).
+	 * As long as the same instance is returned, the column indexes returned by {@link #getColumnIndex(String)} can be cached by the caller.
+	 * If null, the column indexes shall not be cached.
+	 */
+	@Nullable
+	default Object getColumnIndexesKey()
+	{
+		return null;
+	}
+
 	boolean isVirtualColumn(String columnName);
 
 	boolean isKeyColumnName(String columnName);
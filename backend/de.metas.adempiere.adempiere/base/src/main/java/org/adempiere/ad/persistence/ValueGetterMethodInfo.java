@@ -44,6 +44,11 @@ import org.compiere.model.PO;
 	private final Class<?> returnType;
 	private final Object defaultValue;
 
+	/**
+	 * Column index of {@link #propertyName}, bound to the column layout it was resolved for (see {@link IModelInternalAccessor#getColumnIndexesKey()}).
+	 */
+	private volatile BoundColumnIndex boundColumnIndex = null;
+
 	public ValueGetterMethodInfo(final Method interfaceMethod, final String propertyName)
 	{
 		super(interfaceMethod);
@@ -75,7 +80,7 @@ import org.compiere.model.PO;
 	public Object invoke(final IModelInternalAccessor model, final Object[] methodArgs) throws Exception
 	{
 		Object value = null;
-		final int idx = model.getColumnIndex(propertyName);
+		final int idx = getColumnIndex(model);
 		if (idx >= 0)
 		{
 			value = model.getValue(propertyName, idx, returnType);
@@ -93,4 +98,34 @@ import org.compiere.model.PO;
 		return defaultValue;
 	}
 
+	private int getColumnIndex(final IModelInternalAccessor model)
+	{
+		final Object columnIndexesKey = model.getColumnIndexesKey();
+		if (columnIndexesKey == null)
+		{
+			return model.getColumnIndex(propertyName);
+		}
+
+		final BoundColumnIndex boundColumnIndex = this.boundColumnIndex;
+		if (boundColumnIndex != null && boundColumnIndex.columnIndexesKey == columnIndexesKey)
+		{
+			return boundColumnIndex.columnIndex;
+		}
+
+		final int columnIndex = model.getColumnIndex(propertyName);
+		this.boundColumnIndex = new BoundColumnIndex(columnIndexesKey, columnIndex);
+		return columnIndex;
+	}
+
+	private static final class BoundColumnIndex
+	{
+		private final Object columnIndexesKey;
+		private final int columnIndex;
+
+		private BoundColumnIndex(final Object columnIndexesKey, final int columnIndex)
+		{
+			this.columnIndexesKey = columnIndexesKey;
+			this.columnIndex = columnIndex;
+		}
+	}
 }
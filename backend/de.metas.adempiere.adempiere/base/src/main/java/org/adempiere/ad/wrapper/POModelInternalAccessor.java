@@ -68,6 +68,12 @@ public class POModelInternalAccessor implements IModelInternalAccessor
 		return getPOInfo().getColumnIndex(propertyName);
 	}
 
+	@Override
+	public Object getColumnIndexesKey()
+	{
+		return getPOInfo();
+	}
+
 	@Override
 	public boolean isVirtualColumn(final String columnName)
 	{
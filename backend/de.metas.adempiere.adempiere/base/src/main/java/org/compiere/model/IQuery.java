@@ -75,6 +75,35 @@ public interface IQuery<T>
 	 */
 	String OPTION_GuaranteedIteratorRequired = "GuaranteedIteratorRequired";
 
+	/**
+	 * If set to {@code true}, then {@link #iterate(Class)} pages by seeking past the last loaded row's ordering key ("keyset pagination") instead of using OFFSET or a selection.
+	 * <p>
+	 * The ORDER BY may only contain ascending, mandatory columns of the query's table; the primary key is appended as tie-breaker and is used alone if there is no ORDER BY.
+	 * Each page costs one index range scan, so a full scan is O(n) and needs constant memory, also for very big tables.
+	 * Unlike the guaranteed iterator, rows which are changed in the meantime are seen with their current values. Takes precedence over {@link #OPTION_GuaranteedIteratorRequired}.
+	 */
+	String OPTION_KeysetIterator = "KeysetIterator";
+
+	/**
+	 * If set to {@code true}, then {@link #stream()} and {@link #stream(Class)} lazily load the records through a server side cursor instead of loading the whole result into a list first.
+	 * <p>
+	 * The number of rows fetched at a time can be set with {@link #OPTION_IteratorBufferSize}.
+	 * If the query's transaction is not active, a dedicated database connection is used for the time the stream is open.
+	 * So make sure to close the stream if you might not consume it completely.
+	 */
+	String OPTION_StreamUsingServerSideCursor = "StreamUsingServerSideCursor";
+
+	/**
+	 * A collection of column names of the query's table which reference other records (e.g. <code>C_OrderLine_ID</code>).
+	 * <p>
+	 * When the records are loaded via {@link #list(Class)} (also by iterators, one page at a time), then all records they reference via these columns are loaded with one query per referenced table
+	 * and are put into the transaction's model cache. So e.g. calling <code>getC_OrderLine()</code> on each of the records does not hit the database again.
+	 * Has no effect if the query is not executed in an active transaction.
+	 *
+	 * @see org.adempiere.ad.dao.IQueryBuilder#prefetch(String...)
+	 */
+	String OPTION_PrefetchColumnNames = "PrefetchColumnNames";
+
 	/**
 	 * If set to {@code true}, then returned records can't be saved or deleted.
 	 */
@@ -489,6 +518,22 @@ public interface IQuery<T>
 	 */
 	List<Map<String, Object>> listDistinct(String... columnNames);
 
+	/**
+	 * Like {@link #listColumns(String...)}, but the rows are lazily loaded through a server side cursor (if supported by the implementation), without loading any model.
+	 * <p>
+	 * Make sure to close the stream if you might not consume it completely.
+	 *
+	 * @see #OPTION_StreamUsingServerSideCursor
+	 */
+	Stream<Map<String, Object>> streamColumns(String... columnNames);
+
+	/**
+	 * Like {@link #listDistinct(String...)}, but the rows are lazily loaded through a server side cursor (if supported by the implementation).
+	 *
+	 * @see #streamColumns(String...)
+	 */
+	Stream<Map<String, Object>> streamDistinct(String... columnNames);
+
 	/**
 	 * Selects DISTINCT given column and return the result as a list.
 	 *
@@ -585,6 +630,8 @@ public interface IQuery<T>
 
 	/**
 	 * Return a stream of all records that match the query criteria.
+	 *
+	 * @see #OPTION_StreamUsingServerSideCursor
 	 */
 	default Stream<T> stream() throws DBException
 	{
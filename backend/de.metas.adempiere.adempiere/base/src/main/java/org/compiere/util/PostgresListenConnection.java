@@ -0,0 +1,161 @@
+package org.compiere.util;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * A dedicated database connection which is <code>LISTEN</code>ing on a PostgreSQL notification channel.
+ * <p>
+ * Usage:
+ * <pre>
+ * try (final PostgresListenConnection connection = PostgresListenConnection.listen("my_channel"))
+ * {
+ *     while (...)
+ *     {
+ *         final List&lt;String&gt; payloads = connection.waitForNotifications(timeout);
+ *         ...
+ *     }
+ * }
+ * </pre>
+ * When closed, the connection stops listening and is closed, i.e. it goes back to the pool.
+ */
+public final class PostgresListenConnection implements AutoCloseable
+{
+	private static final Logger logger = LogManager.getLogger(PostgresListenConnection.class);
+
+	private final Connection connection;
+	private final String channel;
+	private final PGConnection pgConnection;
+
+	/**
+	 * Gets a new connection and starts listening on the given channel.
+	 */
+	public static PostgresListenConnection listen(@NonNull final String channel) throws SQLException
+	{
+		final Connection connection = DB.createConnection(true, Connection.TRANSACTION_READ_COMMITTED); // autoCommit = true, so the LISTEN is effective right away
+		return listen(connection, channel);
+	}
+
+	@VisibleForTesting
+	static PostgresListenConnection listen(
+			@NonNull final Connection connection,
+			@NonNull final String channel) throws SQLException
+	{
+		try
+		{
+			executeStatement(connection, "LISTEN " + channel);
+			final PostgresListenConnection listenConnection = new PostgresListenConnection(connection, channel);
+			logger.info("Listening on channel {}", channel);
+			return listenConnection;
+		}
+		catch (final SQLException | RuntimeException ex)
+		{
+			DB.close(connection);
+			throw ex;
+		}
+	}
+
+	private PostgresListenConnection(
+			@NonNull final Connection connection,
+			@NonNull final String channel) throws SQLException
+	{
+		this.connection = connection;
+		this.channel = channel;
+		this.pgConnection = connection.unwrap(PGConnection.class);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "PostgresListenConnection[" + channel + "]";
+	}
+
+	/**
+	 * Blocks until either some notifications arrived or the given timeout elapsed.
+	 *
+	 * @param timeout how long to wait at most; at least one millisecond, because zero would mean to wait forever
+	 * @return the payloads of the received notifications (empty string if a notification had no payload), or an empty list if the timeout elapsed
+	 */
+	public ImmutableList<String> waitForNotifications(@NonNull final Duration timeout) throws SQLException
+	{
+		final PGNotification[] notifications = pgConnection.getNotifications(toTimeoutMillis(timeout));
+		if (notifications == null || notifications.length == 0)
+		{
+			return ImmutableList.of();
+		}
+
+		final ImmutableList.Builder<String> payloads = ImmutableList.builder();
+		for (final PGNotification notification : notifications)
+		{
+			final String payload = notification.getParameter();
+			payloads.add(payload != null ? payload : "");
+		}
+		return payloads.build();
+	}
+
+	@VisibleForTesting
+	static int toTimeoutMillis(@NonNull final Duration timeout)
+	{
+		final long timeoutMillis = timeout.toMillis();
+		if (timeoutMillis < 1)
+		{
+			return 1;
+		}
+		return timeoutMillis > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int)timeoutMillis;
+	}
+
+	@Override
+	public void close()
+	{
+		try
+		{
+			// the connection goes back to the pool, so make sure it won't continue to collect notifications there
+			executeStatement(connection, "UNLISTEN *");
+		}
+		catch (final SQLException ex)
+		{
+			logger.debug("Failed executing UNLISTEN; ignored", ex);
+		}
+		DB.close(connection);
+	}
+
+	private static void executeStatement(@NonNull final Connection connection, @NonNull final String sql) throws SQLException
+	{
+		try (final Statement stmt = connection.createStatement())
+		{
+			stmt.execute(sql);
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package org.compiere.util;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
+import org.slf4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out table IDs from blocks which were reserved in advance from the table's sequence.
+ * <p>
+ * Instead of going to the database for each new record, a block of IDs is reserved from the sequence (see {@link IdBlockRetriever}) and the IDs are handed out from memory without locking.
+ * Only when a block is exhausted, one thread reserves the next block while the other threads of the same table wait for it.
+ * <p>
+ * The blocks are kept per node (i.e. JVM), so the IDs of a table are no longer ascending across nodes, and the IDs which were not handed out before a restart are lost (gaps only, never duplicates).
+ * <p>
+ * Disabled by default. To enable it, set the sysconfig {@value #SYSCONFIG_BlockSize} (all tables) or {@value #SYSCONFIG_BlockSize}.TableName (one table) to a block size greater than one, e.g. 100 to 1000.
+ */
+public final class TableIdBlockAllocator
+{
+	public static final TableIdBlockAllocator instance = new TableIdBlockAllocator();
+
+	private static final Logger logger = LogManager.getLogger(TableIdBlockAllocator.class);
+
+	public static final String SYSCONFIG_BlockSize = "SYSTEM_TABLE_ID_BLOCK_SIZE";
+
+	@FunctionalInterface
+	public interface IdBlockRetriever
+	{
+		/**
+		 * @return the reserved IDs; shall not be empty
+		 */
+		List<Integer> retrieveIds(int count);
+	}
+
+	private final ConcurrentHashMap<String, SequenceIdBlocks> blocksBySequenceKey = new ConcurrentHashMap<>();
+
+	private TableIdBlockAllocator()
+	{
+	}
+
+	/**
+	 * @return block size to be used for given table; if it's less than or equal to one, the IDs shall not be allocated in blocks
+	 */
+	public int getBlockSize(@NonNull final String tableName)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int defaultBlockSize = sysConfigBL.getIntValue(SYSCONFIG_BlockSize, 0);
+		return sysConfigBL.getIntValue(SYSCONFIG_BlockSize + "." + tableName, defaultBlockSize);
+	}
+
+	/**
+	 * @param sequenceKey identifies the sequence from which the blocks are reserved (e.g. the DB sequence name)
+	 */
+	public int nextId(
+			@NonNull final String sequenceKey,
+			final int blockSize,
+			@NonNull final IdBlockRetriever retriever)
+	{
+		return blocksBySequenceKey.computeIfAbsent(sequenceKey, SequenceIdBlocks::new)
+				.nextId(blockSize, retriever);
+	}
+
+	/**
+	 * Forgets all reserved blocks. The IDs which were not handed out yet are lost.
+	 */
+	public void reset()
+	{
+		blocksBySequenceKey.clear();
+	}
+
+	private static final class SequenceIdBlocks
+	{
+		private final String sequenceKey;
+		private volatile IdBlock currentBlock = IdBlock.EMPTY;
+
+		private SequenceIdBlocks(@NonNull final String sequenceKey)
+		{
+			this.sequenceKey = sequenceKey;
+		}
+
+		public int nextId(final int blockSize, @NonNull final IdBlockRetriever retriever)
+		{
+			while (true)
+			{
+				final int id = currentBlock.nextIdOrZero();
+				if (id > 0)
+				{
+					return id;
+				}
+
+				synchronized (this)
+				{
+					// another thread might have already reserved the next block while we were waiting
+					if (currentBlock.hasRemainingIds())
+					{
+						continue;
+					}
+
+					currentBlock = retrieveBlock(blockSize, retriever);
+				}
+			}
+		}
+
+		private IdBlock retrieveBlock(final int blockSize, @NonNull final IdBlockRetriever retriever)
+		{
+			final List<Integer> ids = retriever.retrieveIds(blockSize);
+			if (ids.isEmpty())
+			{
+				throw new AdempiereException("No IDs could be reserved for " + sequenceKey);
+			}
+
+			logger.debug("Reserved {} IDs for {}: {}..{}", ids.size(), sequenceKey, ids.get(0), ids.get(ids.size() - 1));
+			return new IdBlock(ids);
+		}
+	}
+
+	private static final class IdBlock
+	{
+		private static final IdBlock EMPTY = new IdBlock(new int[] {});
+
+		private final int[] ids;
+		private final AtomicInteger nextIndex = new AtomicInteger(0);
+
+		private IdBlock(@NonNull final List<Integer> ids)
+		{
+			this(ids.stream().mapToInt(Integer::intValue).toArray());
+		}
+
+		private IdBlock(@NonNull final int[] ids)
+		{
+			this.ids = ids;
+		}
+
+		public int nextIdOrZero()
+		{
+			if (!hasRemainingIds())
+			{
+				return 0;
+			}
+
+			final int index = nextIndex.getAndIncrement();
+			return index < ids.length ? ids[index] : 0;
+		}
+
+		public boolean hasRemainingIds()
+		{
+			return nextIndex.get() < ids.length;
+		}
+	}
+}
@@ -244,4 +244,159 @@ public class CCacheTest
 		cache.remove("k1");
 		assertThat(removedItems).containsEntry("k1", "v1");
 	}
+
+	@Test
+	public void test_weighted_boundedByWeight()
+	{
+		final CCache<Integer, String> cache = CCache.<Integer, String> builder()
+				.maximumWeight(100L)
+				.weigher((key, value) -> 1)
+				.build();
+		assertThat(cache.isWeighted()).isTrue();
+
+		for (int i = 1; i <= 1000; i++)
+		{
+			cache.put(i, "value" + i);
+		}
+
+		assertThat(cache.size()).isLessThanOrEqualTo(100);
+		assertThat(cache.getWeightedSize()).isEqualTo(cache.size());
+
+		cache.reset();
+		assertThat(cache.getWeightedSize()).isZero();
+	}
+
+	@Test
+	public void test_weighted_valueChangedWhileCached()
+	{
+		final CCache<Integer, StringBuilder> cache = CCache.<Integer, StringBuilder> builder()
+				.maximumWeight(10_000L)
+				.weigher((key, value) -> value.length())
+				.build();
+
+		final StringBuilder value = new StringBuilder("12345");
+		cache.put(1, value);
+		cache.put(2, new StringBuilder("123"));
+		assertThat(cache.getWeightedSize()).isEqualTo(8);
+
+		// the weight taken when the value was added is removed, not the current one
+		value.append("6789");
+		cache.remove(1);
+		assertThat(cache.getWeightedSize()).isEqualTo(3);
+
+		cache.put(2, new StringBuilder("1"));
+		assertThat(cache.getWeightedSize()).isEqualTo(1);
+
+		cache.reset();
+		assertThat(cache.getWeightedSize()).isZero();
+	}
+
+	@Test
+	public void test_notWeighted()
+	{
+		final CCache<String, String> cache = new CCache<>("Test", 10);
+		cache.put("k1", "v1");
+
+		assertThat(cache.isWeighted()).isFalse();
+		assertThat(cache.getWeightedSize()).isZero();
+	}
+
+	@Test
+	public void test_globalMemoryBudget_trimsColdestCacheFirst()
+	{
+		final CacheMgt cacheMgt = CacheMgt.get();
+		final long maxTotalWeightBefore = cacheMgt.getMaxTotalWeight();
+		final CCache<Integer, String> hotCache = CCache.<Integer, String> builder()
+				.cacheName("hotCache")
+				.maximumWeight(10_000L)
+				.weigher((key, value) -> 1)
+				.build();
+		final CCache<Integer, String> coldCache = CCache.<Integer, String> builder()
+				.cacheName("coldCache")
+				.maximumWeight(10_000L)
+				.weigher((key, value) -> 1)
+				.build();
+
+		try
+		{
+			for (int i = 1; i <= 50; i++)
+			{
+				hotCache.put(i, "value" + i);
+				coldCache.put(i, "value" + i);
+			}
+			for (int i = 1; i <= 50; i++)
+			{
+				hotCache.get(i);
+			}
+
+			// budget=60 => trim down to 54, i.e. 46 shall be freed, all from the cold cache
+			cacheMgt.setMaxTotalWeight(cacheMgt.getTotalWeight() - 100 + 60);
+
+			assertThat(hotCache.getWeightedSize()).isEqualTo(50);
+			assertThat(coldCache.getWeightedSize()).isEqualTo(4);
+		}
+		finally
+		{
+			cacheMgt.setMaxTotalWeight(maxTotalWeightBefore);
+			hotCache.reset();
+			coldCache.reset();
+		}
+	}
+
+	@Test
+	public void test_trimWeight_leastRecentlyUsedFirst()
+	{
+		final CCache<Integer, String> cache = CCache.<Integer, String> builder()
+				.maximumWeight(10_000L)
+				.weigher((key, value) -> 1)
+				.build();
+
+		try
+		{
+			for (int i = 1; i <= 10; i++)
+			{
+				cache.put(i, "value" + i);
+			}
+			for (int i = 6; i <= 10; i++)
+			{
+				cache.get(i);
+			}
+			cache.put(1, "value1-changed");
+
+			assertThat(cache.trimWeight(5)).isEqualTo(5);
+
+			assertThat(cache.keySet()).containsExactlyInAnyOrder(1, 7, 8, 9, 10);
+		}
+		finally
+		{
+			cache.reset();
+		}
+	}
+
+	@Test
+	public void test_trimWeight_accessedEntryIsKept() throws InterruptedException
+	{
+		final CCache<Integer, String> cache = CCache.<Integer, String> builder()
+				.maximumWeight(10_000L)
+				.weigher((key, value) -> 1)
+				.build();
+
+		try
+		{
+			cache.put(1, "value1");
+			cache.put(2, "value2");
+
+			// access times are recorded with a resolution of one millisecond
+			Thread.sleep(5);
+			cache.get(1);
+
+			assertThat(cache.trimWeight(1)).isEqualTo(1);
+
+			assertThat(cache.keySet()).containsExactly(1);
+		}
+		finally
+		{
+			cache.reset();
+		}
+	}
 }
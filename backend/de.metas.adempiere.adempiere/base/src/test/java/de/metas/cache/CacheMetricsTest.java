@@ -0,0 +1,64 @@
+package de.metas.cache;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import de.metas.cache.CacheMetrics.CachesGroup;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class CacheMetricsTest
+{
+	private static CCache<Integer, String> newCacheWithHits(final int hits)
+	{
+		final CCache<Integer, String> cache = new CCache<>("Test", 10);
+		cache.put(1, "value1");
+		for (int i = 0; i < hits; i++)
+		{
+			cache.get(1);
+		}
+		return cache;
+	}
+
+	@Test
+	public void garbageCollectedCaches_countersDoNotDecrease()
+	{
+		final CachesGroup caches = new CachesGroup();
+		final CCache<Integer, String> cache = newCacheWithHits(2);
+		caches.add(cache);
+
+		final CCache<Integer, String> collectedCache = newCacheWithHits(3);
+		caches.add(collectedCache);
+		assertThat(caches.getStats().hitCount()).isEqualTo(5);
+
+		caches.simulateGarbageCollected(collectedCache);
+		assertThat(caches.getStats().hitCount()).isEqualTo(5);
+
+		// the collected cache is not looked at anymore
+		collectedCache.get(1);
+		assertThat(caches.getStats().hitCount()).isEqualTo(5);
+
+		cache.get(1);
+		assertThat(caches.getStats().hitCount()).isEqualTo(6);
+	}
+}
@@ -104,6 +104,127 @@ public class CacheMgtTest
 		invoiceLineCache.assertRecordInvalidated(TableRecordReference.of("C_InvoiceLine", 2));
 	}
 
+	@Test
+	public void resetManyRecordsAndTable()
+	{
+		final CacheMgt cacheManager = CacheMgt.get();
+
+		final AssertCache invoiceCache = AssertCache.newForTableName("C_Invoice");
+		final AssertCache orderCache = AssertCache.newForTableName("C_Order");
+		cacheManager.register(invoiceCache);
+		cacheManager.register(orderCache);
+
+		final CacheInvalidateMultiRequest request = CacheInvalidateMultiRequest.of(
+				CacheInvalidateRequest.rootRecord("C_Invoice", 1),
+				CacheInvalidateRequest.rootRecord("C_Invoice", 2),
+				CacheInvalidateRequest.rootRecord("C_Order", 3),
+				CacheInvalidateRequest.allRecordsForTable("C_Order"));
+		cacheManager.reset(request, ResetMode.LOCAL);
+
+		invoiceCache.assertRecordInvalidated(TableRecordReference.of("C_Invoice", 1));
+		invoiceCache.assertRecordInvalidated(TableRecordReference.of("C_Invoice", 2));
+		orderCache.assertResetForRecordIdWasNotCalled(); // because the whole table was reset
+	}
+
+	@Test
+	public void globalMemoryBudget_trimsColdWeightedIDCache()
+	{
+		final CacheMgt cacheManager = CacheMgt.get();
+		final long maxTotalWeightBefore = cacheManager.getMaxTotalWeight();
+
+		// same kind of cache which ModelCacheService creates for table cache configs with a max weight
+		final IDCache<String> idCache = IDCache.newWeightedCache("Table1", null, 1024 * 1024, CCache.EXPIREMINUTES_Never);
+		final CCache<Integer, String> hotCache = CCache.newWeightedCache("Table2", 1024 * 1024, CCache.EXPIREMINUTES_Never);
+		try
+		{
+			for (int i = 1; i <= 100; i++)
+			{
+				idCache.put(i, "record" + i);
+				hotCache.put(i, "record" + i);
+			}
+			for (int i = 1; i <= 100; i++)
+			{
+				hotCache.get(i);
+			}
+
+			final long idCacheWeight = idCache.getWeightedSize();
+			final long hotCacheWeight = hotCache.getWeightedSize();
+			assertThat(idCacheWeight).isPositive();
+			assertThat(cacheManager.getTotalWeight()).isGreaterThanOrEqualTo(idCacheWeight + hotCacheWeight);
+
+			cacheManager.setMaxTotalWeight(cacheManager.getTotalWeight() - idCacheWeight / 2);
+
+			assertThat(idCache.getWeightedSize()).isLessThan(idCacheWeight / 2);
+			assertThat(idCache.size()).isLessThan(100);
+			assertThat(hotCache.getWeightedSize()).isEqualTo(hotCacheWeight);
+			assertThat(cacheManager.getTotalWeight()).isLessThanOrEqualTo(cacheManager.getMaxTotalWeight());
+		}
+		finally
+		{
+			cacheManager.setMaxTotalWeight(maxTotalWeightBefore);
+			idCache.reset();
+			hotCache.reset();
+		}
+	}
+
+	@Test
+	public void globalMemoryBudget_releasesWeightOfCollectedTrxCache()
+	{
+		final CacheMgt cacheManager = CacheMgt.get();
+		final long totalWeightBefore = cacheManager.getTotalWeight();
+
+		// same kind of cache which ModelCacheService creates to prefetch records within a trx
+		final IDCache<String> trxCache = IDCache.newWeightedCache("Table1", "trx1", 1024 * 1024, CCache.EXPIREMINUTES_Never);
+		for (int i = 1; i <= 100; i++)
+		{
+			trxCache.put(i, "record" + i);
+		}
+		assertThat(trxCache.getWeightedSize()).isPositive();
+		assertThat(cacheManager.getTotalWeight()).isEqualTo(totalWeightBefore + trxCache.getWeightedSize());
+
+		// the trx is gone and nobody resets its cache
+		cacheManager.simulateGarbageCollected(trxCache);
+
+		assertThat(cacheManager.getTotalWeight()).isEqualTo(totalWeightBefore);
+	}
+
+	@Test
+	public void globalMemoryBudget_doesNotTrimNonTrimmableCache()
+	{
+		final CacheMgt cacheManager = CacheMgt.get();
+		final long maxTotalWeightBefore = cacheManager.getMaxTotalWeight();
+
+		final CCache<Integer, String> metadataCache = CCache.<Integer, String> builder()
+				.cacheName("Table1")
+				.maximumWeight(1024L * 1024)
+				.trimmable(false)
+				.build();
+		final CCache<Integer, String> cache = CCache.newWeightedCache("Table2", 1024 * 1024, CCache.EXPIREMINUTES_Never);
+		try
+		{
+			for (int i = 1; i <= 100; i++)
+			{
+				metadataCache.put(i, "record" + i);
+				cache.put(i, "record" + i);
+			}
+
+			final long metadataCacheWeight = metadataCache.getWeightedSize();
+			final long cacheWeight = cache.getWeightedSize();
+
+			// even though the metadata cache is as cold as the other one, only the other one shall be trimmed
+			cacheManager.setMaxTotalWeight(cacheManager.getTotalWeight() - cacheWeight / 2);
+
+			assertThat(metadataCache.getWeightedSize()).isEqualTo(metadataCacheWeight);
+			assertThat(cache.getWeightedSize()).isLessThan(cacheWeight);
+		}
+		finally
+		{
+			cacheManager.setMaxTotalWeight(maxTotalWeightBefore);
+			metadataCache.reset();
+			cache.reset();
+		}
+	}
+
 	private static class AssertCache implements CacheInterface
 	{
 		public static AssertCache newForTableName(final String tableName)
@@ -59,6 +59,12 @@ public class CachedMethodDescriptorTest
 			return "" + testId;
 		}
 
+		@Cached(maxWeightBytes = 1024)
+		public Object getWeighted(final int testId)
+		{
+			return "" + testId;
+		}
+
 		@Cached
 		public Object getWithTrxName(final int testId, @CacheTrx final String trxName)
 		{
@@ -134,4 +140,16 @@ public class CachedMethodDescriptorTest
 				"Keys shall be equal because trxName shall not be included (we are using different cache storages)",
 				keyBuilder1.buildKey(), keyBuilder2.buildKey());
 	}
+
+	@Test
+	public void test_maxWeightBytes() throws Exception
+	{
+		final TestClass testObj = new TestClass();
+
+		final CachedMethodDescriptor weightedMethodDescriptor = new CachedMethodDescriptor(testObj.getClass().getMethod("getWeighted", int.class));
+		Assert.assertTrue("Cache shall be weighted", weightedMethodDescriptor.createCCacheCallable().call().isWeighted());
+
+		final CachedMethodDescriptor methodDescriptor = new CachedMethodDescriptor(testObj.getClass().getMethod("get", Properties.class, int.class));
+		Assert.assertFalse("Cache shall not be weighted", methodDescriptor.createCCacheCallable().call().isWeighted());
+	}
 }
@@ -0,0 +1,116 @@
+package de.metas.cache.model;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CacheInvalidateMultiRequestTest
+{
+	@Nested
+	class coalesce
+	{
+		@Test
+		void removesDuplicates()
+		{
+			final CacheInvalidateMultiRequest result = CacheInvalidateMultiRequest.coalesce(
+					ImmutableList.of(
+							CacheInvalidateRequest.rootRecord("C_Order", 1),
+							CacheInvalidateRequest.rootRecord("C_Order", 1),
+							CacheInvalidateRequest.rootRecord("C_Order", 2)),
+					100);
+
+			assertThat(result.getRequests()).containsExactly(
+					CacheInvalidateRequest.rootRecord("C_Order", 1),
+					CacheInvalidateRequest.rootRecord("C_Order", 2));
+		}
+
+		@Test
+		void resetAllWins()
+		{
+			final CacheInvalidateMultiRequest result = CacheInvalidateMultiRequest.coalesce(
+					ImmutableList.of(
+							CacheInvalidateRequest.rootRecord("C_Order", 1),
+							CacheInvalidateRequest.all()),
+					100);
+
+			assertThat(result.isResetAll()).isTrue();
+		}
+
+		@Test
+		void recordsCoveredByTableReset()
+		{
+			final CacheInvalidateMultiRequest result = CacheInvalidateMultiRequest.coalesce(
+					ImmutableList.of(
+							CacheInvalidateRequest.rootRecord("C_Order", 1),
+							CacheInvalidateRequest.allRecordsForTable("C_Order"),
+							CacheInvalidateRequest.rootRecord("C_Invoice", 2)),
+					100);
+
+			assertThat(result.getRequests()).containsExactlyInAnyOrder(
+					CacheInvalidateRequest.allRecordsForTable("C_Order"),
+					CacheInvalidateRequest.rootRecord("C_Invoice", 2));
+		}
+
+		@Test
+		void escalatesToTableReset()
+		{
+			final List<CacheInvalidateRequest> requests = ImmutableList.of(
+					CacheInvalidateRequest.rootRecord("C_Order", 1),
+					CacheInvalidateRequest.rootRecord("C_Order", 2),
+					CacheInvalidateRequest.rootRecord("C_Order", 3),
+					CacheInvalidateRequest.rootRecord("C_Invoice", 4));
+
+			final CacheInvalidateMultiRequest result = CacheInvalidateMultiRequest.coalesce(requests, 2);
+
+			assertThat(result.getRequests()).containsExactlyInAnyOrder(
+					CacheInvalidateRequest.allRecordsForTable("C_Order"),
+					CacheInvalidateRequest.rootRecord("C_Invoice", 4));
+		}
+
+		@Test
+		void keepsRequestsWithChildRecords()
+		{
+			final CacheInvalidateRequest childRequest = CacheInvalidateRequest.builder()
+					.rootRecord("C_Order", 1)
+					.childRecord("C_OrderLine", 2)
+					.build();
+
+			final CacheInvalidateMultiRequest result = CacheInvalidateMultiRequest.coalesce(
+					ImmutableList.of(
+							childRequest,
+							CacheInvalidateRequest.rootRecord("C_Order", 3),
+							CacheInvalidateRequest.rootRecord("C_Order", 4)),
+					1);
+
+			assertThat(result.getRequests()).containsExactlyInAnyOrder(
+					childRequest,
+					CacheInvalidateRequest.allRecordsForTable("C_Order"));
+		}
+	}
+}
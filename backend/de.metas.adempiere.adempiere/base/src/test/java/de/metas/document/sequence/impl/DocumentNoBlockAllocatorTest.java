@@ -0,0 +1,92 @@
+package de.metas.document.sequence.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import de.metas.document.DocumentSequenceInfo;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.TableIdBlockAllocator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DocumentNoBlockAllocatorTest
+{
+	private final DocumentNoBlockAllocator allocator = DocumentNoBlockAllocator.instance;
+
+	private static final DocumentSequenceInfo SEQUENCE = DocumentSequenceInfo.builder()
+			.adSequenceId(540001)
+			.name("Invoices")
+			.incrementNo(1)
+			.autoSequence(true)
+			.build();
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		TableIdBlockAllocator.instance.reset();
+	}
+
+	@Test
+	public void getBlockSize_onlyForConfiguredSequences()
+	{
+		assertThat(allocator.getBlockSize(SEQUENCE)).isEqualTo(0);
+
+		Services.get(ISysConfigBL.class).setValue(DocumentNoBlockAllocator.SYSCONFIG_BlockSize_Prefix + "540001", 50, ClientId.SYSTEM, OrgId.ANY);
+		assertThat(allocator.getBlockSize(SEQUENCE)).isEqualTo(50);
+	}
+
+	@Test
+	public void sequenceNosAreHandedOutFromReservedBlocks_perCalendarYear()
+	{
+		final AtomicInteger currentNext = new AtomicInteger(1000);
+		final AtomicInteger reservationsCount = new AtomicInteger(0);
+		final TableIdBlockAllocator.IdBlockRetriever sequence = count -> {
+			reservationsCount.incrementAndGet();
+			final int first = currentNext.getAndAdd(count);
+			return IntStream.range(first, first + count).boxed().collect(ImmutableList.toImmutableList());
+		};
+
+		final List<Integer> sequenceNos2021 = IntStream.range(0, 3)
+				.mapToObj(i -> allocator.nextSequenceNo(SEQUENCE, "2021", 10, sequence))
+				.collect(Collectors.toList());
+		final List<Integer> sequenceNos2022 = IntStream.range(0, 3)
+				.mapToObj(i -> allocator.nextSequenceNo(SEQUENCE, "2022", 10, sequence))
+				.collect(Collectors.toList());
+
+		assertThat(sequenceNos2021).containsExactly(1000, 1001, 1002);
+		assertThat(sequenceNos2022).containsExactly(1010, 1011, 1012);
+		assertThat(reservationsCount).hasValue(2);
+	}
+}
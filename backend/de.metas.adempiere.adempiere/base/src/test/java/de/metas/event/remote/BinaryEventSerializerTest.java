@@ -0,0 +1,140 @@
+package de.metas.event.remote;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import de.metas.event.Event;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.model.I_C_Invoice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class BinaryEventSerializerTest
+{
+	private final BinaryEventSerializer binarySerializer = BinaryEventSerializer.instance;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init(); // needed for ITableRecordReference
+	}
+
+	private static Event.Builder newEvent()
+	{
+		return Event.builder()
+				.setUUID(UUID.randomUUID())
+				.setWhen(Instant.now());
+	}
+
+	@Test
+	public void allPropertyTypes()
+	{
+		final Event event = newEvent()
+				.wasLogged()
+				.setSummary("Summary1")
+				.setDetailPlain("Detail1")
+				.setDetailADMessage("Detail_AD_Message", "P1", "P2", "P3")
+				.addRecipient_User_ID(10)
+				.addRecipient_User_ID(20)
+				.putProperty("Prop_BD", new BigDecimal("-3.1415"))
+				.putProperty("Prop_Bool_True", true)
+				.putProperty("Prop_Bool_False", false)
+				.putProperty("Prop_Date", new Date())
+				.putProperty("Prop_TS", new Timestamp(System.currentTimeMillis()))
+				.putProperty("Prop_Int", 13)
+				.putProperty("Prop_Long", 1234567890123L)
+				.putProperty("Prop_Str", "string1 \"äöü\"")
+				.putProperty("Prop_Ref", TableRecordReference.of(I_C_Invoice.Table_Name, 123456))
+				.putProperty("Prop_List", ImmutableList.of("a", 1, new BigDecimal("2.50")))
+				.build();
+
+		final byte[] bytes = binarySerializer.toBytes(event);
+		assertThat(bytes[3]).isZero(); // neither JSON nor deflated
+
+		final Event eventRestored = binarySerializer.fromBytes(bytes);
+		assertThat(eventRestored).isEqualTo(event);
+		assertThat(eventRestored.isWasLogged()).isTrue();
+		assertThat(eventRestored.getSenderId()).isEqualTo(event.getSenderId());
+	}
+
+	@Test
+	public void bigPayloadIsDeflated()
+	{
+		final Event event = newEvent()
+				.shallBeLogged()
+				.putProperty("MaterialEvent", Strings.repeat("{\"type\":\"TransactionCreatedEvent\",\"qty\":10}", 100))
+				.build();
+
+		final byte[] bytes = binarySerializer.toBytes(event);
+		assertThat(bytes[3]).isEqualTo(BinaryEventSerializer.FLAG_DEFLATED);
+		assertThat(bytes.length).isLessThan(JacksonJsonEventSerializer.instance.toBytes(event).length / 10);
+
+		assertThat(binarySerializer.fromBytes(bytes)).isEqualTo(event);
+	}
+
+	@Test
+	public void binaryProperty()
+	{
+		final byte[] value = { 0, 1, -1, '"', '\\' };
+		final Event event = newEvent()
+				.putProperty("Prop_Bytes", value)
+				.build();
+
+		final byte[] bytes = binarySerializer.toBytes(event);
+		assertThat(bytes[3]).isZero(); // neither JSON nor deflated
+		assertThat(binarySerializer.fromBytes(bytes).<byte[]> getProperty("Prop_Bytes")).isEqualTo(value);
+
+		// also supported by the JSON serializer
+		final JacksonJsonEventSerializer jsonSerializer = JacksonJsonEventSerializer.instance;
+		assertThat(jsonSerializer.fromBytes(jsonSerializer.toBytes(event)).<byte[]> getProperty("Prop_Bytes")).isEqualTo(value);
+	}
+
+	@Test
+	public void fromString()
+	{
+		final Event event = newEvent().setSummary("Summary1").build();
+
+		assertThat(binarySerializer.fromString(binarySerializer.toString(event))).isEqualTo(event);
+	}
+
+	@Test
+	public void fromBytes_plainJson()
+	{
+		final Event event = newEvent()
+				.setSummary("Summary1")
+				.putProperty("Prop_Int", 13)
+				.build();
+
+		assertThat(binarySerializer.fromBytes(JacksonJsonEventSerializer.instance.toBytes(event))).isEqualTo(event);
+	}
+}
@@ -0,0 +1,47 @@
+package de.metas.impexp;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CopyInCsvBuilderTest
+{
+	@Test
+	public void appendRow()
+	{
+		final CopyInCsvBuilder csv = new CopyInCsvBuilder()
+				.appendRow(Arrays.asList(1000001, null, "", true, false, new BigDecimal("1E+3"), Timestamp.valueOf("2022-03-01 10:15:00")))
+				.appendRow(Arrays.asList(1000002, "say \"hello\", world", "line1\nline2"));
+
+		assertThat(csv.getRowsCount()).isEqualTo(2);
+		assertThat(csv.build()).isEqualTo(
+				"1000001,,\"\",Y,N,1000,2022-03-01 10:15:00.0\n"
+						+ "1000002,\"say \"\"hello\"\", world\",\"line1\nline2\"\n");
+	}
+}
@@ -28,12 +28,14 @@ import org.junit.Assert;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -213,4 +215,24 @@ public class FileImportReaderTest
 		assertTrue(lines.get(1).endsWith("90"));
 		assertTrue(lines.get(2).endsWith("100"));
 	}
+
+	@Test
+	public void streamLines_sameAsReadLines() throws IOException
+	{
+		final Charset charset = StandardCharsets.UTF_8;
+		for (final String fileName : Arrays.asList("multiplelines.csv", "OnlyAppendIfInQuotesPreserveFirstLine.csv", "NumberOfEmptyLinesIsPreserved.csv", "evenNumberOfQuotes.csv", "regularlines.csv"))
+		{
+			final File file = FileUtils.toFile(getClass().getResource(packagePath + "/" + fileName));
+			assertNotNull("file null: " + fileName, file);
+
+			try (final Stream<String> lines = FileImportReader.streamLines(new FileInputStream(file), charset, true))
+			{
+				Assertions.assertThat(lines).as(fileName).containsExactlyElementsOf(FileImportReader.readMultiLines(file, charset));
+			}
+			try (final Stream<String> lines = FileImportReader.streamLines(new FileInputStream(file), charset, false))
+			{
+				Assertions.assertThat(lines).as(fileName).containsExactlyElementsOf(FileImportReader.readRegularLines(file, charset));
+			}
+		}
+	}
 }
@@ -0,0 +1,132 @@
+package de.metas.impexp.processing;
+
+import org.adempiere.exceptions.AdempiereException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class KeyOrderedParallelExecutorTest
+{
+	@Test
+	public void tasksWithSameKey_runInSubmitOrder()
+	{
+		final Map<String, List<Integer>> executedByKey = new ConcurrentHashMap<>();
+
+		try (final KeyOrderedParallelExecutor executor = KeyOrderedParallelExecutor.builder()
+				.threadNamePrefix("test")
+				.parallelism(4)
+				.maxTasksInFlight(10)
+				.build())
+		{
+			for (int i = 0; i < 1000; i++)
+			{
+				final String key = "key" + (i % 7);
+				final int taskNo = i;
+
+				executor.submit(key, () -> executedByKey.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(taskNo));
+			}
+
+			executor.awaitCompletion();
+		}
+
+		assertThat(executedByKey).hasSize(7);
+		executedByKey.forEach((key, taskNos) -> assertThat(taskNos).hasSize(1000 / 7 + (Integer.parseInt(key.substring(3)) < 1000 % 7 ? 1 : 0)).isSorted());
+	}
+
+	@Test
+	public void submit_blocksWhenMaxTasksInFlight() throws Exception
+	{
+		final CountDownLatch releaseFirstTask = new CountDownLatch(1);
+		final CountDownLatch thirdTaskSubmitted = new CountDownLatch(1);
+
+		try (final KeyOrderedParallelExecutor executor = KeyOrderedParallelExecutor.builder()
+				.threadNamePrefix("test")
+				.parallelism(1)
+				.maxTasksInFlight(2)
+				.build())
+		{
+			executor.submit("key", () -> await(releaseFirstTask));
+			executor.submit("key", () -> {});
+
+			final Thread submitter = new Thread(() -> {
+				executor.submit("key", () -> {});
+				thirdTaskSubmitted.countDown();
+			});
+			submitter.start();
+
+			assertThat(thirdTaskSubmitted.await(200, TimeUnit.MILLISECONDS)).isFalse();
+
+			releaseFirstTask.countDown();
+			assertThat(thirdTaskSubmitted.await(10, TimeUnit.SECONDS)).isTrue();
+
+			submitter.join();
+			executor.awaitCompletion();
+		}
+	}
+
+	private static void await(final CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		}
+		catch (final InterruptedException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex);
+		}
+	}
+
+	@Test
+	public void failedTask_skipsRemainingTasks()
+	{
+		final AtomicInteger executedCount = new AtomicInteger();
+
+		try (final KeyOrderedParallelExecutor executor = KeyOrderedParallelExecutor.builder()
+				.threadNamePrefix("test")
+				.parallelism(1)
+				.maxTasksInFlight(100)
+				.build())
+		{
+			executor.submit("key", () -> {
+				throw new AdempiereException("task failed");
+			});
+			executor.submit("key", executedCount::incrementAndGet);
+
+			assertThatThrownBy(executor::awaitCompletion).hasMessageContaining("task failed");
+		}
+
+		assertThat(executedCount.get()).isZero();
+	}
+}
@@ -0,0 +1,138 @@
+package org.adempiere.ad.dao.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_Order;
+import org.compiere.util.TimeUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class KeysetPOBufferedIteratorTest
+{
+	@Test
+	public void buildSeekWhereClause_keyColumnOnly()
+	{
+		assertThat(KeysetPOBufferedIterator.buildSeekWhereClause(ImmutableList.of("C_Order_ID")))
+				.isEqualTo("C_Order_ID > ?");
+	}
+
+	@Test
+	public void buildSeekWhereClause_orderByColumnsAndKeyColumn()
+	{
+		assertThat(KeysetPOBufferedIterator.buildSeekWhereClause(ImmutableList.of("DateOrdered", "DocumentNo", "C_Order_ID")))
+				.isEqualTo("(DateOrdered, DocumentNo, C_Order_ID) > (?, ?, ?)");
+	}
+
+	@Nested
+	public class paging
+	{
+		private final List<I_C_Order> allOrders = new ArrayList<>();
+		private final List<List<Object>> requestedSeekValues = new ArrayList<>();
+
+		@BeforeEach
+		public void init()
+		{
+			AdempiereTestHelper.get().init();
+
+			// several orders share the same DateOrdered, also across page boundaries
+			for (int i = 0; i < 10; i++)
+			{
+				final I_C_Order order = InterfaceWrapperHelper.newInstance(I_C_Order.class);
+				order.setDateOrdered(TimeUtil.getDay(2022, 1, 1 + (i % 4)));
+				InterfaceWrapperHelper.saveRecord(order);
+				allOrders.add(order);
+			}
+			allOrders.sort(Comparator.comparing(I_C_Order::getDateOrdered).thenComparing(I_C_Order::getC_Order_ID));
+		}
+
+		/**
+		 * Mimics <code>WHERE (DateOrdered, C_Order_ID) > (?, ?) ORDER BY DateOrdered, C_Order_ID LIMIT ?</code>.
+		 */
+		private List<I_C_Order> loadPage(@Nullable final List<Object> lastKeysetValues, final int limit)
+		{
+			requestedSeekValues.add(lastKeysetValues);
+
+			return allOrders.stream()
+					.filter(order -> lastKeysetValues == null || isAfter(order, lastKeysetValues))
+					.limit(limit)
+					.collect(Collectors.toList());
+		}
+
+		private boolean isAfter(final I_C_Order order, final List<Object> lastKeysetValues)
+		{
+			final int dateOrderedCmp = order.getDateOrdered().compareTo((Timestamp)lastKeysetValues.get(0));
+			return dateOrderedCmp > 0
+					|| (dateOrderedCmp == 0 && order.getC_Order_ID() > (Integer)lastKeysetValues.get(1));
+		}
+
+		private List<I_C_Order> iterateAll(final int bufferSize)
+		{
+			final KeysetPOBufferedIterator<I_C_Order, I_C_Order> iterator = new KeysetPOBufferedIterator<>(
+					ImmutableList.of(I_C_Order.COLUMNNAME_DateOrdered, I_C_Order.COLUMNNAME_C_Order_ID),
+					this::loadPage);
+			iterator.setBufferSize(bufferSize);
+
+			final List<I_C_Order> result = new ArrayList<>();
+			iterator.forEachRemaining(result::add);
+			return result;
+		}
+
+		@Test
+		public void multiplePages_noRowRepeatedOrSkipped()
+		{
+			final List<I_C_Order> result = iterateAll(3);
+
+			assertThat(result).extracting(I_C_Order::getC_Order_ID)
+					.containsExactlyElementsOf(allOrders.stream().map(I_C_Order::getC_Order_ID).collect(Collectors.toList()))
+					.doesNotHaveDuplicates();
+
+			// 3 + 3 + 3 + 1 rows; the last page is not full, so no further page is loaded
+			assertThat(requestedSeekValues).hasSize(4);
+			assertThat(requestedSeekValues.get(0)).isNull();
+			final I_C_Order lastOfFirstPage = allOrders.get(2);
+			assertThat(requestedSeekValues.get(1)).containsExactly(lastOfFirstPage.getDateOrdered(), lastOfFirstPage.getC_Order_ID());
+		}
+
+		@Test
+		public void lastPageIsFull_emptyPageIsLoaded()
+		{
+			final List<I_C_Order> result = iterateAll(5);
+
+			assertThat(result).hasSize(10).doesNotHaveDuplicates();
+			assertThat(requestedSeekValues).hasSize(3);
+		}
+	}
+}
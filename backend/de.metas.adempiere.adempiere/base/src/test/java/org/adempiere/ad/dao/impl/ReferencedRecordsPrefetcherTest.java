@@ -0,0 +1,175 @@
+package org.adempiere.ad.dao.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import de.metas.util.Services;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.I_C_OrderLine;
+import org.compiere.model.PO;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ReferencedRecordsPrefetcherTest
+{
+	private static final ImmutableMap<String, String> REFERENCED_TABLE_NAMES = ImmutableMap.of(
+			"C_Order_ID", "C_Order",
+			"M_Product_ID", "M_Product",
+			"Ref_OrderLine_ID", "C_OrderLine");
+
+	private String trxName;
+
+	/**
+	 * Record IDs which were requested from database, per call
+	 */
+	private final List<Map.Entry<String, Set<Integer>>> loadRequests = new ArrayList<>();
+	/**
+	 * Record IDs which "exist" in database, per table
+	 */
+	private final Map<String, Set<Integer>> existingRecordIds = new LinkedHashMap<>();
+	private final List<PO> cachedRecords = new ArrayList<>();
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		trxName = Services.get(ITrxManager.class).createTrxName("ReferencedRecordsPrefetcherTest", true);
+	}
+
+	private ReferencedRecordsPrefetcher prefetcher(final String trxName, final String... columnNames)
+	{
+		return new ReferencedRecordsPrefetcher(
+				Env.getCtx(),
+				I_C_OrderLine.Table_Name,
+				ImmutableList.copyOf(columnNames),
+				trxName,
+				(tableName, columnName) -> REFERENCED_TABLE_NAMES.get(columnName),
+				(ctx, tableName, recordIds, trxNameParam) -> {
+					loadRequests.add(Maps.immutableEntry(tableName, recordIds));
+					final Set<Integer> existing = existingRecordIds.getOrDefault(tableName, ImmutableSet.of());
+					return recordIds.stream()
+							.filter(existing::contains)
+							.map(recordId -> mock(PO.class))
+							.collect(ImmutableList.toImmutableList());
+				},
+				this::addToCache);
+	}
+
+	private void addToCache(final Collection<PO> records)
+	{
+		cachedRecords.addAll(records);
+	}
+
+	private static I_C_OrderLine orderLine(final int orderId, final int productId, final int refOrderLineId)
+	{
+		final I_C_OrderLine orderLine = newInstance(I_C_OrderLine.class);
+		orderLine.setC_Order_ID(orderId);
+		orderLine.setM_Product_ID(productId);
+		orderLine.setRef_OrderLine_ID(refOrderLineId);
+		saveRecord(orderLine);
+		return orderLine;
+	}
+
+	@Test
+	public void oneQueryPerReferencedTable_andLoadedRecordsAreCached()
+	{
+		existingRecordIds.put("C_Order", ImmutableSet.of(10, 20));
+		existingRecordIds.put("M_Product", ImmutableSet.of(100, 200));
+
+		final List<I_C_OrderLine> orderLines = ImmutableList.of(
+				orderLine(10, 100, 0),
+				orderLine(10, 200, 0),
+				orderLine(20, 100, 0));
+
+		prefetcher(trxName, "C_Order_ID", "M_Product_ID").prefetch(orderLines);
+
+		assertThat(loadRequests)
+				.extracting(Map.Entry::getKey)
+				.containsExactly("C_Order", "M_Product");
+		assertThat(loadRequests)
+				.extracting(Map.Entry::getValue)
+				.containsExactly(ImmutableSet.of(10, 20), ImmutableSet.of(100, 200));
+
+		assertThat(cachedRecords).hasSize(4);
+	}
+
+	@Test
+	public void nullAndMissingReferences()
+	{
+		existingRecordIds.put("C_Order", ImmutableSet.of(10));
+
+		final List<I_C_OrderLine> orderLines = ImmutableList.of(
+				orderLine(10, 0, 0),
+				orderLine(999, 0, 0)); // C_Order 999 does not exist
+
+		prefetcher(trxName, "C_Order_ID", "Ref_OrderLine_ID").prefetch(orderLines);
+
+		// no query for Ref_OrderLine_ID, because it's not set
+		assertThat(loadRequests).hasSize(1);
+		assertThat(loadRequests.get(0).getKey()).isEqualTo("C_Order");
+		assertThat(loadRequests.get(0).getValue()).containsExactly(10, 999);
+
+		// only the existing record is cached; the missing one is loaded (and not found) again when it's needed
+		assertThat(cachedRecords).hasSize(1);
+	}
+
+	@Test
+	public void columnWithoutReference_fails()
+	{
+		final List<I_C_OrderLine> orderLines = ImmutableList.of(orderLine(10, 100, 0));
+
+		assertThatThrownBy(() -> prefetcher(trxName, "Description").prefetch(orderLines))
+				.isInstanceOf(AdempiereException.class)
+				.hasMessageContaining("C_OrderLine.Description");
+	}
+
+	@Test
+	public void noActiveTrx_nothingIsPrefetched()
+	{
+		final List<I_C_OrderLine> orderLines = ImmutableList.of(orderLine(10, 100, 0));
+
+		prefetcher(ITrx.TRXNAME_None, "C_Order_ID").prefetch(orderLines);
+
+		assertThat(loadRequests).isEmpty();
+		assertThat(cachedRecords).isEmpty();
+	}
+}
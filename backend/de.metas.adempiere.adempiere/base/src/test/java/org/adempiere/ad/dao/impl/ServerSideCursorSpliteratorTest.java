@@ -0,0 +1,130 @@
+package org.adempiere.ad.dao.impl;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Matchers;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ServerSideCursorSpliteratorTest
+{
+	private Connection connection;
+	private ResultSet rs;
+
+	@BeforeEach
+	public void init() throws SQLException
+	{
+		AdempiereTestHelper.get().init();
+
+		rs = mock(ResultSet.class);
+		when(rs.next()).thenReturn(true, true, true, false);
+		when(rs.getInt(1)).thenReturn(1, 2, 3);
+
+		final PreparedStatement pstmt = mock(PreparedStatement.class);
+		when(pstmt.executeQuery()).thenReturn(rs);
+
+		connection = mock(Connection.class);
+		when(connection.prepareStatement(Matchers.anyString(), Matchers.anyInt(), Matchers.anyInt())).thenReturn(pstmt);
+	}
+
+	/**
+	 * Out of trx, so the dedicated connection is used.
+	 */
+	private Stream<Integer> stream(final int maxRows)
+	{
+		return ServerSideCursorSpliterator.stream(
+				"SELECT ...",
+				ImmutableList.of(),
+				ITrx.TRXNAME_None,
+				100,
+				maxRows,
+				resultSet -> resultSet.getInt(1),
+				() -> connection);
+	}
+
+	@Test
+	public void fullConsumption_releasesConnectionWhenExhausted() throws SQLException
+	{
+		final List<Integer> result = stream(0).collect(Collectors.toList());
+
+		assertThat(result).containsExactly(1, 2, 3);
+		verify(connection).close();
+		verify(rs).close();
+	}
+
+	@Test
+	public void limitedConsumption_releasesConnectionAfterLastRow() throws SQLException
+	{
+		final Stream<Integer> stream = stream(2);
+		final List<Integer> result = stream.collect(Collectors.toList());
+
+		assertThat(result).containsExactly(1, 2);
+		verify(connection).close();
+		verify(rs, times(2)).next(); // no further row is fetched
+
+		stream.close();
+		verify(connection).close(); // still once
+	}
+
+	@Test
+	public void shortCircuitedConsumption_releasesConnectionWhenStreamIsClosed() throws SQLException
+	{
+		final Optional<Integer> first;
+		try (final Stream<Integer> stream = stream(0))
+		{
+			first = stream.findFirst();
+			verify(connection, never()).close();
+		}
+
+		assertThat(first).contains(1);
+		verify(connection).close();
+		verify(connection).rollback();
+	}
+
+	@Test
+	public void notConsumed_doesNotOpenConnection() throws SQLException
+	{
+		stream(0).close();
+
+		verify(connection, never()).prepareStatement(Matchers.anyString(), Matchers.anyInt(), Matchers.anyInt());
+	}
+}
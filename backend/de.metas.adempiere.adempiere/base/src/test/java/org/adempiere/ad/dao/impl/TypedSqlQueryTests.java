@@ -68,6 +68,23 @@ public class TypedSqlQueryTests
 						")");
 	}
 
+	@Test
+	public void copyAndAddWhereClause()
+	{
+		final TypedSqlQuery<I_C_OrderLine> query = new TypedSqlQuery<>(new Properties(), I_C_OrderLine.class, "M_Product_ID=?", ITrx.TRXNAME_None)
+				.setParameters(1000002);
+
+		final TypedSqlQuery<I_C_OrderLine> queryCopy = query.copyAndAddWhereClause("C_OrderLine_ID > ?", Arrays.asList(540001));
+
+		assertThat(queryCopy.buildSQL("avoidDBConnection", null, null/* groupByClause */, true))
+				.isEqualToIgnoringWhitespace("avoidDBConnection FROM C_OrderLine WHERE ((M_Product_ID=?) AND (C_OrderLine_ID > ?))");
+		assertThat(queryCopy.getParametersEffective()).containsExactly(1000002, 540001);
+
+		// the original query is not changed
+		assertThat(query.getWhereClause()).isEqualTo("M_Product_ID=?");
+		assertThat(query.getParametersEffective()).containsExactly(1000002);
+	}
+
 	@Nested
 	public class inlineSqlParameters
 	{
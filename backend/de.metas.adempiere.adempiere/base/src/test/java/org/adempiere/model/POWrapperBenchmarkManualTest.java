@@ -0,0 +1,160 @@
+package org.adempiere.model;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.compiere.Adempiere;
+import org.compiere.model.I_C_Order;
+import org.compiere.model.PO;
+import org.compiere.model.X_C_Order;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.Disabled;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Compares the model interface access through the {@link POWrapper} proxy with the generated model class ({@link X_C_Order}) and with accessing the PO directly by column index.
+ * <p>
+ * Needs a running database (connection settings like for any other metasfresh server), because the POs need their POInfo. Nothing is saved.
+ * The system properties <code>WarmupIterations</code> and <code>Iterations</code> can be used to change the number of iterations per thread.
+ */
+@Disabled
+public class POWrapperBenchmarkManualTest
+{
+	private static final int DEFAULT_WarmupIterations = 200_000;
+	private static final int DEFAULT_Iterations = 2_000_000;
+	private static final int[] THREAD_COUNTS = { 1, 4, 8 };
+
+	/**
+	 * Prevents the JIT from optimizing away the benchmarked code.
+	 */
+	private static volatile long sink = 0;
+
+	public static void main(final String[] args) throws Exception
+	{
+		Adempiere.startupEnvironment(false);
+
+		final int warmupIterations = Integer.getInteger("WarmupIterations", DEFAULT_WarmupIterations);
+		final int iterations = Integer.getInteger("Iterations", DEFAULT_Iterations);
+		final Properties ctx = Env.getCtx();
+
+		final Supplier<Runnable> proxy = () -> {
+			final I_C_Order order = POWrapper.create(new GenericPO(I_C_Order.Table_Name, ctx, 0, ITrx.TRXNAME_None), I_C_Order.class);
+			return () -> accessModel(order);
+		};
+		final Supplier<Runnable> generated = () -> {
+			final I_C_Order order = new X_C_Order(ctx, 0, ITrx.TRXNAME_None);
+			return () -> accessModel(order);
+		};
+		final Supplier<Runnable> columnIndex = () -> {
+			final PO po = new GenericPO(I_C_Order.Table_Name, ctx, 0, ITrx.TRXNAME_None);
+			return () -> accessPO(po);
+		};
+
+		for (final int threadCount : THREAD_COUNTS)
+		{
+			run("POWrapper proxy", proxy, threadCount, warmupIterations, iterations);
+			run("generated X_C_Order", generated, threadCount, warmupIterations, iterations);
+			run("PO by column index", columnIndex, threadCount, warmupIterations, iterations);
+		}
+
+		System.out.println("sink=" + sink);
+	}
+
+	private static void accessModel(final I_C_Order order)
+	{
+		order.setDescription("Description");
+		order.setC_BPartner_ID(1234);
+		sink += order.getC_BPartner_ID()
+				+ order.getDescription().length()
+				+ order.getC_DocTypeTarget_ID()
+				+ order.getGrandTotal().signum()
+				+ (order.isSOTrx() ? 1 : 0);
+	}
+
+	private static void accessPO(final PO po)
+	{
+		final int descriptionIdx = po.get_ColumnIndex(I_C_Order.COLUMNNAME_Description);
+		final int bpartnerIdx = po.get_ColumnIndex(I_C_Order.COLUMNNAME_C_BPartner_ID);
+
+		po.set_ValueOfColumn(I_C_Order.COLUMNNAME_Description, "Description");
+		po.set_ValueOfColumn(I_C_Order.COLUMNNAME_C_BPartner_ID, 1234);
+		sink += po.get_ValueAsInt(bpartnerIdx)
+				+ ((String)po.get_Value(descriptionIdx)).length()
+				+ po.get_ValueAsBigDecimal(I_C_Order.COLUMNNAME_GrandTotal).signum()
+				+ po.get_ValueAsInt(po.get_ColumnIndex(I_C_Order.COLUMNNAME_C_DocTypeTarget_ID))
+				+ (po.get_ValueAsBoolean(I_C_Order.COLUMNNAME_IsSOTrx) ? 1 : 0);
+	}
+
+	private static void run(
+			final String name,
+			final Supplier<Runnable> accessorFactory,
+			final int threadCount,
+			final int warmupIterations,
+			final int iterations) throws Exception
+	{
+		final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try
+		{
+			final List<Future<Long>> futures = new ArrayList<>();
+			for (int i = 0; i < threadCount; i++)
+			{
+				futures.add(executor.submit(() -> {
+					final Runnable accessor = accessorFactory.get();
+					for (int j = 0; j < warmupIterations; j++)
+					{
+						accessor.run();
+					}
+
+					final long start = System.nanoTime();
+					for (int j = 0; j < iterations; j++)
+					{
+						accessor.run();
+					}
+					return System.nanoTime() - start;
+				}));
+			}
+
+			long durationNanos = 0;
+			for (final Future<Long> future : futures)
+			{
+				durationNanos += future.get();
+			}
+
+			System.out.printf("%-24s threads=%2d %7.1f ns/iteration%n",
+					name,
+					threadCount,
+					(double)durationNanos / ((long)iterations * threadCount));
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+}
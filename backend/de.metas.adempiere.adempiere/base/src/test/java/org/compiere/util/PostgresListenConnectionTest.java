@@ -0,0 +1,101 @@
+package org.compiere.util;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PostgresListenConnectionTest
+{
+	private Connection connection;
+	private Statement stmt;
+	private PGConnection pgConnection;
+
+	@BeforeEach
+	public void init() throws SQLException
+	{
+		stmt = mock(Statement.class);
+		pgConnection = mock(PGConnection.class);
+
+		connection = mock(Connection.class);
+		when(connection.createStatement()).thenReturn(stmt);
+		when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+	}
+
+	private static PGNotification notification(final String payload)
+	{
+		final PGNotification notification = mock(PGNotification.class);
+		when(notification.getParameter()).thenReturn(payload);
+		return notification;
+	}
+
+	@Test
+	public void toTimeoutMillis_neverZero()
+	{
+		// pgjdbc's getNotifications(0) would block forever
+		assertThat(PostgresListenConnection.toTimeoutMillis(Duration.ZERO)).isEqualTo(1);
+		assertThat(PostgresListenConnection.toTimeoutMillis(Duration.ofNanos(500))).isEqualTo(1);
+		assertThat(PostgresListenConnection.toTimeoutMillis(Duration.ofSeconds(10))).isEqualTo(10000);
+		assertThat(PostgresListenConnection.toTimeoutMillis(Duration.ofDays(100))).isEqualTo(Integer.MAX_VALUE);
+	}
+
+	@Test
+	public void waitForNotifications() throws SQLException
+	{
+		when(pgConnection.getNotifications(1)).thenReturn(new PGNotification[] { notification("1"), notification(null) });
+		when(pgConnection.getNotifications(1000)).thenReturn(null);
+
+		try (final PostgresListenConnection listenConnection = PostgresListenConnection.listen(connection, "my_channel"))
+		{
+			verify(stmt).execute("LISTEN my_channel");
+
+			assertThat(listenConnection.waitForNotifications(Duration.ZERO)).containsExactly("1", "");
+			assertThat(listenConnection.waitForNotifications(Duration.ofSeconds(1))).isEmpty();
+		}
+
+		verify(stmt).execute("UNLISTEN *");
+		verify(connection).close();
+	}
+
+	@Test
+	public void listenFails_connectionIsClosed() throws SQLException
+	{
+		when(stmt.execute("LISTEN my_channel")).thenThrow(new SQLException("test"));
+
+		assertThatThrownBy(() -> PostgresListenConnection.listen(connection, "my_channel"))
+				.isInstanceOf(SQLException.class);
+		verify(connection).close();
+	}
+}
@@ -0,0 +1,165 @@
+package org.compiere.util;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TableIdBlockAllocatorTest
+{
+	private final TableIdBlockAllocator allocator = TableIdBlockAllocator.instance;
+
+	/**
+	 * Simulates a sequence which is advanced by the requested count on each reservation.
+	 */
+	private static class MockedSequence implements TableIdBlockAllocator.IdBlockRetriever
+	{
+		private final AtomicInteger currentNext = new AtomicInteger(1000000);
+		private final AtomicInteger reservationsCount = new AtomicInteger(0);
+
+		@Override
+		public List<Integer> retrieveIds(final int count)
+		{
+			reservationsCount.incrementAndGet();
+			final int firstId = currentNext.getAndAdd(count);
+			return IntStream.range(firstId, firstId + count).boxed().collect(ImmutableList.toImmutableList());
+		}
+	}
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		allocator.reset();
+	}
+
+	@Test
+	public void getBlockSize()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		assertThat(allocator.getBlockSize("M_HU")).isEqualTo(0);
+
+		sysConfigBL.setValue(TableIdBlockAllocator.SYSCONFIG_BlockSize, 100, ClientId.SYSTEM, OrgId.ANY);
+		sysConfigBL.setValue(TableIdBlockAllocator.SYSCONFIG_BlockSize + ".M_HU", 1000, ClientId.SYSTEM, OrgId.ANY);
+		assertThat(allocator.getBlockSize("M_HU")).isEqualTo(1000);
+		assertThat(allocator.getBlockSize("C_Order")).isEqualTo(100);
+	}
+
+	@Test
+	public void idsAreHandedOutFromReservedBlocks()
+	{
+		final MockedSequence sequence = new MockedSequence();
+
+		final List<Integer> ids = IntStream.range(0, 25)
+				.mapToObj(i -> allocator.nextId("M_HU_SEQ", 10, sequence))
+				.collect(Collectors.toList());
+
+		assertThat(ids).isEqualTo(IntStream.range(1000000, 1000025).boxed().collect(Collectors.toList()));
+		assertThat(sequence.reservationsCount).hasValue(3);
+	}
+
+	@Test
+	public void reset_losesRemainingIds()
+	{
+		final MockedSequence sequence = new MockedSequence();
+		assertThat(allocator.nextId("M_HU_SEQ", 10, sequence)).isEqualTo(1000000);
+
+		allocator.reset();
+
+		assertThat(allocator.nextId("M_HU_SEQ", 10, sequence)).isEqualTo(1000010);
+	}
+
+	@Test
+	public void sequencesDoNotShareBlocks()
+	{
+		final MockedSequence sequence1 = new MockedSequence();
+		final MockedSequence sequence2 = new MockedSequence();
+
+		assertThat(allocator.nextId("M_HU_SEQ", 10, sequence1)).isEqualTo(1000000);
+		assertThat(allocator.nextId("M_HU_Item_SEQ", 10, sequence2)).isEqualTo(1000000);
+		assertThat(allocator.nextId("M_HU_SEQ", 10, sequence1)).isEqualTo(1000001);
+	}
+
+	@Test
+	public void noIdsReserved()
+	{
+		assertThatThrownBy(() -> allocator.nextId("M_HU_SEQ", 10, count -> ImmutableList.of()))
+				.isInstanceOf(AdempiereException.class);
+	}
+
+	@Test
+	public void concurrentThreads_getUniqueIds() throws Exception
+	{
+		final MockedSequence sequence = new MockedSequence();
+		final int threadsCount = 8;
+		final int idsPerThread = 10000;
+		final Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < threadsCount; i++)
+			{
+				futures.add(executor.submit(() -> {
+					for (int j = 0; j < idsPerThread; j++)
+					{
+						ids.add(allocator.nextId("M_HU_SEQ", 100, sequence));
+					}
+				}));
+			}
+			for (final Future<?> future : futures)
+			{
+				future.get();
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+
+		assertThat(ids).hasSize(threadsCount * idsPerThread);
+		assertThat(sequence.reservationsCount).hasValue(threadsCount * idsPerThread / 100);
+	}
+}
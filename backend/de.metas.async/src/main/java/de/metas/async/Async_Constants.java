@@ -77,4 +77,15 @@ public final class Async_Constants
 	public static final String SYS_Config_SKIP_WP_PROCESSOR_FOR_AUTOMATION = "SKIP_WP_PROCESSOR_FOR_AUTOMATION";
 	public static final String SYS_Config_WaitTimeOutMS = "de.metas.async.AsyncBatchObserver.WaitTimeOutMS";
 	public static final int SYS_Config_WaitTimeOutMS_DEFAULT_VALUE = 1000 * 60 * 5;
+
+	/**
+	 * If <code>Y</code>, then each workpackage that is marked as ready for processing also triggers a postgres <code>NOTIFY</code> on {@link #PG_NOTIFY_CHANNEL_WorkpackageReady},
+	 * and the queue processor planner is woken up by it instead of waiting for its next poll.
+	 */
+	public static final String SYS_Config_NotifyOnReadyForProcessing = "de.metas.async.NotifyOnReadyForProcessing";
+
+	/**
+	 * Postgres notification channel; the payload is the <code>C_Queue_Processor_ID</code> of the queue to which the workpackage was enqueued.
+	 */
+	public static final String PG_NOTIFY_CHANNEL_WorkpackageReady = "c_queue_workpackage_ready";
 }
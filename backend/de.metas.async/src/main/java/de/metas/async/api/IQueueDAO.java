@@ -30,6 +30,7 @@ import de.metas.async.model.I_C_Queue_Processor;
 import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.async.model.I_C_Queue_WorkPackage_Notified;
 import de.metas.async.processor.QueuePackageProcessorId;
+import de.metas.async.processor.QueueProcessorId;
 import de.metas.async.spi.IWorkpackageProcessor;
 import de.metas.util.ISingletonService;
 import org.adempiere.ad.dao.IQueryBuilder;
@@ -136,4 +137,11 @@ public interface IQueueDAO extends ISingletonService
 	List<I_C_Queue_WorkPackage> retrieveUnprocessedWorkPackagesByEnqueuedRecord(Class<? extends IWorkpackageProcessor> packageProcessorClass, TableRecordReference recordRef);
 
 	int assignAsyncBatchForProcessing(Set<QueuePackageProcessorId> queuePackageProcessorId, AsyncBatchId asyncBatchId);
+
+	/**
+	 * Notifies all listening queue processor planners (on any node) that a workpackage for the given queue processor became ready for processing.
+	 * <p>
+	 * NOTE: if the given transaction is not null, the notification is delivered only when that transaction is committed.
+	 */
+	void notifyReadyForProcessing(QueueProcessorId queueProcessorId, String trxName);
 }
@@ -181,6 +181,14 @@ public interface IWorkPackageQueue
 
 	Optional<IQuery<I_C_Queue_WorkPackage>> createQuery(Properties workPackageCtx, QueryLimit limit);
 
+	/**
+	 * Retrieves and locks up to <code>limit</code> workpackages which are ready for processing, using one single SQL statement.
+	 * Workpackages that are concurrently claimed by other nodes are skipped, so multiple nodes can drain the same queue without contending for the same workpackages.
+	 *
+	 * @return locked workpackages; they need to be unlocked by the caller, like the ones retrieved via {@link de.metas.lock.api.ILockManager#retrieveAndLockMultipleRecords(IQuery, Class)}
+	 */
+	List<I_C_Queue_WorkPackage> claimWorkPackages(Properties workPackageCtx, QueryLimit limit);
+
 	Set<QueuePackageProcessorId> getQueuePackageProcessorIds();
 
 	QueueProcessorId getQueueProcessorId();
@@ -30,6 +30,7 @@ import de.metas.async.model.I_C_Queue_Processor;
 import de.metas.async.model.I_C_Queue_Processor_Assign;
 import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.async.processor.QueuePackageProcessorId;
+import de.metas.async.processor.QueueProcessorId;
 import de.metas.common.util.time.SystemTime;
 import de.metas.logging.LogManager;
 import de.metas.util.Services;
@@ -168,6 +169,12 @@ public class PlainQueueDAO extends AbstractQueueDAO
 				.setOrderBy(queueOrderByComparator);
 	}
 
+	@Override
+	public void notifyReadyForProcessing(@NonNull final QueueProcessorId queueProcessorId, final String trxName)
+	{
+		// nothing to notify; there is no database in here
+	}
+
 	private static class QueueFilter implements IQueryFilter<I_C_Queue_WorkPackage>
 	{
 		private final IWorkPackageQuery packageQuery;
@@ -23,6 +23,7 @@
 package de.metas.async.api.impl;
 
 import com.google.common.collect.ImmutableSet;
+import de.metas.async.Async_Constants;
 import de.metas.async.api.IWorkPackageQuery;
 import de.metas.async.exceptions.PackageItemNotAvailableException;
 import de.metas.async.model.I_C_Queue_Element;
@@ -31,6 +32,7 @@ import de.metas.async.model.I_C_Queue_Processor;
 import de.metas.async.model.I_C_Queue_Processor_Assign;
 import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.async.processor.QueuePackageProcessorId;
+import de.metas.async.processor.QueueProcessorId;
 import de.metas.cache.annotation.CacheCtx;
 import de.metas.cache.annotation.CacheTrx;
 import de.metas.logging.LogManager;
@@ -242,4 +244,12 @@ public class QueueDAO extends AbstractQueueDAO
 				.setOrderBy(queueOrderByComparator.getSql());
 
 	}
+
+	@Override
+	public void notifyReadyForProcessing(@NonNull final QueueProcessorId queueProcessorId, final String trxName)
+	{
+		DB.executeFunctionCallEx(trxName,
+								 "SELECT pg_notify(?,?)",
+								 new Object[] { Async_Constants.PG_NOTIFY_CHANNEL_WorkpackageReady, String.valueOf(queueProcessorId.getRepoId()) });
+	}
 }
@@ -22,6 +22,7 @@ package de.metas.async.api.impl;
  * #L%
  */
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import de.metas.async.AsyncBatchId;
 import de.metas.async.Async_Constants;
@@ -69,6 +70,7 @@ import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.IQuery;
 import org.compiere.util.Env;
@@ -94,6 +96,7 @@ public class WorkPackageQueue implements IWorkPackageQueue
 	private final transient IWorkpackageProcessorFactory workpackageProcessorFactory = Services.get(IWorkpackageProcessorFactory.class);
 	private final transient IQueueProcessorFactory queueProcessorFactory = Services.get(IQueueProcessorFactory.class);
 	private final transient QueueProcessorDescriptorRepository queueProcessorDescriptorRepository = QueueProcessorDescriptorRepository.getInstance();
+	private final transient ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 
 	private final Properties ctx;
 	private final ImmutableSet<QueuePackageProcessorId> packageProcessorIds;
@@ -615,6 +618,12 @@ public class WorkPackageQueue implements IWorkPackageQueue
 				workPackage.setIsReadyForProcessing(true);
 				dao.save(workPackage);
 				logger.debug("C_Queue_WorkPackage.IsReadyForProcessing is now set to true");
+
+				// Wake up the planners; the notification is sent in the same trx as the save, so it's not delivered before the workpackage is visible to them
+				if (sysConfigBL.getBooleanValue(Async_Constants.SYS_Config_NotifyOnReadyForProcessing, false))
+				{
+					dao.notifyReadyForProcessing(queueProcessorId, InterfaceWrapperHelper.getTrxName(workPackage));
+				}
 				success = true;
 			}
 			finally
@@ -662,6 +671,15 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		return Optional.of(dao.createQuery(workPackageCtx, workPackageQuery));
 	}
 
+	@Override
+	@NonNull
+	public List<I_C_Queue_WorkPackage> claimWorkPackages(final Properties workPackageCtx, @NonNull final QueryLimit limit)
+	{
+		return createQuery(workPackageCtx, limit)
+				.map(query -> Services.get(ILockManager.class).retrieveAndLockMultipleRecordsSkipLocked(query, I_C_Queue_WorkPackage.class))
+				.orElseGet(ImmutableList::of);
+	}
+
 	@Override
 	public WorkPackageQueue setAsyncBatchIdForNewWorkpackages(final AsyncBatchId asyncBatchId)
 	{
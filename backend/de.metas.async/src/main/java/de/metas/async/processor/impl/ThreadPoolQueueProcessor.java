@@ -1,16 +1,20 @@
 package de.metas.async.processor.impl;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import de.metas.async.api.IWorkPackageQueue;
 import de.metas.async.api.IWorkpackageLogsRepository;
 import de.metas.async.processor.descriptor.model.QueueProcessorDescriptor;
 import de.metas.logging.LogManager;
+import de.metas.util.Services;
 import lombok.NonNull;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.concurrent.BlockingExecutorWrapper;
 import org.adempiere.util.concurrent.CustomizableThreadFactory;
 import org.slf4j.Logger;
 
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
@@ -22,6 +26,16 @@ public class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 	/** we don't have LogManager in the executor's package, so we create the logger here and inject it when creating the executor. */
 	private static final Logger loggerForExecutor = LogManager.getLogger(BlockingExecutorWrapper.class);
 
+	/**
+	 * If greater than zero, each workpackage runs in its own thread, and this is the max number of workpackages which run concurrently, instead of the processor's pool size.
+	 * The threads are started on demand and discarded when idle, so the processor doesn't hold a fixed pool.
+	 * Meant for processors whose workpackages are mostly waiting for the database or remote systems.
+	 * Can be set for one processor by appending <code>.processor_</code> and its C_Queue_Processor_ID.
+	 */
+	@VisibleForTesting
+	static final String SYSCONFIG_MaxConcurrency = "de.metas.async.ThreadPoolQueueProcessor.MaxConcurrency";
+	private static final long DEFAULT_ThreadPerTask_KeepAliveTimeMillis = 60 * 1000;
+
 	private final String name;
 	private final BlockingExecutorWrapper executor;
 	private final ReentrantLock shutdownLock = new ReentrantLock();
@@ -42,29 +56,74 @@ public class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 					.setDaemon(true)
 					.build();
 
-			// About threadPoolQueue: we must be able to hold max 1 runnable for each thread of the pool,
-			// because within BlockingExecutorWrapper the semaphore is released by the runnable before it's done.
-			// That means that the next runnable can be submitted before the runnable "really" made place within the thread pool.
-			// That means we need to be able to enqueue the next runnable.
-			final ArrayBlockingQueue<Runnable> threadPoolQueue = new ArrayBlockingQueue<>(config.getPoolSize());
-			final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(config.getPoolSize()/*corePoolSize*/,
-					config.getPoolSize(),
-					config.getKeepAliveTimeMillis(),
-					TimeUnit.MILLISECONDS,
-					threadPoolQueue,
-					threadFactory);
-
-			// If we have a KeepAliveTimeMillis in processor definition, then we apply the timeout for core threads too
-			 threadPoolExecutor.allowCoreThreadTimeOut(config.getKeepAliveTimeMillis() > 0);
-
-			this.executor = BlockingExecutorWrapper.builder()
-					.delegate(threadPoolExecutor)
-					.loggerToUse(loggerForExecutor)
-					.poolSize(config.getPoolSize())
-					.build();
+			final int maxConcurrency = getMaxConcurrency(config);
+			if (maxConcurrency > 0)
+			{
+				this.executor = BlockingExecutorWrapper.builder()
+						.delegate(createThreadPerTaskExecutor(config, threadFactory))
+						.loggerToUse(loggerForExecutor)
+						.maxConcurrency(maxConcurrency)
+						.build();
+				logger.info("Queue processor {} runs each workpackage in its own thread, with maxConcurrency={}", name, maxConcurrency);
+			}
+			else
+			{
+				this.executor = BlockingExecutorWrapper.builder()
+						.delegate(createFixedThreadPoolExecutor(config, threadFactory))
+						.loggerToUse(loggerForExecutor)
+						.maxConcurrency(config.getPoolSize())
+						.build();
+			}
 		}
 	}
 
+	private static int getMaxConcurrency(@NonNull final QueueProcessorDescriptor config)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+		final int standardValue = sysConfigBL.getIntValue(SYSCONFIG_MaxConcurrency, -1);
+		return sysConfigBL.getIntValue(SYSCONFIG_MaxConcurrency + ".processor_" + config.getQueueProcessorId().getRepoId(), standardValue);
+	}
+
+	private static ThreadPoolExecutor createFixedThreadPoolExecutor(
+			@NonNull final QueueProcessorDescriptor config,
+			@NonNull final CustomizableThreadFactory threadFactory)
+	{
+		// About threadPoolQueue: we must be able to hold max 1 runnable for each thread of the pool,
+		// because within BlockingExecutorWrapper the semaphore is released by the runnable before it's done.
+		// That means that the next runnable can be submitted before the runnable "really" made place within the thread pool.
+		// That means we need to be able to enqueue the next runnable.
+		final ArrayBlockingQueue<Runnable> threadPoolQueue = new ArrayBlockingQueue<>(config.getPoolSize());
+		final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(config.getPoolSize()/*corePoolSize*/,
+				config.getPoolSize(),
+				config.getKeepAliveTimeMillis(),
+				TimeUnit.MILLISECONDS,
+				threadPoolQueue,
+				threadFactory);
+
+		// If we have a KeepAliveTimeMillis in processor definition, then we apply the timeout for core threads too
+		threadPoolExecutor.allowCoreThreadTimeOut(config.getKeepAliveTimeMillis() > 0);
+
+		return threadPoolExecutor;
+	}
+
+	/**
+	 * Creates an executor which starts a thread for each task if there is no idle one.
+	 * The number of threads is limited by the {@link BlockingExecutorWrapper}'s semaphore, not by this executor.
+	 */
+	private static ThreadPoolExecutor createThreadPerTaskExecutor(
+			@NonNull final QueueProcessorDescriptor config,
+			@NonNull final CustomizableThreadFactory threadFactory)
+	{
+		final long keepAliveTimeMillis = config.getKeepAliveTimeMillis() > 0 ? config.getKeepAliveTimeMillis() : DEFAULT_ThreadPerTask_KeepAliveTimeMillis;
+		return new ThreadPoolExecutor(0/*corePoolSize*/,
+				Integer.MAX_VALUE,
+				keepAliveTimeMillis,
+				TimeUnit.MILLISECONDS,
+				new SynchronousQueue<>(),
+				threadFactory);
+	}
+
 	@Override
 	public String getName()
 	{
@@ -76,6 +135,12 @@ public class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 		return this.executor.hasAvailablePermits();
 	}
 
+	@Override
+	public int getAvailableCapacity()
+	{
+		return this.executor.getAvailablePermits();
+	}
+
 	@Override
 	public String toString()
 	{
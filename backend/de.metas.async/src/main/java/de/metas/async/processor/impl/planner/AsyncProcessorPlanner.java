@@ -23,17 +23,21 @@
 package de.metas.async.processor.impl.planner;
 
 import com.google.common.collect.ImmutableSet;
+import de.metas.async.Async_Constants;
 import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.async.processor.IQueueProcessor;
 import de.metas.async.processor.impl.AbstractQueueProcessor;
 import de.metas.async.processor.impl.ThreadPoolQueueProcessor;
 import de.metas.logging.LogManager;
+import de.metas.util.Services;
 import lombok.NonNull;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.concurrent.CustomizableThreadFactory;
 import org.slf4j.Logger;
 
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -43,15 +47,22 @@ public class AsyncProcessorPlanner extends QueueProcessorPlanner
 {
 	private static final Logger logger = LogManager.getLogger(QueueProcessorPlanner.class);
 
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
 	private ExecutorService plannerExecutorService = null;
 	private ExecutorService queueProcessorExecutorService = null;
 
+	private ExecutorService notificationListenerExecutorService = null;
+	private WorkPackageReadyNotificationListener notificationListener = null;
+
 	protected void startPlanner()
 	{
 		restartExecutorsIfTerminated();
 
 		isRunning.set(true);
 
+		startNotificationListenerIfEnabled();
+
 		this.plannerExecutorService.submit(this);
 	}
 
@@ -62,6 +73,8 @@ public class AsyncProcessorPlanner extends QueueProcessorPlanner
 			return;
 		}
 
+		stopNotificationListener();
+
 		shutdownExecutor(queueProcessorExecutorService);
 
 		isRunning.set(false);
@@ -88,6 +101,44 @@ public class AsyncProcessorPlanner extends QueueProcessorPlanner
 		return false;
 	}
 
+	@Override
+	protected boolean isNotificationModeActive()
+	{
+		final WorkPackageReadyNotificationListener notificationListener = this.notificationListener;
+		return notificationListener != null && notificationListener.isListening();
+	}
+
+	private void startNotificationListenerIfEnabled()
+	{
+		if (!sysConfigBL.getBooleanValue(Async_Constants.SYS_Config_NotifyOnReadyForProcessing, false))
+		{
+			return;
+		}
+
+		final ThreadFactory threadFactory = CustomizableThreadFactory.builder()
+				.setThreadNamePrefix("QueueProcessorPlanner-Notifications")
+				.setDaemon(true)
+				.build();
+
+		notificationListener = new WorkPackageReadyNotificationListener(this::wakeUp);
+		notificationListenerExecutorService = Executors.newSingleThreadExecutor(threadFactory);
+		notificationListenerExecutorService.submit(notificationListener);
+	}
+
+	private void stopNotificationListener()
+	{
+		if (notificationListener == null)
+		{
+			return;
+		}
+
+		notificationListener.stop();
+		shutdownExecutor(notificationListenerExecutorService);
+
+		notificationListener = null;
+		notificationListenerExecutorService = null;
+	}
+
 	private void restartExecutorsIfTerminated()
 	{
 		if (plannerExecutorService == null || plannerExecutorService.isTerminated())
@@ -22,6 +22,7 @@
 
 package de.metas.async.processor.impl.planner;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import de.metas.async.api.WorkPackageLockHelper;
 import de.metas.async.api.impl.WorkPackageQueue;
@@ -48,7 +49,9 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
@@ -59,11 +62,32 @@ public abstract class QueueProcessorPlanner implements Runnable
 	public final static String SYSCONFIG_POLLINTERVAL_MILLIS = "de.metas.async.PollIntervallMillis";
 	private final static int SYSCONFIG_POLLINTERVAL_DEFAULT_MS = 1000;
 
+	/**
+	 * Poll interval that is used while the planner is woken up by notifications (see {@link #isNotificationModeActive()}) and there were no workpackages to process.
+	 * Polling is then only a safety net, e.g. for workpackages whose skip-timeout has elapsed.
+	 */
+	public final static String SYSCONFIG_NOTIFICATION_FALLBACK_POLLINTERVAL_MILLIS = "de.metas.async.NotificationFallbackPollIntervalMillis";
+	private final static int SYSCONFIG_NOTIFICATION_FALLBACK_POLLINTERVAL_DEFAULT_MS = 30 * 1000;
+
+	/**
+	 * If <code>Y</code>, then each queue processor claims as many workpackages as it has capacity for, using <code>SELECT .. FOR UPDATE SKIP LOCKED</code>
+	 * (see {@link de.metas.async.api.IWorkPackageQueue#claimWorkPackages(Properties, QueryLimit)}).
+	 * Otherwise, one workpackage per processor is selected and then locked record by record.
+	 */
+	public final static String SYSCONFIG_CLAIM_SKIP_LOCKED = "de.metas.async.ClaimWorkPackagesSkipLocked";
+	public final static String SYSCONFIG_CLAIM_SKIP_LOCKED_MAX_BATCH_SIZE = "de.metas.async.ClaimWorkPackagesSkipLocked.MaxBatchSize";
+	private final static int SYSCONFIG_CLAIM_SKIP_LOCKED_MAX_BATCH_SIZE_DEFAULT = 100;
+
 	private final ILockManager lockManager = Services.get(ILockManager.class);
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
 
 	private final ReentrantLock mainLock = new ReentrantLock();
+
+	private final ReentrantLock wakeUpLock = new ReentrantLock();
+	private final Condition wakeUpCondition = wakeUpLock.newCondition();
+	private boolean wakeUpRequested = false;
+
 	protected final ConcurrentHashMap<QueueProcessorId, IQueueProcessor> queueProcessors;
 	protected final AtomicBoolean isRunning;
 
@@ -85,19 +109,16 @@ public abstract class QueueProcessorPlanner implements Runnable
 		{
 			try
 			{
-				final boolean successfulRun = runOnce();
+				final RunOnceResult runOnceResult = runOnce();
 
-				if (!successfulRun && isStopOnFailedRun())
+				if (!runOnceResult.isSuccessful() && isStopOnFailedRun())
 				{
 					logger.warn("*** QueueProcessorPlanner.run() -> last run was not successful & planner = {} has stopOnFailedRun policy; Shutting down...", this.getClass().getName());
 					shutdown();
 				}
 				else
 				{
-					// note: we always get the new value, because things might have changed since this method started
-					final int pollIntervalMs = getPollIntervalMillis();
-
-					Thread.sleep(pollIntervalMs);
+					waitBeforeNextRun(runOnceResult);
 				}
 			}
 			catch (final InterruptedException e)
@@ -149,6 +170,28 @@ public abstract class QueueProcessorPlanner implements Runnable
 		return Optional.ofNullable(queueProcessors.get(queueProcessorId));
 	}
 
+	/**
+	 * Wakes up the planner if it's currently waiting for its next run and if it has a processor with the given ID.
+	 */
+	public void wakeUp(@NonNull final QueueProcessorId queueProcessorId)
+	{
+		if (!queueProcessors.containsKey(queueProcessorId))
+		{
+			return;
+		}
+
+		wakeUpLock.lock();
+		try
+		{
+			wakeUpRequested = true;
+			wakeUpCondition.signalAll();
+		}
+		finally
+		{
+			wakeUpLock.unlock();
+		}
+	}
+
 	public void start()
 	{
 		mainLock.lock();
@@ -190,14 +233,15 @@ public abstract class QueueProcessorPlanner implements Runnable
 		}
 	}
 
-	private boolean runOnce()
+	@NonNull
+	private RunOnceResult runOnce()
 	{
 		final List<IQueueProcessor> availableProcessors = getQueueProcessorsAvailableToWork();
 
 		if (availableProcessors.isEmpty())
 		{
 			logger.debug("run0 - all processors are busy! Skipping...");
-			return false;
+			return RunOnceResult.NO_AVAILABLE_PROCESSORS;
 		}
 
 		final Properties workPackageCtx = Env.newTemporaryCtx();
@@ -206,10 +250,62 @@ public abstract class QueueProcessorPlanner implements Runnable
 		if (workPackages.isEmpty())
 		{
 			logger.debug("pollAndLockWorkpackages - returned no workPackage to be processed for availableProcessorIds={}", availableProcessors);
-			return false;
+			return RunOnceResult.NO_WORKPACKAGES;
 		}
 
-		return handleWorkPackages(workPackageCtx, workPackages);
+		final boolean handledAllWorkPackages = handleWorkPackages(workPackageCtx, workPackages);
+		return handledAllWorkPackages ? RunOnceResult.HANDLED_ALL_WORKPACKAGES : RunOnceResult.HANDLED_WITH_FAILURES;
+	}
+
+	private void waitBeforeNextRun(@NonNull final RunOnceResult runOnceResult) throws InterruptedException
+	{
+		// note: we always get the new value, because things might have changed since this method started
+		final int pollIntervalMs = getPollIntervalMillis();
+
+		if (!isNotificationModeActive())
+		{
+			Thread.sleep(pollIntervalMs);
+			return;
+		}
+
+		switch (runOnceResult)
+		{
+			case HANDLED_ALL_WORKPACKAGES:
+				// each processor only claimed up to its capacity, so there might be more workpackages waiting already;
+				// their notifications might have been consumed while we were busy, so we don't wait for another one
+				return;
+			case NO_WORKPACKAGES:
+				// we will be notified about new workpackages
+				waitForWakeUp(getNotificationFallbackPollIntervalMillis());
+				return;
+			default:
+				waitForWakeUp(pollIntervalMs);
+		}
+	}
+
+	/**
+	 * @return true if the planner was woken up, false if the timeout elapsed
+	 */
+	@VisibleForTesting
+	boolean waitForWakeUp(final int timeoutMs) throws InterruptedException
+	{
+		wakeUpLock.lock();
+		try
+		{
+			long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+			while (!wakeUpRequested && remainingNanos > 0)
+			{
+				remainingNanos = wakeUpCondition.awaitNanos(remainingNanos);
+			}
+
+			final boolean wokenUp = wakeUpRequested;
+			wakeUpRequested = false;
+			return wokenUp;
+		}
+		finally
+		{
+			wakeUpLock.unlock();
+		}
 	}
 
 	private boolean handleWorkPackages(@NonNull final Properties ctx, @NonNull final List<I_C_Queue_WorkPackage> workPackages)
@@ -256,6 +352,11 @@ public abstract class QueueProcessorPlanner implements Runnable
 	@NonNull
 	private List<I_C_Queue_WorkPackage> pollAndLockWorkPackages(@NonNull final Properties ctx, @NonNull final List<IQueueProcessor> queueProcessors)
 	{
+		if (sysConfigBL.getBooleanValue(SYSCONFIG_CLAIM_SKIP_LOCKED, false))
+		{
+			return claimWorkPackagesSkipLocked(ctx, queueProcessors);
+		}
+
 		final IQuery<I_C_Queue_WorkPackage> queueProcessorWPQueriesAggregator = queryBL.createQueryBuilder(I_C_Queue_WorkPackage.class)
 				//dev-note: workaround to be able to union multiple queries without applying 'limit' and 'order by' to the end result
 				.addEqualsFilter(I_C_Queue_WorkPackage.COLUMNNAME_C_Queue_WorkPackage_ID, -1)
@@ -282,6 +383,26 @@ public abstract class QueueProcessorPlanner implements Runnable
 		return lockManager.retrieveAndLockMultipleRecords(queueProcessorWPQueriesAggregator, I_C_Queue_WorkPackage.class);
 	}
 
+	@NonNull
+	private List<I_C_Queue_WorkPackage> claimWorkPackagesSkipLocked(@NonNull final Properties ctx, @NonNull final List<IQueueProcessor> queueProcessors)
+	{
+		final int maxBatchSize = sysConfigBL.getIntValue(SYSCONFIG_CLAIM_SKIP_LOCKED_MAX_BATCH_SIZE, SYSCONFIG_CLAIM_SKIP_LOCKED_MAX_BATCH_SIZE_DEFAULT);
+
+		final ImmutableList.Builder<I_C_Queue_WorkPackage> workPackages = ImmutableList.builder();
+		for (final IQueueProcessor queueProcessor : queueProcessors)
+		{
+			final int batchSize = Math.min(queueProcessor.getAvailableCapacity(), maxBatchSize);
+			if (batchSize <= 0)
+			{
+				continue;
+			}
+
+			workPackages.addAll(queueProcessor.getQueue().claimWorkPackages(ctx, QueryLimit.ofInt(batchSize)));
+		}
+
+		return workPackages.build();
+	}
+
 	@NonNull
 	private Optional<IQueueProcessor> getAvailableQueueProcessorForWorkPackage(@NonNull final QueuePackageProcessorId packageProcessorId)
 	{
@@ -309,6 +430,11 @@ public abstract class QueueProcessorPlanner implements Runnable
 		return sysConfigBL.getIntValue(SYSCONFIG_POLLINTERVAL_MILLIS, SYSCONFIG_POLLINTERVAL_DEFAULT_MS);
 	}
 
+	private int getNotificationFallbackPollIntervalMillis()
+	{
+		return sysConfigBL.getIntValue(SYSCONFIG_NOTIFICATION_FALLBACK_POLLINTERVAL_MILLIS, SYSCONFIG_NOTIFICATION_FALLBACK_POLLINTERVAL_DEFAULT_MS);
+	}
+
 	@NonNull
 	private List<IQueueProcessor> getQueueProcessorsAvailableToWork()
 	{
@@ -355,4 +481,26 @@ public abstract class QueueProcessorPlanner implements Runnable
 	protected abstract Set<Class<? extends AbstractQueueProcessor>> getSupportedQueueProcessors();
 
 	protected abstract boolean isStopOnFailedRun();
+
+	/**
+	 * @return true if this planner is currently woken up via {@link #wakeUp(QueueProcessorId)} whenever a workpackage becomes ready for processing.
+	 * In that case, the planner only polls as a safety net.
+	 */
+	protected boolean isNotificationModeActive()
+	{
+		return false;
+	}
+
+	private enum RunOnceResult
+	{
+		NO_AVAILABLE_PROCESSORS,
+		NO_WORKPACKAGES,
+		HANDLED_WITH_FAILURES,
+		HANDLED_ALL_WORKPACKAGES;
+
+		public boolean isSuccessful()
+		{
+			return this == HANDLED_ALL_WORKPACKAGES;
+		}
+	}
 }
@@ -0,0 +1,149 @@
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.async.processor.impl.planner;
+
+import com.google.common.annotations.VisibleForTesting;
+import de.metas.async.Async_Constants;
+import de.metas.async.processor.QueueProcessorId;
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+import org.compiere.util.PostgresListenConnection;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Holds one dedicated database connection which is <code>LISTEN</code>ing on {@link Async_Constants#PG_NOTIFY_CHANNEL_WorkpackageReady}
+ * and forwards the notified {@link QueueProcessorId}s to the given consumer.
+ * <p>
+ * If the connection breaks, the listener reconnects after a short delay. While it is not connected, {@link #isListening()} returns false,
+ * so that the planner can fall back to its regular poll interval.
+ */
+class WorkPackageReadyNotificationListener implements Runnable
+{
+	private static final Logger logger = LogManager.getLogger(WorkPackageReadyNotificationListener.class);
+
+	private static final Duration NOTIFICATIONS_TIMEOUT = Duration.ofSeconds(1);
+	private static final int RECONNECT_DELAY_MS = 5000;
+
+	private final Consumer<QueueProcessorId> onWorkPackageReady;
+
+	private final AtomicBoolean running = new AtomicBoolean(false);
+	private final AtomicBoolean listening = new AtomicBoolean(false);
+
+	WorkPackageReadyNotificationListener(@NonNull final Consumer<QueueProcessorId> onWorkPackageReady)
+	{
+		this.onWorkPackageReady = onWorkPackageReady;
+	}
+
+	public boolean isListening()
+	{
+		return running.get() && listening.get();
+	}
+
+	public void stop()
+	{
+		running.set(false);
+	}
+
+	@Override
+	public void run()
+	{
+		running.set(true);
+
+		while (running.get())
+		{
+			try
+			{
+				listen();
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("Listening on channel {} failed; retrying in {}ms", Async_Constants.PG_NOTIFY_CHANNEL_WorkpackageReady, RECONNECT_DELAY_MS, ex);
+				listening.set(false);
+
+				try
+				{
+					Thread.sleep(RECONNECT_DELAY_MS);
+				}
+				catch (final InterruptedException e)
+				{
+					logger.info("Got interrupt request; stop listening");
+					running.set(false);
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		listening.set(false);
+	}
+
+	private void listen() throws SQLException
+	{
+		try (final PostgresListenConnection connection = PostgresListenConnection.listen(Async_Constants.PG_NOTIFY_CHANNEL_WorkpackageReady))
+		{
+			listening.set(true);
+
+			while (running.get())
+			{
+				// blocks until either a notification arrived or the timeout elapsed
+				for (final String payload : connection.waitForNotifications(NOTIFICATIONS_TIMEOUT))
+				{
+					final QueueProcessorId queueProcessorId = extractQueueProcessorIdOrNull(payload);
+					if (queueProcessorId != null)
+					{
+						onWorkPackageReady.accept(queueProcessorId);
+					}
+				}
+			}
+		}
+		finally
+		{
+			listening.set(false);
+		}
+	}
+
+	@VisibleForTesting
+	@Nullable
+	static QueueProcessorId extractQueueProcessorIdOrNull(@Nullable final String payload)
+	{
+		if (payload == null || payload.isEmpty())
+		{
+			return null;
+		}
+
+		try
+		{
+			return QueueProcessorId.ofRepoIdOrNull(Integer.parseInt(payload.trim()));
+		}
+		catch (final NumberFormatException ex)
+		{
+			logger.warn("Ignoring notification with invalid payload: {}", payload);
+			return null;
+		}
+	}
+}
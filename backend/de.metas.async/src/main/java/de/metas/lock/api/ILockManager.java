@@ -153,6 +153,17 @@ public interface ILockManager extends ISingletonService
 
 	<T> List<T> retrieveAndLockMultipleRecords(IQuery<T> query, Class<T> clazz);
 
+	/**
+	 * Similar to {@link #retrieveAndLockMultipleRecords(IQuery, Class)}, but selects and locks the records in one single SQL statement.
+	 * Records that are currently claimed by a concurrent invocation of this method (e.g. on another cluster node) are skipped instead of contended for.
+	 * <p>
+	 * The locks are regular (owner-less) locks, so they are released with {@link #unlock(Object)} as usual.
+	 *
+	 * @param query the query to select the records to be locked; the query's limit specifies the maximum number of records that are locked. Unions are not supported.
+	 * @return the locked records, in the query's order
+	 */
+	<T> List<T> retrieveAndLockMultipleRecordsSkipLocked(IQuery<T> query, Class<T> clazz);
+
 	<T> IQuery<T> addNotLockedClause(IQuery<T> query);
 	
 	int removeAutoCleanupLocks();
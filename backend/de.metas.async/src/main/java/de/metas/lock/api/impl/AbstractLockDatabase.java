@@ -363,6 +363,18 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 		return lockedModels;
 	}
 
+	@Override
+	@NonNull
+	public final <T> List<T> retrieveAndLockMultipleRecordsSkipLocked(@NonNull final IQuery<T> query, @NonNull final Class<T> clazz)
+	{
+		final ILockCommand lockCommand = new LockCommand(this)
+				.setOwner(LockOwner.NONE);
+
+		return retrieveAndLockMultipleRecordsSkipLocked(lockCommand, query, clazz);
+	}
+
+	protected abstract <T> List<T> retrieveAndLockMultipleRecordsSkipLocked(ILockCommand lockCommand, IQuery<T> query, Class<T> clazz);
+
 	public <T> IQuery<T> addNotLockedClause(final IQuery<T> query)
 	{
 		return retrieveNotLockedQuery(query);
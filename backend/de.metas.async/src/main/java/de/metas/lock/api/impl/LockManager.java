@@ -179,6 +179,12 @@ public class LockManager implements ILockManager
 		return getLockDatabase().retrieveAndLockMultipleRecords(query, clazz);
 	}
 
+	@Override
+	public <T> List<T> retrieveAndLockMultipleRecordsSkipLocked(@NonNull final IQuery<T> query, @NonNull final Class<T> clazz)
+	{
+		return getLockDatabase().retrieveAndLockMultipleRecordsSkipLocked(query, clazz);
+	}
+
 	@Override
 	public <T> IQuery<T> addNotLockedClause(final IQuery<T> query)
 	{
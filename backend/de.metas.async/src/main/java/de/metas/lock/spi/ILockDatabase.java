@@ -71,6 +71,11 @@ public interface ILockDatabase
 
 	<T> List<T> retrieveAndLockMultipleRecords(IQuery<T> query, Class<T> clazz);
 
+	/**
+	 * See {@link ILockManager#retrieveAndLockMultipleRecordsSkipLocked(IQuery, Class)}.
+	 */
+	<T> List<T> retrieveAndLockMultipleRecordsSkipLocked(IQuery<T> query, Class<T> clazz);
+
 	<T> IQuery<T> addNotLockedClause(IQuery<T> query);
 
 	int removeAutoCleanupLocks();
@@ -332,6 +332,27 @@ public class PlainLockDatabase extends AbstractLockDatabase
 		}
 	}
 
+	@Override
+	protected <T> List<T> retrieveAndLockMultipleRecordsSkipLocked(
+			@NonNull final ILockCommand lockCommand,
+			@NonNull final IQuery<T> query,
+			@NonNull final Class<T> clazz)
+	{
+		// there are no concurrent DB clients in here; just make sure that concurrent threads don't claim the same records
+		try (final CloseableReentrantLock lock = mainLock.open())
+		{
+			final ImmutableList.Builder<T> lockedModels = ImmutableList.builder();
+			for (final T model : retrieveNotLockedQuery(query).list(clazz))
+			{
+				if (lockRecord(lockCommand, TableRecordReference.of(model)))
+				{
+					lockedModels.add(model);
+				}
+			}
+			return lockedModels.build();
+		}
+	}
+
 	@Override
 	protected <T> IQuery<T> retrieveNotLockedQuery(final IQuery<T> query)
 	{
@@ -515,6 +515,77 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		}
 	}
 
+	/**
+	 * Selects the not-yet-locked records <code>FOR UPDATE SKIP LOCKED</code> and inserts their {@link I_T_Lock} records in the same statement.
+	 * <p>
+	 * Concurrent claimers skip the rows that we selected until our statement is committed; after that, they don't select them anymore because of the not-locked-clause.
+	 * In the rare case that a concurrent claimer still gets one of our records, the unique index on T_Lock makes sure that it's not claimed twice ({@code ON CONFLICT DO NOTHING}).
+	 */
+	@Override
+	protected <T> List<T> retrieveAndLockMultipleRecordsSkipLocked(
+			@NonNull final ILockCommand lockCommand,
+			@NonNull final IQuery<T> query,
+			@NonNull final Class<T> clazz)
+	{
+		final TypedSqlQuery<T> sqlQuery = TypedSqlQuery.cast(retrieveNotLockedQuery(query.copy()));
+		Check.assume(!sqlQuery.hasUnions(), "Claiming records with SKIP LOCKED is not supported for queries with unions; query={}", query);
+
+		final String tableName = sqlQuery.getTableName();
+		final String keyColumnName = sqlQuery.getKeyColumnName();
+		final int adTableId = adTableDAO.retrieveTableId(tableName);
+
+		final LockOwner lockOwner = lockCommand.getOwner();
+		assertValidLockOwner(lockOwner);
+
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = "INSERT INTO " + I_T_Lock.Table_Name + " ("
+				+ I_T_Lock.COLUMNNAME_AD_Table_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Record_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Owner
+				+ ", " + I_T_Lock.COLUMNNAME_IsAutoCleanup
+				+ ", " + I_T_Lock.COLUMNNAME_IsAllowMultipleOwners
+				+ ")"
+				//
+				+ " SELECT "
+				+ toSqlParam(adTableId, sqlParams) // AD_Table_ID
+				+ ", claimed." + keyColumnName // Record_ID
+				+ ", " + toSqlParam(lockOwner.getOwnerName(), sqlParams) // Owner
+				+ ", " + toSqlParam(lockCommand.isAutoCleanup(), sqlParams) // IsAutoCleanup
+				+ ", " + toSqlParam(isAllowMultipleOwners(lockCommand.getAllowAdditionalLocks()), sqlParams) // IsAllowMultipleOwners
+				//
+				+ " FROM ("
+				+ sqlQuery.buildSQL("SELECT " + tableName + "." + keyColumnName, null, null, true)
+				+ " FOR UPDATE SKIP LOCKED"
+				+ ") claimed"
+				+ " ON CONFLICT DO NOTHING"
+				+ " RETURNING " + I_T_Lock.COLUMNNAME_Record_ID;
+		sqlParams.addAll(sqlQuery.getParametersEffective());
+
+		final List<Integer> lockedRecordIds;
+		try
+		{
+			lockedRecordIds = DB.retrieveRowsOutOfTrx(sql, sqlParams, rs -> rs.getInt(1));
+		}
+		catch (final Exception e)
+		{
+			throw LockFailedException.wrapIfNeeded(e)
+					.setLockCommand(lockCommand)
+					.setSql(sql, sqlParams.toArray());
+		}
+
+		if (lockedRecordIds.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final List<Object> loadSqlParams = new ArrayList<>();
+		final String loadWhereClause = keyColumnName + " IN " + DB.buildSqlList(lockedRecordIds, loadSqlParams);
+		return new TypedSqlQuery<>(sqlQuery.getCtx(), clazz, loadWhereClause, sqlQuery.getTrxName())
+				.setParameters(loadSqlParams)
+				.setOrderBy(sqlQuery.getOrderBy())
+				.list(clazz);
+	}
+
 	@Override
 	protected <T> IQuery<T> retrieveNotLockedQuery(final IQuery<T> query)
 	{
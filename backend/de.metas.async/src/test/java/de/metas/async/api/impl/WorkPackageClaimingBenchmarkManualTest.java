@@ -0,0 +1,212 @@
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.async.api.impl;
+
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.async.model.X_C_Queue_WorkPackage;
+import de.metas.lock.api.ILockManager;
+import de.metas.util.Services;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.QueryLimit;
+import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.Adempiere;
+import org.compiere.model.IQuery;
+import org.compiere.util.DB;
+import org.junit.Ignore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the classic "select, then lock record by record" claiming of workpackages with the <code>FOR UPDATE SKIP LOCKED</code> claiming
+ * (see {@link ILockManager#retrieveAndLockMultipleRecordsSkipLocked(IQuery, Class)}).
+ * <p>
+ * Needs a running database (connection settings like for any other metasfresh server) and an existing <code>C_Queue_PackageProcessor_ID</code>, which is given as first argument.
+ * The benchmark enqueues 100k workpackages for that package processor, drains them with 1..16 threads for each strategy and deletes them afterwards.
+ * Nothing is actually processed; a claimed workpackage is just flagged as processed and unlocked.
+ */
+@Ignore
+public class WorkPackageClaimingBenchmarkManualTest
+{
+	private static final int WORKPACKAGES_COUNT = 100_000;
+	private static final int BATCH_SIZE = 10;
+	private static final int[] THREAD_COUNTS = { 1, 2, 4, 8, 16 };
+
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+	private final ILockManager lockManager = Services.get(ILockManager.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+
+	private final int packageProcessorId;
+	private int firstWorkPackageId;
+
+	public static void main(final String[] args) throws Exception
+	{
+		Adempiere.startupEnvironment(false);
+
+		final int packageProcessorId = Integer.parseInt(args[0]);
+		new WorkPackageClaimingBenchmarkManualTest(packageProcessorId).run();
+	}
+
+	private WorkPackageClaimingBenchmarkManualTest(final int packageProcessorId)
+	{
+		this.packageProcessorId = packageProcessorId;
+	}
+
+	private void run() throws Exception
+	{
+		enqueueWorkPackages();
+		try
+		{
+			for (final int threadCount : THREAD_COUNTS)
+			{
+				drainAndPrint("select-then-lock", threadCount, this::claimSelectThenLock);
+				drainAndPrint("skip-locked", threadCount, this::claimSkipLocked);
+			}
+		}
+		finally
+		{
+			final int deleted = DB.executeUpdateAndThrowExceptionOnFail(
+					"DELETE FROM " + I_C_Queue_WorkPackage.Table_Name + " WHERE " + I_C_Queue_WorkPackage.COLUMNNAME_C_Queue_WorkPackage_ID + ">=?",
+					new Object[] { firstWorkPackageId },
+					ITrx.TRXNAME_None);
+			System.out.println("Deleted " + deleted + " benchmark workpackages");
+		}
+	}
+
+	private void enqueueWorkPackages()
+	{
+		final long start = System.currentTimeMillis();
+		trxManager.runInNewTrx(() -> {
+			for (int i = 0; i < WORKPACKAGES_COUNT; i++)
+			{
+				final I_C_Queue_WorkPackage workPackage = InterfaceWrapperHelper.newInstance(I_C_Queue_WorkPackage.class);
+				workPackage.setC_Queue_PackageProcessor_ID(packageProcessorId);
+				workPackage.setPriority(X_C_Queue_WorkPackage.PRIORITY_Medium);
+				workPackage.setIsReadyForProcessing(true);
+				InterfaceWrapperHelper.saveRecord(workPackage);
+
+				if (i == 0)
+				{
+					firstWorkPackageId = workPackage.getC_Queue_WorkPackage_ID();
+				}
+			}
+		});
+		System.out.println("Enqueued " + WORKPACKAGES_COUNT + " workpackages in " + (System.currentTimeMillis() - start) + "ms");
+	}
+
+	private void drainAndPrint(
+			final String strategyName,
+			final int threadCount,
+			final Function<IQuery<I_C_Queue_WorkPackage>, List<I_C_Queue_WorkPackage>> claimer) throws Exception
+	{
+		resetWorkPackages();
+
+		final AtomicInteger drained = new AtomicInteger();
+		final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		final long start = System.currentTimeMillis();
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int i = 0; i < threadCount; i++)
+			{
+				futures.add(executor.submit(() -> drain(claimer, drained)));
+			}
+			for (final Future<?> future : futures)
+			{
+				future.get();
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		final long durationMillis = System.currentTimeMillis() - start;
+		System.out.printf("%-16s threads=%2d drained=%6d duration=%6dms throughput=%8.1f wp/s%n",
+				strategyName, threadCount, drained.get(), durationMillis, drained.get() * 1000.0 / Math.max(durationMillis, 1));
+	}
+
+	private void drain(
+			final Function<IQuery<I_C_Queue_WorkPackage>, List<I_C_Queue_WorkPackage>> claimer,
+			final AtomicInteger drained)
+	{
+		while (true)
+		{
+			final List<I_C_Queue_WorkPackage> claimed = claimer.apply(createReadyWorkPackagesQuery());
+			if (claimed.isEmpty())
+			{
+				return;
+			}
+
+			final List<Integer> claimedIds = claimed.stream().map(I_C_Queue_WorkPackage::getC_Queue_WorkPackage_ID).collect(Collectors.toList());
+			queryBL.createQueryBuilder(I_C_Queue_WorkPackage.class)
+					.addInArrayFilter(I_C_Queue_WorkPackage.COLUMNNAME_C_Queue_WorkPackage_ID, claimedIds)
+					.create()
+					.updateDirectly()
+					.addSetColumnValue(I_C_Queue_WorkPackage.COLUMNNAME_Processed, true)
+					.execute();
+			claimed.forEach(lockManager::unlock);
+
+			drained.addAndGet(claimed.size());
+		}
+	}
+
+	private List<I_C_Queue_WorkPackage> claimSelectThenLock(final IQuery<I_C_Queue_WorkPackage> query)
+	{
+		return lockManager.retrieveAndLockMultipleRecords(lockManager.addNotLockedClause(query), I_C_Queue_WorkPackage.class);
+	}
+
+	private List<I_C_Queue_WorkPackage> claimSkipLocked(final IQuery<I_C_Queue_WorkPackage> query)
+	{
+		return lockManager.retrieveAndLockMultipleRecordsSkipLocked(query, I_C_Queue_WorkPackage.class);
+	}
+
+	private IQuery<I_C_Queue_WorkPackage> createReadyWorkPackagesQuery()
+	{
+		return queryBL.createQueryBuilderOutOfTrx(I_C_Queue_WorkPackage.class)
+				.addCompareFilter(I_C_Queue_WorkPackage.COLUMNNAME_C_Queue_WorkPackage_ID, Operator.GREATER_OR_EQUAL, firstWorkPackageId)
+				.addEqualsFilter(I_C_Queue_WorkPackage.COLUMNNAME_Processed, false)
+				.addEqualsFilter(I_C_Queue_WorkPackage.COLUMNNAME_IsReadyForProcessing, true)
+				.orderBy(I_C_Queue_WorkPackage.COLUMNNAME_C_Queue_WorkPackage_ID)
+				.setLimit(QueryLimit.ofInt(BATCH_SIZE))
+				.create();
+	}
+
+	private void resetWorkPackages()
+	{
+		DB.executeUpdateAndThrowExceptionOnFail(
+				"UPDATE " + I_C_Queue_WorkPackage.Table_Name + " SET " + I_C_Queue_WorkPackage.COLUMNNAME_Processed + "='N'"
+						+ " WHERE " + I_C_Queue_WorkPackage.COLUMNNAME_C_Queue_WorkPackage_ID + ">=?",
+				new Object[] { firstWorkPackageId },
+				ITrx.TRXNAME_None);
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.async.api.impl;
+
+import de.metas.async.QueueProcessorTestBase;
+import de.metas.async.api.IWorkPackageQueue;
+import de.metas.async.model.I_C_Queue_Processor;
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.async.processor.IWorkPackageQueueFactory;
+import de.metas.async.processor.descriptor.QueueProcessorDescriptorRepository;
+import de.metas.async.processor.impl.StaticMockedWorkpackageProcessor;
+import de.metas.util.Services;
+import org.adempiere.ad.dao.QueryLimit;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class WorkPackageQueue_claimWorkPackages_Test extends QueueProcessorTestBase
+{
+	private IWorkPackageQueue queueForEnqueuing;
+	private IWorkPackageQueue queueForProcessing;
+
+	@Override
+	protected void beforeTestCustomized()
+	{
+		final I_C_Queue_Processor processorDef = helper.createQueueProcessor("test", 10, 1000);
+		helper.assignPackageProcessor(processorDef, StaticMockedWorkpackageProcessor.class);
+
+		final IWorkPackageQueueFactory workPackageQueueFactory = Services.get(IWorkPackageQueueFactory.class);
+		queueForEnqueuing = workPackageQueueFactory.getQueueForEnqueuing(ctx, StaticMockedWorkpackageProcessor.class);
+		queueForProcessing = workPackageQueueFactory.getQueueForPackageProcessing(QueueProcessorDescriptorRepository.mapToQueueProcessor(processorDef));
+	}
+
+	@Test
+	public void claimsUpToLimitAndSkipsAlreadyClaimed()
+	{
+		final List<I_C_Queue_WorkPackage> workPackages = helper.createAndEnqueueWorkpackages(queueForEnqueuing, 5, true); // markReadyForProcessing=true
+
+		final List<I_C_Queue_WorkPackage> firstBatch = queueForProcessing.claimWorkPackages(ctx, QueryLimit.ofInt(3));
+		assertThat(firstBatch).hasSize(3);
+		assertThat(firstBatch).allMatch(lockManager::isLocked);
+
+		final List<I_C_Queue_WorkPackage> secondBatch = queueForProcessing.claimWorkPackages(ctx, QueryLimit.ofInt(3));
+		assertThat(secondBatch).hasSize(2);
+		assertThat(queueForProcessing.claimWorkPackages(ctx, QueryLimit.ofInt(3))).isEmpty();
+
+		final List<I_C_Queue_WorkPackage> claimed = new ArrayList<>(firstBatch);
+		claimed.addAll(secondBatch);
+		assertThat(claimed)
+				.extracting(I_C_Queue_WorkPackage::getC_Queue_WorkPackage_ID)
+				.containsExactlyInAnyOrderElementsOf(workPackages.stream().map(I_C_Queue_WorkPackage::getC_Queue_WorkPackage_ID).collect(Collectors.toList()));
+
+		claimed.forEach(queueForProcessing::unlockNoFail);
+		helper.assertNothingLocked();
+	}
+
+	@Test
+	public void doesNotClaimNotReadyWorkPackages()
+	{
+		helper.createAndEnqueueWorkpackages(queueForEnqueuing, 2, false); // markReadyForProcessing=false
+
+		assertThat(queueForProcessing.claimWorkPackages(ctx, QueryLimit.ofInt(10))).isEmpty();
+		helper.assertNothingLocked();
+	}
+}
@@ -31,15 +31,19 @@ import de.metas.async.model.X_C_Queue_WorkPackage;
 import de.metas.async.processor.IQueueProcessorsExecutor;
 import de.metas.async.processor.IWorkPackageQueueFactory;
 import de.metas.async.processor.IWorkpackageProcessorExecutionResult;
+import de.metas.async.processor.QueueProcessorId;
 import de.metas.async.processor.descriptor.QueueProcessorDescriptorRepository;
 import de.metas.async.spi.IWorkpackageProcessor.Result;
 import de.metas.logging.LogManager;
+import de.metas.organization.OrgId;
 import de.metas.util.Services;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.junit.Test;
 
 import java.util.List;
@@ -61,13 +65,22 @@ public class ThreadPoolQueueProcessorTest extends QueueProcessorTestBase
 	}
 
 	private void setupQueueProcessor(final int poolSize)
+	{
+		createQueueProcessorDef(poolSize);
+		startQueueProcessor();
+	}
+
+	private void createQueueProcessorDef(final int poolSize)
 	{
 		processorDef = helper.createQueueProcessor("test",
 				poolSize,
 				1000 // keepAliveTimeMillis
 		);
 		helper.assignPackageProcessor(processorDef, StaticMockedWorkpackageProcessor.class);
+	}
 
+	private void startQueueProcessor()
+	{
 		processorsExecutor = new QueueProcessorsExecutor();
 		processorsExecutor.addQueueProcessor(QueueProcessorDescriptorRepository.mapToQueueProcessor(processorDef));
 	}
@@ -141,6 +154,38 @@ public class ThreadPoolQueueProcessorTest extends QueueProcessorTestBase
 		helper.assertNothingLocked();
 	}
 
+	/**
+	 * Enqueue 100 WPs for a processor with pool size 1 but MaxConcurrency 10; the semaphore shall have 10 permits and all WPs shall be processed.
+	 */
+	@Test
+	public void test_MaxConcurrency_100workpackages() throws Exception
+	{
+		createQueueProcessorDef(1);
+		final QueueProcessorId queueProcessorId = QueueProcessorId.ofRepoId(processorDef.getC_Queue_Processor_ID());
+		Services.get(ISysConfigBL.class).setValue(ThreadPoolQueueProcessor.SYSCONFIG_MaxConcurrency + ".processor_" + queueProcessorId.getRepoId(), "10", ClientId.SYSTEM, OrgId.ANY);
+		startQueueProcessor();
+
+		assertThat(processorsExecutor.getQueueProcessor(queueProcessorId).getAvailableCapacity()).isEqualTo(10);
+
+		final IWorkPackageQueue workpackageQueue = Services.get(IWorkPackageQueueFactory.class).getQueueForEnqueuing(ctx, StaticMockedWorkpackageProcessor.class);
+		final List<I_C_Queue_WorkPackage> workpackages = helper.createAndEnqueueWorkpackages(workpackageQueue, 100, false);
+
+		final MockedWorkpackageProcessor workpackageProcessor = StaticMockedWorkpackageProcessor.getMockedWorkpackageProcessor();
+		workpackageProcessor.setDefaultResult(Result.SUCCESS);
+		helper.markReadyForProcessing(workpackages);
+
+		final List<I_C_Queue_WorkPackage> processedWorkpackages = workpackageProcessor.getProcessedWorkpackages();
+		helper.waitUntilSize(processedWorkpackages, workpackages.size(), 0);
+
+		assertThat(processedWorkpackages).hasSize(workpackages.size());
+		assertThat(processedWorkpackages).allSatisfy(wp -> {
+			assertThat(wp.isProcessed()).as("Workpackage - Invalid Processed: %s", wp).isTrue();
+			assertThat(wp.isError()).as("Workpackage - Invalid IsError: %s", wp).isFalse();
+		});
+
+		helper.assertNothingLocked();
+	}
+
 	@Test
 	public void test_workpackages_OOME() throws Exception
 	{
@@ -0,0 +1,129 @@
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.async.processor.impl.planner;
+
+import de.metas.async.QueueProcessorTestBase;
+import de.metas.async.api.IWorkPackageQueue;
+import de.metas.async.api.NOPWorkpackageLogsRepository;
+import de.metas.async.model.I_C_Queue_PackageProcessor;
+import de.metas.async.model.I_C_Queue_Processor;
+import de.metas.async.processor.IWorkPackageQueueFactory;
+import de.metas.async.processor.QueueProcessorId;
+import de.metas.async.processor.impl.StaticMockedWorkpackageProcessor;
+import de.metas.async.processor.impl.SynchronousQueueProcessor;
+import de.metas.util.Services;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Covers how a notified planner is woken up, i.e. what happens when {@link WorkPackageReadyNotificationListener} receives a notification.
+ */
+public class QueueProcessorPlannerWakeUpTest extends QueueProcessorTestBase
+{
+	/**
+	 * Way longer than any of the tests shall take, so a test which is not woken up gets stuck rather than passing by chance.
+	 */
+	private static final int LONG_TIMEOUT_MS = 60 * 1000;
+
+	private SynchronousProcessorPlanner planner;
+	private QueueProcessorId queueProcessorId;
+
+	@Before
+	public void init()
+	{
+		final I_C_Queue_PackageProcessor packageProcessorDef = helper.createPackageProcessor(ctx, StaticMockedWorkpackageProcessor.class);
+		final I_C_Queue_Processor queueProcessorDef = helper.createQueueProcessor(StaticMockedWorkpackageProcessor.class.getName(), 1, 1000);
+		helper.assignPackageProcessor(queueProcessorDef, packageProcessorDef);
+
+		final IWorkPackageQueue queue = Services.get(IWorkPackageQueueFactory.class).getQueueForEnqueuing(ctx, StaticMockedWorkpackageProcessor.class);
+		final SynchronousQueueProcessor queueProcessor = new SynchronousQueueProcessor(queue, NOPWorkpackageLogsRepository.instance);
+
+		planner = new SynchronousProcessorPlanner();
+		planner.addQueueProcessor(queueProcessor);
+		queueProcessorId = queueProcessor.getQueueProcessorId();
+	}
+
+	@Test(timeout = 10 * 1000)
+	public void wakeUp_releasesWaitingPlanner() throws Exception
+	{
+		final CompletableFuture<Boolean> wokenUp = CompletableFuture.supplyAsync(() -> {
+			try
+			{
+				return planner.waitForWakeUp(LONG_TIMEOUT_MS);
+			}
+			catch (final InterruptedException e)
+			{
+				throw new RuntimeException(e);
+			}
+		});
+
+		// keep notifying until the planner got it, because we can't tell when it started waiting
+		while (!wokenUp.isDone())
+		{
+			planner.wakeUp(queueProcessorId);
+			Thread.sleep(10);
+		}
+
+		assertThat(wokenUp.get(1, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test(timeout = 10 * 1000)
+	public void wakeUp_beforeWaiting_isNotLost() throws Exception
+	{
+		planner.wakeUp(queueProcessorId);
+
+		assertThat(planner.waitForWakeUp(LONG_TIMEOUT_MS)).isTrue();
+
+		// the wake-up was consumed
+		assertThat(planner.waitForWakeUp(10)).isFalse();
+	}
+
+	@Test
+	public void wakeUp_forOtherQueueProcessor_isIgnored() throws Exception
+	{
+		planner.wakeUp(QueueProcessorId.ofRepoId(queueProcessorId.getRepoId() + 1));
+
+		assertThat(planner.waitForWakeUp(10)).isFalse();
+	}
+
+	@Test
+	public void waitForWakeUp_timesOut() throws Exception
+	{
+		assertThat(planner.waitForWakeUp(10)).isFalse();
+	}
+
+	@Test
+	public void extractQueueProcessorIdOrNull()
+	{
+		assertThat(WorkPackageReadyNotificationListener.extractQueueProcessorIdOrNull("12")).isEqualTo(QueueProcessorId.ofRepoId(12));
+		assertThat(WorkPackageReadyNotificationListener.extractQueueProcessorIdOrNull(" 12 ")).isEqualTo(QueueProcessorId.ofRepoId(12));
+		assertThat(WorkPackageReadyNotificationListener.extractQueueProcessorIdOrNull("")).isNull();
+		assertThat(WorkPackageReadyNotificationListener.extractQueueProcessorIdOrNull(null)).isNull();
+		assertThat(WorkPackageReadyNotificationListener.extractQueueProcessorIdOrNull("abc")).isNull();
+	}
+}
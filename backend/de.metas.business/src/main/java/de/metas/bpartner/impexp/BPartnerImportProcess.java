@@ -108,6 +108,24 @@ public class BPartnerImportProcess extends SimpleImportProcessTemplate<I_I_BPart
 		BPartnerImportTableSqlUpdater.updateBPartnerImportTable(selection);
 	}
 
+	/**
+	 * The lines of different BPValues are not related, so they can be imported in parallel.
+	 */
+	@Override
+	protected boolean isParallelImportSupported()
+	{
+		return true;
+	}
+
+	/**
+	 * Lines with the same BPValue shall be imported one after another, see {@link BPartnerImportContext#isSameBPartner(I_I_BPartner)}.
+	 */
+	@Override
+	protected Object extractParallelImportKey(final I_I_BPartner importRecord)
+	{
+		return importRecord.getBPValue();
+	}
+
 	@Override
 	protected ImportRecordResult importRecord(final @NonNull IMutable<Object> state, final @NonNull I_I_BPartner importRecord, final boolean insertOnly)
 	{
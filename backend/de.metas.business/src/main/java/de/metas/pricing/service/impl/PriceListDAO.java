@@ -109,6 +109,10 @@ import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 public class PriceListDAO implements IPriceListDAO
 {
 	private static final transient Logger logger = LogManager.getLogger(PriceListDAO.class);
+
+	/** Price list versions are big models, so their caches are bounded by size rather than by count */
+	private static final long PRICE_LIST_VERSION_CACHES_MAX_WEIGHT_BYTES = 8L * 1024 * 1024;
+
 	private final IQueryBL queryBL = Services.get(IQueryBL.class);
 
 	@Override
@@ -336,7 +340,7 @@ public class PriceListDAO implements IPriceListDAO
 		return plv != null ? PriceListVersionId.ofRepoId(plv.getM_PriceList_Version_ID()) : null;
 	}
 
-	@Cached(cacheName = I_M_PriceList_Version.Table_Name + "#By#M_PriceList_ID#Date#Processed")
+	@Cached(cacheName = I_M_PriceList_Version.Table_Name + "#By#M_PriceList_ID#Date#Processed", maxWeightBytes = PRICE_LIST_VERSION_CACHES_MAX_WEIGHT_BYTES)
 	@Nullable
 	public I_M_PriceList_Version retrievePriceListVersionOrNull(
 			@CacheCtx @NonNull final Properties ctx,
@@ -376,7 +380,7 @@ public class PriceListDAO implements IPriceListDAO
 	}
 
 	@Override
-	@Cached(cacheName = I_M_PriceList_Version.Table_Name + "#By#M_PriceList_ID#Date")
+	@Cached(cacheName = I_M_PriceList_Version.Table_Name + "#By#M_PriceList_ID#Date", maxWeightBytes = PRICE_LIST_VERSION_CACHES_MAX_WEIGHT_BYTES)
 	@Nullable
 	public I_M_PriceList_Version retrievePriceListVersionWithExactValidDate(final PriceListId priceListId, @NonNull final Date date)
 	{
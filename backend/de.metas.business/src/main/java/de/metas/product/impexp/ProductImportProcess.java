@@ -122,6 +122,21 @@ public class ProductImportProcess extends SimpleImportProcessTemplate<I_I_Produc
 		return I_I_Product.COLUMNNAME_ProductCategory_Value;
 	}
 
+	@Override
+	protected boolean isParallelImportSupported()
+	{
+		return true;
+	}
+
+	/**
+	 * Lines with the same product value shall be imported one after another, because the first line might create the product.
+	 */
+	@Override
+	protected Object extractParallelImportKey(final I_I_Product importRecord)
+	{
+		return importRecord.getValue();
+	}
+
 	@Override
 	protected I_I_Product retrieveImportRecord(final Properties ctx, final ResultSet rs) throws SQLException
 	{
@@ -204,9 +219,15 @@ public class ProductImportProcess extends SimpleImportProcessTemplate<I_I_Produc
 		final I_M_Product productRecord = load(importRecord.getM_Product_ID(), I_M_Product.class);
 		ModelValidationEngine.get().fireImportValidate(this, importRecord, productRecord, IImportInterceptor.TIMING_AFTER_IMPORT);
 
+		return newProduct ? ImportRecordResult.Inserted : ImportRecordResult.Updated;
+	}
+
+	@Override
+	protected void afterImport()
+	{
 		// #3404 Create default product planning
+		// NOTE: it's done once for all imported products, because it's looking at all products; also it shall not run concurrently when importing in parallel
 		productPlanningSchemaBL.createDefaultProductPlanningsForAllProducts();
-		return newProduct ? ImportRecordResult.Inserted : ImportRecordResult.Updated;
 	}
 
 	private void createUpdateProductPrice(final I_I_Product imp)
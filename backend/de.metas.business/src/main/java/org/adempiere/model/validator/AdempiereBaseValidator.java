@@ -266,7 +266,7 @@ public final class AdempiereBaseValidator extends AbstractModuleInterceptor
 		cachingService.createTableCacheConfigBuilder(I_AD_Column.class)
 				.setEnabled(true)
 				.setInitialCapacity(1000)
-				.setMaxCapacity(1000)
+				.setMaxWeightBytes(16L * 1024 * 1024) // AD_Column records are big and there are plenty of them, so bound the cache by size rather than by count
 				.setExpireMinutes(ITableCacheConfig.EXPIREMINUTES_Never)
 				.setCacheMapType(CacheMapType.LRU)
 				.setTrxLevel(TrxLevel.OutOfTransactionOnly)
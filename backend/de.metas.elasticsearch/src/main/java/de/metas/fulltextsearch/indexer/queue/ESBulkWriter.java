@@ -0,0 +1,199 @@
+/*
+ * #%L
+ * de.metas.elasticsearch
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.fulltextsearch.indexer.queue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import de.metas.logging.LogManager;
+import lombok.Builder;
+import lombok.NonNull;
+import org.adempiere.exceptions.AdempiereException;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes documents to Elasticsearch using bulk requests of limited size.
+ * <p>
+ * The bulk requests are sent one after the other, so we never have more than one bulk request in flight.
+ * The items which were rejected by Elasticsearch because it's overloaded (HTTP 429) are re-sent after an exponentially growing backoff.
+ * If they are still rejected after the configured number of retries, an {@link IOException} is thrown, so the caller can consider it a temporary error.
+ * Any other item failure does not stop the other documents from being written:
+ * all bulk requests are sent, and afterwards the failed documents are reported as one {@link AdempiereException}.
+ */
+final class ESBulkWriter
+{
+	private static final Logger logger = LogManager.getLogger(ESBulkWriter.class);
+
+	private static final int MAX_FAILED_DOCUMENT_IDS_TO_REPORT = 100;
+
+	@FunctionalInterface
+	interface BulkExecutor
+	{
+		BulkResponse execute(@NonNull BulkRequest bulkRequest) throws IOException;
+	}
+
+	private final BulkExecutor bulkExecutor;
+	private final int maxActionsPerRequest;
+	private final int maxRetries;
+	private final Duration initialBackoff;
+
+	@Builder
+	private ESBulkWriter(
+			@NonNull final BulkExecutor bulkExecutor,
+			final int maxActionsPerRequest,
+			final int maxRetries,
+			@NonNull final Duration initialBackoff)
+	{
+		if (maxActionsPerRequest <= 0)
+		{
+			throw new AdempiereException("maxActionsPerRequest shall be greater than zero but it was " + maxActionsPerRequest);
+		}
+
+		this.bulkExecutor = bulkExecutor;
+		this.maxActionsPerRequest = maxActionsPerRequest;
+		this.maxRetries = Math.max(maxRetries, 0);
+		this.initialBackoff = initialBackoff;
+	}
+
+	public void write(@NonNull final List<DocWriteRequest<?>> requests) throws IOException
+	{
+		final ArrayList<BulkItemResponse.Failure> failures = new ArrayList<>();
+		for (final List<DocWriteRequest<?>> requestsChunk : Lists.partition(requests, maxActionsPerRequest))
+		{
+			writeChunk(requestsChunk, failures);
+		}
+
+		if (!failures.isEmpty())
+		{
+			throw newFailedDocumentsException(failures);
+		}
+	}
+
+	private static AdempiereException newFailedDocumentsException(@NonNull final List<BulkItemResponse.Failure> failures)
+	{
+		final BulkItemResponse.Failure firstFailure = failures.get(0);
+		final ImmutableList<String> failedDocumentIds = failures.stream()
+				.limit(MAX_FAILED_DOCUMENT_IDS_TO_REPORT)
+				.map(BulkItemResponse.Failure::getId)
+				.collect(ImmutableList.toImmutableList());
+
+		return new AdempiereException("Failed indexing " + failures.size() + " documents", firstFailure.getCause())
+				.appendParametersToMessage()
+				.setParameter("failedDocumentIds", failedDocumentIds)
+				.setParameter("firstFailureMessage", firstFailure.getMessage());
+	}
+
+	/**
+	 * @param failures collects the documents which failed for any other reason than being rejected
+	 */
+	private void writeChunk(
+			@NonNull final List<DocWriteRequest<?>> requests,
+			@NonNull final List<BulkItemResponse.Failure> failures) throws IOException
+	{
+		List<DocWriteRequest<?>> requestsToSend = requests;
+		Duration backoff = initialBackoff;
+
+		for (int retry = 0; !requestsToSend.isEmpty(); retry++)
+		{
+			if (retry > 0)
+			{
+				if (retry > maxRetries)
+				{
+					throw new IOException("Elasticsearch rejected " + requestsToSend.size() + " documents even after " + maxRetries + " retries");
+				}
+
+				logger.info("Elasticsearch rejected {} documents. Retrying in {} (retry {}/{})", requestsToSend.size(), backoff, retry, maxRetries);
+				sleep(backoff);
+				backoff = backoff.multipliedBy(2);
+			}
+
+			requestsToSend = send(requestsToSend, failures);
+		}
+	}
+
+	/**
+	 * @param failures collects the documents which failed for any other reason than being rejected
+	 * @return requests which were rejected and shall be retried
+	 */
+	private List<DocWriteRequest<?>> send(
+			@NonNull final List<DocWriteRequest<?>> requests,
+			@NonNull final List<BulkItemResponse.Failure> failures) throws IOException
+	{
+		final BulkRequest bulkRequest = new BulkRequest();
+		requests.forEach(bulkRequest::add);
+
+		final BulkResponse bulkResponse = bulkExecutor.execute(bulkRequest);
+		if (!bulkResponse.hasFailures())
+		{
+			return ImmutableList.of();
+		}
+
+		final ArrayList<DocWriteRequest<?>> rejectedRequests = new ArrayList<>();
+		for (final BulkItemResponse item : bulkResponse.getItems())
+		{
+			if (!item.isFailed())
+			{
+				continue;
+			}
+
+			final BulkItemResponse.Failure failure = item.getFailure();
+			if (failure.getStatus() == RestStatus.TOO_MANY_REQUESTS)
+			{
+				rejectedRequests.add(requests.get(item.getItemId()));
+			}
+			else
+			{
+				failures.add(failure);
+			}
+		}
+
+		return rejectedRequests;
+	}
+
+	private static void sleep(@NonNull final Duration duration) throws IOException
+	{
+		if (duration.isZero() || duration.isNegative())
+		{
+			return;
+		}
+
+		try
+		{
+			Thread.sleep(duration.toMillis());
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting to retry the rejected documents", ex);
+		}
+	}
+}
@@ -45,7 +45,7 @@ import lombok.ToString;
 import org.adempiere.ad.table.api.TableName;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.service.ISysConfigBL;
-import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.client.RequestOptions;
@@ -64,6 +64,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @Profile(Profiles.PROFILE_App)
@@ -82,6 +83,13 @@ public class ModelToIndexEnqueueProcessor
 	private static final String SYSCONFIG_RetrieveBatchSize = "de.metas.fulltextsearch.indexer.queue.ModelToIndexEnqueueProcessor.retrieveBatchSize";
 	private static final int DEFAULT_RetrieveBatchSize = 1000;
 
+	private static final String SYSCONFIG_BulkMaxActions = "fulltextsearch.indexer.bulk.maxActions";
+	private static final int DEFAULT_BulkMaxActions = 500;
+
+	private static final String SYSCONFIG_BulkMaxRetries = "fulltextsearch.indexer.bulk.maxRetries";
+	private static final int DEFAULT_BulkMaxRetries = 5;
+	private static final Duration BULK_INITIAL_BACKOFF = Duration.ofMillis(500);
+
 	public ModelToIndexEnqueueProcessor(
 			@NonNull final FTSModelIndexerRegistry indexersRegistry,
 			@NonNull final FTSConfigService configService,
@@ -123,6 +131,20 @@ public class ModelToIndexEnqueueProcessor
 		return batchSize > 0 ? batchSize : DEFAULT_RetrieveBatchSize;
 	}
 
+	private ESBulkWriter newBulkWriter()
+	{
+		final RestHighLevelClient elasticsearchClient = configService.elasticsearchClient();
+
+		final int maxActions = sysConfigBL.getIntValue(SYSCONFIG_BulkMaxActions, DEFAULT_BulkMaxActions);
+
+		return ESBulkWriter.builder()
+				.bulkExecutor(bulkRequest -> elasticsearchClient.bulk(bulkRequest, RequestOptions.DEFAULT))
+				.maxActionsPerRequest(maxActions > 0 ? maxActions : DEFAULT_BulkMaxActions)
+				.maxRetries(sysConfigBL.getIntValue(SYSCONFIG_BulkMaxRetries, DEFAULT_BulkMaxRetries))
+				.initialBackoff(BULK_INITIAL_BACKOFF)
+				.build();
+	}
+
 	private void processInfinitely()
 	{
 		Duration pollInterval = getPollInterval();
@@ -177,11 +199,26 @@ public class ModelToIndexEnqueueProcessor
 
 		boolean markRecords = false;
 		AdIssueId adIssueId = null;
+		final LinkedHashMap<FTSConfigId, AdIssueId> adIssueIdsByConfigId = new LinkedHashMap<>();
 		try
 		{
-			for (final ConfigAndEvents configAndEvents : toConfigAndEvents(events))
+			for (final ConfigAndEvents configAndEvents : toConfigAndEvents(ModelsToIndexCoalescer.coalesce(events)))
 			{
-				processNow_ConfigAndEvents(configAndEvents);
+				// one failing FTS config shall not prevent the documents of the other ones from being indexed
+				try
+				{
+					processNow_ConfigAndEvents(configAndEvents);
+				}
+				catch (final IOException ex)
+				{
+					throw ex;
+				}
+				catch (final Exception ex)
+				{
+					final AdempiereException metasfreshEx = AdempiereException.wrapIfNeeded(ex);
+					logger.warn("Failed indexing the events of {}", configAndEvents.getConfig(), metasfreshEx);
+					adIssueIdsByConfigId.put(configAndEvents.getConfig().getId(), errorManager.createIssue(metasfreshEx));
+				}
 			}
 
 			markRecords = true;
@@ -206,8 +243,9 @@ public class ModelToIndexEnqueueProcessor
 			{
 				if (adIssueId == null)
 				{
+					adIssueIdsByConfigId.forEach((ftsConfigId, configAdIssueId) -> queueRepository.markAsError(processingTag, ftsConfigId, configAdIssueId));
 					queueRepository.markAsProcessed(processingTag);
-					processedResolution = "SUCCESS";
+					processedResolution = adIssueIdsByConfigId.isEmpty() ? "SUCCESS" : "PARTIAL ERROR";
 				}
 				else
 				{
@@ -274,7 +312,7 @@ public class ModelToIndexEnqueueProcessor
 		}
 
 		final ImmutableList<ESDocumentToIndexChunk> chunks = indexers.stream()
-				.flatMap(indexer -> indexer.createDocumentsToIndex(events, config).stream())
+				.flatMap(indexer -> createDocumentsToIndex(indexer, events, config).stream())
 				.collect(ImmutableList.toImmutableList());
 
 		if (chunks.isEmpty())
@@ -291,6 +329,23 @@ public class ModelToIndexEnqueueProcessor
 		addDocumentsToIndex(config, chunks);
 	}
 
+	private static List<ESDocumentToIndexChunk> createDocumentsToIndex(
+			@NonNull final FTSModelIndexer indexer,
+			@NonNull final List<ModelToIndex> events,
+			@NonNull final FTSConfig config)
+	{
+		final Set<TableName> handledSourceTableNames = indexer.getHandledSourceTableNames();
+		final ImmutableList<ModelToIndex> handledEvents = events.stream()
+				.filter(event -> handledSourceTableNames.contains(TableName.ofString(event.getSourceModelRef().getTableName())))
+				.collect(ImmutableList.toImmutableList());
+		if (handledEvents.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		return indexer.createDocumentsToIndex(handledEvents, config);
+	}
+
 	private List<FTSModelIndexer> getModelIndexers(final ConfigAndEvents configAndEvents)
 	{
 		return indexersRegistry.getBySourceTableNames(configAndEvents.getSourceTableNames());
@@ -316,37 +371,28 @@ public class ModelToIndexEnqueueProcessor
 			@NonNull final FTSConfig config,
 			@NonNull final List<ESDocumentToIndexChunk> chunks) throws IOException
 	{
-		for (final ESDocumentToIndexChunk chunk : chunks)
-		{
-			addDocumentsToIndex(config, chunk);
-		}
-	}
-
-	private void addDocumentsToIndex(
-			@NonNull final FTSConfig config,
-			@NonNull final ESDocumentToIndexChunk chunk) throws IOException
-	{
-		final RestHighLevelClient elasticsearchClient = configService.elasticsearchClient();
 		final String esIndexName = config.getEsIndexName();
 
-		final BulkRequest bulkRequest = new BulkRequest();
-
-		for (final String documentIdToDelete : chunk.getDocumentIdsToDelete())
+		final ArrayList<DocWriteRequest<?>> requests = new ArrayList<>();
+		for (final ESDocumentToIndexChunk chunk : chunks)
 		{
-			bulkRequest.add(new DeleteRequest(esIndexName)
-					.id(documentIdToDelete));
-		}
+			for (final String documentIdToDelete : chunk.getDocumentIdsToDelete())
+			{
+				requests.add(new DeleteRequest(esIndexName)
+						.id(documentIdToDelete));
+			}
 
-		for (final ESDocumentToIndex documentToIndex : chunk.getDocumentsToIndex())
-		{
-			bulkRequest.add(new IndexRequest(esIndexName)
-					.id(documentToIndex.getDocumentId())
-					.source(documentToIndex.getJson(), XContentType.JSON));
+			for (final ESDocumentToIndex documentToIndex : chunk.getDocumentsToIndex())
+			{
+				requests.add(new IndexRequest(esIndexName)
+						.id(documentToIndex.getDocumentId())
+						.source(documentToIndex.getJson(), XContentType.JSON));
+			}
 		}
 
-		if (bulkRequest.numberOfActions() > 0)
+		if (!requests.isEmpty())
 		{
-			elasticsearchClient.bulk(bulkRequest, RequestOptions.DEFAULT);
+			newBulkWriter().write(requests);
 		}
 	}
 
@@ -371,10 +417,7 @@ public class ModelToIndexEnqueueProcessor
 
 		public void addEvent(final ModelToIndex event)
 		{
-			if (!events.contains(event))
-			{
-				events.add(event);
-			}
+			events.add(event);
 		}
 
 		public ImmutableList<ModelToIndex> getEvents()
@@ -130,7 +130,9 @@ public class ModelToIndexRepository
 			return ImmutableList.of();
 		}
 
+		// NOTE: we retrieve them in the order they were enqueued, so the events can be coalesced properly
 		return queryForTag(processingTag)
+				.orderBy(I_ES_FTS_Index_Queue.COLUMNNAME_ES_FTS_Index_Queue_ID)
 				.create()
 				.stream()
 				.map(ModelToIndexRepository::toModelToIndex)
@@ -174,6 +176,25 @@ public class ModelToIndexRepository
 				.execute();
 	}
 
+	/**
+	 * Marks as error only the events of the given FTS config. The other events of the processing tag are not touched.
+	 */
+	public void markAsError(
+			@NonNull final String processingTag,
+			@NonNull final FTSConfigId ftsConfigId,
+			@NonNull final AdIssueId adIssueId)
+	{
+		queryForTag(processingTag)
+				.addEqualsFilter(I_ES_FTS_Index_Queue.COLUMNNAME_ES_FTS_Config_ID, ftsConfigId)
+				.create()
+				.updateDirectly()
+				.addSetColumnValue(I_ES_FTS_Index_Queue.COLUMNNAME_Processed, true)
+				.addSetColumnValue(I_ES_FTS_Index_Queue.COLUMNNAME_IsError, true)
+				.addSetColumnValue(I_ES_FTS_Index_Queue.COLUMNNAME_AD_Issue_ID, adIssueId)
+				.addSetColumnValue(I_ES_FTS_Index_Queue.COLUMNNAME_Updated, SystemTime.asInstant())
+				.execute();
+	}
+
 	public void untag(final String processingTag)
 	{
 		queryForTag(processingTag)
@@ -0,0 +1,73 @@
+/*
+ * #%L
+ * de.metas.elasticsearch
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.fulltextsearch.indexer.queue;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.fulltextsearch.config.FTSConfigId;
+import lombok.NonNull;
+import lombok.Value;
+import org.adempiere.util.lang.impl.TableRecordReference;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Coalesces the queued events which are about the same source record, so that each record is indexed only once per batch.
+ * <p>
+ * The events are expected to be in the order they were enqueued. The last event of a record wins,
+ * i.e. a record which was changed and then removed will be only removed, and a record which was removed and then re-created will be only indexed.
+ */
+final class ModelsToIndexCoalescer
+{
+	private ModelsToIndexCoalescer()
+	{
+	}
+
+	public static ImmutableList<ModelToIndex> coalesce(@NonNull final List<ModelToIndex> events)
+	{
+		if (events.size() <= 1)
+		{
+			return ImmutableList.copyOf(events);
+		}
+
+		final LinkedHashMap<CoalesceKey, ModelToIndex> eventsByKey = new LinkedHashMap<>(events.size());
+		for (final ModelToIndex event : events)
+		{
+			eventsByKey.put(CoalesceKey.of(event), event);
+		}
+
+		return ImmutableList.copyOf(eventsByKey.values());
+	}
+
+	@Value
+	private static class CoalesceKey
+	{
+		@NonNull FTSConfigId ftsConfigId;
+		@NonNull TableRecordReference sourceModelRef;
+
+		static CoalesceKey of(@NonNull final ModelToIndex event)
+		{
+			return new CoalesceKey(event.getFtsConfigId(), event.getSourceModelRef());
+		}
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * #%L
+ * de.metas.elasticsearch
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.fulltextsearch.indexer.queue;
+
+import com.google.common.collect.ImmutableList;
+import lombok.NonNull;
+import org.adempiere.exceptions.AdempiereException;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ESBulkWriterTest
+{
+	private static final String INDEX_NAME = "test_index";
+
+	/**
+	 * In-process stand-in for the Elasticsearch bulk endpoint.
+	 */
+	private static class MockedBulkExecutor implements ESBulkWriter.BulkExecutor
+	{
+		private final List<List<String>> requestedDocumentIds = new ArrayList<>();
+		private final Set<String> indexedDocumentIds = new HashSet<>();
+		private final Set<String> failingDocumentIds = new HashSet<>();
+		private int rejectCallsCount = 0;
+
+		@Override
+		public BulkResponse execute(@NonNull final BulkRequest bulkRequest)
+		{
+			final List<DocWriteRequest<?>> requests = bulkRequest.requests();
+			requestedDocumentIds.add(requests.stream().map(DocWriteRequest::id).collect(Collectors.toList()));
+
+			final boolean reject = rejectCallsCount > 0;
+			if (reject)
+			{
+				rejectCallsCount--;
+			}
+
+			final BulkItemResponse[] items = new BulkItemResponse[requests.size()];
+			for (int i = 0; i < requests.size(); i++)
+			{
+				final DocWriteRequest<?> request = requests.get(i);
+				final String documentId = request.id();
+
+				// reject every second document when overloaded
+				if (reject && i % 2 == 1)
+				{
+					items[i] = failure(i, request, new EsRejectedExecutionException("rejected execution"));
+				}
+				else if (failingDocumentIds.contains(documentId))
+				{
+					items[i] = failure(i, request, new IllegalArgumentException("mapping error"));
+				}
+				else
+				{
+					indexedDocumentIds.add(documentId);
+					items[i] = new BulkItemResponse(i, request.opType(), new IndexResponse(new ShardId(INDEX_NAME, "_na_", 0), "_doc", documentId, 1, 1, 1, true));
+				}
+			}
+
+			return new BulkResponse(items, 1);
+		}
+
+		private static BulkItemResponse failure(final int itemId, final DocWriteRequest<?> request, final Exception cause)
+		{
+			return new BulkItemResponse(itemId, request.opType(), new BulkItemResponse.Failure(INDEX_NAME, "_doc", request.id(), cause));
+		}
+	}
+
+	private static ImmutableList<DocWriteRequest<?>> indexRequests(final int count)
+	{
+		return IntStream.rangeClosed(1, count)
+				.mapToObj(id -> new IndexRequest(INDEX_NAME).id(String.valueOf(id)).source("{}", XContentType.JSON))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private static ESBulkWriter bulkWriter(final MockedBulkExecutor bulkExecutor)
+	{
+		return ESBulkWriter.builder()
+				.bulkExecutor(bulkExecutor)
+				.maxActionsPerRequest(4)
+				.maxRetries(2)
+				.initialBackoff(Duration.ZERO)
+				.build();
+	}
+
+	@Test
+	void splitsIntoBulkRequestsOfLimitedSize() throws IOException
+	{
+		final MockedBulkExecutor bulkExecutor = new MockedBulkExecutor();
+
+		bulkWriter(bulkExecutor).write(indexRequests(10));
+
+		assertThat(bulkExecutor.requestedDocumentIds).extracting(List::size).containsExactly(4, 4, 2);
+		assertThat(bulkExecutor.indexedDocumentIds).hasSize(10);
+	}
+
+	@Test
+	void rejectedDocuments_areRetried() throws IOException
+	{
+		final MockedBulkExecutor bulkExecutor = new MockedBulkExecutor();
+		bulkExecutor.rejectCallsCount = 1;
+
+		bulkWriter(bulkExecutor).write(indexRequests(4));
+
+		assertThat(bulkExecutor.requestedDocumentIds).containsExactly(
+				ImmutableList.of("1", "2", "3", "4"),
+				ImmutableList.of("2", "4"));
+		assertThat(bulkExecutor.indexedDocumentIds).containsExactlyInAnyOrder("1", "2", "3", "4");
+	}
+
+	@Test
+	void rejectedDocuments_tooManyRetries()
+	{
+		final MockedBulkExecutor bulkExecutor = new MockedBulkExecutor();
+		bulkExecutor.rejectCallsCount = 100;
+
+		assertThatThrownBy(() -> bulkWriter(bulkExecutor).write(indexRequests(4)))
+				.isInstanceOf(IOException.class);
+		assertThat(bulkExecutor.requestedDocumentIds).hasSize(3);
+	}
+
+	@Test
+	void failedDocuments_notRetried()
+	{
+		final MockedBulkExecutor bulkExecutor = new MockedBulkExecutor();
+		bulkExecutor.failingDocumentIds.add("3");
+
+		assertThatThrownBy(() -> bulkWriter(bulkExecutor).write(indexRequests(4)))
+				.isInstanceOf(AdempiereException.class)
+				.hasMessageContaining("Failed indexing 1 documents");
+		assertThat(bulkExecutor.requestedDocumentIds).hasSize(1);
+	}
+
+	@Test
+	void failedDocuments_otherChunksAreStillWritten()
+	{
+		final MockedBulkExecutor bulkExecutor = new MockedBulkExecutor();
+		bulkExecutor.failingDocumentIds.add("2");
+		bulkExecutor.failingDocumentIds.add("9");
+
+		assertThatThrownBy(() -> bulkWriter(bulkExecutor).write(indexRequests(10)))
+				.isInstanceOf(AdempiereException.class)
+				.hasMessageContaining("Failed indexing 2 documents");
+		assertThat(bulkExecutor.requestedDocumentIds).extracting(List::size).containsExactly(4, 4, 2);
+		assertThat(bulkExecutor.indexedDocumentIds).containsExactlyInAnyOrder("1", "3", "4", "5", "6", "7", "8", "10");
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * #%L
+ * de.metas.elasticsearch
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.fulltextsearch.indexer.queue;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.fulltextsearch.config.FTSConfigId;
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModelsToIndexCoalescerTest
+{
+	private static final FTSConfigId CONFIG_ID_1 = FTSConfigId.ofRepoId(1);
+	private static final FTSConfigId CONFIG_ID_2 = FTSConfigId.ofRepoId(2);
+
+	private static ModelToIndex event(final FTSConfigId configId, final ModelToIndexEventType eventType, final int recordId)
+	{
+		return ModelToIndex.builder()
+				.ftsConfigId(configId)
+				.eventType(eventType)
+				.sourceModelRef(TableRecordReference.of("C_BPartner", recordId))
+				.build();
+	}
+
+	@Test
+	void sameRecordEnqueuedMultipleTimes_indexedOnce()
+	{
+		assertThat(ModelsToIndexCoalescer.coalesce(ImmutableList.of(
+				event(CONFIG_ID_1, ModelToIndexEventType.CREATED_OR_UPDATED, 1),
+				event(CONFIG_ID_1, ModelToIndexEventType.CREATED_OR_UPDATED, 2),
+				event(CONFIG_ID_1, ModelToIndexEventType.CREATED_OR_UPDATED, 1),
+				event(CONFIG_ID_1, ModelToIndexEventType.CREATED_OR_UPDATED, 1))))
+				.containsExactly(
+						event(CONFIG_ID_1, ModelToIndexEventType.CREATED_OR_UPDATED, 1),
+						event(CONFIG_ID_1, ModelToIndexEventType.CREATED_OR_UPDATED, 2));
+	}
+
+	@Test
+	void lastEventWins()
+	{
+		assertThat(ModelsToIndexCoalescer.coalesce(ImmutableList.of(
+				event(CONFIG_ID_1, ModelToIndexEventType.CREATED_OR_UPDATED, 1),
+				event(CONFIG_ID_1, ModelToIndexEventType.REMOVED, 2),
+				event(CONFIG_ID_1, ModelToIndexEventType.REMOVED, 1),
+				event(CONFIG_ID_1, ModelToIndexEventType.CREATED_OR_UPDATED, 2))))
+				.containsExactly(
+						event(CONFIG_ID_1, ModelToIndexEventType.REMOVED, 1),
+						event(CONFIG_ID_1, ModelToIndexEventType.CREATED_OR_UPDATED, 2));
+	}
+
+	@Test
+	void differentConfigs_notCoalesced()
+	{
+		assertThat(ModelsToIndexCoalescer.coalesce(ImmutableList.of(
+				event(CONFIG_ID_1, ModelToIndexEventType.CREATED_OR_UPDATED, 1),
+				event(CONFIG_ID_2, ModelToIndexEventType.CREATED_OR_UPDATED, 1))))
+				.hasSize(2);
+	}
+}
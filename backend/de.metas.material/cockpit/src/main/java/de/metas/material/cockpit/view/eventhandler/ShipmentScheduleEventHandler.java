@@ -13,7 +13,7 @@ import de.metas.material.cockpit.view.detailrecord.RemoveDetailRequest;
 import de.metas.material.cockpit.view.detailrecord.UpdateDetailRequest;
 import de.metas.material.cockpit.view.mainrecord.MainDataRequestHandler;
 import de.metas.material.cockpit.view.mainrecord.UpdateMainDataRequest;
-import de.metas.material.event.MaterialEventHandler;
+import de.metas.material.event.MaterialEventBatchHandler;
 import de.metas.material.event.commons.DocumentLineDescriptor;
 import de.metas.material.event.commons.MaterialDescriptor;
 import de.metas.material.event.commons.OrderLineDescriptor;
@@ -32,8 +32,11 @@ import org.slf4j.Logger;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.Nullable;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 /*
  * #%L
@@ -60,7 +63,7 @@ import java.util.Collection;
 @Service
 @Profile(Profiles.PROFILE_App) // it's important to have just *one* instance of this listener, because on each event needs to be handled exactly once.
 public class ShipmentScheduleEventHandler
-		implements MaterialEventHandler<AbstractShipmentScheduleEvent>
+		implements MaterialEventBatchHandler<AbstractShipmentScheduleEvent>
 {
 	private static final Logger logger = LogManager.getLogger(ShipmentScheduleEventHandler.class);
 
@@ -93,18 +96,47 @@ public class ShipmentScheduleEventHandler
 
 	@Override
 	public void handleEvent(@NonNull final AbstractShipmentScheduleEvent event)
+	{
+		final MainDataRecordIdentifier identifier = createMainDataRecordIdentifier(event);
+
+		final UpdateMainDataRequest mainDataRequest = createMainDataRequestOrNull(event, identifier);
+		if (mainDataRequest != null)
+		{
+			dataUpdateRequestHandler.handleDataUpdateRequest(mainDataRequest);
+		}
+		createAndHandleDetailRequest(event, identifier);
+	}
+
+	@Override
+	public void handleEvents(@NonNull final List<AbstractShipmentScheduleEvent> events)
+	{
+		final ArrayList<UpdateMainDataRequest> mainDataRequests = new ArrayList<>();
+		for (final AbstractShipmentScheduleEvent event : events)
+		{
+			final MainDataRecordIdentifier identifier = createMainDataRecordIdentifier(event);
+
+			final UpdateMainDataRequest mainDataRequest = createMainDataRequestOrNull(event, identifier);
+			if (mainDataRequest != null)
+			{
+				mainDataRequests.add(mainDataRequest);
+			}
+			createAndHandleDetailRequest(event, identifier);
+		}
+
+		dataUpdateRequestHandler.handleDataUpdateRequests(mainDataRequests);
+	}
+
+	private MainDataRecordIdentifier createMainDataRecordIdentifier(@NonNull final AbstractShipmentScheduleEvent event)
 	{
 		final OrgId orgId = event.getEventDescriptor().getOrgId();
 		final ZoneId timeZone = orgDAO.getTimeZone(orgId);
-		
-		final MaterialDescriptor materialDescriptor = event.getMaterialDescriptor();
-		final MainDataRecordIdentifier identifier = MainDataRecordIdentifier.createForMaterial(materialDescriptor, timeZone);
 
-		createAndHandleMainDataRequest(event, identifier);
-		createAndHandleDetailRequest(event, identifier);
+		final MaterialDescriptor materialDescriptor = event.getMaterialDescriptor();
+		return MainDataRecordIdentifier.createForMaterial(materialDescriptor, timeZone);
 	}
 
-	private void createAndHandleMainDataRequest(
+	@Nullable
+	private UpdateMainDataRequest createMainDataRequestOrNull(
 			@NonNull final AbstractShipmentScheduleEvent shipmentScheduleEvent,
 			@NonNull final MainDataRecordIdentifier identifier)
 	{
@@ -112,15 +144,14 @@ public class ShipmentScheduleEventHandler
 				&& shipmentScheduleEvent.getReservedQuantityDelta().signum() == 0)
 		{
 			Loggables.withLogger(logger, Level.DEBUG).addLog("Skipping this event because is has both orderedQuantityDelta and reservedQuantityDelta = zero");
-			return;
+			return null;
 		}
 
-		final UpdateMainDataRequest request = UpdateMainDataRequest.builder()
+		return UpdateMainDataRequest.builder()
 				.identifier(identifier)
 				.orderedSalesQty(shipmentScheduleEvent.getOrderedQuantityDelta())
 				.qtyDemandSalesOrder(shipmentScheduleEvent.getReservedQuantityDelta())
 				.build();
-		dataUpdateRequestHandler.handleDataUpdateRequest(request);
 	}
 
 	private void createAndHandleDetailRequest(
@@ -6,7 +6,7 @@ import de.metas.material.cockpit.view.MainDataRecordIdentifier;
 import de.metas.material.cockpit.view.mainrecord.MainDataRequestHandler;
 import de.metas.material.cockpit.view.mainrecord.UpdateMainDataRequest;
 import de.metas.material.cockpit.view.mainrecord.UpdateMainDataRequest.UpdateMainDataRequestBuilder;
-import de.metas.material.event.MaterialEventHandler;
+import de.metas.material.event.MaterialEventBatchHandler;
 import de.metas.material.event.transactions.AbstractTransactionEvent;
 import de.metas.material.event.transactions.TransactionCreatedEvent;
 import de.metas.material.event.transactions.TransactionDeletedEvent;
@@ -20,6 +20,7 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.ZoneId;
 import java.util.Collection;
+import java.util.List;
 
 /*
  * #%L
@@ -46,7 +47,7 @@ import java.util.Collection;
 @Service
 @Profile(Profiles.PROFILE_App) // it's important to have just *one* instance of this listener, because on each event needs to be handled exactly once.
 public class TransactionEventHandlerForCockpitRecords
-		implements MaterialEventHandler<AbstractTransactionEvent>
+		implements MaterialEventBatchHandler<AbstractTransactionEvent>
 {
 	private final MainDataRequestHandler dataUpdateRequestHandler;
 	private final IOrgDAO orgDAO = Services.get(IOrgDAO.class);
@@ -72,6 +73,15 @@ public class TransactionEventHandlerForCockpitRecords
 		dataUpdateRequestHandler.handleDataUpdateRequest(dataUpdateRequest);
 	}
 
+	@Override
+	public void handleEvents(@NonNull final List<AbstractTransactionEvent> events)
+	{
+		final ImmutableList<UpdateMainDataRequest> dataUpdateRequests = events.stream()
+				.map(this::createDataUpdateRequestForEvent)
+				.collect(ImmutableList.toImmutableList());
+		dataUpdateRequestHandler.handleDataUpdateRequests(dataUpdateRequests);
+	}
+
 	private UpdateMainDataRequest createDataUpdateRequestForEvent(@NonNull final AbstractTransactionEvent event)
 	{
 		final OrgId orgId = event.getEventDescriptor().getOrgId();
@@ -35,6 +35,9 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.stream.Stream;
 
 import static de.metas.util.NumberUtils.stripTrailingDecimalZeros;
@@ -55,6 +58,28 @@ public class MainDataRequestHandler
 		}
 	}
 
+	/**
+	 * Has the same effect as invoking {@link #handleDataUpdateRequest(UpdateMainDataRequest)} for each of the given requests,
+	 * but each {@code MD_Cockpit} record is retrieved and saved just once, no matter how many of the requests concern it.
+	 */
+	public void handleDataUpdateRequests(@NonNull final List<UpdateMainDataRequest> dataUpdateRequests)
+	{
+		final LinkedHashMap<MainDataRecordIdentifier, List<UpdateMainDataRequest>> requestsByIdentifier = new LinkedHashMap<>();
+		for (final UpdateMainDataRequest dataUpdateRequest : dataUpdateRequests)
+		{
+			requestsByIdentifier.computeIfAbsent(dataUpdateRequest.getIdentifier(), identifier -> new ArrayList<>()).add(dataUpdateRequest);
+		}
+
+		synchronized (MainDataRequestHandler.class)
+		{
+			requestsByIdentifier.forEach((identifier, requests) -> {
+				final I_MD_Cockpit dataRecord = retrieveOrCreateDataRecord(identifier);
+				requests.forEach(request -> updateDataRecordWithRequestQtys(dataRecord, request));
+				saveRecord(dataRecord);
+			});
+		}
+	}
+
 	public void handleStockUpdateRequest(@NonNull final UpdateMainStockDataRequest updateMainStockDataRequest)
 	{
 		synchronized (MainDataRequestHandler.class)
@@ -4,12 +4,14 @@ import static org.adempiere.model.InterfaceWrapperHelper.isNew;
 import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 
 import org.adempiere.test.AdempiereTestHelper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableList;
 import de.metas.material.cockpit.model.I_MD_Cockpit;
 import de.metas.material.cockpit.view.MainDataRecordIdentifier;
 import de.metas.material.event.commons.ProductDescriptor;
@@ -63,4 +65,28 @@ public class MainDataRequestHandlerTest
 		assertThat(isNew(result2)).isFalse();
 		assertThat(result2.getMD_Cockpit_ID()).isEqualTo(result.getMD_Cockpit_ID());
 	}
+
+	@Test
+	public void handleDataUpdateRequests_combinesRequestsForSameRecord()
+	{
+		final MainDataRecordIdentifier identifier1 = MainDataRecordIdentifier.builder()
+				.date(NOW)
+				.productDescriptor(ProductDescriptor.completeForProductIdAndEmptyAttribute(30)).build();
+		final MainDataRecordIdentifier identifier2 = MainDataRecordIdentifier.builder()
+				.date(NOW)
+				.productDescriptor(ProductDescriptor.completeForProductIdAndEmptyAttribute(40)).build();
+
+		new MainDataRequestHandler().handleDataUpdateRequests(ImmutableList.of(
+				UpdateMainDataRequest.builder().identifier(identifier1).onHandQtyChange(new BigDecimal("10")).build(),
+				UpdateMainDataRequest.builder().identifier(identifier2).onHandQtyChange(new BigDecimal("3")).build(),
+				UpdateMainDataRequest.builder().identifier(identifier1).onHandQtyChange(new BigDecimal("-4")).qtyDemandSalesOrder(new BigDecimal("2")).build()));
+
+		final I_MD_Cockpit record1 = MainDataRequestHandler.retrieveOrCreateDataRecord(identifier1);
+		assertThat(record1.getQtyStockChange()).isEqualByComparingTo("6");
+		assertThat(record1.getQtyDemand_SalesOrder()).isEqualByComparingTo("2");
+		assertThat(record1.getQtyDemandSum()).isEqualByComparingTo("2");
+
+		final I_MD_Cockpit record2 = MainDataRequestHandler.retrieveOrCreateDataRecord(identifier2);
+		assertThat(record2.getQtyStockChange()).isEqualByComparingTo("3");
+	}
 }
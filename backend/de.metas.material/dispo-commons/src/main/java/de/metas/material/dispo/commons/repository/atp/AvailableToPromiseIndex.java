@@ -0,0 +1,507 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.bpartner.BPartnerId;
+import de.metas.material.commons.attributes.clasifiers.BPartnerClassifier;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.product.ProductId;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+import org.adempiere.warehouse.WarehouseId;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * In-memory stock timelines, i.e. the {@code MD_Candidate} records of type {@code STOCK}, per product, warehouse, customer and storage-attributes-key, sorted by {@code DateProjected} and {@code SeqNo}.
+ * <p>
+ * Answers the same question as the DB function {@code de_metas_material.retrieve_atp_at_date}, i.e. "which is the latest stock record at the given date",
+ * but only for products that were loaded before.
+ * <p>
+ * The number of records is bounded: when loading a product exceeds the maximum, the products that were least recently queried are dropped from the index.
+ * <p>
+ * Thread-safe.
+ */
+public final class AvailableToPromiseIndex
+{
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final HashMap<ProductId, ProductTimelines> timelinesByProductId = new HashMap<>();
+	private final HashMap<Integer, ProductId> productIdsByCandidateId = new HashMap<>();
+	private final HashMap<ProductId, LoadTicket> loadTicketsByProductId = new HashMap<>();
+
+	public boolean isLoaded(@NonNull final ProductId productId)
+	{
+		lock.readLock().lock();
+		try
+		{
+			return timelinesByProductId.containsKey(productId);
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Shall be called <b>before</b> the given product's stock records are retrieved from DB.
+	 * Any change of the product that is reported from now on will make the respective {@link #finishLoading(LoadTicket, Collection)} fail,
+	 * because the retrieved records might or might not contain that change.
+	 */
+	public LoadTicket startLoading(@NonNull final ProductId productId)
+	{
+		lock.writeLock().lock();
+		try
+		{
+			final LoadTicket ticket = new LoadTicket(productId);
+			loadTicketsByProductId.put(productId, ticket);
+			return ticket;
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @param maxRecords if the index has more records than this after loading, then the least recently queried other products are removed, until it doesn't
+	 * @return {@code false} if the product was changed or the index was invalidated since {@link #startLoading(ProductId)} was called. In that case, the given records were discarded.
+	 */
+	public boolean finishLoading(@NonNull final LoadTicket ticket, @NonNull final Collection<StockRecord> records, final int maxRecords)
+	{
+		lock.writeLock().lock();
+		try
+		{
+			final ProductId productId = ticket.getProductId();
+			if (loadTicketsByProductId.get(productId) != ticket)
+			{
+				return false;
+			}
+			loadTicketsByProductId.remove(productId);
+			if (ticket.isObsolete())
+			{
+				return false;
+			}
+
+			removeProduct(productId);
+
+			final ProductTimelines timelines = new ProductTimelines();
+			for (final StockRecord record : records)
+			{
+				if (!productId.equals(record.getProductId()))
+				{
+					throw new IllegalArgumentException("Record " + record + " does not belong to " + productId);
+				}
+				timelines.add(record);
+				productIdsByCandidateId.put(record.getCandidateId(), productId);
+			}
+			timelinesByProductId.put(productId, timelines);
+
+			removeLeastRecentlyUsedProducts(maxRecords, productId);
+
+			return true;
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds the given record, or replaces the record with the same {@code candidateId}.
+	 * If the record's product is not loaded, then the record is ignored, because it will be retrieved with all the others when the product is loaded.
+	 */
+	public void addOrReplace(@NonNull final StockRecord record)
+	{
+		lock.writeLock().lock();
+		try
+		{
+			removeCandidate(record.getCandidateId());
+
+			final ProductId productId = record.getProductId();
+			markLoadingObsolete(productId);
+
+			final ProductTimelines timelines = timelinesByProductId.get(productId);
+			if (timelines != null)
+			{
+				timelines.add(record);
+				productIdsByCandidateId.put(record.getCandidateId(), productId);
+			}
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes the record with the given {@code candidateId}, if there is one.
+	 *
+	 * @param productId the candidate's product; it's needed in case the candidate's product is currently loading.
+	 */
+	public void remove(final int candidateId, @NonNull final ProductId productId)
+	{
+		lock.writeLock().lock();
+		try
+		{
+			markLoadingObsolete(productId);
+			removeCandidate(candidateId);
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void invalidateAll()
+	{
+		lock.writeLock().lock();
+		try
+		{
+			timelinesByProductId.clear();
+			productIdsByCandidateId.clear();
+
+			loadTicketsByProductId.values().forEach(LoadTicket::markObsolete);
+			loadTicketsByProductId.clear();
+		}
+		finally
+		{
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @return for each of the given products' timelines, the latest record whose date is not after the given {@code date} and which is accepted by the given filter;
+	 * empty if any of the given products is not loaded.
+	 */
+	public Optional<ImmutableList<StockRecord>> getLatestRecords(
+			@NonNull final Set<ProductId> productIds,
+			@NonNull final Instant date,
+			@NonNull final Predicate<StockRecord> filter)
+	{
+		lock.readLock().lock();
+		try
+		{
+			final ImmutableList.Builder<StockRecord> result = ImmutableList.builder();
+			for (final ProductId productId : productIds)
+			{
+				final ProductTimelines timelines = timelinesByProductId.get(productId);
+				if (timelines == null)
+				{
+					return Optional.empty();
+				}
+
+				timelines.markAccessed();
+				timelines.streamLatestRecords(date)
+						.filter(filter)
+						.forEach(result::add);
+			}
+			return Optional.of(result.build());
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+	}
+
+	public int getLoadedProductsCount()
+	{
+		lock.readLock().lock();
+		try
+		{
+			return timelinesByProductId.size();
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+	}
+
+	public int getRecordsCount()
+	{
+		lock.readLock().lock();
+		try
+		{
+			return productIdsByCandidateId.size();
+		}
+		finally
+		{
+			lock.readLock().unlock();
+		}
+	}
+
+	private void removeLeastRecentlyUsedProducts(final int maxRecords, @NonNull final ProductId productIdToKeep)
+	{
+		if (productIdsByCandidateId.size() <= maxRecords)
+		{
+			return;
+		}
+
+		final ImmutableList<ProductId> productIdsByLastAccess = timelinesByProductId.entrySet()
+				.stream()
+				.filter(entry -> !productIdToKeep.equals(entry.getKey()))
+				.sorted(Comparator.comparingLong(entry -> entry.getValue().getLastAccessNanos()))
+				.map(Map.Entry::getKey)
+				.collect(ImmutableList.toImmutableList());
+
+		for (final ProductId productId : productIdsByLastAccess)
+		{
+			if (productIdsByCandidateId.size() <= maxRecords)
+			{
+				break;
+			}
+			removeProduct(productId);
+		}
+	}
+
+	private void markLoadingObsolete(@NonNull final ProductId productId)
+	{
+		final LoadTicket ticket = loadTicketsByProductId.get(productId);
+		if (ticket != null)
+		{
+			ticket.markObsolete();
+		}
+	}
+
+	private void removeCandidate(final int candidateId)
+	{
+		final ProductId productId = productIdsByCandidateId.remove(candidateId);
+		if (productId == null)
+		{
+			return;
+		}
+
+		final ProductTimelines timelines = timelinesByProductId.get(productId);
+		if (timelines != null)
+		{
+			timelines.remove(candidateId);
+		}
+	}
+
+	private void removeProduct(@NonNull final ProductId productId)
+	{
+		final ProductTimelines timelines = timelinesByProductId.remove(productId);
+		if (timelines != null)
+		{
+			timelines.getCandidateIds().forEach(productIdsByCandidateId::remove);
+		}
+	}
+
+	/**
+	 * One {@code MD_Candidate} record of type {@code STOCK} that is active and not simulated.
+	 */
+	@Value
+	@Builder
+	public static class StockRecord
+	{
+		int candidateId;
+
+		@NonNull
+		ProductId productId;
+
+		@NonNull
+		WarehouseId warehouseId;
+
+		@Nullable
+		BPartnerId customerId;
+
+		@NonNull
+		AttributesKey storageAttributesKey;
+
+		@NonNull
+		Instant date;
+
+		int seqNo;
+
+		@NonNull
+		BigDecimal qty;
+
+		public AddToResultGroupRequest toAddToResultGroupRequest()
+		{
+			return AddToResultGroupRequest.builder()
+					.productId(productId)
+					.bpartner(BPartnerClassifier.specificOrAny(customerId)) // records that have no bPartner-ID are applicable to any bpartner
+					.warehouseId(warehouseId)
+					.storageAttributesKey(storageAttributesKey)
+					.qty(qty)
+					.date(date)
+					.seqNo(seqNo)
+					.build();
+		}
+
+		private TimelineKey getTimelineKey()
+		{
+			return new TimelineKey(warehouseId, customerId, storageAttributesKey);
+		}
+	}
+
+	public static final class LoadTicket
+	{
+		private final ProductId productId;
+		private volatile boolean obsolete = false;
+
+		private LoadTicket(@NonNull final ProductId productId)
+		{
+			this.productId = productId;
+		}
+
+		public ProductId getProductId()
+		{
+			return productId;
+		}
+
+		private boolean isObsolete()
+		{
+			return obsolete;
+		}
+
+		private void markObsolete()
+		{
+			obsolete = true;
+		}
+	}
+
+	/**
+	 * Same as the {@code DISTINCT ON} columns of {@code de_metas_material.retrieve_atp_at_date}, apart from the product.
+	 */
+	@Value
+	private static class TimelineKey
+	{
+		@NonNull
+		WarehouseId warehouseId;
+
+		@Nullable
+		BPartnerId customerId;
+
+		@NonNull
+		AttributesKey storageAttributesKey;
+	}
+
+	/**
+	 * The candidate ID is only there to tell apart records with the same date and seqNo, so that none of them gets lost.
+	 */
+	@Value
+	private static class TimelinePoint
+	{
+		private static final Comparator<TimelinePoint> COMPARATOR = Comparator.comparing(TimelinePoint::getDate)
+				.thenComparingInt(TimelinePoint::getSeqNo)
+				.thenComparingInt(TimelinePoint::getCandidateId);
+
+		@NonNull
+		Instant date;
+
+		int seqNo;
+
+		int candidateId;
+
+		static TimelinePoint of(@NonNull final StockRecord record)
+		{
+			return new TimelinePoint(record.getDate(), record.getSeqNo(), record.getCandidateId());
+		}
+
+		static TimelinePoint latestAt(@NonNull final Instant date)
+		{
+			return new TimelinePoint(date, Integer.MAX_VALUE, Integer.MAX_VALUE);
+		}
+	}
+
+	private static final class ProductTimelines
+	{
+		private final HashMap<TimelineKey, TreeMap<TimelinePoint, StockRecord>> timelines = new HashMap<>();
+		private final HashMap<Integer, StockRecord> recordsByCandidateId = new HashMap<>();
+
+		/**
+		 * Volatile, because it's updated by the queries, which only hold the read lock
+		 */
+		private volatile long lastAccessNanos = System.nanoTime();
+
+		void markAccessed()
+		{
+			lastAccessNanos = System.nanoTime();
+		}
+
+		long getLastAccessNanos()
+		{
+			return lastAccessNanos;
+		}
+
+		void add(@NonNull final StockRecord record)
+		{
+			timelines.computeIfAbsent(record.getTimelineKey(), key -> new TreeMap<>(TimelinePoint.COMPARATOR))
+					.put(TimelinePoint.of(record), record);
+			recordsByCandidateId.put(record.getCandidateId(), record);
+		}
+
+		void remove(final int candidateId)
+		{
+			final StockRecord record = recordsByCandidateId.remove(candidateId);
+			if (record == null)
+			{
+				return;
+			}
+
+			final TimelineKey timelineKey = record.getTimelineKey();
+			final TreeMap<TimelinePoint, StockRecord> timeline = timelines.get(timelineKey);
+			if (timeline == null)
+			{
+				return;
+			}
+
+			timeline.remove(TimelinePoint.of(record));
+			if (timeline.isEmpty())
+			{
+				timelines.remove(timelineKey);
+			}
+		}
+
+		Set<Integer> getCandidateIds()
+		{
+			return recordsByCandidateId.keySet();
+		}
+
+		Stream<StockRecord> streamLatestRecords(@NonNull final Instant date)
+		{
+			final TimelinePoint latestAtDate = TimelinePoint.latestAt(date);
+			return timelines.values()
+					.stream()
+					.map(timeline -> timeline.floorEntry(latestAtDate))
+					.filter(Objects::nonNull)
+					.map(Map.Entry::getValue);
+		}
+	}
+}
@@ -0,0 +1,332 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import de.metas.Profiles;
+import de.metas.bpartner.BPartnerId;
+import de.metas.logging.LogManager;
+import de.metas.material.commons.attributes.AttributesKeyPattern;
+import de.metas.material.commons.attributes.clasifiers.BPartnerClassifier;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseIndex.LoadTicket;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseIndex.StockRecord;
+import de.metas.material.dispo.model.I_MD_Candidate;
+import de.metas.material.dispo.model.X_MD_Candidate;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.product.ProductId;
+import de.metas.util.Services;
+import lombok.NonNull;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.warehouse.WarehouseId;
+import org.compiere.util.TimeUtil;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Maintains the {@link AvailableToPromiseIndex} of this JVM.
+ * <p>
+ * A product's stock records are loaded when the product is queried for the first time.
+ * After that, the index is kept current with the {@code MD_Candidate} changes that are reported via {@link #onCandidateChanged(I_MD_Candidate)} and {@link #onCandidateDeleted(I_MD_Candidate)},
+ * once the respective transaction is committed.
+ * Those changes are made by the material-dispo event handlers, so the index is only used where the {@link Profiles#PROFILE_MaterialDispo} profile is active.
+ * Other JVMs, e.g. the webui's order line callouts and product lookups, don't see those changes right away and therefore keep querying the DB.
+ * <p>
+ * The index holds at most {@value #SYSCONFIG_MaxRecords} stock records; see {@link AvailableToPromiseIndex#finishLoading(LoadTicket, Collection, int)}.
+ */
+@Service
+public class AvailableToPromiseIndexService
+{
+	private static final Logger logger = LogManager.getLogger(AvailableToPromiseIndexService.class);
+
+	private static final String SYSCONFIG_Enabled = "de.metas.material.dispo.commons.repository.atp.AvailableToPromiseIndex.Enabled";
+
+	/**
+	 * If greater than zero, then every n-th query that is answered from the index is also answered from DB and the two results are compared.
+	 */
+	/**
+	 * Maximum number of stock records in the index. One record takes roughly 300 bytes.
+	 */
+	private static final String SYSCONFIG_MaxRecords = "de.metas.material.dispo.commons.repository.atp.AvailableToPromiseIndex.MaxRecords";
+	private static final int DEFAULT_MaxRecords = 200_000;
+
+	private static final String SYSCONFIG_ConsistencyCheckEveryNthQuery = "de.metas.material.dispo.commons.repository.atp.AvailableToPromiseIndex.ConsistencyCheckEveryNthQuery";
+
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+
+	private final AvailableToPromiseIndex index = new AvailableToPromiseIndex();
+
+	private final Supplier<Boolean> materialDispoProfileActive = Suppliers.memoize(() -> Profiles.isProfileActive(Profiles.PROFILE_MaterialDispo));
+
+	/**
+	 * Transactions which changed stock candidates that are not yet in the index.
+	 * Queries which run in such a transaction go to the DB, so they see their own changes.
+	 */
+	private final Set<String> trxNamesWithPendingChanges = ConcurrentHashMap.newKeySet();
+
+	private final AtomicLong queriesCount = new AtomicLong(0);
+
+	public boolean isEnabled()
+	{
+		if (!sysConfigBL.getBooleanValue(SYSCONFIG_Enabled, false) || !materialDispoProfileActive.get())
+		{
+			// don't keep an index which is not used; it would only get stale if the flag is enabled again
+			if (index.getLoadedProductsCount() > 0)
+			{
+				index.invalidateAll();
+			}
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return the requests to build the given query's result from, or empty if the query shall be answered from DB, e.g. because the index is not enabled.
+	 */
+	public Optional<ImmutableSet<AddToResultGroupRequest>> retrieveAddToResultGroupRequests(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		if (!isEnabled() || hasPendingChangesInCurrentTrx())
+		{
+			return Optional.empty();
+		}
+
+		final ImmutableSet.Builder<AddToResultGroupRequest> result = ImmutableSet.builder();
+		for (final AvailableToPromiseQuery query : multiQuery.getQueries())
+		{
+			if (query == null)
+			{
+				continue;
+			}
+
+			final Set<ProductId> productIds = ProductId.ofRepoIds(query.getProductIds());
+			if (!loadIfNeeded(productIds))
+			{
+				return Optional.empty();
+			}
+
+			final Optional<ImmutableList<StockRecord>> records = index.getLatestRecords(productIds, query.getDate().toInstant(), createFilter(query));
+			if (!records.isPresent())
+			{
+				return Optional.empty(); // the index was invalidated in the meantime
+			}
+
+			records.get().forEach(record -> result.add(record.toAddToResultGroupRequest()));
+		}
+
+		return Optional.of(result.build());
+	}
+
+	public boolean isConsistencyCheckDue()
+	{
+		final int everyNthQuery = sysConfigBL.getIntValue(SYSCONFIG_ConsistencyCheckEveryNthQuery, 0);
+		return everyNthQuery > 0 && queriesCount.incrementAndGet() % everyNthQuery == 0;
+	}
+
+	public void invalidateAll()
+	{
+		index.invalidateAll();
+	}
+
+	public void onCandidateChanged(@NonNull final I_MD_Candidate candidateRecord)
+	{
+		if (!isEnabled())
+		{
+			return;
+		}
+
+		final ProductId productId = ProductId.ofRepoId(candidateRecord.getM_Product_ID());
+		final int candidateId = candidateRecord.getMD_Candidate_ID();
+		if (isATPRelevant(candidateRecord))
+		{
+			final StockRecord stockRecord = toStockRecord(candidateRecord);
+			runAfterCommit(candidateRecord, () -> index.addOrReplace(stockRecord));
+		}
+		else
+		{
+			runAfterCommit(candidateRecord, () -> index.remove(candidateId, productId));
+		}
+	}
+
+	public void onCandidateDeleted(@NonNull final I_MD_Candidate candidateRecord)
+	{
+		if (!isEnabled())
+		{
+			return;
+		}
+
+		final ProductId productId = ProductId.ofRepoId(candidateRecord.getM_Product_ID());
+		final int candidateId = candidateRecord.getMD_Candidate_ID();
+		runAfterCommit(candidateRecord, () -> index.remove(candidateId, productId));
+	}
+
+	private void runAfterCommit(@NonNull final I_MD_Candidate candidateRecord, @NonNull final Runnable indexUpdate)
+	{
+		final String trxName = InterfaceWrapperHelper.getTrxName(candidateRecord);
+		final ITrx trx = trxManager.get(trxName, OnTrxMissingPolicy.ReturnTrxNone);
+		if (trxManager.isNull(trx))
+		{
+			indexUpdate.run();
+			return;
+		}
+
+		if (trxNamesWithPendingChanges.add(trx.getTrxName()))
+		{
+			trx.getTrxListenerManager()
+					.newEventListener(TrxEventTiming.AFTER_CLOSE)
+					.registerHandlingMethod(closedTrx -> trxNamesWithPendingChanges.remove(closedTrx.getTrxName()));
+		}
+
+		trx.getTrxListenerManager()
+				.newEventListener(TrxEventTiming.AFTER_COMMIT)
+				.registerHandlingMethod(committedTrx -> indexUpdate.run());
+	}
+
+	private boolean hasPendingChangesInCurrentTrx()
+	{
+		if (trxNamesWithPendingChanges.isEmpty())
+		{
+			return false;
+		}
+
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		return !trxManager.isNull(trx) && trxNamesWithPendingChanges.contains(trx.getTrxName());
+	}
+
+	/**
+	 * @return {@code false} if any of the given products could not be loaded, because it was changed while loading
+	 */
+	private boolean loadIfNeeded(@NonNull final Collection<ProductId> productIds)
+	{
+		for (final ProductId productId : productIds)
+		{
+			if (index.isLoaded(productId))
+			{
+				continue;
+			}
+
+			final Stopwatch stopwatch = Stopwatch.createStarted();
+
+			final LoadTicket ticket = index.startLoading(productId);
+			final ImmutableList<StockRecord> records = retrieveStockRecords(productId);
+			final boolean loaded = index.finishLoading(ticket, records, sysConfigBL.getIntValue(SYSCONFIG_MaxRecords, DEFAULT_MaxRecords));
+
+			logger.debug("Loaded {} stock records of {} into the ATP index in {}; loaded={}", records.size(), productId, stopwatch.stop(), loaded);
+			if (!loaded)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private ImmutableList<StockRecord> retrieveStockRecords(@NonNull final ProductId productId)
+	{
+		// out of trx, because the index shall only contain committed records
+		return queryBL.createQueryBuilderOutOfTrx(I_MD_Candidate.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_MD_Candidate.COLUMNNAME_M_Product_ID, productId)
+				.addEqualsFilter(I_MD_Candidate.COLUMNNAME_MD_Candidate_Type, X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK)
+				.addNotNull(I_MD_Candidate.COLUMNNAME_MD_Candidate_Status)
+				.addNotEqualsFilter(I_MD_Candidate.COLUMNNAME_MD_Candidate_Status, X_MD_Candidate.MD_CANDIDATE_STATUS_Simulated)
+				.create()
+				.stream()
+				.map(AvailableToPromiseIndexService::toStockRecord)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * Keep in sync with the {@code WHERE} clause of {@code de_metas_material.retrieve_atp_at_date}.
+	 */
+	private static boolean isATPRelevant(@NonNull final I_MD_Candidate candidateRecord)
+	{
+		final String status = candidateRecord.getMD_Candidate_Status();
+		return candidateRecord.isActive()
+				&& X_MD_Candidate.MD_CANDIDATE_TYPE_STOCK.equals(candidateRecord.getMD_Candidate_Type())
+				&& status != null
+				&& !X_MD_Candidate.MD_CANDIDATE_STATUS_Simulated.equals(status);
+	}
+
+	private static StockRecord toStockRecord(@NonNull final I_MD_Candidate candidateRecord)
+	{
+		return StockRecord.builder()
+				.candidateId(candidateRecord.getMD_Candidate_ID())
+				.productId(ProductId.ofRepoId(candidateRecord.getM_Product_ID()))
+				.warehouseId(WarehouseId.ofRepoId(candidateRecord.getM_Warehouse_ID()))
+				.customerId(BPartnerId.ofRepoIdOrNull(candidateRecord.getC_BPartner_Customer_ID()))
+				.storageAttributesKey(AttributesKey.ofString(candidateRecord.getStorageAttributesKey()))
+				.date(TimeUtil.asInstantNonNull(candidateRecord.getDateProjected()))
+				.seqNo(candidateRecord.getSeqNo())
+				.qty(candidateRecord.getQty())
+				.build();
+	}
+
+	/**
+	 * Keep in sync with {@link AvailableToPromiseSqlHelper#createDBQueryForStockQueryBuilder(AvailableToPromiseQuery)}.
+	 */
+	private static Predicate<StockRecord> createFilter(@NonNull final AvailableToPromiseQuery query)
+	{
+		final Set<WarehouseId> warehouseIds = query.getWarehouseIds();
+		final BPartnerClassifier bpartner = query.getBpartner();
+		final ImmutableList<AttributesKeyPattern> storageAttributesKeyPatterns = query.getStorageAttributesKeyPatterns();
+		final boolean anyStorageAttributesKey = storageAttributesKeyPatterns.isEmpty()
+				|| storageAttributesKeyPatterns.contains(AttributesKeyPattern.ALL)
+				|| storageAttributesKeyPatterns.contains(AttributesKeyPattern.OTHER);
+
+		return record -> {
+			if (!warehouseIds.isEmpty() && !warehouseIds.contains(record.getWarehouseId()))
+			{
+				return false;
+			}
+
+			if (bpartner.isNone() && record.getCustomerId() != null)
+			{
+				return false;
+			}
+			else if (bpartner.isSpecificBPartner() && record.getCustomerId() != null && !record.getCustomerId().equals(bpartner.getBpartnerId()))
+			{
+				return false;
+			}
+
+			return anyStorageAttributesKey
+					|| storageAttributesKeyPatterns.stream().anyMatch(pattern -> pattern.matches(record.getStorageAttributesKey()));
+		};
+	}
+}
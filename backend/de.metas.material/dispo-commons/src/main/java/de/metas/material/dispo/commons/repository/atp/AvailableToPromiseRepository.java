@@ -2,7 +2,10 @@ package de.metas.material.dispo.commons.repository.atp;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import de.metas.bpartner.BPartnerId;
+import de.metas.logging.LogManager;
 import de.metas.material.commons.attributes.AttributesKeyPattern;
 import de.metas.material.commons.attributes.AttributesKeyPatternsUtil;
 import de.metas.material.commons.attributes.clasifiers.BPartnerClassifier;
@@ -16,15 +19,17 @@ import org.adempiere.warehouse.WarehouseId;
 import org.compiere.model.IQuery;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Nullable;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.Comparator;
-import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
-import java.util.function.Function;
 
 /*
  * #%L
@@ -51,8 +56,33 @@ import java.util.function.Function;
 @Service
 public class AvailableToPromiseRepository
 {
+	private static final Logger logger = LogManager.getLogger(AvailableToPromiseRepository.class);
+
 	private static final String SYSCONFIG_AVAILABILITY_INFO_ATTRIBUTES_KEYS = "de.metas.ui.web.window.descriptor.sql.ProductLookupDescriptor.AvailabilityInfo.AttributesKeys";
 
+	/**
+	 * records with dedicated bPartnerId first; latest date first; biggest seqNo first
+	 */
+	private static final Comparator<AddToResultGroupRequest> REQUESTS_ORDER = Comparator
+			.comparing((AddToResultGroupRequest request) -> request.getBpartner().isSpecificBPartner())
+			.thenComparing(AddToResultGroupRequest::getDate)
+			.thenComparing(AddToResultGroupRequest::getSeqNo) // if dateProjected is equal, then SeqNo makes the difference
+			.reversed();
+
+	private final AvailableToPromiseIndexService indexService;
+
+	@Autowired
+	public AvailableToPromiseRepository(@NonNull final AvailableToPromiseIndexService indexService)
+	{
+		this.indexService = indexService;
+	}
+
+	@VisibleForTesting
+	public AvailableToPromiseRepository()
+	{
+		this(new AvailableToPromiseIndexService());
+	}
+
 	@NonNull
 	public BigDecimal retrieveAvailableStockQtySum(@NonNull final AvailableToPromiseMultiQuery multiQuery)
 	{
@@ -75,30 +105,10 @@ public class AvailableToPromiseRepository
 				? AvailableToPromiseResultBuilder.createEmptyWithPredefinedBuckets(multiQuery)
 				: AvailableToPromiseResultBuilder.createEmpty();
 
-		final IQuery<I_MD_Candidate_ATP_QueryResult> dbQuery = createDBQueryForMaterialQueryOrNull(multiQuery);
-		if (dbQuery == null)
-		{
-			return result.build();
-		}
-
-		final Function<I_MD_Candidate_ATP_QueryResult, Boolean> compareByWhetherRecordHasBPartnerId = record -> record.getC_BPartner_Customer_ID() > 0;
-
-		final List<I_MD_Candidate_ATP_QueryResult> atpRecords = dbQuery.list()
+		// note: this is a dedicated step in order to ease debugging (i.e. have a chance to take a look at the requests)
+		final ImmutableList<AddToResultGroupRequest> requests = retrieveAddToResultGroupRequests(multiQuery)
 				.stream()
-				// records with dedicated bPartnerId first
-				// latest date first
-				// biggest seqNo first
-				.sorted(Comparator
-						.comparing(compareByWhetherRecordHasBPartnerId)
-						.thenComparing(I_MD_Candidate_ATP_QueryResult::getDateProjected)
-						.thenComparing(I_MD_Candidate_ATP_QueryResult::getSeqNo) // if dateProjected is equal, then SeqNo makes the difference
-						.reversed())
-				.collect(ImmutableList.toImmutableList());
-
-		// note: this is a dedicated step in order to ease debugging (i.e. have a chance to take a look at the atpRecords)
-		final ImmutableList<AddToResultGroupRequest> requests = atpRecords
-				.stream()
-				.map(AvailableToPromiseRepository::createAddToResultGroupRequest)
+				.sorted(REQUESTS_ORDER)
 				.collect(ImmutableList.toImmutableList());
 
 		for (final AddToResultGroupRequest request : requests)
@@ -116,6 +126,88 @@ public class AvailableToPromiseRepository
 		return result.build();
 	}
 
+	private Collection<AddToResultGroupRequest> retrieveAddToResultGroupRequests(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		final Optional<ImmutableSet<AddToResultGroupRequest>> requestsFromIndex = indexService.retrieveAddToResultGroupRequests(multiQuery);
+		if (!requestsFromIndex.isPresent())
+		{
+			return retrieveAddToResultGroupRequestsFromDB(multiQuery);
+		}
+
+		if (indexService.isConsistencyCheckDue())
+		{
+			final ImmutableList<AddToResultGroupRequest> requestsFromDB = retrieveAddToResultGroupRequestsFromDB(multiQuery);
+			final ImmutableList<String> inconsistencies = computeInconsistencies(requestsFromIndex.get(), requestsFromDB);
+			if (!inconsistencies.isEmpty())
+			{
+				logger.warn("ATP index is not consistent with DB; invalidating it. multiQuery={}, inconsistencies={}", multiQuery, inconsistencies);
+				indexService.invalidateAll();
+				return requestsFromDB;
+			}
+		}
+
+		return requestsFromIndex.get();
+	}
+
+	private ImmutableList<AddToResultGroupRequest> retrieveAddToResultGroupRequestsFromDB(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		final IQuery<I_MD_Candidate_ATP_QueryResult> dbQuery = createDBQueryForMaterialQueryOrNull(multiQuery);
+		if (dbQuery == null)
+		{
+			return ImmutableList.of();
+		}
+
+		return dbQuery.list()
+				.stream()
+				.map(AvailableToPromiseRepository::createAddToResultGroupRequest)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * Answers the given query both from the ATP index and from DB and compares the results.
+	 *
+	 * @return the differences, or an empty list if the results are the same or the ATP index is not enabled
+	 */
+	public ImmutableList<String> checkIndexConsistency(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		final Optional<ImmutableSet<AddToResultGroupRequest>> requestsFromIndex = indexService.retrieveAddToResultGroupRequests(multiQuery);
+		if (!requestsFromIndex.isPresent())
+		{
+			return ImmutableList.of();
+		}
+
+		return computeInconsistencies(requestsFromIndex.get(), retrieveAddToResultGroupRequestsFromDB(multiQuery));
+	}
+
+	@VisibleForTesting
+	static ImmutableList<String> computeInconsistencies(
+			@NonNull final Collection<AddToResultGroupRequest> requestsFromIndex,
+			@NonNull final Collection<AddToResultGroupRequest> requestsFromDB)
+	{
+		final ImmutableSet<AddToResultGroupRequest> normalizedFromIndex = normalizeForComparison(requestsFromIndex);
+		final ImmutableSet<AddToResultGroupRequest> normalizedFromDB = normalizeForComparison(requestsFromDB);
+
+		final ImmutableList.Builder<String> inconsistencies = ImmutableList.builder();
+		Sets.difference(normalizedFromDB, normalizedFromIndex).forEach(request -> inconsistencies.add("missing in index: " + request));
+		Sets.difference(normalizedFromIndex, normalizedFromDB).forEach(request -> inconsistencies.add("missing in DB: " + request));
+		return inconsistencies.build();
+	}
+
+	private static ImmutableSet<AddToResultGroupRequest> normalizeForComparison(@NonNull final Collection<AddToResultGroupRequest> requests)
+	{
+		return requests.stream()
+				.map(request -> AddToResultGroupRequest.builder()
+						.productId(request.getProductId())
+						.bpartner(request.getBpartner())
+						.warehouseId(request.getWarehouseId())
+						.storageAttributesKey(request.getStorageAttributesKey())
+						.qty(request.getQty().stripTrailingZeros()) // the scale depends on where the qty came from
+						.date(request.getDate())
+						.seqNo(request.getSeqNo())
+						.build())
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
 	public AvailableToPromiseResult retrieveAvailableStock(@NonNull final AvailableToPromiseQuery query)
 	{
 		return retrieveAvailableStock(AvailableToPromiseMultiQuery.of(query));
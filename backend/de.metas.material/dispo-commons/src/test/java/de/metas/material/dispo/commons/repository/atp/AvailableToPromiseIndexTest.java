@@ -0,0 +1,184 @@
+package de.metas.material.dispo.commons.repository.atp;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import de.metas.bpartner.BPartnerId;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseIndex.LoadTicket;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseIndex.StockRecord;
+import de.metas.material.event.commons.AttributesKey;
+import de.metas.product.ProductId;
+import org.adempiere.warehouse.WarehouseId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * #%L
+ * metasfresh-material-dispo-commons
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class AvailableToPromiseIndexTest
+{
+	private static final ProductId PRODUCT_ID = ProductId.ofRepoId(10);
+	private static final WarehouseId WAREHOUSE_ID = WarehouseId.ofRepoId(20);
+	private static final BPartnerId CUSTOMER_ID = BPartnerId.ofRepoId(30);
+
+	private static final Instant T1 = Instant.parse("2022-01-01T10:00:00Z");
+	private static final Instant T2 = Instant.parse("2022-01-02T10:00:00Z");
+	private static final Instant T3 = Instant.parse("2022-01-03T10:00:00Z");
+
+	private AvailableToPromiseIndex index;
+
+	@BeforeEach
+	public void init()
+	{
+		index = new AvailableToPromiseIndex();
+	}
+
+	private static StockRecord stockRecord(final int candidateId, @Nullable final BPartnerId customerId, final Instant date, final int seqNo, final String qty)
+	{
+		return StockRecord.builder()
+				.candidateId(candidateId)
+				.productId(PRODUCT_ID)
+				.warehouseId(WAREHOUSE_ID)
+				.customerId(customerId)
+				.storageAttributesKey(AttributesKey.NONE)
+				.date(date)
+				.seqNo(seqNo)
+				.qty(new BigDecimal(qty))
+				.build();
+	}
+
+	private void load(final StockRecord... records)
+	{
+		load(PRODUCT_ID, Integer.MAX_VALUE, records);
+	}
+
+	private void load(final ProductId productId, final int maxRecords, final StockRecord... records)
+	{
+		final LoadTicket ticket = index.startLoading(productId);
+		assertThat(index.finishLoading(ticket, ImmutableList.copyOf(records), maxRecords)).isTrue();
+	}
+
+	private ImmutableList<StockRecord> getLatestRecords(final Instant date)
+	{
+		return index.getLatestRecords(ImmutableSet.of(PRODUCT_ID), date, record -> true).get();
+	}
+
+	@Test
+	public void getLatestRecords_notLoaded()
+	{
+		assertThat(index.getLatestRecords(ImmutableSet.of(PRODUCT_ID), T3, record -> true)).isEmpty();
+	}
+
+	@Test
+	public void getLatestRecords_latestPerTimeline()
+	{
+		load(stockRecord(1, null, T1, 1, "10"),
+			 stockRecord(2, null, T2, 2, "20"),
+			 stockRecord(3, null, T2, 3, "25"), // same date, bigger seqNo
+			 stockRecord(4, CUSTOMER_ID, T1, 4, "5"),
+			 stockRecord(5, null, T3, 5, "30"));
+
+		assertThat(getLatestRecords(T2)).extracting(StockRecord::getCandidateId).containsExactlyInAnyOrder(3, 4);
+		assertThat(getLatestRecords(T1)).extracting(StockRecord::getCandidateId).containsExactlyInAnyOrder(1, 4);
+		assertThat(getLatestRecords(T1.minusSeconds(1))).isEmpty();
+	}
+
+	@Test
+	public void addOrReplace_and_remove()
+	{
+		load(stockRecord(1, null, T1, 1, "10"),
+			 stockRecord(2, null, T2, 2, "20"));
+
+		index.addOrReplace(stockRecord(2, null, T3, 2, "21")); // moved to a later date
+		assertThat(getLatestRecords(T2)).extracting(StockRecord::getCandidateId).containsExactly(1);
+		assertThat(getLatestRecords(T3)).extracting(StockRecord::getQty).containsExactly(new BigDecimal("21"));
+
+		index.remove(2, PRODUCT_ID);
+		index.remove(1, PRODUCT_ID);
+		assertThat(getLatestRecords(T3)).isEmpty();
+	}
+
+	@Test
+	public void finishLoading_failsIfChangedWhileLoading()
+	{
+		final LoadTicket ticket = index.startLoading(PRODUCT_ID);
+		index.addOrReplace(stockRecord(2, null, T2, 2, "20"));
+
+		assertThat(index.finishLoading(ticket, ImmutableList.of(stockRecord(1, null, T1, 1, "10")), Integer.MAX_VALUE)).isFalse();
+		assertThat(index.isLoaded(PRODUCT_ID)).isFalse();
+	}
+
+	@Test
+	public void finishLoading_removesLeastRecentlyQueriedProducts() throws InterruptedException
+	{
+		final ProductId productId1 = ProductId.ofRepoId(11);
+		final ProductId productId2 = ProductId.ofRepoId(12);
+		final ProductId productId3 = ProductId.ofRepoId(13);
+
+		load(productId1, 4, stockRecord(1, productId1), stockRecord(2, productId1));
+		load(productId2, 4, stockRecord(3, productId2), stockRecord(4, productId2));
+
+		Thread.sleep(1); // make sure the query is recorded as later access
+		index.getLatestRecords(ImmutableSet.of(productId1), T3, record -> true);
+
+		load(productId3, 4, stockRecord(5, productId3));
+
+		assertThat(index.isLoaded(productId1)).isTrue();
+		assertThat(index.isLoaded(productId2)).isFalse();
+		assertThat(index.isLoaded(productId3)).isTrue();
+		assertThat(index.getRecordsCount()).isEqualTo(3);
+
+		// the product which was just loaded is kept, even if it alone exceeds the maximum
+		load(productId2, 1, stockRecord(3, productId2), stockRecord(4, productId2));
+		assertThat(index.isLoaded(productId2)).isTrue();
+		assertThat(index.getLoadedProductsCount()).isEqualTo(1);
+	}
+
+	private static StockRecord stockRecord(final int candidateId, final ProductId productId)
+	{
+		return StockRecord.builder()
+				.candidateId(candidateId)
+				.productId(productId)
+				.warehouseId(WAREHOUSE_ID)
+				.storageAttributesKey(AttributesKey.NONE)
+				.date(T1)
+				.seqNo(candidateId)
+				.qty(BigDecimal.TEN)
+				.build();
+	}
+
+	@Test
+	public void computeInconsistencies_ignoresQtyScale()
+	{
+		final AddToResultGroupRequest fromIndex = stockRecord(1, null, T1, 1, "10.000").toAddToResultGroupRequest();
+		final AddToResultGroupRequest fromDB = stockRecord(1, null, T1, 1, "10").toAddToResultGroupRequest();
+		final AddToResultGroupRequest otherFromDB = stockRecord(2, CUSTOMER_ID, T1, 2, "5").toAddToResultGroupRequest();
+
+		assertThat(AvailableToPromiseRepository.computeInconsistencies(ImmutableList.of(fromIndex), ImmutableList.of(fromDB))).isEmpty();
+		assertThat(AvailableToPromiseRepository.computeInconsistencies(ImmutableList.of(fromIndex), ImmutableList.of(fromDB, otherFromDB))).hasSize(1);
+	}
+}
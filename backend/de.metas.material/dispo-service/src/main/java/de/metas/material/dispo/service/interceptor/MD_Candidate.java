@@ -23,6 +23,7 @@
 package de.metas.material.dispo.service.interceptor;
 
 import de.metas.material.dispo.commons.candidate.CandidateType;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseIndexService;
 import de.metas.material.dispo.model.I_MD_Candidate;
 import de.metas.material.event.PostMaterialEventService;
 import de.metas.material.event.commons.AttributesKey;
@@ -50,10 +51,36 @@ import static de.metas.material.dispo.model.X_MD_Candidate.MD_CANDIDATE_STATUS_S
 public class MD_Candidate
 {
 	private final PostMaterialEventService materialEventService;
+	private final AvailableToPromiseIndexService availableToPromiseIndexService;
 
-	public MD_Candidate(@NonNull final PostMaterialEventService materialEventService)
+	public MD_Candidate(
+			@NonNull final PostMaterialEventService materialEventService,
+			@NonNull final AvailableToPromiseIndexService availableToPromiseIndexService)
 	{
 		this.materialEventService = materialEventService;
+		this.availableToPromiseIndexService = availableToPromiseIndexService;
+	}
+
+	@ModelChange(timings = { ModelValidator.TYPE_AFTER_CHANGE, ModelValidator.TYPE_AFTER_NEW }, ifColumnsChanged = {
+			I_MD_Candidate.COLUMNNAME_IsActive,
+			I_MD_Candidate.COLUMNNAME_MD_Candidate_Type,
+			I_MD_Candidate.COLUMNNAME_MD_Candidate_Status,
+			I_MD_Candidate.COLUMNNAME_M_Product_ID,
+			I_MD_Candidate.COLUMNNAME_M_Warehouse_ID,
+			I_MD_Candidate.COLUMNNAME_C_BPartner_Customer_ID,
+			I_MD_Candidate.COLUMNNAME_StorageAttributesKey,
+			I_MD_Candidate.COLUMNNAME_DateProjected,
+			I_MD_Candidate.COLUMNNAME_SeqNo,
+			I_MD_Candidate.COLUMNNAME_Qty })
+	public void updateAvailableToPromiseIndex(@NonNull final I_MD_Candidate candidate)
+	{
+		availableToPromiseIndexService.onCandidateChanged(candidate);
+	}
+
+	@ModelChange(timings = ModelValidator.TYPE_AFTER_DELETE)
+	public void removeFromAvailableToPromiseIndex(@NonNull final I_MD_Candidate candidate)
+	{
+		availableToPromiseIndexService.onCandidateDeleted(candidate);
 	}
 
 	@ModelChange(timings = { ModelValidator.TYPE_AFTER_CHANGE, ModelValidator.TYPE_AFTER_NEW }, ifColumnsChanged = I_MD_Candidate.COLUMNNAME_Qty)
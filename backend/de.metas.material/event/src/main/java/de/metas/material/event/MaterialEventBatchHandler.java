@@ -0,0 +1,42 @@
+package de.metas.material.event;
+
+import java.util.List;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * A {@link MaterialEventHandler} that can also handle several events at once, e.g. to combine the updates of events that concern the same product and warehouse.
+ * <p>
+ * Used by {@link MaterialEventHandlerRegistry#onEventsBatch(List, java.util.function.Function)}.
+ *
+ * @param <T> see {@link MaterialEventHandler}
+ */
+public interface MaterialEventBatchHandler<T extends MaterialEvent> extends MaterialEventHandler<T>
+{
+	/**
+	 * Shall have the same effect as invoking {@link #handleEvent(MaterialEvent)} for each of the given events, in the given order.
+	 *
+	 * @param events events of the same class, in the order in which they were posted
+	 */
+	void handleEvents(List<T> events);
+}
@@ -2,6 +2,8 @@ package de.metas.material.event;
 
 import de.metas.Profiles;
 import de.metas.event.IEventBusFactory;
+import de.metas.event.remote.BinaryEventSerializer;
+import de.metas.event.remote.EventSerializerRegistry;
 import de.metas.material.event.eventbus.MaterialEventConverter;
 import de.metas.material.event.eventbus.MetasfreshEventBusService;
 import lombok.NonNull;
@@ -59,8 +61,12 @@ public class MaterialEventConfiguration
 	public MetasfreshEventBusService createDistributedMaterialEventService(
 			@NonNull final MaterialEventConverter materialEventConverter,
 			@NonNull final IEventBusFactory eventBusFactory,
-			@NonNull final MaterialEventObserver materialEventObserver)
+			@NonNull final MaterialEventObserver materialEventObserver,
+			@NonNull final EventSerializerRegistry eventSerializerRegistry)
 	{
+		// material events are our most frequent events; send them in a compact form
+		eventSerializerRegistry.registerSerializer(MetasfreshEventBusService.TOPIC_NAME, BinaryEventSerializer.instance);
+
 		final MetasfreshEventBusService materialEventService = MetasfreshEventBusService
 				.createDistributedServiceThatNeedsToSubscribe(materialEventConverter, eventBusFactory, materialEventObserver);
 
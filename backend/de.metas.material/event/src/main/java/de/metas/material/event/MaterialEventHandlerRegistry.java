@@ -2,17 +2,22 @@ package de.metas.material.event;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
+import de.metas.event.log.EventLogLoggable;
 import de.metas.event.log.EventLogUserService;
 import de.metas.event.log.EventLogUserService.InvokeHandlerAndLogRequest;
 import de.metas.logging.LogManager;
+import de.metas.util.Check;
 import lombok.NonNull;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.slf4j.Logger;
 import org.slf4j.MDC;
 import org.slf4j.MDC.MDCCloseable;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 /*
  * #%L
@@ -99,4 +104,72 @@ public class MaterialEventHandlerRegistry
 			materialEventObserver.reportEventProcessed(event);
 		}
 	}
+
+	/**
+	 * Like {@link #onEvent(MaterialEvent)}, but for several events of the same class.
+	 * Each handler gets all events before the next handler is invoked; {@link MaterialEventBatchHandler}s get them all at once.
+	 * <p>
+	 * Unlike {@link #onEvent(MaterialEvent)}, this method does not log and swallow a handler's exception, but propagates it,
+	 * so that the caller can roll back and fall back to {@link #onEvent(MaterialEvent)} for each single event.
+	 *
+	 * @param eventLogScopeOpener shall make the given event the current one of the event log, until the returned scope is closed.
+	 */
+	public final void onEventsBatch(
+			@NonNull final List<MaterialEvent> events,
+			@NonNull final Function<MaterialEvent, IAutoCloseable> eventLogScopeOpener)
+	{
+		if (events.isEmpty())
+		{
+			return;
+		}
+
+		final Class<? extends MaterialEvent> eventClass = events.get(0).getClass();
+		Check.assume(events.stream().allMatch(event -> eventClass.equals(event.getClass())), "All events have the same class {}; events={}", eventClass, events);
+
+		final ImmutableList<MaterialEventHandler> handlersForEventClass = eventType2Handler.get(eventClass);
+
+		for (final MaterialEventHandler handler : handlersForEventClass)
+		{
+			try (final MDCCloseable ignored = MDC.putCloseable("MaterialEventHandlerClass", handler.getClass().getName()))
+			{
+				if (handler instanceof MaterialEventBatchHandler)
+				{
+					// the handler's log messages end up with the first event
+					try (final IAutoCloseable ignored1 = eventLogScopeOpener.apply(events.get(0));
+							final IAutoCloseable ignored2 = EventLogLoggable.createAndRegisterThreadLocal(handler.getClass()))
+					{
+						@SuppressWarnings("unchecked")
+						final MaterialEventBatchHandler<MaterialEvent> batchHandler = (MaterialEventBatchHandler<MaterialEvent>)handler;
+						batchHandler.handleEvents(events);
+					}
+				}
+				else
+				{
+					for (final MaterialEvent event : events)
+					{
+						try (final IAutoCloseable ignored1 = eventLogScopeOpener.apply(event);
+								final IAutoCloseable ignored2 = EventLogLoggable.createAndRegisterThreadLocal(handler.getClass()))
+						{
+							@SuppressWarnings("unchecked")
+							final MaterialEventHandler<MaterialEvent> singleHandler = (MaterialEventHandler<MaterialEvent>)handler;
+							singleHandler.handleEvent(event);
+						}
+					}
+				}
+
+				for (final MaterialEvent event : events)
+				{
+					try (final IAutoCloseable ignored1 = eventLogScopeOpener.apply(event))
+					{
+						eventLogUserService.logHandlerDone(handler.getClass());
+					}
+				}
+			}
+		}
+
+		if (!handlersForEventClass.isEmpty())
+		{
+			events.forEach(materialEventObserver::reportEventProcessed);
+		}
+	}
 }
@@ -0,0 +1,332 @@
+package de.metas.material.event.eventbus;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import de.metas.event.Event;
+import de.metas.event.log.EventLogEntryCollector;
+import de.metas.event.log.EventLogUserService;
+import de.metas.logging.LogManager;
+import de.metas.material.event.MaterialEvent;
+import de.metas.material.event.MaterialEventHandlerRegistry;
+import de.metas.organization.ClientAndOrgId;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.slf4j.Logger;
+import org.slf4j.MDC;
+import org.slf4j.MDC.MDCCloseable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Queues the received material events and processes them in micro-batches, on one dedicated thread, in the order they were received.
+ * <p>
+ * A batch is whatever accumulated in the queue while the previous batch was processed, so there is no additional latency when there is not much going on.
+ * Each batch is split into runs of consecutive events with the same class and the same client and org.
+ * Each run is processed in one transaction via {@link MaterialEventHandlerRegistry#onEventsBatch(List, java.util.function.Function)}.
+ * If that fails, the run's events are processed one by one, just like without batching.
+ * <p>
+ * <b>The queue is in memory only.</b> The events were already acknowledged to the message broker when they were enqueued here,
+ * so the events which are still queued when the JVM crashes are lost.
+ * On a regular shutdown, {@link #shutdownAndProcessQueuedEvents(Duration)} processes them before the JVM exits.
+ */
+final class MaterialEventBatchProcessor
+{
+	private static final Logger logger = LogManager.getLogger(MaterialEventBatchProcessor.class);
+
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+	private final MaterialEventHandlerRegistry materialEventHandlerRegistry;
+	private final EventLogUserService eventLogUserService;
+	private final SingleEventProcessor singleEventProcessor;
+	private final IntSupplier maxBatchSizeSupplier;
+
+	private final LinkedBlockingQueue<QueuedEvent> queue = new LinkedBlockingQueue<>();
+	private volatile boolean shutdownRequested = false;
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(CustomizableThreadFactory.builder()
+			.setThreadNamePrefix(MaterialEventBatchProcessor.class.getSimpleName())
+			.setDaemon(true)
+			.build());
+
+	@FunctionalInterface
+	interface SingleEventProcessor
+	{
+		void process(MaterialEvent materialEvent);
+	}
+
+	/**
+	 * Creates a new processor and starts its worker thread.
+	 */
+	static MaterialEventBatchProcessor start(
+			@NonNull final MaterialEventHandlerRegistry materialEventHandlerRegistry,
+			@NonNull final EventLogUserService eventLogUserService,
+			@NonNull final SingleEventProcessor singleEventProcessor,
+			@NonNull final IntSupplier maxBatchSizeSupplier)
+	{
+		final MaterialEventBatchProcessor processor = new MaterialEventBatchProcessor(materialEventHandlerRegistry, eventLogUserService, singleEventProcessor, maxBatchSizeSupplier);
+		processor.executor.submit(processor::processQueueUntilShutdown);
+		return processor;
+	}
+
+	@VisibleForTesting
+	MaterialEventBatchProcessor(
+			@NonNull final MaterialEventHandlerRegistry materialEventHandlerRegistry,
+			@NonNull final EventLogUserService eventLogUserService,
+			@NonNull final SingleEventProcessor singleEventProcessor,
+			@NonNull final IntSupplier maxBatchSizeSupplier)
+	{
+		this.materialEventHandlerRegistry = materialEventHandlerRegistry;
+		this.eventLogUserService = eventLogUserService;
+		this.singleEventProcessor = singleEventProcessor;
+		this.maxBatchSizeSupplier = maxBatchSizeSupplier;
+	}
+
+	/**
+	 * Note: after {@link #shutdownAndProcessQueuedEvents(Duration)}, the event is processed right away, on the current thread.
+	 */
+	public void enqueue(@NonNull final Event event, @NonNull final MaterialEvent materialEvent)
+	{
+		queue.add(new QueuedEvent(event, materialEvent));
+
+		if (shutdownRequested && executor.isTerminated())
+		{
+			processQueuedEvents();
+		}
+	}
+
+	/**
+	 * Stops the worker thread after it processed the queued events.
+	 * If that takes longer than the given timeout, the worker thread is interrupted and the events that are still queued are lost.
+	 */
+	public void shutdownAndProcessQueuedEvents(@NonNull final Duration timeout)
+	{
+		logger.info("Shutting down; processing {} queued material events first", queue.size());
+		shutdownRequested = true;
+		executor.shutdown();
+		try
+		{
+			if (!executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS))
+			{
+				executor.shutdownNow();
+				logger.error("Could not process the queued material events within {}; {} material events are lost", timeout, queue.size());
+				return;
+			}
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			executor.shutdownNow();
+			logger.error("Interrupted while processing the queued material events; {} material events are lost", queue.size(), ex);
+			return;
+		}
+
+		// events which were enqueued while the worker thread was finishing
+		processQueuedEvents();
+	}
+
+	private void processQueueUntilShutdown()
+	{
+		while (!Thread.currentThread().isInterrupted())
+		{
+			final QueuedEvent firstEvent;
+			try
+			{
+				firstEvent = queue.poll(1, TimeUnit.SECONDS);
+			}
+			catch (final InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				return;
+			}
+
+			if (firstEvent != null)
+			{
+				processBatchStartingWith(firstEvent);
+			}
+			else if (shutdownRequested)
+			{
+				return;
+			}
+		}
+	}
+
+	private synchronized void processQueuedEvents()
+	{
+		for (QueuedEvent firstEvent = queue.poll(); firstEvent != null; firstEvent = queue.poll())
+		{
+			processBatchStartingWith(firstEvent);
+		}
+	}
+
+	/**
+	 * Waits for the next event and processes it, together with the events which are queued behind it (up to the max batch size).
+	 */
+	@VisibleForTesting
+	void processNextBatch() throws InterruptedException
+	{
+		processBatchStartingWith(queue.take());
+	}
+
+	private void processBatchStartingWith(@NonNull final QueuedEvent firstEvent)
+	{
+		final List<QueuedEvent> batch = new ArrayList<>();
+		batch.add(firstEvent);
+
+		queue.drainTo(batch, Math.max(maxBatchSizeSupplier.getAsInt() - 1, 0));
+
+		try
+		{
+			processBatch(batch);
+		}
+		catch (final Throwable ex)
+		{
+			// never let the worker thread die
+			logger.error("Failed processing batch of {} material events", batch.size(), ex);
+		}
+	}
+
+	private void processBatch(@NonNull final List<QueuedEvent> batch)
+	{
+		logger.debug("Processing batch of {} material events", batch.size());
+
+		List<QueuedEvent> run = new ArrayList<>();
+		for (final QueuedEvent queuedEvent : batch)
+		{
+			if (!run.isEmpty() && !run.get(0).isSameRunAs(queuedEvent))
+			{
+				processRun(run);
+				run = new ArrayList<>();
+			}
+			run.add(queuedEvent);
+		}
+		processRun(run);
+	}
+
+	private void processRun(@NonNull final List<QueuedEvent> run)
+	{
+		if (run.isEmpty())
+		{
+			return;
+		}
+		if (run.size() == 1)
+		{
+			processSingle(run.get(0));
+			return;
+		}
+
+		final Map<MaterialEvent, Event> eventsByMaterialEvent = new IdentityHashMap<>();
+		run.forEach(queuedEvent -> eventsByMaterialEvent.put(queuedEvent.getMaterialEvent(), queuedEvent.getEvent()));
+
+		final ImmutableList<MaterialEvent> materialEvents = run.stream()
+				.map(QueuedEvent::getMaterialEvent)
+				.collect(ImmutableList.toImmutableList());
+
+		try (final MDCCloseable ignored = MDC.putCloseable("MaterialEventClass", materialEvents.get(0).getClass().getName());
+				final IAutoCloseable ignored1 = MetasfreshEventListener.switchContextTo(materialEvents.get(0)))
+		{
+			trxManager.runInNewTrx(() -> materialEventHandlerRegistry.onEventsBatch(
+					materialEvents,
+					materialEvent -> openEventLogScope(eventsByMaterialEvent.get(materialEvent))));
+		}
+		catch (final RuntimeException ex)
+		{
+			logger.warn("Failed processing {} events of type {} in one batch; processing them one by one", run.size(), materialEvents.get(0).getClass().getSimpleName(), ex);
+			run.forEach(this::processSingle);
+		}
+	}
+
+	/**
+	 * Processes the given event like {@link de.metas.event.impl.EventBus} would do it without batching.
+	 */
+	private void processSingle(@NonNull final QueuedEvent queuedEvent)
+	{
+		final Event event = queuedEvent.getEvent();
+		try (final IAutoCloseable ignored = openEventLogScope(event))
+		{
+			singleEventProcessor.process(queuedEvent.getMaterialEvent());
+		}
+		catch (final RuntimeException ex)
+		{
+			if (event.isWasLogged())
+			{
+				try (final IAutoCloseable ignored = openEventLogScope(event))
+				{
+					eventLogUserService.newErrorLogEntry(MetasfreshEventListener.class, ex).createAndStore();
+				}
+			}
+			else
+			{
+				logger.warn("Got exception while processing event={}", event, ex);
+			}
+		}
+	}
+
+	private static IAutoCloseable openEventLogScope(@NonNull final Event event)
+	{
+		if (!event.isWasLogged())
+		{
+			return () -> {};
+		}
+		return EventLogEntryCollector.createThreadLocalForEvent(event);
+	}
+
+	@Value
+	private static class QueuedEvent
+	{
+		@NonNull
+		Event event;
+
+		@NonNull
+		MaterialEvent materialEvent;
+
+		ClientAndOrgId getClientAndOrgId()
+		{
+			return materialEvent.getEventDescriptor().getClientAndOrgId();
+		}
+
+		/**
+		 * Events which were already processed by some handlers before are not batched, because only the single processing skips those handlers.
+		 */
+		boolean isSameRunAs(@NonNull final QueuedEvent other)
+		{
+			return materialEvent.getClass().equals(other.getMaterialEvent().getClass())
+					&& Objects.equals(getClientAndOrgId(), other.getClientAndOrgId())
+					&& !EventLogUserService.hasProcessedByHandlerInfo(event)
+					&& !EventLogUserService.hasProcessedByHandlerInfo(other.getEvent());
+		}
+	}
+}
@@ -1,11 +1,20 @@
 package de.metas.material.event.eventbus;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import de.metas.JsonObjectMapperHolder;
 import de.metas.event.Event;
+import de.metas.event.remote.EventSerializerRegistry;
 import de.metas.material.event.MaterialEvent;
 import de.metas.util.JSONObjectMapper;
+import de.metas.util.Services;
 import lombok.NonNull;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+
 /*
  * #%L
  * metasfresh-material-event
@@ -30,6 +39,10 @@ import org.springframework.stereotype.Service;
 
 /**
  * Converts {@link Event}s to {@link MaterialEvent}s and vice versa.
+ * <p>
+ * The material event is put into the metasfresh event either as JSON string or, if {@value EventSerializerRegistry#SYSCONFIG_UseTopicSpecificSerializers} is {@code Y},
+ * in Jackson's binary <a href="https://github.com/FasterXML/smile-format-specification">Smile</a> format, which is smaller and faster to read.
+ * Both are written according to the material events' Jackson annotations, and both can always be read.
  *
  * @author metas-dev <dev@metasfresh.com>
  *
@@ -39,7 +52,15 @@ public class MaterialEventConverter
 {
 	private static final String PROPERTY_MATERIAL_EVENT = "MaterialEvent";
 
+	public enum PayloadFormat
+	{
+		JSON, SMILE
+	}
+
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
 	private final JSONObjectMapper<MaterialEvent> jsonObjectMapper;
+	private static final ObjectMapper smileObjectMapper = JsonObjectMapperHolder.newObjectMapper(new SmileFactory());
 
 	public MaterialEventConverter()
 	{
@@ -48,9 +69,21 @@ public class MaterialEventConverter
 
 	public MaterialEvent toMaterialEvent(@NonNull final Event metasfreshEvent)
 	{
-		final String materialEventStr = metasfreshEvent.getProperty(PROPERTY_MATERIAL_EVENT);
+		final Object materialEventValue = metasfreshEvent.getProperty(PROPERTY_MATERIAL_EVENT);
+		if (materialEventValue instanceof byte[])
+		{
+			final byte[] materialEventBytes = (byte[])materialEventValue;
+			try
+			{
+				return smileObjectMapper.readValue(materialEventBytes, MaterialEvent.class);
+			}
+			catch (final IOException ex)
+			{
+				throw new AdempiereException("Failed converting Smile to MaterialEvent; length=" + materialEventBytes.length, ex);
+			}
+		}
 
-		return jsonObjectMapper.readValue(materialEventStr);
+		return jsonObjectMapper.readValue((String)materialEventValue);
 	}
 
 	/**
@@ -58,11 +91,35 @@ public class MaterialEventConverter
 	 */
 	public Event fromMaterialEvent(@NonNull final MaterialEvent materialEvent)
 	{
-		final String eventStr = jsonObjectMapper.writeValueAsString(materialEvent);
+		// only send the binary format when all nodes are able to read it
+		final PayloadFormat payloadFormat = sysConfigBL.getBooleanValue(EventSerializerRegistry.SYSCONFIG_UseTopicSpecificSerializers, false)
+				? PayloadFormat.SMILE
+				: PayloadFormat.JSON;
+		return fromMaterialEvent(materialEvent, payloadFormat);
+	}
 
-		return Event.builder()
-				.putProperty(PROPERTY_MATERIAL_EVENT, eventStr)
-				.shallBeLogged()
-				.build();
+	public Event fromMaterialEvent(@NonNull final MaterialEvent materialEvent, @NonNull final PayloadFormat payloadFormat)
+	{
+		final Event.Builder eventBuilder = Event.builder().shallBeLogged();
+		switch (payloadFormat)
+		{
+			case SMILE:
+				try
+				{
+					return eventBuilder
+							.putProperty(PROPERTY_MATERIAL_EVENT, smileObjectMapper.writeValueAsBytes(materialEvent))
+							.build();
+				}
+				catch (final IOException ex)
+				{
+					throw new AdempiereException("Failed converting MaterialEvent to Smile: " + materialEvent, ex);
+				}
+			case JSON:
+				return eventBuilder
+						.putProperty(PROPERTY_MATERIAL_EVENT, jsonObjectMapper.writeValueAsString(materialEvent))
+						.build();
+			default:
+				throw new AdempiereException("Unknown payload format " + payloadFormat);
+		}
 	}
 }
@@ -39,6 +39,8 @@ public final class MetasfreshEventBusService
 {
 	private static final Logger logger = LogManager.getLogger(MetasfreshEventBusService.class);
 
+	public static final String TOPIC_NAME = "de.metas.material";
+
 	private final Topic eventBusTopic;
 
 	private final MaterialEventConverter materialEventConverter;
@@ -82,7 +84,7 @@ public final class MetasfreshEventBusService
 			@NonNull final MaterialEventObserver materialEventObserver)
 	{
 		this.eventBusTopic = Topic.builder()
-				.name("de.metas.material")
+				.name(TOPIC_NAME)
 				.type(eventType)
 				.build();
 
@@ -3,12 +3,15 @@ package de.metas.material.event.eventbus;
 import de.metas.event.Event;
 import de.metas.event.IEventBus;
 import de.metas.event.IEventListener;
+import de.metas.event.log.EventLogUserService;
 import de.metas.logging.LogManager;
 import de.metas.material.event.MaterialEvent;
 import de.metas.material.event.MaterialEventHandlerRegistry;
 import de.metas.util.Services;
 import lombok.NonNull;
 import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.ExtendedMemorizingSupplier;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.Adempiere;
 import org.compiere.util.Env;
@@ -18,6 +21,8 @@ import org.slf4j.MDC.MDCCloseable;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+import java.time.Duration;
 import java.util.Properties;
 
 /*
@@ -48,40 +53,42 @@ public class MetasfreshEventListener
 {
 	private static final Logger logger = LogManager.getLogger(MetasfreshEventListener.class);
 
+	/**
+	 * If enabled, the received events are processed in micro-batches, see {@link MaterialEventBatchProcessor}.
+	 * <p>
+	 * <b>Events can get lost:</b> they are acknowledged to the message broker before they are processed and wait in an in-memory queue.
+	 * They are processed when metasfresh is shut down regularly, but if the JVM crashes, the queued events are gone for good.
+	 */
+	private static final String SYSCONFIG_BatchProcessing_Enabled = "de.metas.material.event.eventbus.MetasfreshEventListener.BatchProcessing_AtRiskOfLosingEventsOnCrash.Enabled";
+	private static final String SYSCONFIG_BatchProcessing_MaxBatchSize = "de.metas.material.event.eventbus.MetasfreshEventListener.BatchProcessing.MaxBatchSize";
+	private static final int DEFAULT_BatchProcessing_MaxBatchSize = 500;
+	private static final Duration BATCH_PROCESSING_SHUTDOWN_TIMEOUT = Duration.ofMinutes(2);
+
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
 	private final MaterialEventHandlerRegistry materialEventHandlerRegistry;
 
 	private final MetasfreshEventBusService metasfreshEventBusService;
 
 	private final MaterialEventConverter materialEventConverter;
 
+	private final ExtendedMemorizingSupplier<MaterialEventBatchProcessor> batchProcessor;
+
 	private final IEventListener internalListener = new IEventListener()
 	{
 		@Override
 		public void onEvent(@NonNull final IEventBus eventBus, @NonNull final Event event)
 		{
 			final MaterialEvent lightWeightEvent = materialEventConverter.toMaterialEvent(event);
-			try (final MDCCloseable ignored = MDC.putCloseable("MaterialEventClass", lightWeightEvent.getClass().getName()))
+			if (sysConfigBL.getBooleanValue(SYSCONFIG_BatchProcessing_Enabled, false))
 			{
-				logger.info("Received MaterialEvent={}", lightWeightEvent);
-
-				// make sure that every record we create has the correct AD_Client_ID and AD_Org_ID
-				final Properties temporaryCtx = Env.copyCtx(Env.getCtx());
-
-				Env.setClientId(temporaryCtx, lightWeightEvent.getEventDescriptor().getClientId());
-				Env.setOrgId(temporaryCtx, lightWeightEvent.getEventDescriptor().getOrgId());
-
-				try (final IAutoCloseable ignored1 = Env.switchContext(temporaryCtx))
-				{
-					invokeListenerInTrx(lightWeightEvent);
-				}
+				logger.info("Received MaterialEvent={}; enqueuing it for batch processing", lightWeightEvent);
+				batchProcessor.get().enqueue(event, lightWeightEvent);
+			}
+			else
+			{
+				processEvent(lightWeightEvent);
 			}
-		}
-
-		private void invokeListenerInTrx(@NonNull final MaterialEvent materialEvent)
-		{
-			Services.get(ITrxManager.class).runInNewTrx(() -> {
-				materialEventHandlerRegistry.onEvent(materialEvent);
-			});
 		}
 
 		@Override
@@ -94,12 +101,64 @@ public class MetasfreshEventListener
 	public MetasfreshEventListener(
 			@NonNull final MaterialEventHandlerRegistry materialEventHandlerRegistry,
 			@NonNull final MetasfreshEventBusService metasfreshEventBusService,
-			@NonNull final MaterialEventConverter materialEventConverter)
+			@NonNull final MaterialEventConverter materialEventConverter,
+			@NonNull final EventLogUserService eventLogUserService)
 	{
 		this.materialEventConverter = materialEventConverter;
 		this.materialEventHandlerRegistry = materialEventHandlerRegistry;
 		this.metasfreshEventBusService = metasfreshEventBusService;
+		this.batchProcessor = ExtendedMemorizingSupplier.of(() -> MaterialEventBatchProcessor.start(
+				materialEventHandlerRegistry,
+				eventLogUserService,
+				this::processEvent,
+				() -> sysConfigBL.getIntValue(SYSCONFIG_BatchProcessing_MaxBatchSize, DEFAULT_BatchProcessing_MaxBatchSize)));
 
 		this.metasfreshEventBusService.subscribe(internalListener);
 	}
+
+	/**
+	 * Processes the events which are still queued for batch processing, so that they are not lost.
+	 */
+	@PreDestroy
+	public void shutdown()
+	{
+		final MaterialEventBatchProcessor batchProcessor = this.batchProcessor.peek();
+		if (batchProcessor != null)
+		{
+			batchProcessor.shutdownAndProcessQueuedEvents(BATCH_PROCESSING_SHUTDOWN_TIMEOUT);
+		}
+	}
+
+	private void processEvent(@NonNull final MaterialEvent lightWeightEvent)
+	{
+		try (final MDCCloseable ignored = MDC.putCloseable("MaterialEventClass", lightWeightEvent.getClass().getName()))
+		{
+			logger.info("Received MaterialEvent={}", lightWeightEvent);
+
+			try (final IAutoCloseable ignored1 = switchContextTo(lightWeightEvent))
+			{
+				invokeListenerInTrx(lightWeightEvent);
+			}
+		}
+	}
+
+	private void invokeListenerInTrx(@NonNull final MaterialEvent materialEvent)
+	{
+		Services.get(ITrxManager.class).runInNewTrx(() -> {
+			materialEventHandlerRegistry.onEvent(materialEvent);
+		});
+	}
+
+	/**
+	 * Makes sure that every record we create has the correct AD_Client_ID and AD_Org_ID.
+	 */
+	static IAutoCloseable switchContextTo(@NonNull final MaterialEvent materialEvent)
+	{
+		final Properties temporaryCtx = Env.copyCtx(Env.getCtx());
+
+		Env.setClientId(temporaryCtx, materialEvent.getEventDescriptor().getClientId());
+		Env.setOrgId(temporaryCtx, materialEvent.getEventDescriptor().getOrgId());
+
+		return Env.switchContext(temporaryCtx);
+	}
 }
@@ -0,0 +1,199 @@
+package de.metas.material.event;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import de.metas.event.Event;
+import de.metas.event.remote.BinaryEventSerializer;
+import de.metas.event.remote.IEventSerializer;
+import de.metas.event.remote.JacksonJsonEventSerializer;
+import de.metas.material.event.commons.EventDescriptor;
+import de.metas.material.event.commons.MinMaxDescriptor;
+import de.metas.material.event.commons.OrderLineDescriptor;
+import de.metas.material.event.eventbus.MaterialEventConverter;
+import de.metas.material.event.eventbus.MaterialEventConverter.PayloadFormat;
+import de.metas.material.event.receiptschedule.ReceiptScheduleCreatedEvent;
+import de.metas.material.event.shipmentschedule.ShipmentScheduleUpdatedEvent;
+import de.metas.material.event.transactions.TransactionDeletedEvent;
+import lombok.Value;
+import org.junit.jupiter.api.Disabled;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static de.metas.material.event.EventTestHelper.createMaterialDescriptor;
+
+/**
+ * Compares how typical material events are sent, i.e. the size of one event on the wire and how long it takes to write and read it.
+ * Each event goes all the way from {@link MaterialEvent} to bytes and back, with the following combinations:
+ * <ul>
+ * <li>JSON payload in a {@link JacksonJsonEventSerializer} event (what we had before)
+ * <li>JSON payload in a {@link BinaryEventSerializer} event
+ * <li>Smile payload in a {@link BinaryEventSerializer} event
+ * </ul>
+ * Just run the main method; the system properties <code>WarmupIterations</code> and <code>Iterations</code> can be used to change the number of (de)serializations per event and combination.
+ */
+@Disabled
+public class MaterialEventSerializationBenchmarkManualTest
+{
+	private static final int DEFAULT_WarmupIterations = 20_000;
+	private static final int DEFAULT_Iterations = 200_000;
+
+	@Value
+	private static class Combination
+	{
+		PayloadFormat payloadFormat;
+		IEventSerializer serializer;
+
+		@Override
+		public String toString()
+		{
+			return payloadFormat + " in " + serializer.getClass().getSimpleName();
+		}
+	}
+
+	private static final List<Combination> COMBINATIONS = ImmutableList.of(
+			new Combination(PayloadFormat.JSON, JacksonJsonEventSerializer.instance),
+			new Combination(PayloadFormat.JSON, BinaryEventSerializer.instance),
+			new Combination(PayloadFormat.SMILE, BinaryEventSerializer.instance));
+
+	private static final MaterialEventConverter materialEventConverter = new MaterialEventConverter();
+
+	/**
+	 * Prevents the JIT from optimizing away the benchmarked code.
+	 */
+	private static long sink = 0;
+
+	public static void main(final String[] args)
+	{
+		final int warmupIterations = Integer.getInteger("WarmupIterations", DEFAULT_WarmupIterations);
+		final int iterations = Integer.getInteger("Iterations", DEFAULT_Iterations);
+
+		for (final MaterialEvent materialEvent : createSampleEvents())
+		{
+			for (final Combination combination : COMBINATIONS)
+			{
+				run(materialEvent, combination, warmupIterations, iterations);
+			}
+		}
+
+		System.out.println("sink=" + sink);
+	}
+
+	private static void run(
+			final MaterialEvent materialEvent,
+			final Combination combination,
+			final int warmupIterations,
+			final int iterations)
+	{
+		final byte[] bytes = serialize(materialEvent, combination);
+		if (!materialEvent.equals(deserialize(bytes, combination)))
+		{
+			throw new IllegalStateException(combination + " did not restore " + materialEvent);
+		}
+
+		benchmarkSerialize(materialEvent, combination, warmupIterations);
+		final long serializeNanos = benchmarkSerialize(materialEvent, combination, iterations);
+
+		benchmarkDeserialize(bytes, combination, warmupIterations);
+		final long deserializeNanos = benchmarkDeserialize(bytes, combination, iterations);
+
+		System.out.printf("%-30s %-36s bytes/event=%6d serialize=%7.0f ns/event deserialize=%7.0f ns/event%n",
+				materialEvent.getClass().getSimpleName(),
+				combination,
+				bytes.length,
+				(double)serializeNanos / iterations,
+				(double)deserializeNanos / iterations);
+	}
+
+	private static byte[] serialize(final MaterialEvent materialEvent, final Combination combination)
+	{
+		final Event event = materialEventConverter.fromMaterialEvent(materialEvent, combination.getPayloadFormat());
+		return combination.getSerializer().toBytes(event);
+	}
+
+	private static MaterialEvent deserialize(final byte[] bytes, final Combination combination)
+	{
+		final Event event = combination.getSerializer().fromBytes(bytes);
+		return materialEventConverter.toMaterialEvent(event);
+	}
+
+	private static long benchmarkSerialize(final MaterialEvent materialEvent, final Combination combination, final int iterations)
+	{
+		final long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++)
+		{
+			sink += serialize(materialEvent, combination).length;
+		}
+		return System.nanoTime() - start;
+	}
+
+	private static long benchmarkDeserialize(final byte[] bytes, final Combination combination, final int iterations)
+	{
+		final long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++)
+		{
+			sink += deserialize(bytes, combination).hashCode();
+		}
+		return System.nanoTime() - start;
+	}
+
+	private static List<MaterialEvent> createSampleEvents()
+	{
+		final EventDescriptor eventDescriptor = EventDescriptor.ofClientAndOrg(1, 2);
+		final MinMaxDescriptor minMaxDescriptor = MinMaxDescriptor.builder()
+				.min(new BigDecimal("2"))
+				.max(new BigDecimal("3"))
+				.build();
+
+		return ImmutableList.of(
+				MaterialEventSerializerTests.createSampleTransactionEvent(),
+				TransactionDeletedEvent.builder()
+						.transactionId(10)
+						.eventDescriptor(eventDescriptor)
+						.materialDescriptor(createMaterialDescriptor())
+						.minMaxDescriptor(minMaxDescriptor)
+						.build(),
+				ShipmentScheduleUpdatedEvent.builder()
+						.eventDescriptor(eventDescriptor)
+						.materialDescriptor(createMaterialDescriptor())
+						.minMaxDescriptor(minMaxDescriptor)
+						.orderedQuantityDelta(new BigDecimal("2"))
+						.reservedQuantity(new BigDecimal("3"))
+						.reservedQuantityDelta(new BigDecimal("4"))
+						.shipmentScheduleId(5)
+						.build(),
+				ReceiptScheduleCreatedEvent.builder()
+						.eventDescriptor(eventDescriptor)
+						.materialDescriptor(createMaterialDescriptor())
+						.orderLineDescriptor(OrderLineDescriptor.builder()
+								.orderLineId(4)
+								.orderId(5)
+								.orderBPartnerId(6)
+								.docTypeId(7)
+								.build())
+						.reservedQuantity(new BigDecimal("2"))
+						.receiptScheduleId(3)
+						.build());
+	}
+}
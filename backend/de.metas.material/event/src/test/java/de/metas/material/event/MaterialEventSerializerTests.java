@@ -21,6 +21,7 @@ import de.metas.material.event.ddorder.DDOrderDocStatusChangedEvent;
 import de.metas.material.event.ddorder.DDOrderLine;
 import de.metas.material.event.ddorder.DDOrderRequestedEvent;
 import de.metas.material.event.eventbus.MaterialEventConverter;
+import de.metas.material.event.eventbus.MaterialEventConverter.PayloadFormat;
 import de.metas.material.event.forecast.Forecast;
 import de.metas.material.event.forecast.ForecastCreatedEvent;
 import de.metas.material.event.forecast.ForecastLine;
@@ -134,11 +135,12 @@ public class MaterialEventSerializerTests
 
 		//
 		// Test via materialEventConverter
+		for (final PayloadFormat payloadFormat : PayloadFormat.values())
 		{
-			final Event eventbusEvent = materialEventConverter.fromMaterialEvent(originalEvent);
+			final Event eventbusEvent = materialEventConverter.fromMaterialEvent(originalEvent, payloadFormat);
 			final MaterialEvent deserializedEvent = materialEventConverter.toMaterialEvent(eventbusEvent);
 
-			assertThat(deserializedEvent).isEqualTo(originalEvent);
+			assertThat(deserializedEvent).as("payloadFormat=%s", payloadFormat).isEqualTo(originalEvent);
 		}
 	}
 
@@ -0,0 +1,195 @@
+package de.metas.material.event.eventbus;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.event.Event;
+import de.metas.event.log.EventLogUserService;
+import de.metas.material.event.MaterialEvent;
+import de.metas.material.event.MaterialEventBatchHandler;
+import de.metas.material.event.MaterialEventHandler;
+import de.metas.material.event.MaterialEventHandlerRegistry;
+import de.metas.material.event.MaterialEventObserver;
+import de.metas.material.event.commons.EventDescriptor;
+import de.metas.material.event.simulation.DeactivateAllSimulatedCandidatesEvent;
+import de.metas.organization.ClientAndOrgId;
+import de.metas.organization.OrgId;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static de.metas.material.event.EventTestHelper.CLIENT_AND_ORG_ID;
+import static de.metas.material.event.EventTestHelper.CLIENT_ID;
+import static org.assertj.core.api.Assertions.*;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class MaterialEventBatchProcessorTest
+{
+	private static final int MAX_BATCH_SIZE = 3;
+
+	private TestBatchHandler batchHandler;
+	private List<MaterialEvent> singleProcessedEvents;
+	private MaterialEventBatchProcessor processor;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		batchHandler = new TestBatchHandler();
+		singleProcessedEvents = new ArrayList<>();
+
+		final EventLogUserService eventLogUserService = new EventLogUserService();
+
+		@SuppressWarnings("rawtypes")
+		final Optional<Collection<MaterialEventHandler>> handlers = Optional.of(ImmutableList.of(batchHandler));
+		final MaterialEventHandlerRegistry registry = new MaterialEventHandlerRegistry(handlers, eventLogUserService, new MaterialEventObserver());
+
+		// not started, so the test decides when the next batch is processed
+		processor = new MaterialEventBatchProcessor(
+				registry,
+				eventLogUserService,
+				singleProcessedEvents::add,
+				() -> MAX_BATCH_SIZE);
+	}
+
+	private static class TestBatchHandler implements MaterialEventBatchHandler<DeactivateAllSimulatedCandidatesEvent>
+	{
+		private final List<List<DeactivateAllSimulatedCandidatesEvent>> handledBatches = new ArrayList<>();
+		private boolean fail = false;
+
+		@Override
+		public Collection<Class<? extends DeactivateAllSimulatedCandidatesEvent>> getHandledEventType()
+		{
+			return ImmutableList.of(DeactivateAllSimulatedCandidatesEvent.class);
+		}
+
+		@Override
+		public void handleEvent(final DeactivateAllSimulatedCandidatesEvent event)
+		{
+			handleEvents(ImmutableList.of(event));
+		}
+
+		@Override
+		public void handleEvents(final List<DeactivateAllSimulatedCandidatesEvent> events)
+		{
+			if (fail)
+			{
+				throw new AdempiereException("test");
+			}
+			handledBatches.add(ImmutableList.copyOf(events));
+		}
+	}
+
+	private List<MaterialEvent> enqueueEvents(final int count, final ClientAndOrgId clientAndOrgId)
+	{
+		final List<MaterialEvent> materialEvents = new ArrayList<>();
+		for (int i = 0; i < count; i++)
+		{
+			final MaterialEvent materialEvent = new DeactivateAllSimulatedCandidatesEvent(EventDescriptor.ofClientAndOrg(clientAndOrgId));
+			processor.enqueue(Event.builder().wasLogged().build(), materialEvent);
+			materialEvents.add(materialEvent);
+		}
+		return materialEvents;
+	}
+
+	private List<Integer> handledBatchSizes()
+	{
+		return batchHandler.handledBatches.stream().map(List::size).collect(Collectors.toList());
+	}
+
+	@Test
+	public void drainsUpToMaxBatchSize()
+	{
+		final List<MaterialEvent> events = enqueueEvents(5, CLIENT_AND_ORG_ID);
+
+		processNextBatch();
+		assertThat(handledBatchSizes()).containsExactly(3);
+
+		processNextBatch();
+		assertThat(handledBatchSizes()).containsExactly(3, 2);
+
+		assertThat(batchHandler.handledBatches.stream().flatMap(List::stream)).containsExactlyElementsOf(events);
+		assertThat(singleProcessedEvents).isEmpty();
+	}
+
+	@Test
+	public void batchFails_eventsAreProcessedOneByOne()
+	{
+		final List<MaterialEvent> events = enqueueEvents(3, CLIENT_AND_ORG_ID);
+		batchHandler.fail = true;
+
+		processNextBatch();
+
+		assertThat(batchHandler.handledBatches).isEmpty();
+		assertThat(singleProcessedEvents).containsExactlyElementsOf(events);
+	}
+
+	@Test
+	public void otherOrg_notInTheSameRun()
+	{
+		final List<MaterialEvent> events = new ArrayList<>();
+		events.addAll(enqueueEvents(2, CLIENT_AND_ORG_ID));
+		events.addAll(enqueueEvents(1, ClientAndOrgId.ofClientAndOrg(CLIENT_ID, OrgId.ofRepoId(21))));
+
+		processNextBatch();
+
+		// a run of one event is processed like without batching
+		assertThat(handledBatchSizes()).containsExactly(2);
+		assertThat(singleProcessedEvents).containsExactly(events.get(2));
+	}
+
+	@Test
+	public void shutdown_processesQueuedEvents()
+	{
+		final List<MaterialEvent> events = enqueueEvents(5, CLIENT_AND_ORG_ID);
+
+		processor.shutdownAndProcessQueuedEvents(Duration.ofSeconds(10));
+		assertThat(handledBatchSizes()).containsExactly(3, 2);
+
+		// events which arrive after the shutdown are processed right away
+		events.addAll(enqueueEvents(2, CLIENT_AND_ORG_ID));
+		assertThat(handledBatchSizes()).containsExactly(3, 2, 2);
+
+		assertThat(batchHandler.handledBatches.stream().flatMap(List::stream)).containsExactlyElementsOf(events);
+	}
+
+	private void processNextBatch()
+	{
+		try
+		{
+			processor.processNextBatch();
+		}
+		catch (final InterruptedException ex)
+		{
+			throw new AdempiereException("interrupted", ex);
+		}
+	}
+}
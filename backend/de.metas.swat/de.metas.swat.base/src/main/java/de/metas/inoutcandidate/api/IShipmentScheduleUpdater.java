@@ -15,10 +15,21 @@ public interface IShipmentScheduleUpdater extends ISingletonService
 	void registerCandidateProcessor(IShipmentSchedulesAfterFirstPassUpdater processor);
 
 	/**
+	 * Updates the invalid schedules in the caller's thread inherited transaction, if there is one.
+	 * Otherwise, if configured (see {@link #isParallelUpdateEnabled()}), the schedules might be updated in parallel partitions; each partition is updated and committed in its own transaction then,
+	 * so if one partition fails, the others are still committed.
+	 * If the schedules are updated serially without a caller's transaction, they are updated in one new transaction.
+	 *
 	 * @return the number of updated schedule entries.
 	 */
 	int updateShipmentSchedules(ShipmentScheduleUpdateInvalidRequest request);
 
+	/**
+	 * @return true if {@link #updateShipmentSchedules(ShipmentScheduleUpdateInvalidRequest)} is configured to update the schedules in parallel partitions.
+	 * Callers which want to benefit from it shall invoke it without a thread inherited transaction.
+	 */
+	boolean isParallelUpdateEnabled();
+
 	/**
 	 * @return true if updater is currently running in this thread
 	 */
@@ -135,6 +135,16 @@ public final class OlAndSched
 		return shipmentSchedule;
 	}
 
+	/**
+	 * Makes the records of this instance use the thread inherited transaction, e.g. because they shall be updated in another thread than the one which loaded them.
+	 */
+	public void setThreadInheritedTrxName()
+	{
+		InterfaceWrapperHelper.setThreadInheritedTrxName(shipmentSchedule);
+		salesOrderLine.ifPresent(orderLine -> InterfaceWrapperHelper.setThreadInheritedTrxName(orderLine));
+		salesOrder.ifPresent(order -> InterfaceWrapperHelper.setThreadInheritedTrxName(order));
+	}
+
 	public ShipmentScheduleId getShipmentScheduleId()
 	{
 		return ShipmentScheduleId.ofRepoId(shipmentSchedule.getM_ShipmentSchedule_ID());
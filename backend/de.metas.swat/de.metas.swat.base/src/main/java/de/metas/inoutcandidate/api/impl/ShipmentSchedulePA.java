@@ -247,6 +247,8 @@ public class ShipmentSchedulePA implements IShipmentSchedulePA
 				.createQueryBuilder(I_M_ShipmentSchedule.class)
 				.addOnlyActiveRecordsFilter()
 				.filter(invalidSchedulesRepo.createInvalidShipmentSchedulesQueryFilter(pinstanceId))
+				// the ASIs are needed one by one when the storages are queried
+				.prefetch(I_M_ShipmentSchedule.COLUMNNAME_M_AttributeSetInstance_ID)
 				.create()
 				.setOrderBy(queryBL.createSqlQueryOrderBy(ORDER_CLAUSE))
 				.list();
@@ -0,0 +1,169 @@
+package de.metas.inoutcandidate.api.impl;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import de.metas.util.Check;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Splits the items to be updated into partitions which can be updated independently from each other.
+ * <p>
+ * Each item has a set of keys, e.g. the stock it allocates from or the delivery group it belongs to. Items which share a key, directly or via other items, end up in the same partition.
+ * The result is deterministic: each partition contains its items in the order they were given, and the partitions' order only depends on the given items and keys.
+ */
+/* package */ final class ShipmentScheduleUpdatePartitioner
+{
+	/**
+	 * @param maxPartitions if there are more groups of connected items than this, then they are distributed to this many partitions, so that the partitions have about the same size.
+	 */
+	public static <T> ImmutableList<ImmutableList<T>> partition(
+			@NonNull final List<T> items,
+			@NonNull final Function<T, Collection<Object>> keysExtractor,
+			final int maxPartitions)
+	{
+		Check.assumeGreaterThanZero(maxPartitions, "maxPartitions");
+
+		final List<List<Integer>> connectedItemIndexes = computeConnectedItemIndexes(items, keysExtractor);
+		final List<List<Integer>> partitionItemIndexes = distribute(connectedItemIndexes, maxPartitions);
+
+		final ImmutableList.Builder<ImmutableList<T>> partitions = ImmutableList.builder();
+		for (final List<Integer> itemIndexes : partitionItemIndexes)
+		{
+			partitions.add(itemIndexes.stream()
+					.sorted()
+					.map(items::get)
+					.collect(ImmutableList.toImmutableList()));
+		}
+		return partitions.build();
+	}
+
+	/**
+	 * @return groups of item indexes, ordered by their first item
+	 */
+	private static <T> List<List<Integer>> computeConnectedItemIndexes(
+			@NonNull final List<T> items,
+			@NonNull final Function<T, Collection<Object>> keysExtractor)
+	{
+		final int[] parents = new int[items.size()];
+		for (int i = 0; i < parents.length; i++)
+		{
+			parents[i] = i;
+		}
+
+		final Map<Object, Integer> firstItemIndexByKey = new HashMap<>();
+		for (int itemIndex = 0; itemIndex < items.size(); itemIndex++)
+		{
+			for (final Object key : keysExtractor.apply(items.get(itemIndex)))
+			{
+				final Integer firstItemIndex = firstItemIndexByKey.putIfAbsent(key, itemIndex);
+				if (firstItemIndex != null)
+				{
+					union(parents, firstItemIndex, itemIndex);
+				}
+			}
+		}
+
+		final Map<Integer, List<Integer>> itemIndexesByRoot = new LinkedHashMap<>();
+		for (int itemIndex = 0; itemIndex < items.size(); itemIndex++)
+		{
+			itemIndexesByRoot.computeIfAbsent(find(parents, itemIndex), k -> new ArrayList<>()).add(itemIndex);
+		}
+		return new ArrayList<>(itemIndexesByRoot.values());
+	}
+
+	private static int find(final int[] parents, final int index)
+	{
+		int root = index;
+		while (parents[root] != root)
+		{
+			root = parents[root];
+		}
+
+		// path compression
+		int current = index;
+		while (parents[current] != root)
+		{
+			final int next = parents[current];
+			parents[current] = root;
+			current = next;
+		}
+
+		return root;
+	}
+
+	private static void union(final int[] parents, final int index1, final int index2)
+	{
+		final int root1 = find(parents, index1);
+		final int root2 = find(parents, index2);
+		if (root1 != root2)
+		{
+			// the smaller index wins, to stay deterministic
+			parents[Math.max(root1, root2)] = Math.min(root1, root2);
+		}
+	}
+
+	/**
+	 * Distributes the groups to at most <code>maxPartitions</code> partitions, biggest groups first, each to the currently smallest partition.
+	 */
+	private static List<List<Integer>> distribute(final List<List<Integer>> groups, final int maxPartitions)
+	{
+		if (groups.size() <= maxPartitions)
+		{
+			return groups;
+		}
+
+		final List<List<Integer>> groupsBySizeDesc = new ArrayList<>(groups);
+		groupsBySizeDesc.sort(Comparator.<List<Integer>> comparingInt(List::size).reversed()); // stable sort, so equally sized groups keep their order
+
+		final List<List<Integer>> partitions = new ArrayList<>(maxPartitions);
+		for (int i = 0; i < maxPartitions; i++)
+		{
+			partitions.add(new ArrayList<>());
+		}
+
+		for (final List<Integer> group : groupsBySizeDesc)
+		{
+			List<Integer> smallestPartition = partitions.get(0);
+			for (final List<Integer> partition : partitions)
+			{
+				if (partition.size() < smallestPartition.size())
+				{
+					smallestPartition = partition;
+				}
+			}
+			smallestPartition.addAll(group);
+		}
+
+		return partitions;
+	}
+}
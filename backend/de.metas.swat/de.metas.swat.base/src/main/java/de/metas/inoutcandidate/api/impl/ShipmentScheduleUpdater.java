@@ -51,6 +51,8 @@ import de.metas.util.ILoggable;
 import de.metas.util.Loggables;
 import de.metas.util.Services;
 import lombok.NonNull;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.inout.util.DeliveryGroupCandidate;
 import org.adempiere.inout.util.DeliveryGroupCandidateGroupId;
@@ -62,6 +64,8 @@ import org.adempiere.inout.util.ShipmentScheduleQtyOnHandStorage;
 import org.adempiere.inout.util.ShipmentScheduleQtyOnHandStorageFactory;
 import org.adempiere.inout.util.ShipmentSchedulesDuringUpdate;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.IContextAware;
 import org.adempiere.util.lang.ImmutablePair;
 import org.adempiere.warehouse.LocatorId;
@@ -69,7 +73,9 @@ import org.adempiere.warehouse.WarehouseId;
 import org.adempiere.warehouse.api.IWarehouseDAO;
 import org.compiere.model.I_C_BPartner_Product;
 import org.compiere.model.I_M_Product;
+import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
+import org.compiere.util.Util.ArrayKey;
 import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 import org.springframework.stereotype.Service;
@@ -78,11 +84,14 @@ import java.math.BigDecimal;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Stream;
 
 /*
@@ -129,6 +138,18 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 
 	private static final Logger logger = LogManager.getLogger(ShipmentScheduleUpdater.class);
 
+	/**
+	 * How many threads shall update the shipment schedules; 1 means that they are updated in the caller's thread and transaction.
+	 * Also if the caller has a thread inherited transaction, they are updated in the caller's thread.
+	 */
+	private static final String SYSCONFIG_Parallelism = "de.metas.inoutcandidate.ShipmentScheduleUpdater.Parallelism";
+	private static final int DEFAULT_Parallelism = 1;
+	/**
+	 * How many partitions per thread, so that threads which are done early can take over more work.
+	 */
+	private static final int PARTITIONS_PER_THREAD = 4;
+	private static final Object PARTITION_KEY_PickingBOMs = "PickingBOMs";
+
 	private final IShipmentScheduleHandlerBL shipmentScheduleHandlerBL = Services.get(IShipmentScheduleHandlerBL.class);
 	private final IShipmentScheduleInvalidateRepository invalidSchedulesRepo = Services.get(IShipmentScheduleInvalidateRepository.class);
 	private final IShipmentSchedulePA shipmentSchedulePA = Services.get(IShipmentSchedulePA.class);
@@ -146,6 +167,8 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 	private final IUOMConversionBL uomConversionBL = Services.get(IUOMConversionBL.class);
 	private final IProductBL productsService = Services.get(IProductBL.class);
 	private final IBPartnerProductDAO bpartnerProductDAO = Services.get(IBPartnerProductDAO.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
 
 	private final CompositeCandidateProcessor candidateProcessors = new CompositeCandidateProcessor();
 
@@ -211,7 +234,7 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 
 			invalidatePickingBOMProducts(olsAndScheds, selectionId);
 
-			updateSchedules(request.getCtx(), olsAndScheds);
+			updateSchedulesSerialOrParallel(request, olsAndScheds);
 
 			// cleanup the marker/pointer tables
 			invalidSchedulesRepo.deleteRecomputeMarkersOutOfTrx(selectionId);
@@ -241,6 +264,177 @@ public class ShipmentScheduleUpdater implements IShipmentScheduleUpdater
 		return running != null && running;
 	}
 
+	/**
+	 * Updates the given schedules like {@link #updateSchedules(Properties, List)}, but if configured via {@value #SYSCONFIG_Parallelism}, then
+	 * they are split into partitions which don't share any stock or delivery group, and the partitions are updated concurrently, each in its own transaction.
+	 * <p>
+	 * Since the schedules of one partition are updated in the same order as if everything was updated serially, the outcome is the same.
+	 * Note that each partition is committed on its own, i.e. if one partition fails, the others are committed nevertheless.
+	 * <p>
+	 * If the caller has a thread inherited transaction, we update serially in that transaction,
+	 * because the other transactions would not see its changes (e.g. the missing schedules which were just created) and the caller would not be able to roll back our changes.
+	 * That's why {@link de.metas.inoutcandidate.async.UpdateInvalidShipmentSchedulesWorkpackageProcessor} runs out of transaction if parallel updates are enabled.
+	 * Otherwise, if we update serially, we do it in one new transaction.
+	 */
+	private void updateSchedulesSerialOrParallel(
+			@NonNull final ShipmentScheduleUpdateInvalidRequest request,
+			@NonNull final List<OlAndSched> olsAndScheds)
+	{
+		final boolean callerHasTrx = trxManager.isActive(trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone));
+		if (callerHasTrx)
+		{
+			updateSchedules(request.getCtx(), olsAndScheds);
+			return;
+		}
+
+		final int parallelism = request.isCreateMissingShipmentSchedules()
+				? 1
+				: getConfiguredParallelism();
+		if (parallelism <= 1 || olsAndScheds.size() <= 1)
+		{
+			updateSchedulesInNewTrx(request.getCtx(), olsAndScheds);
+			return;
+		}
+
+		final ImmutableList<ImmutableList<OlAndSched>> partitions = ShipmentScheduleUpdatePartitioner.partition(
+				olsAndScheds,
+				this::extractPartitionKeys,
+				parallelism * PARTITIONS_PER_THREAD);
+		if (partitions.size() <= 1)
+		{
+			updateSchedulesInNewTrx(request.getCtx(), olsAndScheds);
+			return;
+		}
+
+		Loggables.withLogger(logger, Level.DEBUG).addLog("ShipmentScheduleUpdater - Updating {} shipment schedules in {} partitions using {} threads", olsAndScheds.size(), partitions.size(), parallelism);
+		updateSchedulesInParallel(request.getCtx(), partitions, parallelism);
+	}
+
+	@Override
+	public boolean isParallelUpdateEnabled()
+	{
+		return getConfiguredParallelism() > 1;
+	}
+
+	private int getConfiguredParallelism()
+	{
+		return sysConfigBL.getIntValue(SYSCONFIG_Parallelism, DEFAULT_Parallelism);
+	}
+
+	/**
+	 * @return keys of the things which the given schedule's update shares with other schedules
+	 */
+	@VisibleForTesting
+	Collection<Object> extractPartitionKeys(@NonNull final OlAndSched olAndSched)
+	{
+		final I_M_ShipmentSchedule sched = olAndSched.getSched();
+		final ShipmentScheduleReferencedLine scheduleSourceDoc = shipmentScheduleReferencedLineFactory.createFor(sched);
+		final ProductId productId = olAndSched.getProductId();
+
+		// the warehouse as it will be after updateWarehouseId()
+		final WarehouseId warehouseId = sched.getM_Warehouse_Override_ID() > 0
+				? WarehouseId.ofRepoId(sched.getM_Warehouse_Override_ID())
+				: scheduleSourceDoc.getWarehouseId();
+
+		final ArrayList<Object> keys = new ArrayList<>();
+
+		// the stock which the schedule allocates from, see ShipmentScheduleQtyOnHandStorage
+		for (final WarehouseId stockWarehouseId : warehousesRepo.getWarehouseIdsOfSamePickingGroup(warehouseId))
+		{
+			keys.add(ArrayKey.of("Stock", productId, stockWarehouseId));
+		}
+
+		// picking BOMs allocate from their components' stock; keep all schedules involved in one partition
+		if (sched.getPickFrom_Order_ID() > 0
+				|| !pickingBOMService.getPickingBOMsReversedIndex().getBOMProductIdsByComponentId(productId).isEmpty())
+		{
+			keys.add(PARTITION_KEY_PickingBOMs);
+		}
+
+		// the delivery group, see getOrCreateGroupCandidateForShipmentSchedule()
+		keys.add(ArrayKey.of("SourceDoc", scheduleSourceDoc.getRecordRef()));
+		keys.add(ArrayKey.of("BPartner", shipmentScheduleEffectiveBL.getBPartnerId(sched)));
+
+		return keys;
+	}
+
+	private void updateSchedulesInParallel(
+			@NonNull final Properties ctx,
+			@NonNull final List<ImmutableList<OlAndSched>> partitions,
+			final int parallelism)
+	{
+		final ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try
+		{
+			final List<ForkJoinTask<?>> tasks = new ArrayList<>(partitions.size());
+			for (final ImmutableList<OlAndSched> partition : partitions)
+			{
+				tasks.add(pool.submit(() -> updatePartitionInNewTrx(ctx, partition)));
+			}
+
+			// wait for all partitions; report the errors in partitions order
+			AdempiereException error = null;
+			for (final ForkJoinTask<?> task : tasks)
+			{
+				try
+				{
+					task.join();
+				}
+				catch (final RuntimeException ex)
+				{
+					if (error == null)
+					{
+						error = AdempiereException.wrapIfNeeded(ex);
+					}
+					else
+					{
+						error.addSuppressed(ex);
+					}
+				}
+			}
+
+			if (error != null)
+			{
+				throw error;
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	private void updatePartitionInNewTrx(
+			@NonNull final Properties ctx,
+			@NonNull final List<OlAndSched> partition)
+	{
+		final Properties partitionCtx = Env.copyCtx(ctx);
+
+		// our model interceptors shall not invalidate what we are updating; see isRunning()
+		this.running.set(true);
+		try (final IAutoCloseable ignored = Env.switchContext(partitionCtx))
+		{
+			updateSchedulesInNewTrx(partitionCtx, partition);
+		}
+		finally
+		{
+			this.running.remove();
+		}
+	}
+
+	/**
+	 * Updates the given schedules in a new transaction, so that they are not committed one by one.
+	 */
+	private void updateSchedulesInNewTrx(
+			@NonNull final Properties ctx,
+			@NonNull final List<OlAndSched> olsAndScheds)
+	{
+		trxManager.runInNewTrx(() -> {
+			olsAndScheds.forEach(OlAndSched::setThreadInheritedTrxName);
+			updateSchedules(ctx, olsAndScheds);
+		});
+	}
+
 	/**
 	 * Updates the given {@link I_M_ShipmentSchedule}s by setting these columns:
 	 * <li>
@@ -79,6 +79,16 @@ public class UpdateInvalidShipmentSchedulesWorkpackageProcessor extends Workpack
 	// services
 	private final transient IShipmentScheduleUpdater shipmentScheduleUpdater = Services.get(IShipmentScheduleUpdater.class);
 
+	/**
+	 * @return false if the shipment schedules may be updated in parallel partitions, because within our transaction, the updater would update them serially;
+	 * the updater then uses its own transaction(s).
+	 */
+	@Override
+	public boolean isRunInTransaction()
+	{
+		return !shipmentScheduleUpdater.isParallelUpdateEnabled();
+	}
+
 	@Override
 	public Result processWorkPackage(@NonNull final I_C_Queue_WorkPackage workpackage, final String localTrxName_NOTUSED)
 	{
@@ -978,6 +978,8 @@ public class InvoiceCandDAO implements IInvoiceCandDAO
 				.andCollect(I_C_Invoice_Candidate_Recompute.COLUMN_C_Invoice_Candidate_ID)
 				.addOnlyContextClient()
 				.addOnlyActiveRecordsFilter()
+				// the updater and the handlers need the order lines one by one; load them in bulk for each page of candidates
+				.prefetch(I_C_Invoice_Candidate.COLUMNNAME_C_OrderLine_ID)
 				//
 				// Order BY: we need to return the not-manual invoice candidates first, because their NetAmtToInvoice is required when we evaluate the manual candidates
 				.orderBy()
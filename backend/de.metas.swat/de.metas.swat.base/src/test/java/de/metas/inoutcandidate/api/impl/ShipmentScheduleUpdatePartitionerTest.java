@@ -0,0 +1,91 @@
+package de.metas.inoutcandidate.api.impl;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ShipmentScheduleUpdatePartitionerTest
+{
+	/**
+	 * Each item is a string of one-character keys.
+	 */
+	private static ImmutableList<ImmutableList<String>> partition(final List<String> items, final int maxPartitions)
+	{
+		return ShipmentScheduleUpdatePartitioner.partition(items, ShipmentScheduleUpdatePartitionerTest::extractKeys, maxPartitions);
+	}
+
+	private static Collection<Object> extractKeys(final String item)
+	{
+		return Arrays.asList(item.split(""));
+	}
+
+	@Test
+	public void independentItems()
+	{
+		assertThat(partition(ImmutableList.of("a", "b", "c"), 10))
+				.containsExactly(
+						ImmutableList.of("a"),
+						ImmutableList.of("b"),
+						ImmutableList.of("c"));
+	}
+
+	@Test
+	public void transitivelyConnectedItems()
+	{
+		// "ab" and "cd" are connected via "bc"
+		assertThat(partition(ImmutableList.of("ab", "x", "cd", "bc", "y"), 10))
+				.containsExactly(
+						ImmutableList.of("ab", "cd", "bc"),
+						ImmutableList.of("x"),
+						ImmutableList.of("y"));
+	}
+
+	@Test
+	public void distributedToMaxPartitions_keepingOrderAndConnectedItems()
+	{
+		final ImmutableList<ImmutableList<String>> partitions = partition(ImmutableList.of("a1", "b", "a2", "c", "a3", "d", "e"), 2);
+
+		assertThat(partitions).containsExactly(
+				ImmutableList.of("a1", "a2", "a3", "e"),
+				ImmutableList.of("b", "c", "d"));
+	}
+
+	@Test
+	public void deterministic()
+	{
+		final ImmutableList<String> items = ImmutableList.of("ab", "c", "de", "ef", "g", "hc", "i", "j", "ka");
+
+		final ImmutableList<ImmutableList<String>> partitions = partition(items, 3);
+		for (int i = 0; i < 10; i++)
+		{
+			assertThat(partition(items, 3)).isEqualTo(partitions);
+		}
+	}
+}
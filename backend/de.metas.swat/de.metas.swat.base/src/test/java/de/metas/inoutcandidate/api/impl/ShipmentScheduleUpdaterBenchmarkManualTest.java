@@ -0,0 +1,122 @@
+package de.metas.inoutcandidate.api.impl;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import de.metas.inoutcandidate.api.IShipmentScheduleUpdater;
+import de.metas.inoutcandidate.api.ShipmentScheduleUpdateInvalidRequest;
+import de.metas.inoutcandidate.invalidation.IShipmentScheduleInvalidateRepository;
+import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
+import de.metas.organization.OrgId;
+import de.metas.process.IADPInstanceDAO;
+import de.metas.process.PInstanceId;
+import de.metas.util.Services;
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.Adempiere;
+import org.compiere.util.Env;
+import org.junit.Ignore;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Measures how {@link ShipmentScheduleUpdater} scales with the number of threads (see {@link ShipmentScheduleUpdater}'s <code>Parallelism</code> sysconfig)
+ * and checks that the results are the same as when updating serially.
+ * <p>
+ * Needs a running database (connection settings like for any other metasfresh server) with a good amount of open shipment schedules, e.g. 50k.
+ * For each thread count, all open shipment schedules are invalidated and updated; QtyToDeliver and QtyOnHand of all schedules are compared with the first (serial) run.
+ * The sysconfig is reset at the end.
+ */
+@Ignore
+public class ShipmentScheduleUpdaterBenchmarkManualTest
+{
+	private static final String SYSCONFIG_Parallelism = "de.metas.inoutcandidate.ShipmentScheduleUpdater.Parallelism";
+	private static final int[] THREAD_COUNTS = { 1, 2, 4, 8, 16 };
+
+	private final IQueryBL queryBL = Services.get(IQueryBL.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+	private final IShipmentScheduleInvalidateRepository invalidSchedulesRepo = Services.get(IShipmentScheduleInvalidateRepository.class);
+
+	public static void main(final String[] args)
+	{
+		Adempiere.startupEnvironment(false);
+
+		new ShipmentScheduleUpdaterBenchmarkManualTest().run();
+	}
+
+	private void run()
+	{
+		List<Map<String, Object>> serialResult = null;
+		try
+		{
+			for (final int threadCount : THREAD_COUNTS)
+			{
+				sysConfigBL.setValue(SYSCONFIG_Parallelism, threadCount, ClientId.SYSTEM, OrgId.ANY);
+
+				final long start = System.currentTimeMillis();
+				final int updated = invalidateAndUpdateAll();
+				final long durationMillis = System.currentTimeMillis() - start;
+
+				final List<Map<String, Object>> result = retrieveResult();
+				if (serialResult == null)
+				{
+					serialResult = result;
+				}
+
+				System.out.printf("threads=%2d updated=%6d duration=%7dms throughput=%8.1f scheds/s sameAsSerial=%s%n",
+						threadCount, updated, durationMillis, updated * 1000.0 / Math.max(durationMillis, 1), result.equals(serialResult));
+			}
+		}
+		finally
+		{
+			sysConfigBL.setValue(SYSCONFIG_Parallelism, 1, ClientId.SYSTEM, OrgId.ANY);
+		}
+	}
+
+	private int invalidateAndUpdateAll()
+	{
+		final Properties ctx = Env.getCtx();
+		invalidSchedulesRepo.invalidateAll(ctx);
+
+		final PInstanceId selectionId = Services.get(IADPInstanceDAO.class).createSelectionId();
+		return Services.get(IShipmentScheduleUpdater.class).updateShipmentSchedules(ShipmentScheduleUpdateInvalidRequest.builder()
+				.ctx(ctx)
+				.selectionId(selectionId)
+				.createMissingShipmentSchedules(false)
+				.build());
+	}
+
+	private List<Map<String, Object>> retrieveResult()
+	{
+		return queryBL.createQueryBuilderOutOfTrx(I_M_ShipmentSchedule.class)
+				.addEqualsFilter(I_M_ShipmentSchedule.COLUMNNAME_Processed, false)
+				.orderBy(I_M_ShipmentSchedule.COLUMNNAME_M_ShipmentSchedule_ID)
+				.create()
+				.listColumns(
+						I_M_ShipmentSchedule.COLUMNNAME_M_ShipmentSchedule_ID,
+						I_M_ShipmentSchedule.COLUMNNAME_QtyToDeliver,
+						I_M_ShipmentSchedule.COLUMNNAME_QtyOnHand);
+	}
+}
@@ -0,0 +1,219 @@
+package de.metas.inoutcandidate.api.impl;
+
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import de.metas.async.api.NOPWorkpackageLogsRepository;
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.async.processor.impl.MockedQueueProcessor;
+import de.metas.async.processor.impl.WorkpackageProcessorTask;
+import de.metas.inoutcandidate.api.IShipmentSchedulePA;
+import de.metas.inoutcandidate.api.IShipmentScheduleUpdater;
+import de.metas.inoutcandidate.api.OlAndSched;
+import de.metas.inoutcandidate.async.UpdateInvalidShipmentSchedulesWorkpackageProcessor;
+import de.metas.inoutcandidate.invalidation.IShipmentScheduleInvalidateRepository;
+import de.metas.inoutcandidate.model.I_M_ShipmentSchedule;
+import de.metas.inoutcandidate.picking_bom.PickingBOMService;
+import de.metas.inoutcandidate.picking_bom.PickingBOMsReversedIndex;
+import de.metas.inoutcandidate.spi.ShipmentScheduleReferencedLineFactory;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.inout.util.ShipmentScheduleQtyOnHandStorageFactory;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs {@link UpdateInvalidShipmentSchedulesWorkpackageProcessor} like the async framework does, and checks in which transactions {@link ShipmentScheduleUpdater} updates the schedules.
+ */
+public class ShipmentScheduleUpdater_parallel_Test
+{
+	private static final String SYSCONFIG_Parallelism = "de.metas.inoutcandidate.ShipmentScheduleUpdater.Parallelism";
+
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+
+	private RecordingShipmentScheduleUpdater shipmentScheduleUpdater;
+	private List<OlAndSched> olsAndScheds;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		NOPWorkpackageLogsRepository.registerToSpringContext();
+
+		// these two are working with SQL
+		Services.registerService(IShipmentScheduleInvalidateRepository.class, mock(IShipmentScheduleInvalidateRepository.class));
+		final IShipmentSchedulePA shipmentSchedulePA = mock(IShipmentSchedulePA.class);
+		Services.registerService(IShipmentSchedulePA.class, shipmentSchedulePA);
+
+		final PickingBOMService pickingBOMService = mock(PickingBOMService.class);
+		when(pickingBOMService.getPickingBOMsReversedIndex()).thenReturn(PickingBOMsReversedIndex.EMPTY);
+
+		shipmentScheduleUpdater = new RecordingShipmentScheduleUpdater(pickingBOMService);
+		Services.registerService(IShipmentScheduleUpdater.class, shipmentScheduleUpdater);
+
+		olsAndScheds = ImmutableList.of(createOlAndSched(10), createOlAndSched(20));
+		when(shipmentSchedulePA.retrieveInvalid(any())).thenReturn(olsAndScheds);
+	}
+
+	private static OlAndSched createOlAndSched(final int productId)
+	{
+		final I_M_ShipmentSchedule sched = InterfaceWrapperHelper.newInstance(I_M_ShipmentSchedule.class);
+		sched.setM_Product_ID(productId);
+		InterfaceWrapperHelper.saveRecord(sched);
+
+		return OlAndSched.builder()
+				.shipmentSchedule(sched)
+				.deliverRequest(() -> BigDecimal.ONE)
+				.build();
+	}
+
+	private void setParallelism(final int parallelism)
+	{
+		Services.get(ISysConfigBL.class).setValue(SYSCONFIG_Parallelism, parallelism, ClientId.SYSTEM, OrgId.ANY);
+	}
+
+	private void processWorkpackage()
+	{
+		final I_C_Queue_WorkPackage workpackage = InterfaceWrapperHelper.create(Env.getCtx(), I_C_Queue_WorkPackage.class, ITrx.TRXNAME_None);
+		InterfaceWrapperHelper.save(workpackage);
+
+		final WorkpackageProcessorTask task = new WorkpackageProcessorTask(
+				new MockedQueueProcessor(),
+				new UpdateInvalidShipmentSchedulesWorkpackageProcessor(),
+				workpackage,
+				NOPWorkpackageLogsRepository.instance)
+		{
+			@Override
+			protected void afterWorkpackageProcessed(final boolean releaseElementLockIfAny)
+			{
+				// nothing to release
+			}
+		};
+		task.run();
+
+		assertThat(workpackage.isProcessed()).as("workpackage processed; ErrorMsg=%s", workpackage.getErrorMsg()).isTrue();
+	}
+
+	@Test
+	public void parallelismEnabled_updatesPartitionsInTheirOwnTrx()
+	{
+		setParallelism(4);
+		assertThat(new UpdateInvalidShipmentSchedulesWorkpackageProcessor().isRunInTransaction()).isFalse();
+
+		processWorkpackage();
+
+		final List<UpdateCall> updateCalls = shipmentScheduleUpdater.getUpdateCalls();
+		assertThat(updateCalls).hasSize(2);
+		assertThat(updateCalls).extracting(UpdateCall::getShipmentScheduleIds)
+				.containsExactlyInAnyOrder(
+						ImmutableList.of(olsAndScheds.get(0).getShipmentScheduleId().getRepoId()),
+						ImmutableList.of(olsAndScheds.get(1).getShipmentScheduleId().getRepoId()));
+		assertThat(updateCalls).allSatisfy(updateCall -> {
+			assertThat(trxManager.isNull(updateCall.getTrxName())).isFalse();
+			assertThat(updateCall.isUpdaterRunning()).isTrue();
+		});
+		assertThat(updateCalls.get(0).getTrxName()).isNotEqualTo(updateCalls.get(1).getTrxName());
+	}
+
+	@Test
+	public void parallelismDisabled_updatesSeriallyInWorkpackageTrx()
+	{
+		setParallelism(1);
+		assertThat(new UpdateInvalidShipmentSchedulesWorkpackageProcessor().isRunInTransaction()).isTrue();
+
+		processWorkpackage();
+
+		final List<UpdateCall> updateCalls = shipmentScheduleUpdater.getUpdateCalls();
+		assertThat(updateCalls).hasSize(1);
+		assertThat(updateCalls.get(0).getShipmentScheduleIds()).hasSize(2);
+		assertThat(trxManager.isNull(updateCalls.get(0).getTrxName())).isFalse();
+		assertThat(updateCalls.get(0).isUpdaterRunning()).isTrue();
+	}
+
+	@Value
+	private static class UpdateCall
+	{
+		ImmutableList<Integer> shipmentScheduleIds;
+		String trxName;
+		boolean updaterRunning;
+	}
+
+	/**
+	 * Records the actual updates instead of doing them, and partitions the schedules by product.
+	 */
+	private static class RecordingShipmentScheduleUpdater extends ShipmentScheduleUpdater
+	{
+		private final ITrxManager trxManager = Services.get(ITrxManager.class);
+		private final List<UpdateCall> updateCalls = Collections.synchronizedList(new ArrayList<>());
+
+		private RecordingShipmentScheduleUpdater(@NonNull final PickingBOMService pickingBOMService)
+		{
+			super(mock(ShipmentScheduleQtyOnHandStorageFactory.class), mock(ShipmentScheduleReferencedLineFactory.class), pickingBOMService);
+		}
+
+		@Override
+		Collection<Object> extractPartitionKeys(@NonNull final OlAndSched olAndSched)
+		{
+			return ImmutableList.of(olAndSched.getProductId());
+		}
+
+		@Override
+		void updateSchedules(final Properties ctx, final List<OlAndSched> olsAndScheds)
+		{
+			updateCalls.add(new UpdateCall(
+					olsAndScheds.stream().map(olAndSched -> olAndSched.getShipmentScheduleId().getRepoId()).collect(ImmutableList.toImmutableList()),
+					trxManager.getThreadInheritedTrxName(OnTrxMissingPolicy.ReturnTrxNone),
+					isRunning()));
+		}
+
+		private ImmutableList<UpdateCall> getUpdateCalls()
+		{
+			synchronized (updateCalls)
+			{
+				return ImmutableList.copyOf(updateCalls);
+			}
+		}
+	}
+}
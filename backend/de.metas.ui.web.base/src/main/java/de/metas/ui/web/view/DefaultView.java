@@ -329,6 +329,7 @@ public final class DefaultView implements IEditableView
 	@Override
 	public void invalidateSelection()
 	{
+		selectionsRef.invalidateSharedSelection();
 		selectionsRef.forgetCurrentSelections();
 		headerPropertiesHolder.setValue(null);
 
@@ -459,7 +460,7 @@ public final class DefaultView implements IEditableView
 	private IViewRow retrieveRowById(final DocumentId rowId)
 	{
 		final ViewEvaluationCtx evalCtx = getViewEvaluationCtx();
-		return viewDataRepository.retrieveById(evalCtx, getViewId(), rowId);
+		return viewDataRepository.retrieveById(evalCtx, selectionsRef.getSelectionViewId(), rowId);
 	}
 
 	private ViewRowIdsOrderedSelection getOrderedSelection(final DocumentQueryOrderByList orderBys)
@@ -470,7 +471,7 @@ public final class DefaultView implements IEditableView
 	@Override
 	public SqlViewRowsWhereClause getSqlWhereClause(final DocumentIdsSelection rowIds, final SqlOptions sqlOpts)
 	{
-		return viewDataRepository.getSqlWhereClause(getViewId(), getAllFilters(), rowIds, sqlOpts);
+		return viewDataRepository.getSqlWhereClause(selectionsRef.getSelectionViewId(), getAllFilters(), rowIds, sqlOpts);
 	}
 
 	@Override
@@ -550,7 +551,7 @@ public final class DefaultView implements IEditableView
 	@Override
 	public <T> List<T> retrieveModelsByIds(final DocumentIdsSelection rowIds, final Class<T> modelClass)
 	{
-		return viewDataRepository.retrieveModelsByIds(getViewId(), rowIds, modelClass);
+		return viewDataRepository.retrieveModelsByIds(selectionsRef.getSelectionViewId(), rowIds, modelClass);
 	}
 
 	@Override
@@ -564,6 +565,9 @@ public final class DefaultView implements IEditableView
 			return;
 		}
 
+		// New views with our filters shall not read our shared selection if some of its rows were changed
+		selectionsRef.invalidateSharedSelectionIfContainsAnyOfRowIds(rowIds);
+
 		//
 		// Schedule rows to be checked and added or removed from current view
 		if (refreshViewOnChangeEvents)
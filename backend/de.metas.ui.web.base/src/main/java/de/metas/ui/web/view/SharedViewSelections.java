@@ -0,0 +1,549 @@
+package de.metas.ui.web.view;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import de.metas.logging.LogManager;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.view.descriptor.SqlAndParams;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.util.Services;
+import lombok.Getter;
+import lombok.NonNull;
+import org.adempiere.ad.modelvalidator.AbstractModelInterceptor;
+import org.adempiere.ad.modelvalidator.IModelInterceptorRegistry;
+import org.adempiere.ad.modelvalidator.IModelValidationEngine;
+import org.adempiere.ad.modelvalidator.ModelChangeType;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.impl.TableRecordReferenceSet;
+import org.compiere.model.I_AD_Client;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Selections which are shared between views that have the same table, filters, order-bys and permissions.
+ * <p>
+ * A shared selection is addressed by the hash of the SQL that would create it (see {@link SharedViewSelectionKey}).
+ * The first view creates the shared selection by running that SQL, and every view (the first one included) then reads its rows from the shared selection,
+ * so the filters are evaluated only once. A view which has to change its rows first copies the shared selection to its own one (copy on write),
+ * see {@link ViewRowIdsOrderedSelection#isShared()}.
+ * <p>
+ * A shared selection is dropped, i.e. new views don't read it anymore, when
+ * <ul>
+ * <li>it's older than {@value #SYSCONFIG_MaxAgeSeconds} seconds
+ * <li>some of its rows were changed
+ * <li>a record was created in its table (after that record was committed)
+ * <li>a view which reads it is refreshed
+ * </ul>
+ * Records which are created without a model interceptor being fired (e.g. plain SQL, other nodes of a cluster)
+ * or changed so that they start matching the filters are seen by new views only after {@value #SYSCONFIG_MaxAgeSeconds} seconds.
+ * <p>
+ * A dropped shared selection is deleted from database when no view reads it anymore.
+ * <p>
+ * Disabled by default, see {@value #SYSCONFIG_Enabled}.
+ */
+final class SharedViewSelections
+{
+	public static final SharedViewSelections instance = new SharedViewSelections(SqlViewSelectionToDeleteHelper::scheduleDeleteSelections);
+
+	private static final Logger logger = LogManager.getLogger(SharedViewSelections.class);
+
+	private static final String SYSCONFIG_Enabled = "webui.view.sharedSelections.enabled";
+	private static final String SYSCONFIG_MaxAgeSeconds = "webui.view.sharedSelections.maxAgeSeconds";
+	private static final int DEFAULT_MaxAgeSeconds = 60;
+
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+	private final ITrxManager trxManager = Services.get(ITrxManager.class);
+	private final IModelInterceptorRegistry modelInterceptorRegistry = Services.get(IModelInterceptorRegistry.class);
+	private final Consumer<Set<String>> selectionsDeleter;
+
+	/**
+	 * The tables for which a {@link DropOnRecordCreatedInterceptor} was registered
+	 */
+	private final Set<String> tableNamesWithInterceptor = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * The shared selections which are read by new views
+	 */
+	private final HashMap<SharedViewSelectionKey, SharedSelection> selectionsByKey = new HashMap<>();
+	/**
+	 * All shared selections which were created and are not yet deleted, including the dropped ones which are still read by some views
+	 */
+	private final HashMap<String, SharedSelection> selectionsById = new HashMap<>();
+
+	@VisibleForTesting
+	SharedViewSelections(@NonNull final Consumer<Set<String>> selectionsDeleter)
+	{
+		this.selectionsDeleter = selectionsDeleter;
+	}
+
+	/**
+	 * @return false if disabled or if we are running in a transaction, because the other views would not see the shared selection until it's committed
+	 */
+	public boolean isEnabled()
+	{
+		return sysConfigBL.getBooleanValue(SYSCONFIG_Enabled, false)
+				&& !trxManager.isActive(trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone));
+	}
+
+	/**
+	 * Gets the shared selection for the given key, to be read by a view. The view shall call {@link #releaseIfShared(String)} when it's not reading it anymore.
+	 *
+	 * @param sharedSelectionCreator creates the shared selection, if there is no fresh one yet
+	 * @param rowsChecker            checks if the shared selection contains any of the given rows; used to drop it when some of its rows were changed
+	 */
+	public ViewRowIdsOrderedSelection acquire(
+			@NonNull final SharedViewSelectionKey key,
+			@NonNull final Function<SharedViewSelectionKey, ViewRowIdsOrderedSelection> sharedSelectionCreator,
+			@NonNull final SharedSelectionRowsChecker rowsChecker)
+	{
+		// NOTE: register it before the shared selection is created, so we don't miss any record which is created meanwhile
+		registerInterceptorIfNeeded(key.getTableName());
+
+		final SharedSelection sharedSelection = acquireByKey(key, rowsChecker);
+		try
+		{
+			final ViewRowIdsOrderedSelection selection = sharedSelection.getOrCreateSelection(sharedSelectionCreator);
+			registerSelectionId(sharedSelection, selection);
+			return selection;
+		}
+		catch (final RuntimeException ex)
+		{
+			invalidate(sharedSelection);
+			release(sharedSelection);
+			throw ex;
+		}
+	}
+
+	private void registerInterceptorIfNeeded(@NonNull final String tableName)
+	{
+		if (tableNamesWithInterceptor.add(tableName))
+		{
+			modelInterceptorRegistry.addModelInterceptor(new DropOnRecordCreatedInterceptor(tableName));
+		}
+	}
+
+	private synchronized SharedSelection acquireByKey(
+			@NonNull final SharedViewSelectionKey key,
+			@NonNull final SharedSelectionRowsChecker rowsChecker)
+	{
+		invalidateExpired();
+
+		final SharedSelection sharedSelection = selectionsByKey.computeIfAbsent(key, k -> new SharedSelection(k, rowsChecker));
+		sharedSelection.refCount++;
+		return sharedSelection;
+	}
+
+	private synchronized void registerSelectionId(
+			@NonNull final SharedSelection sharedSelection,
+			@NonNull final ViewRowIdsOrderedSelection selection)
+	{
+		if (sharedSelection.selection == selection)
+		{
+			selectionsById.putIfAbsent(selection.getSelectionId(), sharedSelection);
+		}
+	}
+
+	/**
+	 * @return true if the given selection is a shared one, and it was released (instead of deleted), i.e. false if the caller shall delete it
+	 */
+	public synchronized boolean releaseIfShared(@NonNull final String selectionId)
+	{
+		final SharedSelection sharedSelection = selectionsById.get(selectionId);
+		if (sharedSelection == null)
+		{
+			return false;
+		}
+
+		release(sharedSelection);
+		return true;
+	}
+
+	private synchronized void release(@NonNull final SharedSelection sharedSelection)
+	{
+		sharedSelection.refCount--;
+		deleteIfInvalidatedAndNotUsed(sharedSelection);
+	}
+
+	private synchronized void invalidate(@NonNull final SharedSelection sharedSelection)
+	{
+		selectionsByKey.remove(sharedSelection.getKey(), sharedSelection);
+		sharedSelection.invalidated = true;
+		deleteIfInvalidatedAndNotUsed(sharedSelection);
+	}
+
+	private void invalidateExpired()
+	{
+		final Duration maxAge = getMaxAge();
+		invalidateIf(sharedSelection -> sharedSelection.isExpired(maxAge));
+	}
+
+	/**
+	 * Drops the shared selections which contain any of the given records.
+	 */
+	public void invalidateByRecords(@NonNull final TableRecordReferenceSet recordRefs)
+	{
+		if (recordRefs.isEmpty())
+		{
+			return;
+		}
+
+		// NOTE: we are checking the rows out of the lock, because it's a database query
+		for (final SharedSelection sharedSelection : getSelectionsIf(sharedSelection -> recordRefs.matchesTableName(sharedSelection.getKey().getTableName())))
+		{
+			final DocumentIdsSelection rowIds = recordRefs.streamByTableName(sharedSelection.getKey().getTableName())
+					.map(recordRef -> DocumentId.of(recordRef.getRecord_ID()))
+					.collect(DocumentIdsSelection.toDocumentIdsSelection());
+			if (sharedSelection.containsAnyOfRowIds(rowIds))
+			{
+				logger.debug("Dropping {} because some of its rows were changed", sharedSelection);
+				invalidate(sharedSelection);
+			}
+		}
+	}
+
+	/**
+	 * Drops all shared selections of the given table, e.g. because a record was created in it.
+	 */
+	public void invalidateByTableName(@NonNull final String tableName)
+	{
+		invalidateIf(sharedSelection -> tableName.equals(sharedSelection.getKey().getTableName()));
+	}
+
+	/**
+	 * Drops the given shared selection if it contains any of the given rows.
+	 */
+	public void invalidateBySelectionIdIfContainsAnyOfRowIds(
+			@NonNull final String selectionId,
+			@NonNull final DocumentIdsSelection rowIds)
+	{
+		final SharedSelection sharedSelection = getSelectionById(selectionId);
+		if (sharedSelection != null && sharedSelection.containsAnyOfRowIds(rowIds))
+		{
+			logger.debug("Dropping {} because some of its rows were changed", sharedSelection);
+			invalidate(sharedSelection);
+		}
+	}
+
+	/**
+	 * Drops the given shared selection, e.g. because a view which reads it was refreshed.
+	 */
+	public void invalidateBySelectionId(@NonNull final String selectionId)
+	{
+		final SharedSelection sharedSelection = getSelectionById(selectionId);
+		if (sharedSelection != null)
+		{
+			invalidate(sharedSelection);
+		}
+	}
+
+	@Nullable
+	private synchronized SharedSelection getSelectionById(@NonNull final String selectionId)
+	{
+		return selectionsById.get(selectionId);
+	}
+
+	private synchronized List<SharedSelection> getSelectionsIf(@NonNull final Predicate<SharedSelection> predicate)
+	{
+		if (selectionsByKey.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		return selectionsByKey.values()
+				.stream()
+				.filter(predicate)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private synchronized void invalidateIf(@NonNull final Predicate<SharedSelection> predicate)
+	{
+		getSelectionsIf(predicate).forEach(this::invalidate);
+	}
+
+	private void deleteIfInvalidatedAndNotUsed(@NonNull final SharedSelection sharedSelection)
+	{
+		if (!sharedSelection.invalidated || sharedSelection.refCount > 0)
+		{
+			return;
+		}
+
+		final ViewRowIdsOrderedSelection selection = sharedSelection.selection;
+		sharedSelection.selection = null;
+		if (selection != null)
+		{
+			selectionsById.remove(selection.getSelectionId());
+			selectionsDeleter.accept(ImmutableSet.of(selection.getSelectionId()));
+			logger.debug("Scheduled deleting {}", sharedSelection);
+		}
+	}
+
+	private Duration getMaxAge()
+	{
+		return Duration.ofSeconds(sysConfigBL.getIntValue(SYSCONFIG_MaxAgeSeconds, DEFAULT_MaxAgeSeconds));
+	}
+
+	@VisibleForTesting
+	synchronized int size()
+	{
+		return selectionsByKey.size();
+	}
+
+	/**
+	 * Drops the shared selections of a table when a record was created in it, because the new record might match their filters.
+	 */
+	private final class DropOnRecordCreatedInterceptor extends AbstractModelInterceptor
+	{
+		private final String tableName;
+
+		private DropOnRecordCreatedInterceptor(@NonNull final String tableName)
+		{
+			this.tableName = tableName;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "DropOnRecordCreatedInterceptor[" + tableName + "]";
+		}
+
+		@Override
+		protected void onInit(final IModelValidationEngine engine, final I_AD_Client client)
+		{
+			engine.addModelChange(tableName, this);
+		}
+
+		@Override
+		public void onModelChange(final Object model, final ModelChangeType changeType)
+		{
+			if (changeType == ModelChangeType.AFTER_NEW)
+			{
+				trxManager.runAfterCommit(() -> invalidateByTableName(tableName));
+			}
+		}
+	}
+
+	@FunctionalInterface
+	public interface SharedSelectionRowsChecker
+	{
+		boolean containsAnyOfRowIds(ViewRowIdsOrderedSelection selection, DocumentIdsSelection rowIds);
+	}
+
+	private static final class SharedSelection
+	{
+		private final SharedViewSelectionKey key;
+		private final SharedSelectionRowsChecker rowsChecker;
+		private final Instant created = Instant.now();
+
+		/**
+		 * guarded by {@link SharedViewSelections}'s lock
+		 */
+		private int refCount = 0;
+		private boolean invalidated = false;
+
+		/**
+		 * guarded by this object's lock while created; cleared by {@link SharedViewSelections} when it's deleted
+		 */
+		private volatile ViewRowIdsOrderedSelection selection;
+
+		private SharedSelection(
+				@NonNull final SharedViewSelectionKey key,
+				@NonNull final SharedSelectionRowsChecker rowsChecker)
+		{
+			this.key = key;
+			this.rowsChecker = rowsChecker;
+		}
+
+		@Override
+		public String toString()
+		{
+			return "SharedSelection[" + key + ", created=" + created + ", selection=" + selection + "]";
+		}
+
+		public SharedViewSelectionKey getKey()
+		{
+			return key;
+		}
+
+		public boolean isExpired(@NonNull final Duration maxAge)
+		{
+			return created.plus(maxAge).isBefore(Instant.now());
+		}
+
+		public synchronized ViewRowIdsOrderedSelection getOrCreateSelection(@NonNull final Function<SharedViewSelectionKey, ViewRowIdsOrderedSelection> creator)
+		{
+			ViewRowIdsOrderedSelection selection = this.selection;
+			if (selection == null)
+			{
+				selection = this.selection = creator.apply(key);
+			}
+			return selection;
+		}
+
+		public boolean containsAnyOfRowIds(@NonNull final DocumentIdsSelection rowIds)
+		{
+			final ViewRowIdsOrderedSelection selection = this.selection;
+			return selection != null && !rowIds.isEmpty() && rowsChecker.containsAnyOfRowIds(selection, rowIds);
+		}
+	}
+
+	/**
+	 * Identifies the content of a selection by the SQL which creates it.
+	 */
+	public static final class SharedViewSelectionKey
+	{
+		private static final String VIEW_ID_PLACEHOLDER = "@ViewId@";
+
+		/**
+		 * @return empty if the selection cannot be shared, because the given SQL uses the viewId also for other things than for the selection's UUID
+		 */
+		public static Optional<SharedViewSelectionKey> of(
+				@NonNull final String tableName,
+				@NonNull final UserRolePermissionsKey permissionsKey,
+				@NonNull final ViewId viewId,
+				@NonNull final SqlAndParams sqlCreateSelection)
+		{
+			final String viewIdStr = viewId.getViewId();
+			if (sqlCreateSelection.getSql().contains(viewIdStr))
+			{
+				return Optional.empty();
+			}
+
+			final Hasher hasher = Hashing.sha256().newHasher()
+					.putString(sqlCreateSelection.getSql(), StandardCharsets.UTF_8);
+			int viewIdParamsCount = 0;
+			for (final Object sqlParam : sqlCreateSelection.getSqlParams())
+			{
+				if (viewIdStr.equals(sqlParam))
+				{
+					hasher.putString("\0" + VIEW_ID_PLACEHOLDER, StandardCharsets.UTF_8);
+					viewIdParamsCount++;
+				}
+				else if (sqlParam instanceof String && ((String)sqlParam).contains(viewIdStr))
+				{
+					return Optional.empty();
+				}
+				else
+				{
+					hasher.putString("\0" + (sqlParam != null ? sqlParam.getClass().getName() + ":" + sqlParam : "null"), StandardCharsets.UTF_8);
+				}
+			}
+			if (viewIdParamsCount != 1)
+			{
+				return Optional.empty();
+			}
+
+			return Optional.of(new SharedViewSelectionKey(
+					tableName,
+					permissionsKey,
+					viewId,
+					sqlCreateSelection,
+					hasher.hash().toString()));
+		}
+
+		@Getter
+		private final String tableName;
+		private final UserRolePermissionsKey permissionsKey;
+		private final String contentHash;
+
+		// not part of the key; needed to create the shared selection
+		@Getter
+		private final ViewId viewId;
+		private final SqlAndParams sqlCreateSelection;
+
+		private SharedViewSelectionKey(
+				@NonNull final String tableName,
+				@NonNull final UserRolePermissionsKey permissionsKey,
+				@NonNull final ViewId viewId,
+				@NonNull final SqlAndParams sqlCreateSelection,
+				@NonNull final String contentHash)
+		{
+			this.tableName = tableName;
+			this.permissionsKey = permissionsKey;
+			this.viewId = viewId;
+			this.sqlCreateSelection = sqlCreateSelection;
+			this.contentHash = contentHash;
+		}
+
+		/**
+		 * @return the SQL which creates the selection with the given viewId instead of the viewId this key was created for
+		 */
+		public SqlAndParams getSqlCreateSelection(@NonNull final ViewId newViewId)
+		{
+			final String viewIdStr = viewId.getViewId();
+			final List<Object> sqlParams = new ArrayList<>(sqlCreateSelection.getSqlParams());
+			sqlParams.replaceAll(sqlParam -> viewIdStr.equals(sqlParam) ? newViewId.getViewId() : sqlParam);
+			return SqlAndParams.of(sqlCreateSelection.getSql(), sqlParams);
+		}
+
+		@Override
+		public boolean equals(final Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (!(obj instanceof SharedViewSelectionKey))
+			{
+				return false;
+			}
+			final SharedViewSelectionKey other = (SharedViewSelectionKey)obj;
+			return tableName.equals(other.tableName)
+					&& permissionsKey.equals(other.permissionsKey)
+					&& contentHash.equals(other.contentHash);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(tableName, permissionsKey, contentHash);
+		}
+
+		@Override
+		public String toString()
+		{
+			return tableName + "/" + permissionsKey + "/" + contentHash;
+		}
+	}
+}
@@ -9,6 +9,7 @@ import de.metas.security.IUserRolePermissions;
 import de.metas.security.IUserRolePermissionsDAO;
 import de.metas.security.UserRolePermissionsKey;
 import de.metas.security.permissions.WindowMaxQueryRecordsConstraint;
+import de.metas.ui.web.view.SharedViewSelections.SharedViewSelectionKey;
 import de.metas.ui.web.document.filter.DocumentFilterList;
 import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
 import de.metas.ui.web.view.descriptor.SqlAndParams;
@@ -33,6 +34,7 @@ import org.slf4j.Logger;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Optional;
 import java.util.Set;
 
 /*
@@ -61,20 +63,36 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 {
 	public static SqlViewRowIdsOrderedSelectionFactory of(final SqlViewBinding viewBinding)
 	{
-		return new SqlViewRowIdsOrderedSelectionFactory(viewBinding);
+		final boolean useSharedSelections = false;
+		return new SqlViewRowIdsOrderedSelectionFactory(viewBinding, useSharedSelections);
+	}
+
+	/**
+	 * Like {@link #of(SqlViewBinding)}, but the created selections might be shared with other views, see {@link SharedViewSelections}.
+	 * Only for views which access their selection via {@link ViewRowIdsOrderedSelection#getSelectionId()} and not via their viewId.
+	 */
+	public static SqlViewRowIdsOrderedSelectionFactory ofUsingSharedSelections(final SqlViewBinding viewBinding)
+	{
+		final boolean useSharedSelections = true;
+		return new SqlViewRowIdsOrderedSelectionFactory(viewBinding, useSharedSelections);
 	}
 
 	private static final Logger logger = LogManager.getLogger(SqlViewRowIdsOrderedSelectionFactory.class);
 	private final IUserRolePermissionsDAO userRolePermissionsRepo = Services.get(IUserRolePermissionsDAO.class);
+	private final SharedViewSelections sharedViewSelections = SharedViewSelections.instance;
 
 	private static final AdMessageKey MSG_PleaseFilterFirst_Text = AdMessageKey.of("webui.view.emptyReason.pleaseFilterFirst.text");
 	private static final AdMessageKey MSG_PleaseFilterFirst_Hint = AdMessageKey.of("webui.view.emptyReason.pleaseFilterFirst.hint");
 
 	private final SqlViewBinding viewBinding;
+	private final boolean useSharedSelections;
 
-	private SqlViewRowIdsOrderedSelectionFactory(@NonNull final SqlViewBinding viewBinding)
+	private SqlViewRowIdsOrderedSelectionFactory(
+			@NonNull final SqlViewBinding viewBinding,
+			final boolean useSharedSelections)
 	{
 		this.viewBinding = viewBinding;
+		this.useSharedSelections = useSharedSelections;
 	}
 
 	private SqlViewSelectionQueryBuilder newSqlViewSelectionQueryBuilder()
@@ -121,6 +139,33 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 					.build();
 		}
 
+		//
+		// Read the selection which was created for an other view with the same filters, if possible
+		// NOTE: selections with lines are not shared. Neither are the ones with composed keys, because the shared selections are dropped by changed records.
+		if (useSharedSelections
+				&& sqlCreates.getSqlCreateSelectionLines() == null
+				&& viewBinding.getSqlViewKeyColumnNamesMap().isSingleKey()
+				&& sharedViewSelections.isEnabled())
+		{
+			final Optional<SharedViewSelectionKey> sharedSelectionKey = SharedViewSelectionKey.of(
+					viewBinding.getTableName(),
+					viewEvalCtx.getPermissionsKey(),
+					viewId,
+					sqlCreates.getSqlCreateSelection());
+			if (sharedSelectionKey.isPresent())
+			{
+				final ViewRowIdsOrderedSelection sharedSelection = sharedViewSelections.acquire(
+						sharedSelectionKey.get(),
+						key -> createSharedSelection(key, orderBys, queryLimit),
+						this::containsAnyOfRowIds);
+				logger.trace("Selection {} is reading shared selection {}", viewId, sharedSelection.getViewId());
+
+				return sharedSelection.toBuilder()
+						.sharedSelectionReaderViewId(viewId)
+						.build();
+			}
+		}
+
 		//
 		// Create selection lines if any => insert into T_WEBUI_ViewSelectionLine
 		if (sqlCreates.getSqlCreateSelectionLines() != null)
@@ -149,6 +194,50 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 				.build();
 	}
 
+	private ViewRowIdsOrderedSelection createSharedSelection(
+			@NonNull final SharedViewSelectionKey key,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final QueryLimit queryLimit)
+	{
+		final ViewId sharedViewId = ViewId.random(key.getViewId().getWindowId());
+		final SqlAndParams sqlCreateSelection = key.getSqlCreateSelection(sharedViewId);
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final long rowsCount = DB.executeUpdateAndThrowExceptionOnFail(sqlCreateSelection.getSql(), sqlCreateSelection.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+		logger.trace("Created shared selection {} for {}, rowsCount={}, duration={}", sharedViewId, key, rowsCount, stopwatch);
+
+		return ViewRowIdsOrderedSelection.builder()
+				.viewId(sharedViewId)
+				.size(rowsCount)
+				.orderBys(orderBys)
+				.queryLimit(queryLimit)
+				.build();
+	}
+
+	/**
+	 * @return the view's own copy of the given shared selection, or the given selection if it's not shared
+	 */
+	private ViewRowIdsOrderedSelection copyIfShared(@NonNull final ViewRowIdsOrderedSelection selection)
+	{
+		final ViewId newViewId = selection.getSharedSelectionReaderViewId();
+		if (newViewId == null)
+		{
+			return selection;
+		}
+
+		final SqlAndParams sqlCopySelection = newSqlViewSelectionQueryBuilder().buildSqlCopySelection(newViewId, selection.getSelectionId());
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final long rowsCount = DB.executeUpdateAndThrowExceptionOnFail(sqlCopySelection.getSql(), sqlCopySelection.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
+		logger.trace("Created selection {} from shared selection {}, rowsCount={}, duration={}", newViewId, selection.getViewId(), rowsCount, stopwatch);
+
+		sharedViewSelections.releaseIfShared(selection.getSelectionId());
+
+		return selection.toBuilder()
+				.viewId(newViewId)
+				.size(rowsCount)
+				.sharedSelectionReaderViewId(null)
+				.build();
+	}
+
 	private QueryLimit extractQueryLimit(final ViewEvaluationCtx viewEvalCtx)
 	{
 		final UserRolePermissionsKey permissionsKey = viewEvalCtx.getPermissionsKey();
@@ -225,8 +314,9 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 
 		//
 		// Add
+		final ViewRowIdsOrderedSelection ownSelection = copyIfShared(selection);
 		boolean hasChanges = false;
-		final String selectionId = selection.getSelectionId();
+		final String selectionId = ownSelection.getSelectionId();
 		// TODO: add all rowIds in one query!!! Not so urgent because usually there are added just a couple of rowIds, not much
 		for (final DocumentId rowId : rowIds.toSet())
 		{
@@ -242,7 +332,7 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 		if (!hasChanges)
 		{
 			// nothing changed
-			return selection;
+			return ownSelection;
 		}
 
 		//
@@ -250,7 +340,7 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 		// NOTE: we are querying it instead of adding how many we added to current "size" because it might be that the size is staled
 		final int size = retrieveSize(selectionId);
 
-		return selection.withSize(size);
+		return ownSelection.withSize(size);
 	}
 
 	@Override
@@ -264,27 +354,28 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 
 		//
 		// Delete
+		final ViewRowIdsOrderedSelection ownSelection = copyIfShared(selection);
 		{
-			final SqlAndParams sqlDelete = newSqlViewSelectionQueryBuilder().buildSqlDeleteRowIdsFromSelection(selection.getSelectionId(), rowIds);
+			final SqlAndParams sqlDelete = newSqlViewSelectionQueryBuilder().buildSqlDeleteRowIdsFromSelection(ownSelection.getSelectionId(), rowIds);
 			if (sqlDelete == null)
 			{
-				return selection;
+				return ownSelection;
 			}
 
 			final int deleted = DB.executeUpdateAndThrowExceptionOnFail(sqlDelete.getSql(), sqlDelete.getSqlParamsArray(), ITrx.TRXNAME_ThreadInherited);
 			if (deleted <= 0)
 			{
 				// nothing changed
-				return selection;
+				return ownSelection;
 			}
 		}
 
 		//
 		// Retrieve current size
 		// NOTE: we are querying it instead of subtracting "deleted" from current "size" because it might be that the size is staled
-		final int size = retrieveSize(selection.getSelectionId());
+		final int size = retrieveSize(ownSelection.getSelectionId());
 
-		return selection.withSize(size);
+		return ownSelection.withSize(size);
 	}
 
 	private int retrieveSize(final String selectionId)
@@ -308,8 +399,9 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 	}
 
 	@Override
-	public void deleteSelections(@NonNull final Set<String> selectionIds)
+	public void deleteSelections(@NonNull final Set<String> selectionIdsToDeleteOrRelease)
 	{
+		final Set<String> selectionIds = releaseSharedSelections(selectionIdsToDeleteOrRelease);
 		if (selectionIds.isEmpty())
 		{
 			return;
@@ -335,7 +427,24 @@ public class SqlViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSe
 	@Override
 	public void scheduleDeleteSelections(@NonNull final Set<String> selectionIds)
 	{
-		SqlViewSelectionToDeleteHelper.scheduleDeleteSelections(selectionIds);
+		SqlViewSelectionToDeleteHelper.scheduleDeleteSelections(releaseSharedSelections(selectionIds));
+	}
+
+	/**
+	 * The shared selections are deleted by {@link SharedViewSelections} when no view is reading them anymore, so here they are just released.
+	 *
+	 * @return the selections which are not shared, i.e. which shall be deleted
+	 */
+	private Set<String> releaseSharedSelections(@NonNull final Set<String> selectionIds)
+	{
+		if (!useSharedSelections)
+		{
+			return selectionIds;
+		}
+
+		return selectionIds.stream()
+				.filter(selectionId -> !sharedViewSelections.releaseIfShared(selectionId))
+				.collect(ImmutableSet.toImmutableSet());
 	}
 
 	public static Set<DocumentId> retrieveRowIdsForLineIds(
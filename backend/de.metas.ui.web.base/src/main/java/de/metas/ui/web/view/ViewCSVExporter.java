@@ -0,0 +1,144 @@
+package de.metas.ui.web.view;
+
+import de.metas.i18n.IMsgBL;
+import de.metas.i18n.Language;
+import de.metas.impexp.spreadsheet.csv.CSVWriter;
+import de.metas.impexp.spreadsheet.excel.CellValue;
+import de.metas.ui.web.view.descriptor.ViewLayout;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import de.metas.util.Services;
+import lombok.Builder;
+import lombok.NonNull;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Exports the rows of a view to a CSV file. Each row is written as soon as it's retrieved, so this also works for views with many rows.
+ */
+/* package */ class ViewCSVExporter
+{
+	private final IMsgBL msgBL = Services.get(IMsgBL.class);
+
+	private final IView view;
+	private final DocumentIdsSelection rowIds;
+	private final ViewLayout layout;
+	private final JSONOptions jsonOpts;
+	private final int pageSize;
+
+	@Builder
+	private ViewCSVExporter(
+			@NonNull final IView view,
+			@NonNull final DocumentIdsSelection rowIds,
+			@NonNull final ViewLayout layout,
+			@NonNull final Language language,
+			@NonNull final ZoneId zoneId,
+			final int pageSize)
+	{
+		this.view = view;
+		this.rowIds = rowIds;
+		this.layout = layout;
+		this.jsonOpts = JSONOptions.builder()
+				.adLanguage(language.getAD_Language())
+				.zoneId(zoneId)
+				.build();
+		this.pageSize = pageSize;
+	}
+
+	public void exportToFile(@NonNull final File file)
+	{
+		try (final ViewExportRows rows = ViewExportRows.builder()
+				.view(view)
+				.rowIds(rowIds)
+				.layout(layout)
+				.jsonOpts(jsonOpts)
+				.pageSize(pageSize)
+				.build())
+		{
+			final CSVWriter csvWriter = CSVWriter.builder()
+					.outputFile(file)
+					.header(getHeaderNames(rows))
+					.adLanguage(jsonOpts.getAdLanguage())
+					.build();
+			try
+			{
+				csvWriter.appendHeaderIfNeeded();
+				while (rows.hasNextRow())
+				{
+					csvWriter.appendRow(toCsvValues(rows.nextRow()));
+				}
+			}
+			finally
+			{
+				csvWriter.close();
+			}
+		}
+	}
+
+	private static List<String> getHeaderNames(@NonNull final ViewExportRows rows)
+	{
+		final ArrayList<String> headerNames = new ArrayList<>();
+		for (int i = 0; i < rows.getColumnCount(); i++)
+		{
+			headerNames.add(rows.getHeaderName(i));
+		}
+		return headerNames;
+	}
+
+	private List<Object> toCsvValues(@NonNull final List<CellValue> cellValues)
+	{
+		final ArrayList<Object> csvValues = new ArrayList<>(cellValues.size());
+		for (final CellValue cellValue : cellValues)
+		{
+			csvValues.add(toCsvValue(cellValue));
+		}
+		return csvValues;
+	}
+
+	@Nullable
+	private Object toCsvValue(@Nullable final CellValue cellValue)
+	{
+		if (cellValue == null)
+		{
+			return null;
+		}
+		else if (cellValue.isDate())
+		{
+			return cellValue.dateValue();
+		}
+		else if (cellValue.isBoolean())
+		{
+			return msgBL.getTranslatableMsgText(cellValue.booleanValue()).translate(jsonOpts.getAdLanguage());
+		}
+		else
+		{
+			return cellValue.stringValue();
+		}
+	}
+}
@@ -1,21 +1,13 @@
 package de.metas.ui.web.view;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
-import org.adempiere.exceptions.AdempiereException;
-
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.collect.ImmutableList;
-
 import de.metas.i18n.Language;
 import de.metas.impexp.spreadsheet.excel.AbstractExcelExporter;
 import de.metas.impexp.spreadsheet.excel.CellValue;
@@ -23,16 +15,8 @@ import de.metas.impexp.spreadsheet.excel.CellValues;
 import de.metas.impexp.spreadsheet.excel.ExcelExportConstants;
 import de.metas.impexp.spreadsheet.excel.ExcelFormat;
 import de.metas.ui.web.view.descriptor.ViewLayout;
-import de.metas.ui.web.view.util.PageIndex;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
-import de.metas.ui.web.window.datatypes.json.DateTimeConverters;
-import de.metas.ui.web.window.datatypes.json.JSONLookupValue;
-import de.metas.ui.web.window.datatypes.json.JSONLookupValuesList;
-import de.metas.ui.web.window.datatypes.json.JSONNullValue;
 import de.metas.ui.web.window.datatypes.json.JSONOptions;
-import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
-import de.metas.ui.web.window.descriptor.DocumentLayoutElementFieldDescriptor;
-import de.metas.util.Check;
 import lombok.Builder;
 import lombok.NonNull;
 
@@ -58,12 +42,12 @@ import lombok.NonNull;
  * #L%
  */
 
+/**
+ * Exports the rows of a view. The workbook is always a streaming one (if the excel format supports it), so that only a few rows are kept in memory, also when exporting big views.
+ */
 /* package */ class ViewExcelExporter extends AbstractExcelExporter
 {
-	private final RowsSupplier rows;
-	private final ViewLayout layout;
-	private final JSONOptions jsonOpts;
-	private int rowNumber = 0;
+	private final ViewExportRows rows;
 
 	@Builder
 	private ViewExcelExporter(
@@ -75,47 +59,37 @@ import lombok.NonNull;
 			@NonNull final Language language,
 			@NonNull final ZoneId zoneId)
 	{
-		super(excelFormat, constants);
-		this.layout = layout;
+		super(excelFormat, ExcelExportConstants.givenOrDefault(constants)
+				.toBuilder()
+				.useStreamingWorkbookImplementation(true)
+				.build());
 		setLanguage(language);
-		jsonOpts = JSONOptions.builder()
+
+		final JSONOptions jsonOpts = JSONOptions.builder()
 				.adLanguage(language.getAD_Language())
 				.zoneId(zoneId)
 				.build();
 
-		if (rowIds.isAll())
-		{
-			this.rows = new AllRowsSupplier(
-					view,
-					getConstants().getAllRowsPageSize(),
-					jsonOpts);
-		}
-		else if (rowIds.isEmpty())
-		{
-			throw new AdempiereException("@NoSelection@");
-		}
-		else
-		{
-			this.rows = new ListRowsSupplier(view, rowIds);
-		}
+		this.rows = ViewExportRows.builder()
+				.view(view)
+				.rowIds(rowIds)
+				.layout(layout)
+				.jsonOpts(jsonOpts)
+				.pageSize(getConstants().getAllRowsPageSize())
+				.build();
 
 		setFreezePane(0, 1);
 	}
 
-	private IViewRow getRow(final int rowIndex)
+	/**
+	 * Like {@link #export(OutputStream)}, but also stops prefetching rows if the export fails.
+	 */
+	public void exportAndClose(@NonNull final OutputStream out) throws IOException
 	{
-		return rows.getRow(rowIndex);
-	}
-
-	private String getFieldName(final int columnIndex)
-	{
-		final Set<DocumentLayoutElementFieldDescriptor> fields = layout.getElements().get(columnIndex).getFields();
-		return fields.iterator().next().getField();
-	}
-
-	private DocumentFieldWidgetType getWidgetType(final int columnIndex)
-	{
-		return layout.getElements().get(columnIndex).getWidgetType();
+		try (final ViewExportRows ignored = rows)
+		{
+			export(out);
+		}
 	}
 
 	@Override
@@ -127,7 +101,7 @@ import lombok.NonNull;
 	@Override
 	public int getColumnCount()
 	{
-		return layout.getElements().size();
+		return rows.getColumnCount();
 	}
 
 	@Override
@@ -148,62 +122,15 @@ import lombok.NonNull;
 		final ArrayList<CellValue> result = new ArrayList<>();
 		for (int i = 0; i < getColumnCount(); i++)
 		{
-			result.add(CellValues.toCellValue(getHeaderName(i)));
+			result.add(CellValues.toCellValue(rows.getHeaderName(i)));
 		}
 		return result;
 	}
 
-	private String getHeaderName(final int col)
-	{
-		return layout.getElements().get(col).getCaption(getLanguage().getAD_Language());
-	}
-
 	@Override
 	public int getDisplayType(final int rowIndex_NOTUSED, final int columnIndex)
 	{
-		return getWidgetType(columnIndex).getDisplayType();
-	}
-
-	private CellValue getValueAt(final int rowIndex, final int columnIndex)
-	{
-		final String fieldName = getFieldName(columnIndex);
-
-		final IViewRow row = getRow(rowIndex);
-		if (row == null)
-		{
-			return null;
-		}
-
-		final Object value = row.getFieldValueAsJsonObject(fieldName, jsonOpts);
-		if (JSONNullValue.isNull(value))
-		{
-			return null;
-		}
-
-		final DocumentFieldWidgetType widgetType = getWidgetType(columnIndex);
-		if (widgetType.isDateOrTime())
-		{
-			return CellValue.ofDate(DateTimeConverters.fromObject(value, widgetType));
-		}
-		else if (value instanceof JSONLookupValue)
-		{
-			final String valueStr = ((JSONLookupValue)value).getCaption();
-			return CellValues.toCellValue(valueStr, widgetType.getDisplayType());
-		}
-		else if (value instanceof JSONLookupValuesList)
-		{
-			final JSONLookupValuesList jsonLookupValuesList = (JSONLookupValuesList)value;
-			final String valueStr = jsonLookupValuesList
-					.getValues()
-					.stream()
-					.map(lookupValue -> lookupValue.getCaption())
-					.collect(Collectors.joining(", "));
-			return CellValue.ofString(valueStr);
-		}
-		else
-		{
-			return CellValues.toCellValue(value, widgetType.getDisplayType());
-		}
+		return rows.getDisplayType(columnIndex);
 	}
 
 	@Override
@@ -212,127 +139,15 @@ import lombok.NonNull;
 		return false;
 	}
 
-	private interface RowsSupplier
-	{
-		IViewRow getRow(int rowIndex);
-
-		int getRowCount();
-	}
-
-	private static class AllRowsSupplier implements RowsSupplier
-	{
-		private final int pageSize;
-		private final IView view;
-		private final JSONOptions jsonOpts;
-
-		private LoadingCache<PageIndex, ViewResult> cache = CacheBuilder.newBuilder()
-				.maximumSize(2) // cache max 2 pages
-				.build(new CacheLoader<PageIndex, ViewResult>()
-				{
-					@Override
-					public ViewResult load(final PageIndex pageIndex)
-					{
-						final ViewRowsOrderBy orderBys = ViewRowsOrderBy.empty(jsonOpts); // default
-						return view.getPage(pageIndex.getFirstRow(), pageIndex.getPageLength(), orderBys);
-					}
-
-				});
-
-		private AllRowsSupplier(
-				@NonNull final IView view,
-				final int pageSize,
-				@NonNull final JSONOptions jsonOpts)
-		{
-			this.view = view;
-			this.pageSize = pageSize;
-			this.jsonOpts = jsonOpts;
-		}
-
-		private ViewResult getPage(final PageIndex pageIndex)
-		{
-			try
-			{
-				return cache.get(pageIndex);
-			}
-			catch (ExecutionException e)
-			{
-				throw AdempiereException.wrapIfNeeded(e);
-			}
-		}
-
-		@Override
-		public IViewRow getRow(final int rowIndex)
-		{
-			final ViewResult page = getPage(PageIndex.getPageContainingRow(rowIndex, pageSize));
-
-			final int rowIndexInPage = rowIndex - page.getFirstRow();
-			if (rowIndexInPage < 0)
-			{
-				// shall not happen
-				return null;
-			}
-
-			final List<IViewRow> rows = page.getPage();
-			if (rowIndexInPage >= rows.size())
-			{
-				return null;
-			}
-
-			return rows.get(rowIndexInPage);
-		}
-
-		@Override
-		public int getRowCount()
-		{
-			return (int)view.size();
-		}
-	}
-
-	private static class ListRowsSupplier implements RowsSupplier
-	{
-		private final ImmutableList<IViewRow> rows;
-
-		private ListRowsSupplier(@NonNull final IView view, @NonNull DocumentIdsSelection rowIds)
-		{
-			Check.assume(!rowIds.isAll(), "rowIds is not ALL");
-
-			this.rows = view.streamByIds(rowIds).collect(ImmutableList.toImmutableList());
-		}
-
-		@Override
-		public IViewRow getRow(final int rowIndex)
-		{
-			Check.assume(rowIndex >= 0, "rowIndex >= 0");
-
-			final int rowsCount = rows.size();
-			Check.assume(rowIndex < rowsCount, "rowIndex < {}", rowsCount);
-
-			return rows.get(rowIndex);
-		}
-
-		@Override
-		public int getRowCount()
-		{
-			return rows.size();
-		}
-	}
-
 	@Override
 	protected List<CellValue> getNextRow()
 	{
-		final ArrayList<CellValue> result = new ArrayList<>();
-		for (int i = 0; i < getColumnCount(); i++)
-		{
-			result.add(getValueAt(rowNumber, i));
-		}
-
-		rowNumber++;
-		return result;
+		return rows.nextRow();
 	}
 
 	@Override
 	protected boolean hasNextRow()
 	{
-		return rowNumber < getRowCount();
+		return rows.hasNextRow();
 	}
 }
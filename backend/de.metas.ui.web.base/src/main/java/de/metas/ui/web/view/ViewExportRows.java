@@ -0,0 +1,361 @@
+package de.metas.ui.web.view;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.impexp.spreadsheet.excel.CellValue;
+import de.metas.impexp.spreadsheet.excel.CellValues;
+import de.metas.logging.LogManager;
+import de.metas.ui.web.view.descriptor.ViewLayout;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.json.DateTimeConverters;
+import de.metas.ui.web.window.datatypes.json.JSONLookupValue;
+import de.metas.ui.web.window.datatypes.json.JSONLookupValuesList;
+import de.metas.ui.web.window.datatypes.json.JSONNullValue;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.descriptor.DocumentLayoutElementFieldDescriptor;
+import de.metas.util.Check;
+import lombok.Builder;
+import lombok.NonNull;
+import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Provides the rows of a view that shall be exported (see {@link ViewExcelExporter}, {@link ViewCSVExporter}), one after the other and already converted to {@link CellValue}s.
+ * <p>
+ * If all rows are exported, they are retrieved page by page, and the next page is retrieved in background while the current page is exported.
+ * So there are never more than two pages in memory.
+ */
+/* package */ final class ViewExportRows implements AutoCloseable
+{
+	private static final Logger logger = LogManager.getLogger(ViewExportRows.class);
+
+	private static final ExecutorService prefetchExecutor = Executors.newCachedThreadPool(CustomizableThreadFactory.builder()
+			.setThreadNamePrefix(ViewExportRows.class.getSimpleName() + "-prefetch")
+			.setDaemon(true)
+			.build());
+
+	private final ViewLayout layout;
+	private final JSONOptions jsonOpts;
+	private final RowsSupplier rows;
+	private int nextRowIndex = 0;
+
+	@Builder
+	private ViewExportRows(
+			@NonNull final IView view,
+			@NonNull final DocumentIdsSelection rowIds,
+			@NonNull final ViewLayout layout,
+			@NonNull final JSONOptions jsonOpts,
+			final int pageSize)
+	{
+		this.layout = layout;
+		this.jsonOpts = jsonOpts;
+
+		if (rowIds.isAll())
+		{
+			this.rows = new AllRowsSupplier(view, pageSize, jsonOpts);
+		}
+		else if (rowIds.isEmpty())
+		{
+			throw new AdempiereException("@NoSelection@");
+		}
+		else
+		{
+			this.rows = new ListRowsSupplier(view, rowIds);
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		rows.close();
+	}
+
+	public int getColumnCount()
+	{
+		return layout.getElements().size();
+	}
+
+	public String getHeaderName(final int columnIndex)
+	{
+		return layout.getElements().get(columnIndex).getCaption(jsonOpts.getAdLanguage());
+	}
+
+	public int getDisplayType(final int columnIndex)
+	{
+		return getWidgetType(columnIndex).getDisplayType();
+	}
+
+	public int getRowCount()
+	{
+		return rows.getRowCount();
+	}
+
+	public boolean hasNextRow()
+	{
+		return nextRowIndex < getRowCount();
+	}
+
+	public List<CellValue> nextRow()
+	{
+		if (!hasNextRow())
+		{
+			throw new NoSuchElementException();
+		}
+
+		final IViewRow row = rows.getRow(nextRowIndex);
+		nextRowIndex++;
+
+		final int columnCount = getColumnCount();
+		final ArrayList<CellValue> result = new ArrayList<>(columnCount);
+		for (int columnIndex = 0; columnIndex < columnCount; columnIndex++)
+		{
+			result.add(row != null ? getValueAt(row, columnIndex) : null);
+		}
+		return result;
+	}
+
+	private String getFieldName(final int columnIndex)
+	{
+		final Set<DocumentLayoutElementFieldDescriptor> fields = layout.getElements().get(columnIndex).getFields();
+		return fields.iterator().next().getField();
+	}
+
+	private DocumentFieldWidgetType getWidgetType(final int columnIndex)
+	{
+		return layout.getElements().get(columnIndex).getWidgetType();
+	}
+
+	@Nullable
+	private CellValue getValueAt(@NonNull final IViewRow row, final int columnIndex)
+	{
+		final String fieldName = getFieldName(columnIndex);
+
+		final Object value = row.getFieldValueAsJsonObject(fieldName, jsonOpts);
+		if (JSONNullValue.isNull(value))
+		{
+			return null;
+		}
+
+		final DocumentFieldWidgetType widgetType = getWidgetType(columnIndex);
+		if (widgetType.isDateOrTime())
+		{
+			return CellValue.ofDate(DateTimeConverters.fromObject(value, widgetType));
+		}
+		else if (value instanceof JSONLookupValue)
+		{
+			final String valueStr = ((JSONLookupValue)value).getCaption();
+			return CellValues.toCellValue(valueStr, widgetType.getDisplayType());
+		}
+		else if (value instanceof JSONLookupValuesList)
+		{
+			final JSONLookupValuesList jsonLookupValuesList = (JSONLookupValuesList)value;
+			final String valueStr = jsonLookupValuesList
+					.getValues()
+					.stream()
+					.map(lookupValue -> lookupValue.getCaption())
+					.collect(Collectors.joining(", "));
+			return CellValue.ofString(valueStr);
+		}
+		else
+		{
+			return CellValues.toCellValue(value, widgetType.getDisplayType());
+		}
+	}
+
+	private interface RowsSupplier
+	{
+		/**
+		 * @param rowIndex shall be greater than the rowIndex of the previous invocation
+		 */
+		@Nullable
+		IViewRow getRow(int rowIndex);
+
+		int getRowCount();
+
+		void close();
+	}
+
+	private static class AllRowsSupplier implements RowsSupplier
+	{
+		private final IView view;
+		private final int pageSize;
+		private final JSONOptions jsonOpts;
+		private final int rowCount;
+		private final Properties ctx;
+
+		private ViewResult currentPage = null;
+		private CompletableFuture<ViewResult> nextPageFuture = null;
+		private int nextPageFirstRow = -1;
+
+		private AllRowsSupplier(
+				@NonNull final IView view,
+				final int pageSize,
+				@NonNull final JSONOptions jsonOpts)
+		{
+			Check.assumeGreaterThanZero(pageSize, "pageSize");
+
+			this.view = view;
+			this.pageSize = pageSize;
+			this.jsonOpts = jsonOpts;
+			this.rowCount = (int)view.size();
+			this.ctx = Env.copyCtx(Env.getCtx());
+		}
+
+		@Override
+		public IViewRow getRow(final int rowIndex)
+		{
+			if (currentPage == null || rowIndex >= currentPage.getFirstRow() + pageSize)
+			{
+				currentPage = getPageContainingRow(rowIndex);
+				prefetchPage(currentPage.getFirstRow() + pageSize);
+			}
+
+			final int rowIndexInPage = rowIndex - currentPage.getFirstRow();
+			if (rowIndexInPage < 0)
+			{
+				// shall not happen
+				return null;
+			}
+
+			final List<IViewRow> rows = currentPage.getPage();
+			if (rowIndexInPage >= rows.size())
+			{
+				return null;
+			}
+
+			return rows.get(rowIndexInPage);
+		}
+
+		private ViewResult getPageContainingRow(final int rowIndex)
+		{
+			final int firstRow = rowIndex / pageSize * pageSize;
+			if (nextPageFuture != null && nextPageFirstRow == firstRow)
+			{
+				final CompletableFuture<ViewResult> pageFuture = nextPageFuture;
+				nextPageFuture = null;
+				try
+				{
+					return pageFuture.join();
+				}
+				catch (final Exception ex)
+				{
+					logger.warn("Failed prefetching the page starting with row {} of {}; retrying in current thread", firstRow, view, ex);
+				}
+			}
+
+			return retrievePage(firstRow);
+		}
+
+		private void prefetchPage(final int firstRow)
+		{
+			if (firstRow >= rowCount)
+			{
+				return;
+			}
+
+			nextPageFirstRow = firstRow;
+			nextPageFuture = CompletableFuture.supplyAsync(
+					() -> {
+						try (final IAutoCloseable ignored = Env.switchContext(ctx))
+						{
+							return retrievePage(firstRow);
+						}
+					},
+					prefetchExecutor);
+		}
+
+		private ViewResult retrievePage(final int firstRow)
+		{
+			final ViewRowsOrderBy orderBys = ViewRowsOrderBy.empty(jsonOpts); // default
+			return view.getPage(firstRow, pageSize, orderBys);
+		}
+
+		@Override
+		public int getRowCount()
+		{
+			return rowCount;
+		}
+
+		@Override
+		public void close()
+		{
+			if (nextPageFuture != null)
+			{
+				nextPageFuture.cancel(false);
+				nextPageFuture = null;
+			}
+			currentPage = null;
+		}
+	}
+
+	private static class ListRowsSupplier implements RowsSupplier
+	{
+		private final ImmutableList<IViewRow> rows;
+
+		private ListRowsSupplier(@NonNull final IView view, @NonNull final DocumentIdsSelection rowIds)
+		{
+			Check.assume(!rowIds.isAll(), "rowIds is not ALL");
+
+			this.rows = view.streamByIds(rowIds).collect(ImmutableList.toImmutableList());
+		}
+
+		@Override
+		public IViewRow getRow(final int rowIndex)
+		{
+			Check.assume(rowIndex >= 0, "rowIndex >= 0");
+
+			final int rowsCount = rows.size();
+			Check.assume(rowIndex < rowsCount, "rowIndex < {}", rowsCount);
+
+			return rows.get(rowIndex);
+		}
+
+		@Override
+		public int getRowCount()
+		{
+			return rows.size();
+		}
+
+		@Override
+		public void close()
+		{
+			// nothing
+		}
+	}
+}
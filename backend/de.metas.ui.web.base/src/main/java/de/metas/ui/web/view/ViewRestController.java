@@ -23,6 +23,7 @@
 package de.metas.ui.web.view;
 
 import com.google.common.collect.ImmutableList;
+import de.metas.impexp.spreadsheet.excel.ExcelExportConstants;
 import de.metas.impexp.spreadsheet.excel.ExcelFormat;
 import de.metas.impexp.spreadsheet.excel.ExcelFormats;
 import de.metas.process.RelatedProcessDescriptor.DisplayPlace;
@@ -81,6 +82,7 @@ import org.springframework.web.context.request.WebRequest;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.util.Collections;
 import java.util.List;
@@ -521,16 +523,47 @@ public class ViewRestController
 					.language(userSession.getLanguage())
 					.zoneId(userSession.getTimeZone())
 					.build()
-					.export(out);
+					.exportAndClose(out);
 		}
 
 		final String filename = "report." + excelFormat.getFileExtension(); // TODO: use a better name
+		return toExportResponse(tmpFile, filename);
+	}
+
+	@GetMapping("/{viewId}/export/csv")
+	public ResponseEntity<Resource> exportToCSV(
+			@PathVariable("windowId") final String windowIdStr,
+			@PathVariable(PARAM_ViewId) final String viewIdStr,
+			@RequestParam(name = "selectedIds", required = false) @ApiParam("comma separated IDs") final String selectedIdsListStr)
+			throws Exception
+	{
+		userSession.assertLoggedIn();
+
+		final ViewId viewId = ViewId.ofViewIdString(viewIdStr, WindowId.fromJson(windowIdStr));
+
+		final File tmpFile = File.createTempFile("exportToCSV", ".csv");
+
+		ViewCSVExporter.builder()
+				.view(viewsRepo.getView(viewId))
+				.rowIds(DocumentIdsSelection.ofCommaSeparatedString(selectedIdsListStr))
+				.layout(viewsRepo.getViewLayout(viewId.getWindowId(), JSONViewDataType.grid, ViewProfileId.NULL))
+				.language(userSession.getLanguage())
+				.zoneId(userSession.getTimeZone())
+				.pageSize(ExcelExportConstants.getFromSysConfig().getAllRowsPageSize())
+				.build()
+				.exportToFile(tmpFile);
+
+		return toExportResponse(tmpFile, "report.csv");
+	}
+
+	private static ResponseEntity<Resource> toExportResponse(@NonNull final File file, @NonNull final String filename) throws FileNotFoundException
+	{
 		final String contentType = MimeType.getMimeType(filename);
 		final HttpHeaders headers = new HttpHeaders();
 		headers.setContentType(MediaType.parseMediaType(contentType));
 		headers.set(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
 		headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
 
-		return new ResponseEntity<>(new InputStreamResource(new FileInputStream(tmpFile)), headers, HttpStatus.OK);
+		return new ResponseEntity<>(new InputStreamResource(new FileInputStream(file)), headers, HttpStatus.OK);
 	}
 }
@@ -44,19 +44,27 @@ public class ViewRowIdsOrderedSelection
 
 	@Nullable EmptyReason emptyReason;
 
+	/**
+	 * If set, this is a selection which is shared between views (see {@link SharedViewSelections}) and this is the view which is reading it.
+	 * A shared selection must not be changed, so it's copied to the view's own selection before.
+	 */
+	@Nullable ViewId sharedSelectionReaderViewId;
+
 	@Builder(toBuilder = true)
 	private ViewRowIdsOrderedSelection(
 			@NonNull final ViewId viewId,
 			final long size,
 			@Nullable final DocumentQueryOrderByList orderBys,
 			@Nullable final QueryLimit queryLimit,
-			@Nullable final EmptyReason emptyReason)
+			@Nullable final EmptyReason emptyReason,
+			@Nullable final ViewId sharedSelectionReaderViewId)
 	{
 		this.viewId = viewId;
 		this.size = size;
 		this.orderBys = orderBys != null ? orderBys : DocumentQueryOrderByList.EMPTY;
 		this.queryLimit = queryLimit != null ? queryLimit : QueryLimit.NO_LIMIT;
 		this.emptyReason = emptyReason;
+		this.sharedSelectionReaderViewId = sharedSelectionReaderViewId;
 
 		this.queryLimitHit = this.queryLimit.isLimited()
 				&& size > 0
@@ -78,6 +86,11 @@ public class ViewRowIdsOrderedSelection
 		return getViewId().getViewId();
 	}
 
+	public boolean isShared()
+	{
+		return sharedSelectionReaderViewId != null;
+	}
+
 	public ViewRowIdsOrderedSelection withSize(final int size)
 	{
 		return this.size == size
@@ -128,6 +128,11 @@ final class ViewRowIdsOrderedSelections
 	public ImmutableSet<String> getSelectionIds()
 	{
 		final ImmutableSet.Builder<String> selectionIds = ImmutableSet.builder();
+		// NOTE: the selection before facets filtering is the view's own one (i.e. the viewId) and it's deleted before it's created again; but a shared one shall be released
+		if (defaultSelectionBeforeFacetsFiltering.isShared())
+		{
+			selectionIds.add(defaultSelectionBeforeFacetsFiltering.getSelectionId());
+		}
 		selectionIds.add(defaultSelection.getSelectionId());
 		for (final ViewRowIdsOrderedSelection selection : selectionsByOrderBys.values())
 		{
@@ -5,6 +5,7 @@ import de.metas.ui.web.document.filter.DocumentFilter;
 import de.metas.ui.web.document.filter.DocumentFilterList;
 import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
 import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.model.DocumentQueryOrderByList;
 import lombok.Builder;
 import lombok.NonNull;
@@ -123,6 +124,15 @@ final class ViewRowIdsOrderedSelectionsHolder
 		return getCurrentSelections().getDefaultSelection();
 	}
 
+	/**
+	 * @return the ID of the selection which contains all rows of the view, i.e. not filtered by facets.
+	 * It's not the viewId if the view is reading a shared selection (see {@link SharedViewSelections}).
+	 */
+	public ViewId getSelectionViewId()
+	{
+		return getDefaultSelectionBeforeFacetsFiltering().getViewId();
+	}
+
 	private ViewRowIdsOrderedSelections getCurrentSelections()
 	{
 		return currentSelectionsRef.computeIfNull(this::createViewRowIdsOrderedSelections);
@@ -184,6 +194,43 @@ final class ViewRowIdsOrderedSelectionsHolder
 		return ViewRowIdsOrderedSelections.ofDefaultSelection(selectionBeforeFacetsFiltering, selection);
 	}
 
+	/**
+	 * Drops the shared selection which is read by the view (if any), so that new views won't read it anymore.
+	 */
+	public void invalidateSharedSelection()
+	{
+		final ViewRowIdsOrderedSelection sharedSelection = getCurrentSharedSelectionOrNull();
+		if (sharedSelection != null)
+		{
+			SharedViewSelections.instance.invalidateBySelectionId(sharedSelection.getSelectionId());
+		}
+	}
+
+	/**
+	 * Drops the shared selection which is read by the view (if any) if it contains any of the given rows, so that new views won't read it anymore.
+	 */
+	public void invalidateSharedSelectionIfContainsAnyOfRowIds(@NonNull final Set<DocumentId> rowIds)
+	{
+		final ViewRowIdsOrderedSelection sharedSelection = getCurrentSharedSelectionOrNull();
+		if (sharedSelection != null)
+		{
+			SharedViewSelections.instance.invalidateBySelectionIdIfContainsAnyOfRowIds(sharedSelection.getSelectionId(), DocumentIdsSelection.of(rowIds));
+		}
+	}
+
+	@Nullable
+	private ViewRowIdsOrderedSelection getCurrentSharedSelectionOrNull()
+	{
+		final ViewRowIdsOrderedSelections selections = currentSelectionsRef.getValue();
+		if (selections == null)
+		{
+			return null;
+		}
+
+		final ViewRowIdsOrderedSelection selection = selections.getDefaultSelectionBeforeFacetsFiltering();
+		return selection.isShared() ? selection : null;
+	}
+
 	public void forgetCurrentSelections()
 	{
 		selectionDeleteBeforeCreate.set(true);
@@ -275,7 +322,7 @@ final class ViewRowIdsOrderedSelectionsHolder
 		}
 
 		return viewDataRepository.retrieveRowIdsMatchingFilters(
-				viewId,
+				getSelectionViewId(),
 				DocumentFilterList.EMPTY,
 				rowIds);
 	}
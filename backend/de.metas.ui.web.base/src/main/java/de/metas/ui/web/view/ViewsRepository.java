@@ -438,6 +438,8 @@ public class ViewsRepository implements IViewsRepository
 			return;
 		}
 
+		SharedViewSelections.instance.invalidateByRecords(recordRefs);
+
 		try (final IAutoCloseable ignored = ViewChangesCollector.currentOrNewThreadLocalCollector())
 		{
 			for (final IViewsIndexStorage viewsIndexStorage : viewsIndexStorages.values())
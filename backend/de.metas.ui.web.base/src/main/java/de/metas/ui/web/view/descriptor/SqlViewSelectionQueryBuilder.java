@@ -688,6 +688,33 @@ public final class SqlViewSelectionQueryBuilder
 				.build();
 	}
 
+	/**
+	 * @return <pre>
+	 * INSERT INTO T_WEBUI_ViewSelection (UUID, Line, keys)
+	 * SELECT [newUUID], Line, keys FROM T_WEBUI_ViewSelection WHERE UUID=[fromUUID]
+	 *         </pre>
+	 */
+	public SqlAndParams buildSqlCopySelection(
+			@NonNull final ViewId newViewId,
+			@NonNull final String fromSelectionId)
+	{
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
+
+		return SqlAndParams.builder()
+				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " (")
+				.append(" ").append(I_T_WEBUI_ViewSelection.COLUMNNAME_UUID)
+				.append(", ").append(I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
+				.append(", ").append(keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated())
+				.append(")")
+				.append("\n SELECT ")
+				.append("\n  ?", newViewId.getViewId()) // newUUID
+				.append("\n, ").append(I_T_WEBUI_ViewSelection.COLUMNNAME_Line) // Line
+				.append("\n, ").append(keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated()) // keys
+				.append("\n FROM ").append(I_T_WEBUI_ViewSelection.Table_Name)
+				.append("\n WHERE ").append(I_T_WEBUI_ViewSelection.COLUMNNAME_UUID).append("=?", fromSelectionId) // fromUUID
+				.build();
+	}
+
 	/**
 	 * @return <pre>
 	 * 	INSERT INTO T_WEBUI_ViewSelectionLine (UUID, Line, keys, Line_ID) ...
@@ -14,8 +14,10 @@ import de.metas.ui.web.window.model.lookup.LookupDataSourceContext.Builder;
 import de.metas.util.Check;
 import lombok.NonNull;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /*
  * #%L
@@ -47,12 +49,22 @@ import java.util.Optional;
 public final class CachedLookupDataSourceFetcherAdapter implements LookupDataSourceFetcher
 {
 	public static CachedLookupDataSourceFetcherAdapter of(final LookupDataSourceFetcher delegate)
+	{
+		return of(delegate, ImmutableSet.of());
+	}
+
+	/**
+	 * @param dependsOnTableNames tables (other than the lookup table) whose changes shall invalidate the cached lookup values
+	 */
+	public static CachedLookupDataSourceFetcherAdapter of(
+			final LookupDataSourceFetcher delegate,
+			@NonNull final Set<String> dependsOnTableNames)
 	{
 		if (delegate instanceof CachedLookupDataSourceFetcherAdapter)
 		{
 			return (CachedLookupDataSourceFetcherAdapter)delegate;
 		}
-		return new CachedLookupDataSourceFetcherAdapter(delegate);
+		return new CachedLookupDataSourceFetcherAdapter(delegate, dependsOnTableNames);
 	}
 
 	private static final String NAME = "PerPartition";
@@ -63,7 +75,9 @@ public final class CachedLookupDataSourceFetcherAdapter implements LookupDataSou
 	private final transient CCache<LookupDataSourceContext, LookupValuesPage> cache_retrieveEntities;
 	private final transient CCache<LookupDataSourceContext, LookupValue> cache_retrieveLookupValueById;
 
-	private CachedLookupDataSourceFetcherAdapter(@NonNull final LookupDataSourceFetcher delegate)
+	private CachedLookupDataSourceFetcherAdapter(
+			@NonNull final LookupDataSourceFetcher delegate,
+			@NonNull final Set<String> dependsOnTableNames)
 	{
 		this.delegate = delegate;
 
@@ -73,7 +87,9 @@ public final class CachedLookupDataSourceFetcherAdapter implements LookupDataSou
 		final int expireAfterMinutes = 60 * 2;
 		// NOTE: it's very important to have the lookupTableName as cache name prefix because we want the cache invalidation to happen for this table
 		cache_retrieveEntities = CCache.newLRUCache(cachePrefix + "#" + NAME + "#retrieveEntities", maxSize, expireAfterMinutes);
-		cache_retrieveLookupValueById = CCache.newLRUCache(cachePrefix + "#" + NAME + "#retrieveLookupValueById", maxSize, expireAfterMinutes);
+		cache_retrieveLookupValueById = delegate.getLookupValueByIdCacheKey()
+				.map(lookupValueByIdCacheKey -> SharedLookupValuesByIdCache.instance.getCache(cachePrefix, dependsOnTableNames, lookupValueByIdCacheKey))
+				.orElseGet(() -> CCache.newLRUCache(cachePrefix + "#" + NAME + "#retrieveLookupValueById", maxSize, expireAfterMinutes));
 	}
 
 	@Override
@@ -140,19 +156,43 @@ public final class CachedLookupDataSourceFetcherAdapter implements LookupDataSou
 	@Override
 	public LookupValuesList retrieveLookupValueByIdsInOrder(final @NonNull LookupDataSourceContext evalCtx)
 	{
-		cache_retrieveLookupValueById.getAllOrLoad(
-				evalCtx.streamSingleIdContexts().collect(ImmutableSet.toImmutableSet()),
-				singleIdCtxs -> {
-					final LookupDataSourceContext multipleIdsCtx = LookupDataSourceContext.mergeToMultipleIds(singleIdCtxs);
-					return delegate.retrieveLookupValueByIdsInOrder(LookupDataSourceContext.mergeToMultipleIds(singleIdCtxs))
-							.getValues()
-							.stream()
-							.collect(ImmutableMap.toImmutableMap(
-									lookupValue -> multipleIdsCtx.withIdToFilter(IdsToFilter.ofSingleValue(lookupValue.getId())),
-									lookupValue -> lookupValue));
-				}
-		);
-		return LookupDataSourceFetcher.super.retrieveLookupValueByIdsInOrder(evalCtx);
+		final ImmutableList<LookupDataSourceContext> singleIdCtxs = evalCtx.streamSingleIdContexts()
+				.map(this::normalizeId)
+				.filter(singleIdCtx -> singleIdCtx.getSingleIdToFilterAsObject() != null)
+				.distinct()
+				.collect(ImmutableList.toImmutableList());
+
+		// Load all missing values with one query.
+		// Also cache the IDs which were not found, else we would query them again, one by one.
+		cache_retrieveLookupValueById.getAllOrLoad(singleIdCtxs, this::retrieveLookupValuesByIds);
+
+		return singleIdCtxs.stream()
+				.map(this::retrieveLookupValueById) // from cache, unless meanwhile evicted
+				.filter(lookupValue -> lookupValue != null && lookupValue != LOOKUPVALUE_NULL)
+				.collect(LookupValuesList.collect());
+	}
+
+	private ImmutableMap<LookupDataSourceContext, LookupValue> retrieveLookupValuesByIds(@NonNull final Set<LookupDataSourceContext> singleIdCtxs)
+	{
+		final HashMap<Object, LookupValue> lookupValuesById = new HashMap<>();
+		for (final LookupValue lookupValue : delegate.retrieveLookupValueByIdsInOrder(LookupDataSourceContext.mergeToMultipleIds(singleIdCtxs)).getValues())
+		{
+			lookupValuesById.putIfAbsent(lookupValue.getId(), lookupValue);
+		}
+
+		final ImmutableMap.Builder<LookupDataSourceContext, LookupValue> result = ImmutableMap.builder();
+		for (final LookupDataSourceContext singleIdCtx : singleIdCtxs)
+		{
+			final LookupValue lookupValue = lookupValuesById.get(singleIdCtx.getSingleIdToFilterAsObject());
+			result.put(singleIdCtx, lookupValue != null ? lookupValue : LOOKUPVALUE_NULL);
+		}
+		return result.build();
+	}
+
+	private LookupDataSourceContext normalizeId(@NonNull final LookupDataSourceContext singleIdCtx)
+	{
+		final Object idNormalized = LookupValue.normalizeId(singleIdCtx.getSingleIdToFilterAsObject(), isNumericKey());
+		return singleIdCtx.withIdToFilter(IdsToFilter.ofSingleValue(idNormalized));
 	}
 
 	@Override
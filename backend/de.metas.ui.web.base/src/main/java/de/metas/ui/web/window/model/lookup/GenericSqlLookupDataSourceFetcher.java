@@ -124,6 +124,12 @@ public class GenericSqlLookupDataSourceFetcher implements LookupDataSourceFetche
 		return lookupTableNameAsOptional;
 	}
 
+	@Override
+	public Optional<Object> getLookupValueByIdCacheKey()
+	{
+		return Optional.of(sqlForFetchingLookupByIdExpression);
+	}
+
 	@Override
 	public boolean isCached()
 	{
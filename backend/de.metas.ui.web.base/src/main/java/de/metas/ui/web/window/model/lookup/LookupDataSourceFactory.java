@@ -132,7 +132,7 @@ public final class LookupDataSourceFactory
 		}
 		else
 		{
-			final CachedLookupDataSourceFetcherAdapter cachedFetcher = CachedLookupDataSourceFetcherAdapter.of(fetcher);
+			final CachedLookupDataSourceFetcherAdapter cachedFetcher = CachedLookupDataSourceFetcherAdapter.of(fetcher, lookupDescriptor.getDependsOnTableNames());
 			lookupDataSource = LookupDataSourceAdapter.of(cachedFetcher);
 		}
 
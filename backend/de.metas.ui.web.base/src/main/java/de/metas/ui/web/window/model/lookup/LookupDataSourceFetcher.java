@@ -79,6 +79,13 @@ public interface LookupDataSourceFetcher
 	default List<CCacheStats> getCacheStats() { return ImmutableList.of(); }
 	//@formatter:on
 
+	/**
+	 * @return a key which is equal for all fetchers that fetch lookup values by ID the same way, so they can share the cached lookup values;
+	 * empty if the lookup values by ID shall be cached per fetcher
+	 * @see SharedLookupValuesByIdCache
+	 */
+	default Optional<Object> getLookupValueByIdCacheKey() { return Optional.empty(); }
+
 	/**
 	 * @return tableName if available
 	 */
@@ -0,0 +1,100 @@
+package de.metas.ui.web.window.model.lookup;
+
+import com.google.common.collect.ImmutableSet;
+import de.metas.cache.CCache;
+import de.metas.cache.CCache.CacheMapType;
+import de.metas.ui.web.window.datatypes.LookupValue;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+import org.adempiere.service.ISysConfigBL;
+
+import java.util.Set;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Caches of lookup values by ID, shared by all {@link CachedLookupDataSourceFetcherAdapter}s which fetch their lookup values by ID the same way
+ * (see {@link LookupDataSourceFetcher#getLookupValueByIdCacheKey()}).
+ * <p>
+ * The cache keys are the single ID contexts, i.e. lookup table name, ID, language and the other parameters which are required to fetch the lookup value.
+ * <p>
+ * Each cache is registered for the lookup table and the lookup's depending tables, so it's invalidated when one of them changes,
+ * even if none of the lookups which use the cache is still around to forward the invalidation (see {@link LookupCacheInvalidationDispatcher}).
+ * <p>
+ * The caches themselves are held in an LRU cache, so lookups which are not used anymore don't keep their caches forever.
+ * A lookup whose cache was evicted keeps using it, but the next lookup with the same key gets a new one.
+ */
+final class SharedLookupValuesByIdCache
+{
+	public static final SharedLookupValuesByIdCache instance = new SharedLookupValuesByIdCache();
+
+	private static final String SYSCONFIG_MaxSize = "webui.lookup.cache.valuesById.maxSize";
+	private static final int DEFAULT_MaxSize = 2000;
+	private static final String SYSCONFIG_MaxCaches = "webui.lookup.cache.valuesById.maxCaches";
+	private static final int DEFAULT_MaxCaches = 500;
+	private static final int EXPIRE_AFTER_MINUTES = 60 * 2;
+
+	private final CCache<CacheKey, CCache<LookupDataSourceContext, LookupValue>> caches = CCache.newLRUCache(
+			SharedLookupValuesByIdCache.class.getSimpleName(),
+			Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxCaches, DEFAULT_MaxCaches),
+			CCache.EXPIREMINUTES_Never); // the caches' entries expire
+
+	private SharedLookupValuesByIdCache()
+	{
+	}
+
+	/**
+	 * @param cachePrefix           the lookup table name
+	 * @param dependsOnTableNames   the tables which the lookup values depend on, apart from the lookup table
+	 */
+	public CCache<LookupDataSourceContext, LookupValue> getCache(
+			@NonNull final String cachePrefix,
+			@NonNull final Set<String> dependsOnTableNames,
+			@NonNull final Object lookupValueByIdCacheKey)
+	{
+		return caches.getOrLoad(CacheKey.of(cachePrefix, ImmutableSet.copyOf(dependsOnTableNames), lookupValueByIdCacheKey), SharedLookupValuesByIdCache::createCache);
+	}
+
+	private static CCache<LookupDataSourceContext, LookupValue> createCache(@NonNull final CacheKey key)
+	{
+		final int maxSize = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_MaxSize, DEFAULT_MaxSize);
+
+		return CCache.<LookupDataSourceContext, LookupValue> builder()
+				.cacheName(key.getCachePrefix() + "#Shared#retrieveLookupValueById")
+				.tableName(key.getCachePrefix())
+				.additionalTableNamesToResetFor(key.getDependsOnTableNames())
+				.initialCapacity(maxSize) // in case of LRU, initialCapacity is used as maxSize
+				.expireMinutes(EXPIRE_AFTER_MINUTES)
+				.cacheMapType(CacheMapType.LRU)
+				.build();
+	}
+
+	@Value(staticConstructor = "of")
+	private static class CacheKey
+	{
+		@NonNull String cachePrefix;
+		@NonNull ImmutableSet<String> dependsOnTableNames;
+		@NonNull Object lookupValueByIdCacheKey;
+	}
+}
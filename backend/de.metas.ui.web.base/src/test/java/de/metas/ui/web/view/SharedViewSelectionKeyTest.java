@@ -0,0 +1,113 @@
+package de.metas.ui.web.view;
+
+import de.metas.security.RoleId;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.view.SharedViewSelections.SharedViewSelectionKey;
+import de.metas.ui.web.view.descriptor.SqlAndParams;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.user.UserId;
+import org.adempiere.service.ClientId;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SharedViewSelectionKeyTest
+{
+	private static final String TABLE_NAME = "C_Order";
+	private static final WindowId WINDOW_ID = WindowId.of(143);
+	private static final UserRolePermissionsKey PERMISSIONS_KEY = UserRolePermissionsKey.of(RoleId.ofRepoId(1000000), UserId.ofRepoId(100), ClientId.ofRepoId(1000000), LocalDate.parse("2022-03-01"));
+
+	private static SqlAndParams sqlCreateSelection(final ViewId viewId, final Object filterParam)
+	{
+		return SqlAndParams.of("INSERT INTO T_WEBUI_ViewSelection (UUID, Line, IntKey1) SELECT ?, row_number() OVER (ORDER BY C_Order_ID), C_Order_ID FROM C_Order WHERE C_BPartner_ID=?", viewId.getViewId(), filterParam);
+	}
+
+	private static SharedViewSelectionKey key(final SqlAndParams sqlCreateSelection, final ViewId viewId)
+	{
+		return SharedViewSelectionKey.of(TABLE_NAME, PERMISSIONS_KEY, viewId, sqlCreateSelection).orElse(null);
+	}
+
+	@Test
+	public void sameSqlForDifferentViews_sameKey()
+	{
+		final ViewId viewId1 = ViewId.random(WINDOW_ID);
+		final ViewId viewId2 = ViewId.random(WINDOW_ID);
+
+		final SharedViewSelectionKey key1 = key(sqlCreateSelection(viewId1, 2156423), viewId1);
+		final SharedViewSelectionKey key2 = key(sqlCreateSelection(viewId2, 2156423), viewId2);
+
+		assertThat(key1).isNotNull();
+		assertThat(key1).isEqualTo(key2);
+		assertThat(key1.hashCode()).isEqualTo(key2.hashCode());
+	}
+
+	@Test
+	public void differentParams_differentKeys()
+	{
+		final ViewId viewId1 = ViewId.random(WINDOW_ID);
+		final ViewId viewId2 = ViewId.random(WINDOW_ID);
+
+		final SharedViewSelectionKey key1 = key(sqlCreateSelection(viewId1, 2156423), viewId1);
+		final SharedViewSelectionKey key2 = key(sqlCreateSelection(viewId2, 2156424), viewId2);
+		final SharedViewSelectionKey key3 = key(sqlCreateSelection(viewId2, "2156423"), viewId2);
+
+		assertThat(key1).isNotEqualTo(key2);
+		assertThat(key1).isNotEqualTo(key3);
+	}
+
+	@Test
+	public void differentPermissions_differentKeys()
+	{
+		final ViewId viewId = ViewId.random(WINDOW_ID);
+		final SqlAndParams sql = sqlCreateSelection(viewId, 2156423);
+		final UserRolePermissionsKey otherPermissionsKey = UserRolePermissionsKey.of(RoleId.ofRepoId(1000001), UserId.ofRepoId(100), ClientId.ofRepoId(1000000), LocalDate.parse("2022-03-01"));
+
+		assertThat(key(sql, viewId))
+				.isNotEqualTo(SharedViewSelectionKey.of(TABLE_NAME, otherPermissionsKey, viewId, sql).orElse(null));
+	}
+
+	@Test
+	public void viewIdUsedInFilter_notShared()
+	{
+		final ViewId viewId = ViewId.random(WINDOW_ID);
+		final SqlAndParams sql = SqlAndParams.of(
+				"INSERT INTO T_WEBUI_ViewSelection (UUID, Line, IntKey1) SELECT ?, row_number() OVER (ORDER BY C_Order_ID), C_Order_ID FROM C_Order WHERE EXISTS (SELECT 1 FROM T_ES_FTS_Search_Result WHERE Search_UUID='" + viewId.getViewId() + "')",
+				viewId.getViewId());
+
+		assertThat(SharedViewSelectionKey.of(TABLE_NAME, PERMISSIONS_KEY, viewId, sql)).isEmpty();
+	}
+
+	@Test
+	public void getSqlCreateSelection_replacesViewId()
+	{
+		final ViewId viewId = ViewId.random(WINDOW_ID);
+		final SharedViewSelectionKey key = key(sqlCreateSelection(viewId, 2156423), viewId);
+
+		final ViewId sharedViewId = ViewId.random(WINDOW_ID);
+		assertThat(key.getSqlCreateSelection(sharedViewId)).isEqualTo(sqlCreateSelection(sharedViewId, 2156423));
+	}
+}
@@ -0,0 +1,194 @@
+package de.metas.ui.web.view;
+
+import com.google.common.collect.ImmutableSet;
+import de.metas.security.RoleId;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.view.SharedViewSelections.SharedViewSelectionKey;
+import de.metas.ui.web.view.descriptor.SqlAndParams;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.user.UserId;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.service.ClientId;
+import org.adempiere.test.AdempiereTestHelper;
+import org.adempiere.util.lang.impl.TableRecordReferenceSet;
+import org.compiere.model.I_C_Order;
+import org.compiere.model.I_C_OrderLine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SharedViewSelectionsTest
+{
+	private static final String TABLE_NAME = "C_Order";
+	private static final WindowId WINDOW_ID = WindowId.of(143);
+	private static final UserRolePermissionsKey PERMISSIONS_KEY = UserRolePermissionsKey.of(RoleId.ofRepoId(1000000), UserId.ofRepoId(100), ClientId.ofRepoId(1000000), LocalDate.parse("2022-03-01"));
+
+	private final List<String> deletedSelectionIds = new ArrayList<>();
+	private final HashMap<String, Set<DocumentId>> rowIdsBySelectionId = new HashMap<>();
+	private int countCreated;
+
+	private SharedViewSelections sharedViewSelections;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		sharedViewSelections = new SharedViewSelections(deletedSelectionIds::addAll);
+	}
+
+	private static SharedViewSelectionKey key(final int bpartnerId)
+	{
+		final ViewId viewId = ViewId.random(WINDOW_ID);
+		final SqlAndParams sqlCreateSelection = SqlAndParams.of(
+				"INSERT INTO T_WEBUI_ViewSelection (UUID, Line, IntKey1) SELECT ?, row_number() OVER (ORDER BY C_Order_ID), C_Order_ID FROM C_Order WHERE C_BPartner_ID=?",
+				viewId.getViewId(),
+				bpartnerId);
+		return SharedViewSelectionKey.of(TABLE_NAME, PERMISSIONS_KEY, viewId, sqlCreateSelection).get();
+	}
+
+	/**
+	 * @param rowIds the rows of the shared selection, if it's created
+	 */
+	private ViewRowIdsOrderedSelection acquire(final SharedViewSelectionKey key, final Integer... rowIds)
+	{
+		return sharedViewSelections.acquire(
+				key,
+				k -> {
+					countCreated++;
+					final ViewRowIdsOrderedSelection selection = ViewRowIdsOrderedSelection.builder()
+							.viewId(ViewId.random(WINDOW_ID))
+							.size(rowIds.length)
+							.build();
+					rowIdsBySelectionId.put(selection.getSelectionId(), DocumentIdsSelection.ofIntSet(ImmutableSet.copyOf(rowIds)).toSet());
+					return selection;
+				},
+				(selection, rowIdsToCheck) -> rowIdsToCheck.toSet().stream().anyMatch(rowIdsBySelectionId.get(selection.getSelectionId())::contains));
+	}
+
+	@Test
+	public void sameFilters_createdOnceAndReadByAllViews()
+	{
+		final ViewRowIdsOrderedSelection selection1 = acquire(key(1), 10, 11);
+		final ViewRowIdsOrderedSelection selection2 = acquire(key(1), 10, 11);
+		final ViewRowIdsOrderedSelection otherSelection = acquire(key(2), 20);
+
+		assertThat(countCreated).isEqualTo(2);
+		assertThat(selection1.getSelectionId()).isEqualTo(selection2.getSelectionId());
+		assertThat(otherSelection.getSelectionId()).isNotEqualTo(selection1.getSelectionId());
+		assertThat(sharedViewSelections.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void dropped_deletedWhenNotReadAnymore()
+	{
+		final String selectionId = acquire(key(1), 10).getSelectionId();
+		acquire(key(1), 10);
+
+		sharedViewSelections.invalidateBySelectionId(selectionId);
+		assertThat(sharedViewSelections.size()).isZero();
+		assertThat(deletedSelectionIds).isEmpty();
+
+		// a new view does not read the dropped selection
+		assertThat(acquire(key(1), 10).getSelectionId()).isNotEqualTo(selectionId);
+		assertThat(countCreated).isEqualTo(2);
+
+		assertThat(sharedViewSelections.releaseIfShared(selectionId)).isTrue();
+		assertThat(deletedSelectionIds).isEmpty();
+
+		assertThat(sharedViewSelections.releaseIfShared(selectionId)).isTrue();
+		assertThat(deletedSelectionIds).containsExactly(selectionId);
+
+		// it's not a shared selection anymore
+		assertThat(sharedViewSelections.releaseIfShared(selectionId)).isFalse();
+	}
+
+	@Test
+	public void notDropped_notDeletedWhenNotReadAnymore()
+	{
+		final String selectionId = acquire(key(1), 10).getSelectionId();
+
+		assertThat(sharedViewSelections.releaseIfShared(selectionId)).isTrue();
+
+		assertThat(deletedSelectionIds).isEmpty();
+		assertThat(acquire(key(1), 10).getSelectionId()).isEqualTo(selectionId);
+	}
+
+	@Test
+	public void releaseIfShared_ownSelection()
+	{
+		assertThat(sharedViewSelections.releaseIfShared(ViewId.random(WINDOW_ID).getViewId())).isFalse();
+	}
+
+	@Test
+	public void invalidateByRecords_onlySelectionsWhichContainTheChangedRecords()
+	{
+		final String selectionId1 = acquire(key(1), 10, 11).getSelectionId();
+		final String selectionId2 = acquire(key(2), 20).getSelectionId();
+
+		sharedViewSelections.invalidateByRecords(TableRecordReferenceSet.of("C_OrderLine", 20));
+		sharedViewSelections.invalidateByRecords(TableRecordReferenceSet.of(TABLE_NAME, 99));
+		assertThat(sharedViewSelections.size()).isEqualTo(2);
+
+		sharedViewSelections.invalidateByRecords(TableRecordReferenceSet.of(TABLE_NAME, 20));
+		assertThat(sharedViewSelections.size()).isEqualTo(1);
+		assertThat(acquire(key(1), 10, 11).getSelectionId()).isEqualTo(selectionId1);
+		assertThat(acquire(key(2), 20).getSelectionId()).isNotEqualTo(selectionId2);
+	}
+
+	@Test
+	public void invalidateBySelectionIdIfContainsAnyOfRowIds()
+	{
+		final String selectionId = acquire(key(1), 10, 11).getSelectionId();
+
+		sharedViewSelections.invalidateBySelectionIdIfContainsAnyOfRowIds(selectionId, DocumentIdsSelection.ofIntSet(ImmutableSet.of(12, 13)));
+		assertThat(acquire(key(1), 10, 11).getSelectionId()).isEqualTo(selectionId);
+
+		sharedViewSelections.invalidateBySelectionIdIfContainsAnyOfRowIds(selectionId, DocumentIdsSelection.ofIntSet(ImmutableSet.of(11, 12)));
+		assertThat(acquire(key(1), 10, 11).getSelectionId()).isNotEqualTo(selectionId);
+	}
+
+	@Test
+	public void recordCreated_dropsSharedSelectionsOfThatTable()
+	{
+		final String selectionId1 = acquire(key(1), 10).getSelectionId();
+		acquire(key(2), 20);
+
+		InterfaceWrapperHelper.saveRecord(InterfaceWrapperHelper.newInstance(I_C_OrderLine.class));
+		assertThat(sharedViewSelections.size()).isEqualTo(2);
+
+		InterfaceWrapperHelper.saveRecord(InterfaceWrapperHelper.newInstance(I_C_Order.class));
+		assertThat(sharedViewSelections.size()).isZero();
+		assertThat(acquire(key(1), 10).getSelectionId()).isNotEqualTo(selectionId1);
+	}
+}
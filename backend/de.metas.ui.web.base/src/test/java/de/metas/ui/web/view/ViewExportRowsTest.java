@@ -0,0 +1,175 @@
+package de.metas.ui.web.view;
+
+import com.google.common.collect.ImmutableList;
+import de.metas.impexp.spreadsheet.excel.CellValue;
+import de.metas.ui.web.view.descriptor.ViewLayout;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.descriptor.DocumentLayoutElementDescriptor;
+import de.metas.ui.web.window.descriptor.DocumentLayoutElementFieldDescriptor;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewExportRowsTest
+{
+	private static final String FIELD_NAME = "Name";
+	private static final int PAGE_SIZE = 3;
+
+	private IView view;
+	private ViewLayout layout;
+
+	/**
+	 * First rows of the pages which were retrieved from the view, including the prefetched ones
+	 */
+	private final List<Integer> retrievedPagesFirstRows = Collections.synchronizedList(new ArrayList<>());
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+
+		layout = mock(ViewLayout.class);
+		when(layout.getElements()).thenReturn(ImmutableList.of(DocumentLayoutElementDescriptor.builder()
+				.setCaption(FIELD_NAME)
+				.setWidgetType(DocumentFieldWidgetType.Text)
+				.addField(DocumentLayoutElementFieldDescriptor.builder(FIELD_NAME))
+				.build()));
+	}
+
+	private void givenViewWithRowsCount(final int rowsCount)
+	{
+		view = mock(IView.class);
+		when(view.size()).thenReturn((long)rowsCount);
+		when(view.getPage(anyInt(), anyInt(), any(ViewRowsOrderBy.class))).thenAnswer(invocation -> {
+			final int firstRow = invocation.getArgument(0);
+			final int pageLength = invocation.getArgument(1);
+			retrievedPagesFirstRows.add(firstRow);
+
+			final List<IViewRow> rows = IntStream.range(firstRow, Math.min(firstRow + pageLength, rowsCount))
+					.mapToObj(ViewExportRowsTest::row)
+					.collect(Collectors.toList());
+			return ViewResult.ofViewAndPage(view, firstRow, pageLength, DocumentQueryOrderByList.EMPTY, rows);
+		});
+	}
+
+	private static IViewRow row(final int rowIndex)
+	{
+		final IViewRow row = mock(IViewRow.class);
+		when(row.getFieldValueAsJsonObject(eq(FIELD_NAME), any(JSONOptions.class))).thenReturn("row" + rowIndex);
+		return row;
+	}
+
+	private ViewExportRows exportAllRows()
+	{
+		return ViewExportRows.builder()
+				.view(view)
+				.rowIds(DocumentIdsSelection.ALL)
+				.layout(layout)
+				.jsonOpts(JSONOptions.newInstance())
+				.pageSize(PAGE_SIZE)
+				.build();
+	}
+
+	private static String nextRowName(final ViewExportRows exportRows)
+	{
+		final List<CellValue> row = exportRows.nextRow();
+		assertThat(row).hasSize(1);
+		return row.get(0).stringValue();
+	}
+
+	@Test
+	public void allRowsInOrder_acrossPageBoundaries()
+	{
+		givenViewWithRowsCount(8);
+
+		final List<String> rowNames = new ArrayList<>();
+		try (final ViewExportRows exportRows = exportAllRows())
+		{
+			assertThat(exportRows.getRowCount()).isEqualTo(8);
+			while (exportRows.hasNextRow())
+			{
+				rowNames.add(nextRowName(exportRows));
+			}
+		}
+
+		assertThat(rowNames).containsExactly("row0", "row1", "row2", "row3", "row4", "row5", "row6", "row7");
+
+		// each page is retrieved once, no page is retrieved after the last one
+		assertThat(retrievedPagesFirstRows).containsExactlyInAnyOrder(0, 3, 6);
+	}
+
+	@Test
+	public void rowsCountIsMultipleOfPageSize()
+	{
+		givenViewWithRowsCount(6);
+
+		final List<String> rowNames = new ArrayList<>();
+		try (final ViewExportRows exportRows = exportAllRows())
+		{
+			while (exportRows.hasNextRow())
+			{
+				rowNames.add(nextRowName(exportRows));
+			}
+		}
+
+		assertThat(rowNames).containsExactly("row0", "row1", "row2", "row3", "row4", "row5");
+		assertThat(retrievedPagesFirstRows).containsExactlyInAnyOrder(0, 3);
+	}
+
+	@Test
+	public void closedEarly_noFurtherPagesAreRetrieved() throws InterruptedException
+	{
+		givenViewWithRowsCount(30);
+
+		try (final ViewExportRows exportRows = exportAllRows())
+		{
+			assertThat(nextRowName(exportRows)).isEqualTo("row0");
+			assertThat(nextRowName(exportRows)).isEqualTo("row1");
+		}
+
+		// give a (wrongly) running prefetch the chance to retrieve more pages
+		TimeUnit.MILLISECONDS.sleep(200);
+
+		// the first page and at most the prefetched second one
+		assertThat(retrievedPagesFirstRows).contains(0).isSubsetOf(0, 3);
+	}
+}
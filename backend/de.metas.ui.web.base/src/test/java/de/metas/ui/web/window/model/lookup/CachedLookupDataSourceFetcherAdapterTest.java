@@ -0,0 +1,224 @@
+package de.metas.ui.web.window.model.lookup;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import de.metas.cache.CacheMgt;
+import de.metas.ui.web.window.datatypes.LookupValue;
+import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
+import de.metas.ui.web.window.datatypes.LookupValuesList;
+import de.metas.ui.web.window.datatypes.LookupValuesPage;
+import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2022 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CachedLookupDataSourceFetcherAdapterTest
+{
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	@Test
+	public void findByIdsOrdered_loadsMissingValuesWithOneQuery()
+	{
+		final MockedFetcher fetcher = new MockedFetcher("Test_Table1", "sharedKey1");
+		final LookupDataSource lookupDataSource = LookupDataSourceAdapter.of(CachedLookupDataSourceFetcherAdapter.of(fetcher));
+
+		assertThat(lookupDataSource.findByIdsOrdered(ImmutableList.of(3, 1, 2)).getKeysAsInt()).containsExactly(3, 1, 2);
+		assertThat(fetcher.byIdsQueries).hasSize(1);
+		assertThat(fetcher.byIdsQueries.get(0)).containsExactlyInAnyOrder(3, 1, 2);
+
+		assertThat(lookupDataSource.findByIdsOrdered(ImmutableList.of("2", 4)).getKeysAsInt()).containsExactly(2, 4);
+		assertThat(fetcher.byIdsQueries).hasSize(2);
+		assertThat(fetcher.byIdsQueries.get(1)).containsExactly(4);
+
+		assertThat(lookupDataSource.findById(1)).isEqualTo(IntegerLookupValue.of(1, "name1"));
+		assertThat(fetcher.byIdQueries).isEmpty();
+	}
+
+	@Test
+	public void findByIdsOrdered_cachesNotFoundIds()
+	{
+		final MockedFetcher fetcher = new MockedFetcher("Test_Table2", "sharedKey2");
+		fetcher.notFoundId = 2;
+		final LookupDataSource lookupDataSource = LookupDataSourceAdapter.of(CachedLookupDataSourceFetcherAdapter.of(fetcher));
+
+		assertThat(lookupDataSource.findByIdsOrdered(ImmutableList.of(1, 2, 3)).getKeysAsInt()).containsExactly(1, 3);
+		assertThat(lookupDataSource.findByIdsOrdered(ImmutableList.of(1, 2, 3)).getKeysAsInt()).containsExactly(1, 3);
+		assertThat(lookupDataSource.findById(2)).isNull();
+
+		assertThat(fetcher.byIdsQueries).hasSize(1);
+		assertThat(fetcher.byIdQueries).isEmpty();
+	}
+
+	@Test
+	public void fetchersWithSameCacheKey_shareLookupValues()
+	{
+		final MockedFetcher fetcher1 = new MockedFetcher("Test_Table3", "sharedKey3");
+		final MockedFetcher fetcher2 = new MockedFetcher("Test_Table3", "sharedKey3");
+		final MockedFetcher fetcherWithOtherKey = new MockedFetcher("Test_Table3", "otherKey3");
+
+		LookupDataSourceAdapter.of(CachedLookupDataSourceFetcherAdapter.of(fetcher1)).findByIdsOrdered(ImmutableList.of(1, 2));
+		LookupDataSourceAdapter.of(CachedLookupDataSourceFetcherAdapter.of(fetcher2)).findByIdsOrdered(ImmutableList.of(1, 2));
+		LookupDataSourceAdapter.of(CachedLookupDataSourceFetcherAdapter.of(fetcherWithOtherKey)).findByIdsOrdered(ImmutableList.of(1, 2));
+
+		assertThat(fetcher1.byIdsQueries).hasSize(1);
+		assertThat(fetcher2.byIdsQueries).isEmpty();
+		assertThat(fetcherWithOtherKey.byIdsQueries).hasSize(1);
+	}
+
+	@Test
+	public void sharedLookupValues_invalidatedWhenLookupOrDependsOnTableChanges()
+	{
+		final MockedFetcher fetcher1 = new MockedFetcher("Test_Table4", "sharedKey4");
+		final MockedFetcher fetcher2 = new MockedFetcher("Test_Table4", "sharedKey4");
+		final ImmutableSet<String> dependsOnTableNames = ImmutableSet.of("Test_DependsOn4");
+
+		LookupDataSourceAdapter.of(CachedLookupDataSourceFetcherAdapter.of(fetcher1, dependsOnTableNames)).findByIdsOrdered(ImmutableList.of(1, 2));
+		final LookupDataSource lookupDataSource2 = LookupDataSourceAdapter.of(CachedLookupDataSourceFetcherAdapter.of(fetcher2, dependsOnTableNames));
+		lookupDataSource2.findByIdsOrdered(ImmutableList.of(1, 2));
+		assertThat(fetcher2.byIdsQueries).isEmpty();
+
+		CacheMgt.get().reset("Test_DependsOn4");
+		lookupDataSource2.findByIdsOrdered(ImmutableList.of(1, 2));
+		assertThat(fetcher2.byIdsQueries).hasSize(1);
+
+		CacheMgt.get().reset("Test_Table4");
+		lookupDataSource2.findByIdsOrdered(ImmutableList.of(1, 2));
+		assertThat(fetcher2.byIdsQueries).hasSize(2);
+	}
+
+	private static class MockedFetcher implements LookupDataSourceFetcher
+	{
+		private final String tableName;
+		private final String lookupValueByIdCacheKey;
+
+		@Nullable
+		private Integer notFoundId = null;
+
+		private final List<List<Object>> byIdsQueries = new ArrayList<>();
+		private final List<Object> byIdQueries = new ArrayList<>();
+
+		private MockedFetcher(@NonNull final String tableName, @NonNull final String lookupValueByIdCacheKey)
+		{
+			this.tableName = tableName;
+			this.lookupValueByIdCacheKey = lookupValueByIdCacheKey;
+		}
+
+		@Override
+		public boolean isNumericKey()
+		{
+			return true;
+		}
+
+		@Override
+		public LookupDataSourceContext.Builder newContextForFetchingById(final Object id)
+		{
+			return LookupDataSourceContext.builder(tableName)
+					.putFilterById(IdsToFilter.ofSingleValue(id));
+		}
+
+		@Override
+		public LookupValue retrieveLookupValueById(@NonNull final LookupDataSourceContext evalCtx)
+		{
+			final Object id = evalCtx.getSingleIdToFilterAsObject();
+			byIdQueries.add(id);
+			return id.equals(notFoundId) ? LOOKUPVALUE_NULL : toLookupValue((Integer)id);
+		}
+
+		@Override
+		public LookupValuesList retrieveLookupValueByIdsInOrder(@NonNull final LookupDataSourceContext evalCtx)
+		{
+			final ImmutableList<Object> ids = evalCtx.getIdsToFilter().toImmutableList();
+			byIdsQueries.add(ids);
+			return ids.stream()
+					.filter(id -> !id.equals(notFoundId))
+					.map(id -> toLookupValue((Integer)id))
+					.collect(LookupValuesList.collect());
+		}
+
+		private static LookupValue toLookupValue(final int id)
+		{
+			return IntegerLookupValue.of(id, "name" + id);
+		}
+
+		@Override
+		public LookupDataSourceContext.Builder newContextForFetchingList()
+		{
+			return LookupDataSourceContext.builder(tableName);
+		}
+
+		@Override
+		public LookupValuesPage retrieveEntities(final LookupDataSourceContext evalCtx)
+		{
+			return LookupValuesPage.EMPTY;
+		}
+
+		@Override
+		public boolean isCached()
+		{
+			return false;
+		}
+
+		@Override
+		public String getCachePrefix()
+		{
+			return tableName;
+		}
+
+		@Override
+		public Optional<Object> getLookupValueByIdCacheKey()
+		{
+			return Optional.of(lookupValueByIdCacheKey);
+		}
+
+		@Override
+		public Optional<String> getLookupTableName()
+		{
+			return Optional.of(tableName);
+		}
+
+		@Override
+		public Optional<WindowId> getZoomIntoWindowId()
+		{
+			return Optional.empty();
+		}
+
+		@Override
+		public void cacheInvalidate()
+		{
+		}
+	}
+}
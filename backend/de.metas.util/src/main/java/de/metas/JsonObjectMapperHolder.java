@@ -1,5 +1,6 @@
 package de.metas;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -7,6 +8,7 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.guava.GuavaModule;
 import com.google.common.annotations.VisibleForTesting;
 import de.metas.util.Check;
+import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 import org.adempiere.util.lang.ExtendedMemorizingSupplier;
 import org.slf4j.Logger;
@@ -53,19 +55,33 @@ public class JsonObjectMapperHolder
 	private static final ExtendedMemorizingSupplier<ObjectMapper> sharedJsonObjectMapper = ExtendedMemorizingSupplier.of(JsonObjectMapperHolder::newJsonObjectMapper);
 
 	public static ObjectMapper newJsonObjectMapper()
+	{
+		return newObjectMapper(new ObjectMapper());
+	}
+
+	/**
+	 * @param jsonFactory factory of another data format than JSON, e.g. a binary one
+	 * @return a new object mapper for the given data format, configured like the JSON one
+	 */
+	public static ObjectMapper newObjectMapper(@NonNull final JsonFactory jsonFactory)
+	{
+		return newObjectMapper(new ObjectMapper(jsonFactory));
+	}
+
+	private static ObjectMapper newObjectMapper(final ObjectMapper emptyObjectMapper)
 	{
 		// important to register the jackson-datatype-jsr310 module which we have in our pom and
 		// which is needed to serialize/deserialize java.time.Instant
 		Check.assumeNotNull(com.fasterxml.jackson.datatype.jsr310.JavaTimeModule.class, ""); // just to get a compile error if not present
 
-		final ObjectMapper objectMapper = new ObjectMapper()
+		final ObjectMapper objectMapper = emptyObjectMapper
 				.findAndRegisterModules()
 				.registerModule(new GuavaModule())
 				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
 				.disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE)
 				.enable(MapperFeature.USE_ANNOTATIONS);
 
-		logger.info("Created a new JSON ObjectMapper: {} \nRegistered modules: {}", objectMapper, objectMapper.getRegisteredModuleIds());
+		logger.info("Created a new ObjectMapper for {}: {} \nRegistered modules: {}", objectMapper.getFactory().getFormatName(), objectMapper, objectMapper.getRegisteredModuleIds());
 
 		return objectMapper;
 	}
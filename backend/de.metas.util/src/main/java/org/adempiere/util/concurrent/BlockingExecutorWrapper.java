@@ -47,13 +47,17 @@ public class BlockingExecutorWrapper implements ExecutorService
 
 	private @NonNull Logger logger;
 
+	/**
+	 * @param maxConcurrency max number of commands which are executed at the same time; further {@link #execute(Runnable)} calls block.
+	 *                       It doesn't need to match the delegate's pool size, as long as the delegate can always take a command.
+	 */
 	@Builder
 	private BlockingExecutorWrapper(
-			final int poolSize,
+			final int maxConcurrency,
 			@NonNull final ThreadPoolExecutor delegate,
 			@NonNull final Logger loggerToUse)
 	{
-		this.semaphore = new Semaphore(poolSize);
+		this.semaphore = new Semaphore(maxConcurrency);
 		this.delegate = delegate;
 		this.logger = loggerToUse;
 	}
@@ -117,4 +121,9 @@ public class BlockingExecutorWrapper implements ExecutorService
 	{
 		return semaphore.availablePermits() > 0;
 	}
+
+	public int getAvailablePermits()
+	{
+		return semaphore.availablePermits();
+	}
 }
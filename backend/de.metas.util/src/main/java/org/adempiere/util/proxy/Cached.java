@@ -80,4 +80,12 @@ public @interface Cached
 	 * <li>greater than ZERO - minutes to expire
 	 */
 	int expireMinutes() default -1;
+
+	/**
+	 * Optional: approximate maximum bytes retained by the cached results.
+	 *
+	 * If greater than ZERO, the cache is bounded by the results' approximate size instead of their count
+	 * and counts towards the global cache memory budget. Use it for methods which return big objects, like models.
+	 */
+	long maxWeightBytes() default 0;
 }